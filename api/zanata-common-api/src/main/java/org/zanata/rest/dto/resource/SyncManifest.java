@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.dto.resource;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+import com.webcohesion.enunciate.metadata.Label;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonPropertyOrder;
+import org.zanata.rest.dto.DTOUtil;
+
+/**
+ * Content hashes for every document in a project version, and for its
+ * translations in the requested locales. Clients compare these with the
+ * hashes recorded at their last sync to find documents which have changed.
+ */
+@XmlType(name = "syncManifestType", propOrder = { "entries" })
+@XmlRootElement(name = "sync-manifest")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({ "entries" })
+@Label("Sync Manifest")
+public class SyncManifest implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private List<SyncManifestEntry> entries;
+
+    /**
+     * One entry per source document, plus one per document and locale.
+     */
+    @XmlElement(name = "entry")
+    public List<SyncManifestEntry> getEntries() {
+        if (entries == null) {
+            entries = new ArrayList<SyncManifestEntry>();
+        }
+        return entries;
+    }
+
+    public void setEntries(List<SyncManifestEntry> entries) {
+        this.entries = entries;
+    }
+
+    @Override
+    public String toString() {
+        return DTOUtil.toXML(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SyncManifest)) {
+            return false;
+        }
+        return getEntries().equals(((SyncManifest) o).getEntries());
+    }
+
+    @Override
+    public int hashCode() {
+        return getEntries().hashCode();
+    }
+}
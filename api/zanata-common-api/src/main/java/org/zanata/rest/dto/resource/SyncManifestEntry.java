@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.dto.resource;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlType;
+
+import com.webcohesion.enunciate.metadata.DocumentationExample;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonPropertyOrder;
+
+/**
+ * Content hash of a source document, or of its translations in one locale.
+ *
+ * @see SyncManifest
+ */
+@XmlType(name = "syncManifestEntryType")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({ "docId", "locale", "hash" })
+public class SyncManifestEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String docId;
+    private @Nullable String locale;
+    private String hash;
+
+    public SyncManifestEntry() {
+    }
+
+    public SyncManifestEntry(String docId, @Nullable String locale,
+            String hash) {
+        this.docId = docId;
+        this.locale = locale;
+        this.hash = hash;
+    }
+
+    /**
+     * Document identifier.
+     */
+    @XmlAttribute
+    @DocumentationExample("path/to/document.txt")
+    public String getDocId() {
+        return docId;
+    }
+
+    public void setDocId(String docId) {
+        this.docId = docId;
+    }
+
+    /**
+     * Translation locale, or null if this entry is for the source document.
+     */
+    @XmlAttribute
+    @DocumentationExample("es-ES")
+    public @Nullable String getLocale() {
+        return locale;
+    }
+
+    public void setLocale(@Nullable String locale) {
+        this.locale = locale;
+    }
+
+    /**
+     * Opaque value which changes whenever the document (or translation)
+     * changes. It is the same value as the ETag of the corresponding
+     * resource.
+     */
+    @XmlAttribute
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SyncManifestEntry that = (SyncManifestEntry) o;
+        return Objects.equals(docId, that.docId) &&
+                Objects.equals(locale, that.locale) &&
+                Objects.equals(hash, that.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(docId, locale, hash);
+    }
+}
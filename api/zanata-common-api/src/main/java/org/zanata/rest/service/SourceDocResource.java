@@ -37,8 +37,10 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import com.webcohesion.enunciate.metadata.rs.ResourceLabel;
+import org.zanata.common.LocaleId;
 import org.zanata.rest.dto.resource.Resource;
 import org.zanata.rest.dto.resource.ResourceMeta;
+import org.zanata.rest.dto.resource.SyncManifest;
 
 import com.webcohesion.enunciate.metadata.rs.TypeHint;
 
@@ -61,6 +63,7 @@ public interface SourceDocResource {
     String SERVICE_PATH = ProjectIterationResource.SERVICE_PATH;
     String RESOURCE_PATH = "/r";
     String DOCID_RESOURCE_PATH = "/resource";
+    String SYNC_MANIFEST_PATH = "/manifest";
 
     String RESOURCE_SLUG_REGEX =
             "[\\-_a-zA-Z0-9]+([a-zA-Z0-9_\\-,{.}]*[a-zA-Z0-9]+)?";
@@ -452,4 +455,33 @@ public interface SourceDocResource {
             @QueryParam("docId") @DefaultValue("") String docId,
             @QueryParam("ext") Set<String> extensions);
 
+    /**
+     * Retrieves content hashes for all the documents in a Project iteration,
+     * and for their translations in the given locales, so that clients can
+     * tell which documents have changed since they last synchronised without
+     * fetching each one.
+     *
+     * @param extensions
+     *            The document extensions which the client uses (e.g.
+     *            "gettext", "comment"). This parameter allows multiple values
+     *            e.g. "ext=gettext&ext=comment".
+     * @param locales
+     *            The locales to include translation hashes for. This parameter
+     *            allows multiple values e.g. "locale=de&locale=fr".
+     * @return The following response status codes will be returned from this
+     *         operation:<br>
+     *         OK(200) - Response containing the sync manifest. Each source
+     *         hash equals the document's ETag, and each translation hash the
+     *         ETag of the document's translations in that locale.<br>
+     *         NOT FOUND(404) - If a Project iteration could not be found with
+     *         the given parameters.<br>
+     *         INTERNAL SERVER ERROR(500) - If there is an unexpected error in
+     *         the server while performing this operation.
+     */
+    @GET
+    @Path(SYNC_MANIFEST_PATH)
+    @TypeHint(SyncManifest.class)
+    public Response getSyncManifest(@QueryParam("ext") Set<String> extensions,
+            @QueryParam("locale") Set<LocaleId> locales);
+
 }
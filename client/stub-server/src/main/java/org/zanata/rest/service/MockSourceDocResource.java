@@ -30,8 +30,11 @@ import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.Response;
 
+import org.zanata.common.LocaleId;
 import org.zanata.rest.dto.resource.Resource;
 import org.zanata.rest.dto.resource.ResourceMeta;
+import org.zanata.rest.dto.resource.SyncManifest;
+import org.zanata.rest.dto.resource.SyncManifestEntry;
 
 /**
  * @author Patrick Huang <a
@@ -123,5 +126,18 @@ public class MockSourceDocResource implements SourceDocResource {
             String docId, Set<String> extensions) {
         return MockResourceUtil.notUsedByClient();
     }
-}
 
+    @Override
+    public Response getSyncManifest(Set<String> extensions,
+            Set<LocaleId> locales) {
+        MockResourceUtil.validateExtensions(extensions);
+        SyncManifest manifest = new SyncManifest();
+        manifest.getEntries()
+                .add(new SyncManifestEntry("about-fedora", null, "1"));
+        for (LocaleId locale : locales) {
+            manifest.getEntries().add(new SyncManifestEntry("about-fedora",
+                    locale.getId(), "1"));
+        }
+        return Response.ok(manifest).build();
+    }
+}
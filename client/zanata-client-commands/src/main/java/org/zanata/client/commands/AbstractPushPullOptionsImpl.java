@@ -21,6 +21,8 @@
 
 package org.zanata.client.commands;
 
+import java.io.File;
+
 import com.google.common.collect.ImmutableSet;
 import org.kohsuke.args4j.Option;
 import org.zanata.client.config.LocaleList;
@@ -40,11 +42,16 @@ public abstract class AbstractPushPullOptionsImpl<O extends PushPullOptions>
 
     private static final String DEF_FROM_DOC = null;
     private static final boolean DEFAULT_DRY_RUN = false;
+    private static final int DEFAULT_THREADS = 1;
+    private static final boolean DEFAULT_INCREMENTAL = false;
 
     protected String[] locales;
     private LocaleList effectiveLocales;
     private String fromDoc = DEF_FROM_DOC;
     private boolean dryRun = DEFAULT_DRY_RUN;
+    private int threads = DEFAULT_THREADS;
+    private boolean incremental = DEFAULT_INCREMENTAL;
+    private File cacheDir = new File(".");
 
     /**
      * Override the parent method as the push and pull commands can have locales
@@ -105,6 +112,46 @@ public abstract class AbstractPushPullOptionsImpl<O extends PushPullOptions>
         this.dryRun = dryRun;
     }
 
+    @Override
+    public int getThreads() {
+        return threads;
+    }
+
+    @Option(name = "--threads", metaVar = "N",
+            usage = "Number of documents to transfer concurrently (default 1).\n"
+                    + "Console output stays in document order, and the operation stops at the first error.")
+    public
+            void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                    "--threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    @Override
+    public boolean getIncremental() {
+        return incremental;
+    }
+
+    @Option(name = "--incremental",
+            usage = "Only transfer documents which have changed since the last sync.\n"
+                    + "Hashes from the last sync are kept in the cache directory and compared with the server's.\n"
+                    + "Default is " + DEFAULT_INCREMENTAL + ".")
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    @Option(name = "--cache-dir", metaVar = "DIR", usage = "The base directory for storing zanata cache files. Default is current directory.")
+    public void setCacheDir(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    @Override
+    public File getCacheDir() {
+        return this.cacheDir;
+    }
+
     @Override
     public boolean getEnableModules() {
         // modules are currently only supported by Maven Mojos:
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.client.commands;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs per-document tasks on a fixed number of threads, but reports them (log
+ * output and completion callbacks) on the calling thread in the order they
+ * were submitted.
+ * <p>
+ * At most twice as many tasks as threads are outstanding at once, so callers
+ * which load documents before submitting them hold a bounded number in
+ * memory. The first task to fail stops the pipeline: tasks which have not
+ * started are skipped, running tasks can stop early via
+ * {@link #checkNotFailed()}, and the caller gets a
+ * {@link DocumentPipelineException} naming the first document which was not
+ * completed.
+ *
+ * @see PipelineLog
+ */
+public class DocumentPipeline implements AutoCloseable {
+    private static final long POLL_MILLIS = 100;
+    private final ExecutorService executor;
+    private final int maxOutstanding;
+    private final Deque<Entry> outstanding = new ArrayDeque<>();
+    private final AtomicReference<Throwable> firstFailure =
+            new AtomicReference<>();
+
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    public DocumentPipeline(int threads, String threadNamePrefix) {
+        this.executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder()
+                        .setNameFormat(threadNamePrefix + "-%d")
+                        .setDaemon(true).build());
+        this.maxOutstanding = threads * 2;
+    }
+
+    /**
+     * Queues a task, first waiting for (and reporting) earlier tasks if too
+     * many are outstanding.
+     *
+     * @param docName
+     *            the document the task works on
+     * @param task
+     *            the work to run on a pipeline thread
+     * @param onComplete
+     *            run on the calling thread after the task has completed
+     *            successfully and its log output has been written
+     * @throws DocumentPipelineException
+     *             if any task has failed
+     */
+    public void submit(String docName, Task task, Runnable onComplete) {
+        while (outstanding.size() >= maxOutstanding) {
+            completeOldest();
+        }
+        if (firstFailure.get() != null) {
+            throw failure(docName);
+        }
+        Entry entry = new Entry(docName, onComplete);
+        entry.future = executor.submit(() -> {
+            if (firstFailure.get() != null) {
+                return null;
+            }
+            PipelineLog.startBuffering();
+            boolean succeeded = false;
+            try {
+                task.run();
+                succeeded = true;
+            } catch (Exception | Error e) {
+                firstFailure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                entry.messages = PipelineLog.stopBuffering();
+                entry.succeeded = succeeded;
+            }
+            return null;
+        });
+        outstanding.add(entry);
+    }
+
+    public void submit(String docName, Task task) {
+        submit(docName, task, () -> {
+        });
+    }
+
+    /**
+     * Waits for and reports all outstanding tasks.
+     *
+     * @throws DocumentPipelineException
+     *             if any task has failed
+     */
+    public void finish() {
+        while (!outstanding.isEmpty()) {
+            completeOldest();
+        }
+    }
+
+    /**
+     * For use by running tasks: throws if another task has failed, so that
+     * the pipeline can stop as soon as possible.
+     */
+    public void checkNotFailed() {
+        if (firstFailure.get() != null) {
+            throw new IllegalStateException(
+                    "stopped because another document failed");
+        }
+    }
+
+    /**
+     * Records a failure on the calling thread, eg while loading the document
+     * to be submitted next.
+     *
+     * @return the exception for the caller to throw
+     */
+    public DocumentPipelineException fail(String docName, Throwable cause) {
+        firstFailure.compareAndSet(null, cause);
+        return failure(docName);
+    }
+
+    private void completeOldest() {
+        Entry entry = outstanding.peek();
+        while (!entry.future.isDone()) {
+            if (firstFailure.get() != null) {
+                throw failure(entry.docName);
+            }
+            try {
+                entry.future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // check for failures in any task, then wait again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DocumentPipelineException(entry.docName, e);
+            }
+        }
+        if (!entry.succeeded) {
+            throw failure(entry.docName);
+        }
+        outstanding.remove();
+        replay(entry);
+        entry.onComplete.run();
+    }
+
+    /**
+     * Reports the tasks which completed before the failure, and the output
+     * of the next task (which may have been the one to fail).
+     *
+     * @param nextDoc
+     *            the document to be submitted next
+     */
+    private DocumentPipelineException failure(String nextDoc) {
+        while (!outstanding.isEmpty() && outstanding.peek().succeeded) {
+            Entry entry = outstanding.remove();
+            replay(entry);
+            entry.onComplete.run();
+        }
+        String firstIncompleteDoc = nextDoc;
+        if (!outstanding.isEmpty()) {
+            Entry entry = outstanding.peek();
+            firstIncompleteDoc = entry.docName;
+            if (entry.future.isDone()) {
+                replay(entry);
+            }
+        }
+        return new DocumentPipelineException(firstIncompleteDoc,
+                firstFailure.get());
+    }
+
+    private static void replay(Entry entry) {
+        for (Runnable message : entry.messages) {
+            message.run();
+        }
+        entry.messages = Collections.emptyList();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static class Entry {
+        private final String docName;
+        private final Runnable onComplete;
+        private Future<?> future;
+        private volatile boolean succeeded;
+        // written by the task thread before succeeded
+        private volatile List<Runnable> messages = Collections.emptyList();
+
+        Entry(String docName, Runnable onComplete) {
+            this.docName = docName;
+            this.onComplete = onComplete;
+        }
+    }
+
+    /**
+     * Thrown when a pipeline task has failed.
+     */
+    public static class DocumentPipelineException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final String firstIncompleteDoc;
+
+        DocumentPipelineException(String firstIncompleteDoc,
+                Throwable cause) {
+            super(cause.getMessage(), cause);
+            this.firstIncompleteDoc = firstIncompleteDoc;
+        }
+
+        /**
+         * @return the first document (in submission order) which may not have
+         *         been completed; all documents before it were completed
+         */
+        public String getFirstIncompleteDoc() {
+            return firstIncompleteDoc;
+        }
+    }
+}
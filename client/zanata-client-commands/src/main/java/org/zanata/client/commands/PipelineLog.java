@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.client.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+
+/**
+ * Logger wrapper for code which may run inside a {@link DocumentPipeline}
+ * task. Messages logged by a pipeline thread are held back until the pipeline
+ * reports that task, so console output keeps the order of the documents.
+ * Elsewhere, messages are logged immediately.
+ */
+public final class PipelineLog {
+    private static final ThreadLocal<List<Runnable>> buffer =
+            new ThreadLocal<>();
+    private final Logger log;
+
+    public PipelineLog(Logger log) {
+        this.log = log;
+    }
+
+    public void info(String format, Object... args) {
+        emit(() -> log.info(format, args));
+    }
+
+    public void warn(String format, Object... args) {
+        emit(() -> log.warn(format, args));
+    }
+
+    private static void emit(Runnable message) {
+        List<Runnable> messages = buffer.get();
+        if (messages == null) {
+            message.run();
+        } else {
+            messages.add(message);
+        }
+    }
+
+    static void startBuffering() {
+        buffer.set(new ArrayList<>());
+    }
+
+    static List<Runnable> stopBuffering() {
+        List<Runnable> messages = buffer.get();
+        buffer.remove();
+        return messages;
+    }
+}
@@ -27,9 +27,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import javax.annotation.Nullable;
+import javax.ws.rs.client.ResponseProcessingException;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -37,6 +42,7 @@ import javax.xml.bind.Marshaller;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zanata.client.commands.pull.PullOptions;
@@ -46,12 +52,15 @@ import org.zanata.client.etag.ETagCache;
 import org.zanata.client.etag.ETagCacheReaderWriter;
 import org.zanata.client.exceptions.ConfigException;
 import org.zanata.common.LocaleId;
+import org.zanata.rest.RestUtil;
 import org.zanata.rest.client.RestClientFactory;
 import org.zanata.rest.client.SourceDocResourceClient;
 import org.zanata.rest.client.StatisticsResourceClient;
 import org.zanata.rest.client.TransDocResourceClient;
 import org.zanata.rest.dto.resource.Resource;
 import org.zanata.rest.dto.resource.ResourceMeta;
+import org.zanata.rest.dto.resource.SyncManifest;
+import org.zanata.rest.dto.resource.SyncManifestEntry;
 import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.rest.dto.stats.ContainerTranslationStatistics;
 import org.zanata.rest.dto.stats.TranslationStatistics;
@@ -72,6 +81,7 @@ public abstract class PushPullCommand<O extends PushPullOptions> extends
             .getLogger(PushPullCommand.class);
 
     protected static final String PROJECT_TYPE_OFFLINE_PO = "offlinepo";
+    private static final String ETAG_CACHE_FILE = "etag-cache.xml";
 
     protected ETagCache eTagCache;
     private Marshaller marshaller;
@@ -102,6 +112,30 @@ public abstract class PushPullCommand<O extends PushPullOptions> extends
                 opts));
     }
 
+    /**
+     * Logs a failure, and how to resume the operation from the given
+     * document.
+     */
+    protected void logFailure(String qualifiedDocName, Exception e) {
+        String message =
+                "Operation failed: " + e.getMessage() + "\n\n"
+                        + "    To retry from the last document, please set the following option(s):\n\n"
+                        + "        ";
+        if (getOpts().getEnableModules()) {
+            message +=
+                    "--resume-from " + getOpts().getCurrentModule(true)
+                            + " ";
+        }
+        // Note: '.' is included after trailing newlines to prevent them
+        // being stripped,
+        // since stripping newlines can cause extra text to be appended
+        // to the options.
+        message +=
+                getOpts().buildFromDocArgument(qualifiedDocName)
+                        + "\n\n.";
+        log.error(message);
+    }
+
     protected void confirmWithUser(String message) throws IOException {
         if (getOpts().isInteractiveMode()) {
             ConsoleInteractor console = new ConsoleInteractorImpl(getOpts());
@@ -223,38 +257,86 @@ public abstract class PushPullCommand<O extends PushPullOptions> extends
     }
 
     protected void loadETagCache(File cacheDir) {
+        eTagCache = readCache(cacheDir, ETAG_CACHE_FILE);
+    }
+
+    protected void storeETagCache(File cacheDir) {
+        writeCache(eTagCache, cacheDir, ETAG_CACHE_FILE);
+    }
+
+    /**
+     * Reads a cache file from the module's .zanata-cache directory, or returns
+     * an empty cache if it cannot be read.
+     */
+    protected ETagCache readCache(File cacheDir, String fileName) {
         try {
-            String location =
-                    ".zanata-cache" + File.separator + "etag-cache.xml";
-            if (modulePrefix != null && !modulePrefix.trim().isEmpty()) {
-                location = modulePrefix + File.separator + location;
-            }
-            eTagCache =
-                    ETagCacheReaderWriter.readCache(new FileInputStream(
-                            new File(cacheDir, location)));
+            return ETagCacheReaderWriter.readCache(new FileInputStream(
+                    new File(cacheDir, getCacheLocation(fileName))));
         } catch (Exception e) {
             // could not read for some reason, use a new one
-            eTagCache = new ETagCache();
+            return new ETagCache();
         }
     }
 
-    protected void storeETagCache(File cacheDir) {
+    protected void writeCache(ETagCache cache, File cacheDir,
+            String fileName) {
         try {
-            String location =
-                    ".zanata-cache" + File.separator + "etag-cache.xml";
-            if (modulePrefix != null && !modulePrefix.trim().isEmpty()) {
-                location = modulePrefix + File.separator + location;
-            }
-
-            File targetFile = new File(cacheDir, location);
+            File targetFile = new File(cacheDir, getCacheLocation(fileName));
             if (!targetFile.exists()) {
                 PathUtil.makeDirs(targetFile.getParentFile());
             }
-            ETagCacheReaderWriter.writeCache(this.eTagCache,
+            ETagCacheReaderWriter.writeCache(cache,
                     new FileOutputStream(targetFile));
         } catch (IOException e) {
-            log.warn("Could not create Zanata ETag cache file. Will proceed without it.");
+            log.warn("Could not create Zanata cache file {}. Will proceed without it.",
+                    fileName);
+        }
+    }
+
+    private String getCacheLocation(String fileName) {
+        String location = ".zanata-cache" + File.separator + fileName;
+        if (modulePrefix != null && !modulePrefix.trim().isEmpty()) {
+            location = modulePrefix + File.separator + location;
+        }
+        return location;
+    }
+
+    /**
+     * Fetches the server's sync manifest for the current module, as a map
+     * from (qualified docId, locale) to hash. Source documents have a null
+     * locale.
+     *
+     * @return the hashes, or null if the server does not provide sync
+     *         manifests
+     */
+    @Nullable
+    protected Map<Pair<String, String>, String> fetchServerHashes(
+            Set<String> extensions, @Nullable LocaleList locales) {
+        Set<String> localeIds = new HashSet<>();
+        if (locales != null) {
+            for (LocaleMapping locale : locales) {
+                localeIds.add(locale.getLocale());
+            }
+        }
+        SyncManifest manifest;
+        try {
+            manifest = sourceDocResourceClient.getSyncManifest(extensions,
+                    localeIds);
+        } catch (ResponseProcessingException e) {
+            if (RestUtil.isNotFound(e.getResponse())) {
+                log.warn("Server does not support incremental sync; all documents will be transferred.");
+                return null;
+            }
+            throw e;
+        }
+        Map<Pair<String, String>, String> hashes = new HashMap<>();
+        for (SyncManifestEntry entry : manifest.getEntries()) {
+            if (belongsToCurrentModule(entry.getDocId())) {
+                hashes.put(Pair.of(entry.getDocId(), entry.getLocale()),
+                        entry.getHash());
+            }
         }
+        return hashes;
     }
 
     protected Map<String, Map<LocaleId, TranslatedPercent>> getDocsTranslatedPercent(
@@ -80,4 +80,21 @@ public interface PushPullOptions extends ConfigurableProjectOptions {
     String getCurrentModule(boolean canonicalName);
 
     ImmutableSet<String> getAllModules();
+
+    /**
+     * Number of documents to transfer concurrently. 1 (the default) processes
+     * documents one at a time.
+     */
+    int getThreads();
+
+    /**
+     * Whether to transfer only the documents which have changed since the
+     * last sync, according to the hashes in the server's sync manifest.
+     */
+    boolean getIncremental();
+
+    /**
+     * Base directory for the .zanata-cache directory.
+     */
+    File getCacheDir();
 }
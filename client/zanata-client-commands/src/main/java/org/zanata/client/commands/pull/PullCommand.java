@@ -10,13 +10,18 @@ import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.client.ResponseProcessingException;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.zanata.client.commands.DocumentPipeline;
+import org.zanata.client.commands.DocumentPipeline.DocumentPipelineException;
+import org.zanata.client.commands.PipelineLog;
 import org.zanata.client.commands.PushPullCommand;
 import org.zanata.client.commands.PushPullType;
 import org.zanata.client.config.LocaleList;
@@ -44,6 +49,12 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public class PullCommand extends PushPullCommand<PullOptions> {
     private static final Logger log = LoggerFactory
             .getLogger(PullCommand.class);
+    // for output from code which may run in pipeline threads
+    private static final PipelineLog out = new PipelineLog(log);
+
+    // with --incremental, the server's translation hashes by docId and locale
+    @Nullable
+    private Map<Pair<String, String>, String> serverHashes;
 
     private static final Map<String, Class<? extends PullStrategy>> strategies =
             new HashMap<String, Class<? extends PullStrategy>>();
@@ -107,6 +118,7 @@ public class PullCommand extends PushPullCommand<PullOptions> {
         logger.info("Enable modules: {}", opts.getEnableModules());
         logger.info("Using ETag cache: {}", opts.getUseCache());
         logger.info("Purging ETag cache beforehand: {}", opts.getPurgeCache());
+        logger.info("Incremental: {}", opts.getIncremental());
         if (opts.getEnableModules()) {
             logger.info("Current Module: {}", opts.getCurrentModule());
             if (opts.isRootModule()) {
@@ -226,74 +238,160 @@ public class PullCommand extends PushPullCommand<PullOptions> {
         if (getOpts().getPurgeCache()) {
             eTagCache.clear();
         }
+        if (getOpts().getIncremental() && pullTarget) {
+            if (getOpts().getUseCache()) {
+                serverHashes =
+                        fetchServerHashes(strat.getExtensions(), locales);
+            } else {
+                log.warn("Incremental pull needs the ETag cache; all translations will be fetched.");
+            }
+        }
         Optional<Map<String, Map<LocaleId, TranslatedPercent>>> optionalStats =
                 prepareStatsIfApplicable(pullTarget, locales);
 
 
+        if (getOpts().getThreads() > 1) {
+            pullDocsConcurrently(strat, docsToPull, pullSrc, pullTarget,
+                    locales, optionalStats);
+            return;
+        }
         for (String qualifiedDocName : docsToPull) {
             try {
-                Resource doc = null;
-                String localDocName = unqualifiedDocName(qualifiedDocName);
-                boolean createSkeletons = getOpts().getCreateSkeletons();
-                if (strat.needsDocToWriteTrans() || pullSrc || createSkeletons) {
-                    doc = sourceDocResourceClient.getResource(qualifiedDocName,
-                            strat.getExtensions());
-                    doc.setName(localDocName);
-                }
-                if (pullSrc) {
-                    writeSrcDoc(strat, doc);
-                }
-
+                pullDoc(strat, qualifiedDocName, pullSrc, pullTarget, locales,
+                        optionalStats);
                 if (pullTarget) {
-                    List<LocaleId> skippedLocales = Lists.newArrayList();
-                    for (LocaleMapping locMapping : locales) {
-                        LocaleId locale = new LocaleId(locMapping.getLocale());
-                        File transFile =
-                                strat.getTransFileToWrite(localDocName,
-                                        locMapping);
-
-                        if (shouldPullThisLocale(optionalStats, localDocName, locale)) {
-                            pullDocForLocale(strat, doc, localDocName, qualifiedDocName,
-                                    createSkeletons, locMapping, transFile);
-                        } else {
-                            skippedLocales.add(locale);
-                        }
-
-                    }
-                    if (!skippedLocales.isEmpty()) {
-                        log.info(
-                                "Translation file for document {} for locales {} are skipped due to insufficient completed percentage",
-                                localDocName, skippedLocales);
-                    }
-
                     // write the cache
                     super.storeETagCache(getOpts().getCacheDir());
                 }
-
             } catch (RuntimeException e) {
-                String message =
-                        "Operation failed: " + e.getMessage() + "\n\n"
-                                + "    To retry from the last document, please set the following option(s):\n\n"
-                                + "        ";
-                if (getOpts().getEnableModules()) {
-                    message +=
-                            "--resume-from " + getOpts().getCurrentModule(true)
-                                    + " ";
-                }
-                // Note: '.' is included after trailing newlines to prevent them
-                // being stripped,
-                // since stripping newlines can cause extra text to be appended
-                // to the options.
-                message +=
-                        getOpts().buildFromDocArgument(qualifiedDocName)
-                                + "\n\n.";
-                log.error(message);
+                logFailure(qualifiedDocName, e);
                 throw new RuntimeException(e.getMessage(), e);
             }
         }
 
     }
 
+    private void pullDoc(PullStrategy strat, String qualifiedDocName,
+            boolean pullSrc, boolean pullTarget, LocaleList locales,
+            Optional<Map<String, Map<LocaleId, TranslatedPercent>>> optionalStats)
+            throws IOException {
+        Resource doc = null;
+        String localDocName = unqualifiedDocName(qualifiedDocName);
+        boolean createSkeletons = getOpts().getCreateSkeletons();
+        List<LocaleMapping> localesToPull = Lists.newArrayList();
+        if (pullTarget) {
+            for (LocaleMapping locMapping : locales) {
+                if (isUnchanged(strat, qualifiedDocName, localDocName,
+                        locMapping)) {
+                    out.info(
+                            "No changes in translations for locale {} and document {}",
+                            locMapping.getLocale(), localDocName);
+                } else {
+                    localesToPull.add(locMapping);
+                }
+            }
+        }
+        if (pullSrc || (!localesToPull.isEmpty()
+                && (strat.needsDocToWriteTrans() || createSkeletons))) {
+            doc = sourceDocResourceClient.getResource(qualifiedDocName,
+                    strat.getExtensions());
+            doc.setName(localDocName);
+        }
+        if (pullSrc) {
+            writeSrcDoc(strat, doc);
+        }
+
+        if (pullTarget) {
+            List<LocaleId> skippedLocales = Lists.newArrayList();
+            for (LocaleMapping locMapping : localesToPull) {
+                LocaleId locale = new LocaleId(locMapping.getLocale());
+                File transFile =
+                        strat.getTransFileToWrite(localDocName, locMapping);
+
+                if (shouldPullThisLocale(optionalStats, localDocName, locale)) {
+                    pullDocForLocale(strat, doc, localDocName, qualifiedDocName,
+                            createSkeletons, locMapping, transFile);
+                } else {
+                    skippedLocales.add(locale);
+                }
+
+            }
+            if (!skippedLocales.isEmpty()) {
+                out.info(
+                        "Translation file for document {} for locales {} are skipped due to insufficient completed percentage",
+                        localDocName, skippedLocales);
+            }
+        }
+    }
+
+    /**
+     * @return true if --incremental is set, the server's translations have not
+     *         changed since they were last pulled, and the translation file is
+     *         the one written then
+     */
+    private boolean isUnchanged(PullStrategy strat, String qualifiedDocName,
+            String localDocName, LocaleMapping locMapping) throws IOException {
+        if (serverHashes == null) {
+            return false;
+        }
+        String serverHash = serverHashes
+                .get(Pair.of(qualifiedDocName, locMapping.getLocale()));
+        ETagCacheEntry eTagCacheEntry =
+                eTagCache.findEntry(localDocName, locMapping.getLocale());
+        if (serverHash == null || eTagCacheEntry == null
+                || eTagCacheEntry.getServerETag() == null) {
+            return false;
+        }
+        File transFile = strat.getTransFileToWrite(localDocName, locMapping);
+        return serverHash.equals(etagValue(eTagCacheEntry.getServerETag()))
+                && transFile.exists()
+                && Long.toString(transFile.lastModified())
+                        .equals(eTagCacheEntry.getLocalFileTime())
+                && HashUtil.getMD5Checksum(transFile)
+                        .equals(eTagCacheEntry.getLocalFileMD5());
+    }
+
+    /**
+     * Strips the quotes (and weak indicator) from an ETag header.
+     */
+    private static String etagValue(String header) {
+        String value = StringUtils.removeStart(header, "W/");
+        if (value.length() >= 2 && value.startsWith("\"")
+                && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Pulls documents with --threads. Pipeline threads fetch documents and
+     * write their files; log output and the ETag cache are written on this
+     * thread in document order.
+     */
+    private void pullDocsConcurrently(PullStrategy strat,
+            SortedSet<String> docsToPull, boolean pullSrc, boolean pullTarget,
+            LocaleList locales,
+            Optional<Map<String, Map<LocaleId, TranslatedPercent>>> optionalStats) {
+        log.info("Using {} threads", getOpts().getThreads());
+        try (DocumentPipeline pipeline =
+                new DocumentPipeline(getOpts().getThreads(), "pull")) {
+            for (String qualifiedDocName : docsToPull) {
+                pipeline.submit(qualifiedDocName,
+                        () -> pullDoc(strat, qualifiedDocName, pullSrc,
+                                pullTarget, locales, optionalStats),
+                        () -> {
+                            if (pullTarget) {
+                                storeETagCache(getOpts().getCacheDir());
+                            }
+                        });
+            }
+            pipeline.finish();
+        } catch (DocumentPipelineException e) {
+            logFailure(e.getFirstIncompleteDoc(), e);
+            throw new RuntimeException(e.getMessage(), e.getCause());
+        }
+    }
+
     @VisibleForTesting
     protected void pullDocForLocale(PullStrategy strat, Resource doc,
             String localDocName, String docId, boolean createSkeletons,
@@ -328,7 +426,7 @@ public class PullCommand extends PushPullCommand<PullOptions> {
                 throw e;
             }
             if (!createSkeletons) {
-                log.info(
+                out.info(
                         "No translations found in locale {} for document {}",
                         locale, localDocName);
             } else {
@@ -344,7 +442,7 @@ public class PullCommand extends PushPullCommand<PullOptions> {
 
         if (transResponse.getStatusInfo() == Response.Status.NOT_MODIFIED) {
             // 304 NOT MODIFIED (the document can stay the same)
-            log.info(
+            out.info(
                     "No changes in translations for locale {} and document {}",
                     locale, localDocName);
 
@@ -405,10 +503,13 @@ public class PullCommand extends PushPullCommand<PullOptions> {
     private void writeSrcDoc(PullStrategy strat, Resource doc)
             throws IOException {
         if (!getOpts().isDryRun()) {
-            log.info("Writing source file for document {}", doc.getName());
-            strat.writeSrcFile(doc);
+            out.info("Writing source file for document {}", doc.getName());
+            // strategies are not thread-safe
+            synchronized (strat) {
+                strat.writeSrcFile(doc);
+            }
         } else {
-            log.info(
+            out.info(
                     "Writing source file for document {} (skipped due to dry run)",
                     doc.getName());
         }
@@ -422,10 +523,12 @@ public class PullCommand extends PushPullCommand<PullOptions> {
             throws IOException {
         LocaleMapping locMapping = translatedDoc.getLocale();
         if (!getOpts().isDryRun()) {
-            log.info("Writing translation file in locale {} for document {}",
+            out.info("Writing translation file in locale {} for document {}",
                     locMapping.getLocalLocale(), localDocName);
-            FileDetails fileDetails =
-                    strat.writeTransFile(localDocName, translatedDoc);
+            FileDetails fileDetails;
+            synchronized (strat) {
+                fileDetails = strat.writeTransFile(localDocName, translatedDoc);
+            }
 
             // Insert to cache if the strategy returned file details and we are
             // using the cache
@@ -435,7 +538,7 @@ public class PullCommand extends PushPullCommand<PullOptions> {
                         .lastModified()), fileDetails.getMd5(), serverETag));
             }
         } else {
-            log.info(
+            out.info(
                     "Writing translation file in locale {} for document {} (skipped due to dry run)",
                     locMapping.getLocalLocale(), localDocName);
         }
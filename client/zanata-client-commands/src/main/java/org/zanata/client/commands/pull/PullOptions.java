@@ -21,8 +21,6 @@
 
 package org.zanata.client.commands.pull;
 
-import java.io.File;
-
 import org.zanata.client.commands.PushPullOptions;
 import org.zanata.client.commands.PushPullType;
 
@@ -48,7 +46,5 @@ public interface PullOptions extends PushPullOptions {
 
     int getMinDocPercent();
 
-    File getCacheDir();
-
     boolean getApprovedOnly();
 }
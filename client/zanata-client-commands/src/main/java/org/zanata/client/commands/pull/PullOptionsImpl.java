@@ -21,8 +21,6 @@
 
 package org.zanata.client.commands.pull;
 
-import java.io.File;
-
 import org.kohsuke.args4j.Option;
 import org.zanata.client.commands.*;
 import com.google.common.base.Preconditions;
@@ -53,7 +51,6 @@ public class PullOptionsImpl extends AbstractPushPullOptionsImpl<PullOptions>
     private boolean continueAfterError = DEFAULT_CONTINUE_AFTER_ERROR;
     private boolean approvedOnly = DEFAULT_APPROVED_ONLY;
     private int minDocPercent = 0;
-    private File cacheDir = new File(".");
 
     @Override
     public ZanataCommand initCommand() {
@@ -215,14 +212,4 @@ public class PullOptionsImpl extends AbstractPushPullOptionsImpl<PullOptions>
         this.purgeCache = purgeCache;
     }
 
-    @Option(name = "--cache-dir", metaVar = "DIR", usage = "The base directory for storing zanata cache files. Default is current directory.")
-    public void setCacheDir(File cacheDir) {
-        this.cacheDir = cacheDir;
-    }
-
-    @Override
-    public File getCacheDir() {
-        return this.cacheDir;
-    }
-
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.client.commands.push;
+
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.zanata.client.etag.ETagCache;
+import org.zanata.client.etag.ETagCacheEntry;
+import org.zanata.util.HashUtil;
+
+/**
+ * State of an incremental push. When a document (or one of its translations)
+ * is pushed, a hash of the pushed content is recorded together with the
+ * server's hash for it afterwards. The next push skips it if neither has
+ * changed: the local content is what was pushed last time, and nobody has
+ * changed it on the server since.
+ * <p>
+ * Safe for use by concurrent pipeline threads.
+ */
+class IncrementalPush {
+    static final String CACHE_FILE = "push-cache.xml";
+    // cache language for source document entries
+    private static final String SOURCE = "";
+    private static final ConcurrentMap<Class<?>, JAXBContext> contexts =
+            new ConcurrentHashMap<>();
+
+    private final ETagCache lastPush;
+    private final Map<Pair<String, String>, String> serverHashes;
+    private final String settings;
+    // content hashes of documents pushed by this run
+    private final Map<Pair<String, String>, String> pushed =
+            new LinkedHashMap<>();
+
+    /**
+     * @param lastPush
+     *            entries recorded by previous pushes
+     * @param serverHashes
+     *            the server's hashes before this push
+     * @param settings
+     *            server, version and options which affect what is pushed;
+     *            content pushed with different settings is never considered
+     *            unchanged
+     */
+    IncrementalPush(ETagCache lastPush,
+            Map<Pair<String, String>, String> serverHashes, String settings) {
+        this.lastPush = lastPush;
+        this.serverHashes = serverHashes;
+        this.settings = settings;
+    }
+
+    /**
+     * @param locale
+     *            server locale id, or null for the source document
+     * @param content
+     *            Resource or TranslationsResource about to be pushed
+     */
+    boolean isUnchanged(String docId, @Nullable String locale,
+            Object content) {
+        ETagCacheEntry entry = lastPush.findEntry(docId, language(locale));
+        String serverHash = serverHashes.get(Pair.of(docId, locale));
+        return entry != null && serverHash != null
+                && serverHash.equals(entry.getServerETag())
+                && contentHash(content).equals(entry.getLocalFileMD5());
+    }
+
+    synchronized void pushed(String docId, @Nullable String locale,
+            Object content) {
+        pushed.put(Pair.of(docId, locale), contentHash(content));
+    }
+
+    synchronized boolean hasPushed() {
+        return !pushed.isEmpty();
+    }
+
+    /**
+     * Records the documents pushed by this run, with their server hashes
+     * after the push.
+     */
+    synchronized void update(Map<Pair<String, String>, String> hashesAfterPush) {
+        pushed.forEach((key, contentHash) -> {
+            String serverHash = hashesAfterPush.get(key);
+            if (serverHash != null) {
+                lastPush.addEntry(new ETagCacheEntry(key.getLeft(),
+                        language(key.getRight()), null, contentHash,
+                        serverHash));
+            }
+        });
+        pushed.clear();
+    }
+
+    ETagCache getCache() {
+        return lastPush;
+    }
+
+    private String contentHash(Object content) {
+        try {
+            JAXBContext context = contexts.computeIfAbsent(content.getClass(),
+                    clazz -> {
+                        try {
+                            return JAXBContext.newInstance(clazz);
+                        } catch (JAXBException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+            StringWriter writer = new StringWriter();
+            writer.append(settings).append('\n');
+            context.createMarshaller().marshal(content, writer);
+            return HashUtil.generateHash(writer.toString());
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String language(@Nullable String locale) {
+        return locale == null ? SOURCE : locale;
+    }
+}
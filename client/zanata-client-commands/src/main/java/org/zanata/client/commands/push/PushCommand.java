@@ -16,15 +16,21 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.client.ResponseProcessingException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zanata.adapter.properties.PropWriter;
 import org.zanata.adapter.xliff.XliffCommon.ValidationType;
+import org.zanata.client.commands.DocumentPipeline;
+import org.zanata.client.commands.DocumentPipeline.DocumentPipelineException;
+import org.zanata.client.commands.PipelineLog;
 import org.zanata.client.commands.PushPullCommand;
 import org.zanata.client.commands.PushPullType;
+import org.zanata.client.config.LocaleList;
 import org.zanata.client.config.LocaleMapping;
 import org.zanata.client.exceptions.ConfigException;
 import org.zanata.client.util.ConsoleUtils;
@@ -56,6 +62,8 @@ import static com.google.common.collect.Iterables.all;
 public class PushCommand extends PushPullCommand<PushOptions> {
     private static final Logger log = LoggerFactory
             .getLogger(PushCommand.class);
+    // for output from code which may run in pipeline threads
+    private static final PipelineLog out = new PipelineLog(log);
     private static final int POLL_PERIOD = 250;
 
     private static final Map<String, AbstractPushStrategy> strategies =
@@ -63,6 +71,12 @@ public class PushCommand extends PushPullCommand<PushOptions> {
 
     private CopyTransClient copyTransClient;
     private AsyncProcessClient asyncProcessClient;
+    // non-null while pushing with --threads
+    @Nullable
+    private volatile DocumentPipeline pipeline;
+    // non-null while pushing with --incremental
+    @Nullable
+    private IncrementalPush incrementalPush;
 
     public interface TranslationResourcesVisitor {
         void visit(LocaleMapping locale, TranslationsResource targetDoc);
@@ -139,6 +153,7 @@ public class PushCommand extends PushPullCommand<PushOptions> {
         }
 
         logger.info("Merge type: {}", opts.getMergeType());
+        logger.info("Incremental: {}", opts.getIncremental());
         logger.info("Enable modules: {}", opts.getEnableModules());
 
         if (opts.getEnableModules()) {
@@ -392,72 +407,258 @@ public class PushCommand extends PushPullCommand<PushOptions> {
             }
         }
 
-        for (final String localDocName : docsToPush) {
-            try {
-                final String qualifiedDocName = qualifiedDocName(localDocName);
-                final Resource srcDoc;
-                if (strat.isTransOnly()) {
-                    srcDoc = null;
-                } else {
-                    srcDoc = strat.loadSrcDoc(sourceDir, localDocName);
-                    srcDoc.setName(qualifiedDocName);
-                    debug(srcDoc);
-
-                    if (pushSource()) {
-                        pushSrcDocToServer(qualifiedDocName, srcDoc, extensions);
+        if (getOpts().getIncremental()) {
+            incrementalPush = startIncrementalPush(extensions);
+        }
+        try {
+            if (getOpts().getThreads() > 1) {
+                pushDocsConcurrently(strat, sourceDir, extensions, docsToPush);
+            } else {
+                for (final String localDocName : docsToPush) {
+                    try {
+                        pushDoc(strat, sourceDir, extensions, localDocName);
+                    } catch (Exception e) {
+                        logFailure(qualifiedDocName(localDocName), e);
+                        throw new RuntimeException(e.getMessage(), e);
                     }
                 }
+            }
+            finishIncrementalPush(extensions);
+        } finally {
+            incrementalPush = null;
+        }
+        deleteSourceDocsFromServer(obsoleteDocs);
+    }
 
-                if (pushTrans()) {
-                    strat.visitTranslationResources(localDocName, srcDoc,
-                            new TranslationResourcesVisitor() {
-                                @Override
-                                public void visit(LocaleMapping locale,
-                                        TranslationsResource targetDoc) {
-                                    debug(targetDoc);
-                                    stripUntranslatedEntriesIfMergeTypeIsNotImport(getOpts(),
-                                            targetDoc);
-                                    if (targetDoc.getTextFlowTargets()
-                                            .isEmpty()) {
-                                        log.debug(
-                                                "Skip translation file {}({}) since it has no translation in it",
-                                                localDocName, locale);
-                                        return;
-                                    }
-                                    pushTargetDocToServer(qualifiedDocName, locale,
-                                            qualifiedDocName, targetDoc,
-                                            extensions);
-                                }
-                            });
-                }
+    @Nullable
+    private IncrementalPush startIncrementalPush(StringSet extensions) {
+        Map<Pair<String, String>, String> serverHashes =
+                fetchServerHashes(extensions, getPushLocales());
+        if (serverHashes == null) {
+            return null;
+        }
+        // anything which changes what a push sends, or where it goes
+        String settings = StringUtils.join(new Object[] { getOpts().getUrl(),
+                getOpts().getProj(), getOpts().getProjectVersion(),
+                getOpts().getMergeType(), getOpts().isMyTrans(),
+                getOpts().getCopyTrans() }, '|');
+        return new IncrementalPush(
+                readCache(getOpts().getCacheDir(), IncrementalPush.CACHE_FILE),
+                serverHashes, settings);
+    }
+
+    /**
+     * Records the server's new hashes for the documents which were pushed.
+     */
+    private void finishIncrementalPush(StringSet extensions) {
+        if (incrementalPush == null || !incrementalPush.hasPushed()) {
+            return;
+        }
+        Map<Pair<String, String>, String> serverHashes =
+                fetchServerHashes(extensions, getPushLocales());
+        if (serverHashes != null) {
+            incrementalPush.update(serverHashes);
+            writeCache(incrementalPush.getCache(), getOpts().getCacheDir(),
+                    IncrementalPush.CACHE_FILE);
+        }
+    }
+
+    @Nullable
+    private LocaleList getPushLocales() {
+        return pushTrans() ? getOpts().getLocaleMapList() : null;
+    }
 
-                // Copy Trans after pushing (only when pushing source)
-                if (getOpts().getCopyTrans() && (pushSource())) {
-                    this.copyTransForDocument(qualifiedDocName);
+    /**
+     * @return true if --incremental is set and the document (or translation)
+     *         has not changed, locally or on the server, since it was last
+     *         pushed
+     */
+    private boolean isUnchanged(String docId, @Nullable LocaleMapping locale,
+            Object content) {
+        return incrementalPush != null && incrementalPush.isUnchanged(docId,
+                locale == null ? null : locale.getLocale(), content);
+    }
+
+    private void pushed(String docId, @Nullable LocaleMapping locale,
+            Object content) {
+        if (incrementalPush != null) {
+            incrementalPush.pushed(docId,
+                    locale == null ? null : locale.getLocale(), content);
+        }
+    }
+
+    private void pushDoc(AbstractPushStrategy strat, File sourceDir,
+            StringSet extensions, String localDocName) throws IOException {
+        final String qualifiedDocName = qualifiedDocName(localDocName);
+        final Resource srcDoc = loadSrcDoc(strat, sourceDir, localDocName);
+        final boolean srcSkipped = srcDoc != null && pushSource()
+                && isUnchanged(qualifiedDocName, null, srcDoc);
+        // translations are always pushed after a changed source document
+        final boolean srcPushed = srcDoc != null && pushSource() && !srcSkipped;
+        if (srcSkipped) {
+            logUnchangedSrcDoc(qualifiedDocName);
+        } else if (srcPushed) {
+            pushSrcDocToServer(qualifiedDocName, srcDoc, extensions);
+        }
+
+        if (pushTrans()) {
+            strat.visitTranslationResources(localDocName, srcDoc,
+                    new TranslationResourcesVisitor() {
+                        @Override
+                        public void visit(LocaleMapping locale,
+                                TranslationsResource targetDoc) {
+                            if (!prepareTargetDoc(localDocName, locale,
+                                    targetDoc)) {
+                                return;
+                            }
+                            if (!srcPushed && isUnchanged(qualifiedDocName,
+                                    locale, targetDoc)) {
+                                logUnchangedTargetDoc(qualifiedDocName,
+                                        locale);
+                            } else {
+                                pushTargetDocToServer(qualifiedDocName,
+                                        locale, qualifiedDocName, targetDoc,
+                                        extensions);
+                            }
+                        }
+                    });
+        }
+
+        // Copy Trans after pushing (only when pushing source)
+        if (getOpts().getCopyTrans() && pushSource() && !srcSkipped) {
+            this.copyTransForDocument(qualifiedDocName);
+        }
+    }
+
+    /**
+     * Pushes documents with --threads. Documents are read on this thread, in
+     * order, while pipeline threads send them to the server and wait for the
+     * server to process them. A document's translations are pushed after its
+     * source; when source is not pushed, each translation is a separate task.
+     */
+    private void pushDocsConcurrently(AbstractPushStrategy strat,
+            File sourceDir, StringSet extensions, SortedSet<String> docsToPush)
+            throws IOException {
+        log.info("Using {} threads", getOpts().getThreads());
+        try (DocumentPipeline docPipeline =
+                new DocumentPipeline(getOpts().getThreads(), "push")) {
+            pipeline = docPipeline;
+            for (String localDocName : docsToPush) {
+                String qualifiedDocName = qualifiedDocName(localDocName);
+                Resource srcDoc;
+                boolean srcSkipped;
+                // with --incremental, unchanged translations are null
+                List<Pair<LocaleMapping, TranslationsResource>> targetDocs =
+                        new ArrayList<>();
+                try {
+                    srcDoc = loadSrcDoc(strat, sourceDir, localDocName);
+                    srcSkipped = srcDoc != null && pushSource()
+                            && isUnchanged(qualifiedDocName, null, srcDoc);
+                    boolean srcPushed =
+                            srcDoc != null && pushSource() && !srcSkipped;
+                    if (pushTrans()) {
+                        strat.visitTranslationResources(localDocName, srcDoc,
+                                (locale, targetDoc) -> {
+                                    if (prepareTargetDoc(localDocName, locale,
+                                            targetDoc)) {
+                                        boolean unchanged = !srcPushed
+                                                && isUnchanged(
+                                                        qualifiedDocName,
+                                                        locale, targetDoc);
+                                        targetDocs.add(Pair.of(locale,
+                                                unchanged ? null : targetDoc));
+                                    }
+                                });
+                    }
+                } catch (IOException | RuntimeException e) {
+                    throw docPipeline.fail(qualifiedDocName, e);
                 }
-            } catch (Exception e) {
-                String message =
-                        "Operation failed: " + e.getMessage() + "\n\n"
-                                + "    To retry from the last document, please set the following option(s):\n\n"
-                                + "        ";
-                if (getOpts().getEnableModules()) {
-                    message +=
-                            "--resume-from " + getOpts().getCurrentModule(true)
-                                    + " ";
+                if (pushSource()) {
+                    docPipeline.submit(qualifiedDocName, () -> {
+                        if (srcSkipped) {
+                            logUnchangedSrcDoc(qualifiedDocName);
+                        } else if (srcDoc != null) {
+                            pushSrcDocToServer(qualifiedDocName, srcDoc,
+                                    extensions);
+                        }
+                        for (Pair<LocaleMapping, TranslationsResource> target : targetDocs) {
+                            pushTargetDocIfChanged(qualifiedDocName, target,
+                                    extensions);
+                        }
+                        if (getOpts().getCopyTrans() && !srcSkipped) {
+                            copyTransForDocument(qualifiedDocName);
+                        }
+                    });
+                } else {
+                    for (Pair<LocaleMapping, TranslationsResource> target : targetDocs) {
+                        docPipeline.submit(qualifiedDocName,
+                                () -> pushTargetDocIfChanged(qualifiedDocName,
+                                        target, extensions));
+                    }
                 }
-                // Note: '.' is included after trailing newlines to prevent them
-                // being stripped,
-                // since stripping newlines can cause extra text to be appended
-                // to the options.
-                message +=
-                        getOpts().buildFromDocArgument(
-                                qualifiedDocName(localDocName))
-                                + "\n\n.";
-                log.error(message);
-                throw new RuntimeException(e.getMessage(), e);
             }
+            docPipeline.finish();
+        } catch (DocumentPipelineException e) {
+            logFailure(e.getFirstIncompleteDoc(), e);
+            throw new RuntimeException(e.getMessage(), e.getCause());
+        } finally {
+            pipeline = null;
         }
-        deleteSourceDocsFromServer(obsoleteDocs);
+    }
+
+    private void pushTargetDocIfChanged(String qualifiedDocName,
+            Pair<LocaleMapping, TranslationsResource> target,
+            StringSet extensions) {
+        if (target.getRight() == null) {
+            logUnchangedTargetDoc(qualifiedDocName, target.getLeft());
+        } else {
+            pushTargetDocToServer(qualifiedDocName, target.getLeft(),
+                    qualifiedDocName, target.getRight(), extensions);
+        }
+    }
+
+    private static void logUnchangedSrcDoc(String docId) {
+        out.info("Source doc {} is unchanged since the last push; skipping",
+                docId);
+    }
+
+    private static void logUnchangedTargetDoc(String docId,
+            LocaleMapping locale) {
+        out.info(
+                "Target doc {} [locale={}] is unchanged since the last push; skipping",
+                docId, locale.getLocale());
+    }
+
+    /**
+     * Loads and names the source document, or returns null if the project
+     * type has no source documents.
+     */
+    @Nullable
+    private Resource loadSrcDoc(AbstractPushStrategy strat, File sourceDir,
+            String localDocName) throws IOException {
+        if (strat.isTransOnly()) {
+            return null;
+        }
+        Resource srcDoc = strat.loadSrcDoc(sourceDir, localDocName);
+        srcDoc.setName(qualifiedDocName(localDocName));
+        debug(srcDoc);
+        return srcDoc;
+    }
+
+    /**
+     * @return false if the translation file should be skipped
+     */
+    private boolean prepareTargetDoc(String localDocName, LocaleMapping locale,
+            TranslationsResource targetDoc) {
+        debug(targetDoc);
+        stripUntranslatedEntriesIfMergeTypeIsNotImport(getOpts(), targetDoc);
+        if (targetDoc.getTextFlowTargets().isEmpty()) {
+            log.debug(
+                    "Skip translation file {}({}) since it has no translation in it",
+                    localDocName, locale);
+            return false;
+        }
+        return true;
     }
 
     private static void stripUntranslatedEntriesIfMergeTypeIsNotImport(
@@ -542,16 +743,17 @@ public class PushCommand extends PushPullCommand<PushOptions> {
     private void pushSrcDocToServer(final String docId, final Resource srcDoc,
             final StringSet extensions) {
         if (!getOpts().isDryRun()) {
-            log.info("pushing source doc [name={} size={}] to server",
+            out.info("pushing source doc [name={} size={}] to server",
                     srcDoc.getName(), srcDoc.getTextFlows().size());
 
-            ConsoleUtils.startProgressFeedback();
+            startProgressFeedback();
             ProcessStatus status =
                     asyncProcessClient.startSourceDocCreationOrUpdateWithDocId(
                             getOpts().getProj(), getOpts().getProjectVersion(),
                             srcDoc, extensions, docId);
 
             boolean waitForCompletion = true;
+            boolean finished = false;
 
             while (waitForCompletion) {
                 switch (status.getStatusCode()) {
@@ -562,15 +764,15 @@ public class PushCommand extends PushPullCommand<PushOptions> {
 
                     case Finished:
                         waitForCompletion = false;
+                        finished = true;
                         break;
 
                     case Running:
-                        ConsoleUtils.setProgressFeedbackMessage("Pushing ...");
+                        setProgressFeedbackMessage("Pushing ...");
                         break;
 
                     case Waiting:
-                        ConsoleUtils
-                                .setProgressFeedbackMessage("Waiting to start ...");
+                        setProgressFeedbackMessage("Waiting to start ...");
                         break;
 
                     case NotAccepted:
@@ -581,23 +783,26 @@ public class PushCommand extends PushPullCommand<PushOptions> {
                                                 getOpts().getProj(), getOpts()
                                                         .getProjectVersion(),
                                                 srcDoc, extensions, docId);
-                        ConsoleUtils
-                                .setProgressFeedbackMessage("Waiting for other clients ...");
+                        setProgressFeedbackMessage("Waiting for other clients ...");
                         break;
                     case Cancelled:
                         waitForCompletion = false;
-                        ConsoleUtils.setProgressFeedbackMessage("Process is cancelled");
+                        setProgressFeedbackMessage("Process is cancelled");
                         break;
                 }
 
                 // Wait before retrying
                 wait(POLL_PERIOD);
+                checkNotFailed();
                 status = asyncProcessClient.getProcessStatus(status.getUrl());
             }
 
-            ConsoleUtils.endProgressFeedback();
+            endProgressFeedback();
+            if (finished) {
+                pushed(docId, null, srcDoc);
+            }
         } else {
-            log.info(
+            out.info(
                     "pushing source doc [name={} size={}] to server (skipped due to dry run)",
                     srcDoc.getName(), srcDoc.getTextFlows().size());
         }
@@ -659,13 +864,13 @@ public class PushCommand extends PushPullCommand<PushOptions> {
             LocaleMapping locale, final String localDocName,
             TranslationsResource targetDoc, final StringSet extensions) {
         if (!getOpts().isDryRun()) {
-            log.info(
+            out.info(
                     "Pushing target doc [name={} size={} client-locale={}] to server [locale={}]",
                     localDocName,
                     targetDoc.getTextFlowTargets().size(),
                     locale.getLocalLocale(), locale.getLocale());
 
-            ConsoleUtils.startProgressFeedback();
+            startProgressFeedback();
 
             ProcessStatus status =
                     asyncProcessClient
@@ -677,6 +882,7 @@ public class PushCommand extends PushPullCommand<PushOptions> {
                                     getOpts().isMyTrans());
 
             boolean waitForCompletion = true;
+            boolean finished = false;
 
             while (waitForCompletion) {
                 switch (status.getStatusCode()) {
@@ -687,16 +893,16 @@ public class PushCommand extends PushPullCommand<PushOptions> {
 
                     case Finished:
                         waitForCompletion = false;
+                        finished = true;
                         break;
 
                     case Running:
-                        ConsoleUtils.setProgressFeedbackMessage(status
+                        setProgressFeedbackMessage(status
                                 .getPercentageComplete() + "%");
                         break;
 
                     case Waiting:
-                        ConsoleUtils
-                                .setProgressFeedbackMessage("Waiting to start ...");
+                        setProgressFeedbackMessage("Waiting to start ...");
                         break;
 
                     case NotAccepted:
@@ -711,30 +917,33 @@ public class PushCommand extends PushPullCommand<PushOptions> {
                                                 targetDoc, docId, extensions,
                                                 getOpts().getMergeType(),
                                                 getOpts().isMyTrans());
-                        ConsoleUtils
-                                .setProgressFeedbackMessage("Waiting for other clients ...");
+                        setProgressFeedbackMessage("Waiting for other clients ...");
                         break;
                     case Cancelled:
                         waitForCompletion = false;
-                        ConsoleUtils.setProgressFeedbackMessage("Process is cancelled");
+                        setProgressFeedbackMessage("Process is cancelled");
                         break;
                 }
 
                 // Wait before retrying
                 wait(POLL_PERIOD);
+                checkNotFailed();
                 status = asyncProcessClient.getProcessStatus(status.getUrl());
             }
-            ConsoleUtils.endProgressFeedback();
+            endProgressFeedback();
+            if (finished) {
+                pushed(docId, locale, targetDoc);
+            }
 
             // Show warning messages
             if (status.getMessages().size() > 0) {
-                log.warn("Pushed translations with warnings:");
+                out.warn("Pushed translations with warnings:");
                 for (String mssg : status.getMessages()) {
-                    log.warn(mssg);
+                    out.warn(mssg);
                 }
             }
         } else {
-            log.info(
+            out.info(
                     "pushing target doc [name={} size={} client-locale={}] to server [locale={}] (skipped due to dry run)",
                     localDocName, targetDoc.getTextFlowTargets().size(),
                     locale.getLocalLocale(), locale.getLocale());
@@ -754,15 +963,15 @@ public class PushCommand extends PushPullCommand<PushOptions> {
 
     private void copyTransForDocument(String docName) {
         if (getOpts().isDryRun()) {
-            log.info("Skipping Copy Trans for {} (due to dry run)", docName);
+            out.info("Skipping Copy Trans for {} (due to dry run)", docName);
             return;
         }
-        log.info("Running Copy Trans for {}", docName);
+        out.info("Running Copy Trans for {}", docName);
         try {
             this.copyTransClient.startCopyTrans(getOpts().getProj(),
                     getOpts().getProjectVersion(), docName);
         } catch (Exception ex) {
-            log.warn("Could not start Copy Trans for above document. Proceeding");
+            out.warn("Could not start Copy Trans for above document. Proceeding");
             return;
         }
         CopyTransStatus copyTransStatus;
@@ -775,7 +984,7 @@ public class PushCommand extends PushPullCommand<PushOptions> {
             // 404 - Probably because of an old server
             if (e.getResponse().getStatus() == 404 && getClientFactory()
                     .compareToServerVersion("1.8.0-SNAPSHOT") < 0) {
-                log.warn("Copy Trans not started (Incompatible server version.)");
+                out.warn("Copy Trans not started (Incompatible server version.)");
                 return;
             } else {
                 throw new RuntimeException(
@@ -789,24 +998,52 @@ public class PushCommand extends PushPullCommand<PushOptions> {
             }
             throw failure;
         }
-        ConsoleUtils.startProgressFeedback();
+        startProgressFeedback();
 
         while (copyTransStatus.isInProgress()) {
             try {
                 Thread.sleep(POLL_PERIOD);
             } catch (InterruptedException e) {
-                log.warn("Interrupted while waiting for Copy Trans to finish.");
+                out.warn("Interrupted while waiting for Copy Trans to finish.");
             }
-            ConsoleUtils.setProgressFeedbackMessage(copyTransStatus
+            checkNotFailed();
+            setProgressFeedbackMessage(copyTransStatus
                     .getPercentageComplete() + "%");
             copyTransStatus =
                     this.copyTransClient.getCopyTransStatus(getOpts()
                             .getProj(), getOpts().getProjectVersion(), docName);
         }
-        ConsoleUtils.endProgressFeedback();
+        endProgressFeedback();
 
         if (copyTransStatus.getPercentageComplete() < 100) {
-            log.warn("Copy Trans for the above document stopped unexpectedly.");
+            out.warn("Copy Trans for the above document stopped unexpectedly.");
+        }
+    }
+
+    // progress feedback is only shown when pushing one document at a time
+
+    private void startProgressFeedback() {
+        if (pipeline == null) {
+            ConsoleUtils.startProgressFeedback();
+        }
+    }
+
+    private void setProgressFeedbackMessage(String message) {
+        if (pipeline == null) {
+            ConsoleUtils.setProgressFeedbackMessage(message);
+        }
+    }
+
+    private void endProgressFeedback() {
+        if (pipeline == null) {
+            ConsoleUtils.endProgressFeedback();
+        }
+    }
+
+    private void checkNotFailed() {
+        DocumentPipeline current = pipeline;
+        if (current != null) {
+            current.checkNotFailed();
         }
     }
 
@@ -29,7 +29,7 @@ import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * Provides a set of Etag cache entries and convenience methods for finding
- * them.
+ * them. Safe for use by concurrent pull threads.
  *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -47,25 +47,26 @@ public class ETagCache {
         }
     }
 
-    public List<ETagCacheEntry> getCacheEntries() {
+    public synchronized List<ETagCacheEntry> getCacheEntries() {
         return new ArrayList<ETagCacheEntry>(fileNameIndex.values());
     }
 
-    public void addEntry(ETagCacheEntry entry) {
+    public synchronized void addEntry(ETagCacheEntry entry) {
         fileNameIndex.put(
                 Pair.of(entry.getLocalFileName(), entry.getLanguage()),
                 entry);
     }
 
-    public ETagCacheEntry findEntry(String localFileName, String language) {
+    public synchronized ETagCacheEntry findEntry(String localFileName,
+            String language) {
         return fileNameIndex.get(Pair.of(localFileName, language));
     }
 
-    public void clear() {
+    public synchronized void clear() {
         fileNameIndex.clear();
     }
 
-    ETagCacheCollection asETagCacheCollection() {
+    synchronized ETagCacheCollection asETagCacheCollection() {
         ETagCacheCollection col = new ETagCacheCollection();
         col.setCacheEntries(new ArrayList<ETagCacheEntry>(fileNameIndex
                 .values()));
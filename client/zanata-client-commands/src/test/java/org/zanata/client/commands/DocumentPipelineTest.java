@@ -0,0 +1,60 @@
+package org.zanata.client.commands;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.zanata.client.commands.DocumentPipeline.DocumentPipelineException;
+
+public class DocumentPipelineTest {
+
+    @Test
+    public void completesTasksInSubmissionOrder() {
+        List<String> completed = new ArrayList<>();
+        CountDownLatch firstMayFinish = new CountDownLatch(1);
+        try (DocumentPipeline pipeline = new DocumentPipeline(3, "test")) {
+            pipeline.submit("doc1", () -> {
+                // finish after the later documents
+                firstMayFinish.await(5, TimeUnit.SECONDS);
+            }, () -> completed.add("doc1"));
+            pipeline.submit("doc2", firstMayFinish::countDown,
+                    () -> completed.add("doc2"));
+            pipeline.submit("doc3", () -> {
+            }, () -> completed.add("doc3"));
+            pipeline.finish();
+        }
+        assertThat(completed).containsExactly("doc1", "doc2", "doc3");
+    }
+
+    @Test
+    public void stopsAtFirstFailure() {
+        AtomicInteger started = new AtomicInteger();
+        List<String> completed = new ArrayList<>();
+        try (DocumentPipeline pipeline = new DocumentPipeline(1, "test")) {
+            pipeline.submit("doc1", started::incrementAndGet,
+                    () -> completed.add("doc1"));
+            pipeline.submit("doc2", () -> {
+                started.incrementAndGet();
+                throw new IllegalStateException("server said no");
+            }, () -> completed.add("doc2"));
+            for (int i = 3; i <= 10; i++) {
+                String docName = "doc" + i;
+                pipeline.submit(docName, started::incrementAndGet,
+                        () -> completed.add(docName));
+            }
+            pipeline.finish();
+            fail("expected failure");
+        } catch (DocumentPipelineException e) {
+            assertThat(e.getCause()).hasMessage("server said no");
+            assertThat(e.getFirstIncompleteDoc()).isEqualTo("doc2");
+        }
+        assertThat(completed).containsExactly("doc1");
+        assertThat(started.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,75 @@
+package org.zanata.client.commands.push;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.client.etag.ETagCache;
+import org.zanata.common.LocaleId;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TextFlow;
+
+public class IncrementalPushTest {
+    private static final String SETTINGS = "http://zanata/|proj|ver";
+    private ETagCache cache;
+    private Map<Pair<String, String>, String> serverHashes;
+    private Resource doc;
+
+    @Before
+    public void setUp() {
+        cache = new ETagCache();
+        serverHashes = new HashMap<>();
+        doc = new Resource("doc1");
+        doc.getTextFlows()
+                .add(new TextFlow("tf1", LocaleId.EN_US, "Hello"));
+    }
+
+    private IncrementalPush pushOnce() {
+        IncrementalPush push =
+                new IncrementalPush(cache, serverHashes, SETTINGS);
+        assertThat(push.isUnchanged("doc1", null, doc)).isFalse();
+        push.pushed("doc1", null, doc);
+        serverHashes.put(Pair.of("doc1", null), "1");
+        push.update(serverHashes);
+        return push;
+    }
+
+    @Test
+    public void unchangedAfterPush() {
+        pushOnce();
+        IncrementalPush next =
+                new IncrementalPush(cache, serverHashes, SETTINGS);
+        assertThat(next.isUnchanged("doc1", null, doc)).isTrue();
+        assertThat(next.isUnchanged("doc1", "de", doc)).isFalse();
+    }
+
+    @Test
+    public void changedLocally() {
+        pushOnce();
+        doc.getTextFlows().get(0).setContents("Goodbye");
+        IncrementalPush next =
+                new IncrementalPush(cache, serverHashes, SETTINGS);
+        assertThat(next.isUnchanged("doc1", null, doc)).isFalse();
+    }
+
+    @Test
+    public void changedOnServer() {
+        pushOnce();
+        serverHashes.put(Pair.of("doc1", null), "2");
+        IncrementalPush next =
+                new IncrementalPush(cache, serverHashes, SETTINGS);
+        assertThat(next.isUnchanged("doc1", null, doc)).isFalse();
+    }
+
+    @Test
+    public void changedSettings() {
+        pushOnce();
+        IncrementalPush next = new IncrementalPush(cache, serverHashes,
+                SETTINGS + "|other-version");
+        assertThat(next.isUnchanged("doc1", null, doc)).isFalse();
+    }
+}
@@ -21,8 +21,6 @@
 
 package org.zanata.maven;
 
-import java.io.File;
-
 import org.apache.maven.plugins.annotations.Parameter;
 import org.zanata.client.commands.PushPullCommand;
 import org.zanata.client.commands.PushPullType;
@@ -85,14 +83,6 @@ abstract class AbstractPullMojo extends
     @Parameter(property = "zanata.useCache", defaultValue = "true")
     private boolean useCache;
 
-    /**
-     * The base directory for storing zanata cache files. Default is current
-     * directory.
-     *
-     * @parameter expression="${zanata.cacheDir}" default-value="."
-     */
-    private File cacheDir;
-
     /**
      * Type of pull to perform from the server: "source" pulls source documents
      * only. "trans" pulls translation documents only. "both" pulls both source
@@ -201,9 +191,4 @@ abstract class AbstractPullMojo extends
     public int getMinDocPercent() {
         return minDocPercent;
     }
-
-    @Override
-    public File getCacheDir() {
-        return cacheDir;
-    }
 }
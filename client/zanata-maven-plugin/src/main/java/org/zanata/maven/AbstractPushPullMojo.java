@@ -1,5 +1,6 @@
 package org.zanata.maven;
 
+import java.io.File;
 import java.util.List;
 
 import com.google.common.collect.ImmutableSet;
@@ -126,6 +127,29 @@ abstract class AbstractPushPullMojo<O extends PushPullOptions> extends
     @Parameter(property = "zanata.locales")
     private String[] locales;
 
+    /**
+     * Number of documents to transfer concurrently. Console output stays in
+     * document order, and the operation stops at the first error.
+     */
+    @Parameter(property = "zanata.threads", defaultValue = "1")
+    private int threads = 1;
+
+    /**
+     * Only transfer documents which have changed since the last sync. Hashes
+     * from the last sync are kept in the cache directory and compared with
+     * the server's.
+     */
+    @Parameter(property = "zanata.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * The base directory for storing zanata cache files. Default is current
+     * directory.
+     *
+     * @parameter expression="${zanata.cacheDir}" default-value="."
+     */
+    private File cacheDir;
+
     private LocaleList effectiveLocales;
 
     public AbstractPushPullMojo() {
@@ -145,6 +169,21 @@ abstract class AbstractPushPullMojo<O extends PushPullOptions> extends
         return "srcDir";
     }
 
+    @Override
+    public int getThreads() {
+        return Math.max(1, threads);
+    }
+
+    @Override
+    public boolean getIncremental() {
+        return incremental;
+    }
+
+    @Override
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
     @Override
     public String getFromDoc() {
         return fromDoc;
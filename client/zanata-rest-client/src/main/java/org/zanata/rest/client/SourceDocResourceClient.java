@@ -36,6 +36,7 @@ import javax.ws.rs.core.Response;
 import org.zanata.rest.RestUtil;
 import org.zanata.rest.dto.resource.Resource;
 import org.zanata.rest.dto.resource.ResourceMeta;
+import org.zanata.rest.dto.resource.SyncManifest;
 
 /**
  * This "implements" caller methods to endpoints in SourceDocResource.
@@ -79,6 +80,21 @@ public class SourceDocResourceClient {
                 .path(projectVersion);
     }
 
+    /**
+     * Fetches content hashes for every document in the version, and for its
+     * translations in the given locales.
+     */
+    public SyncManifest getSyncManifest(Set<String> extensions,
+            Set<String> locales) {
+        Client client = factory.getClient();
+        WebTarget webResource = getBaseServiceResource(client)
+                .path("manifest")
+                .queryParam("ext", extensions.toArray())
+                .queryParam("locale", locales.toArray());
+        return webResource.request(MediaType.APPLICATION_XML_TYPE)
+                .get(SyncManifest.class);
+    }
+
     public Resource getResource(String docId, Set<String> extensions) {
         Client client = factory.getClient();
         WebTarget webResource =
@@ -29,6 +29,8 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.zanata.rest.dto.resource.Resource;
 import org.zanata.rest.dto.resource.ResourceMeta;
+import org.zanata.rest.dto.resource.SyncManifest;
+import org.zanata.rest.dto.resource.SyncManifestEntry;
 import org.zanata.rest.service.StubbingServerRule;
 import com.google.common.collect.Sets;
 
@@ -70,6 +72,15 @@ public class SourceDocResourceClientTest {
         assertThat(result).isEqualTo("newName");
     }
 
+    @Test
+    public void testGetSyncManifest() {
+        SyncManifest manifest = client.getSyncManifest(
+                Sets.newHashSet("gettext"), Sets.newHashSet("de"));
+        assertThat(manifest.getEntries()).containsExactly(
+                new SyncManifestEntry("about-fedora", null, "1"),
+                new SyncManifestEntry("about-fedora", "de", "1"));
+    }
+
     @Test
     public void testDeleteResource() {
         String result = client.deleteResource("test");
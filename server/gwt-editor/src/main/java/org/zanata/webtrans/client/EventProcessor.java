@@ -27,6 +27,7 @@ import org.zanata.webtrans.shared.rpc.TMMergeInProgress;
 import org.zanata.webtrans.shared.rpc.TransMemoryMergeStartOrEnd;
 import org.zanata.webtrans.shared.rpc.TransUnitEdit;
 import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
 import org.zanata.webtrans.shared.rpc.WorkspaceContextUpdate;
 
 import com.allen_sauer.gwt.log.client.Log;
@@ -174,7 +175,13 @@ public class EventProcessor implements RemoteEventListener {
     @Override
     public void apply(Event event) {
         // Log.info("received remote event "+event);
-        if (event instanceof SessionEventData) {
+        if (event instanceof TransUnitUpdatedBatch) {
+            // saves which the server coalesced into one message
+            for (TransUnitUpdated updated : ((TransUnitUpdatedBatch) event)
+                    .getUpdates()) {
+                apply(updated);
+            }
+        } else if (event instanceof SessionEventData) {
             SessionEventData ed = (SessionEventData) event;
             GwtEvent<?> gwtEvent = eventRegistry.getEvent(ed);
             if (gwtEvent != null) {
@@ -86,6 +86,11 @@ public class SearchResultsPresenter extends
         WidgetPresenter<SearchResultsPresenter.Display> {
 
     private static final int TRUNCATED_TARGET_LENGTH = 24;
+    /**
+     * Project-wide search results are fetched in pages of (at least) this
+     * many text flows.
+     */
+    static final int TEXT_FLOWS_PER_SEARCH_PAGE = 500;
 
     public interface Display extends WidgetDisplay {
         HasText getSearchResponseLabel();
@@ -124,6 +129,13 @@ public class SearchResultsPresenter extends
 
         HasClickHandlers getReplaceAllButton();
 
+        /**
+         * @return button which fetches the next page of search results
+         */
+        HasClickHandlers getMoreResultsButton();
+
+        void setMoreResultsButtonVisible(boolean visible);
+
         void setReplaceAllButtonEnabled(boolean enabled);
 
         void setReplaceAllButtonVisible(boolean visible);
@@ -213,6 +225,11 @@ public class SearchResultsPresenter extends
     private final UserWorkspaceContext userWorkspaceContext;
 
     private AsyncCallback<GetProjectTransUnitListsResult> projectSearchCallback;
+    /**
+     * Request for the next page of the current search, or null if all of its
+     * results are shown.
+     */
+    private GetProjectTransUnitLists nextSearchPage;
     private Delegate<TransUnitReplaceInfo> previewButtonDelegate;
     private Delegate<TransUnitReplaceInfo> replaceButtonDelegate;
     private Delegate<TransUnitReplaceInfo> undoButtonDelegate;
@@ -308,6 +325,10 @@ public class SearchResultsPresenter extends
         registerHandler(display.getReplaceAllButton().addClickHandler(
                 event -> replaceSelected()));
 
+        display.setMoreResultsButtonVisible(false);
+        registerHandler(display.getMoreResultsButton().addClickHandler(
+                event -> fetchMoreSearchResults()));
+
         registerHandler(eventBus.addHandler(TransUnitUpdatedEvent.getType(),
                 event -> {
                     TransUnitUpdateInfo updateInfo = event.getUpdateInfo();
@@ -453,13 +474,20 @@ public class SearchResultsPresenter extends
     private AsyncCallback<GetProjectTransUnitListsResult>
             buildProjectSearchCallback() {
         return new AsyncCallback<GetProjectTransUnitListsResult>() {
+            private int textFlowCount = 0;
+            private int documentCount = 0;
 
             @Override
             public void onFailure(Throwable caught) {
+                if (this != projectSearchCallback) {
+                    // a newer search has replaced this one
+                    return;
+                }
                 Log.error("[SearchResultsPresenter] failed project-wide search request: "
                         + caught.getMessage());
                 eventBus.fireEvent(new NotificationEvent(Severity.Error,
                         messages.searchFailed()));
+                display.setSearching(false);
                 display.clearAll();
                 display.getSearchResponseLabel().setText(
                         messages.searchFailed());
@@ -467,8 +495,15 @@ public class SearchResultsPresenter extends
 
             @Override
             public void onSuccess(GetProjectTransUnitListsResult result) {
-                int textFlowCount = displaySearchResults(result);
-                if (result.getDocumentIds().size() == 0) {
+                if (this != projectSearchCallback) {
+                    return;
+                }
+                if (result.getSearchAction().getAfterDocumentId() == null) {
+                    clearAllExistingData();
+                }
+                textFlowCount += displaySearchResults(result);
+                documentCount += result.getDocumentIds().size();
+                if (documentCount == 0) {
                     // TODO add case sensitivity and scope
                     display.getSearchResponseLabel().setText(
                             messages.searchForPhraseReturnedNoResults(result
@@ -478,9 +513,11 @@ public class SearchResultsPresenter extends
                     display.getSearchResponseLabel().setText(
                             messages.showingResultsForProjectWideSearch(result
                                     .getSearchAction().getSearchString(),
-                                    textFlowCount, result.getDocumentIds()
-                                            .size()));
+                                    textFlowCount, documentCount));
                 }
+                // later pages are only fetched when the user asks for them
+                nextSearchPage = result.hasMore() ? result.nextPage() : null;
+                display.setMoreResultsButtonVisible(result.hasMore());
                 display.setSearching(false);
             }
 
@@ -807,8 +844,12 @@ public class SearchResultsPresenter extends
                 final List<TransUnitUpdateInfo> updateInfoList =
                         processSuccessfulReplacements(result
                                 .getUpdateInfoList());
+                processFailedReplacements(result.getFailedTransUnitIds());
 
                 if (updateInfoList.isEmpty()) {
+                    if (!result.getFailedTransUnitIds().isEmpty()) {
+                        return;
+                    }
                     eventBus.fireEvent(new NotificationEvent(Info, messages
                             .noReplacementsToMake()));
                     return;
@@ -902,24 +943,26 @@ public class SearchResultsPresenter extends
 
     private void executePostSucess(UpdateTransUnitResult result) {
         for (TransUnitUpdateInfo info : result.getUpdateInfoList()) {
-            TransUnitReplaceInfo replaceInfo =
-                    allReplaceInfos.get(info.getTransUnit().getId());
-            setReplaceState(replaceInfo, ReplacementState.NotReplaced);
-            if (replaceInfo.getPreview() == null) {
-                replaceInfo.setPreviewState(PreviewState.NotFetched);
+            setNotReplaced(allReplaceInfos.get(info.getTransUnit().getId()));
+        }
+        refreshReplaceAllButton();
+    }
+
+    private void setNotReplaced(TransUnitReplaceInfo replaceInfo) {
+        setReplaceState(replaceInfo, ReplacementState.NotReplaced);
+        if (replaceInfo.getPreview() == null) {
+            replaceInfo.setPreviewState(PreviewState.NotFetched);
+        } else {
+            MultiSelectionModel<TransUnitReplaceInfo> selectionModel =
+                    documentSelectionModels.get(replaceInfo.getDocId());
+            if (selectionModel != null
+                    && selectionModel.isSelected(replaceInfo)) {
+                replaceInfo.setPreviewState(PreviewState.Show);
             } else {
-                MultiSelectionModel<TransUnitReplaceInfo> selectionModel =
-                        documentSelectionModels.get(replaceInfo.getDocId());
-                if (selectionModel != null
-                        && selectionModel.isSelected(replaceInfo)) {
-                    replaceInfo.setPreviewState(PreviewState.Show);
-                } else {
-                    replaceInfo.setPreviewState(PreviewState.Hide);
-                }
+                replaceInfo.setPreviewState(PreviewState.Hide);
             }
-            refreshInfoDisplay(replaceInfo);
         }
-        refreshReplaceAllButton();
+        refreshInfoDisplay(replaceInfo);
     }
 
     /**
@@ -961,6 +1004,31 @@ public class SearchResultsPresenter extends
         return successfulReplacements;
     }
 
+    /**
+     * Allow text flows to be replaced again when their replacement was rolled
+     * back, e.g. because a batch of a large replacement failed.
+     *
+     * @param failedTransUnitIds
+     *            ids of the text flows which were not replaced
+     */
+    private void processFailedReplacements(
+            List<TransUnitId> failedTransUnitIds) {
+        if (failedTransUnitIds.isEmpty()) {
+            return;
+        }
+        for (TransUnitId id : failedTransUnitIds) {
+            TransUnitReplaceInfo replaceInfo = allReplaceInfos.get(id);
+            // may be null if another search has been performed since the
+            // replacement
+            if (replaceInfo != null) {
+                setNotReplaced(replaceInfo);
+            }
+        }
+        refreshReplaceAllButton();
+        eventBus.fireEvent(new NotificationEvent(Severity.Error, messages
+                .replaceTextFailure()));
+    }
+
     /**
      * Sets the info item to its current index in the containing data provider
      * to force the provider to recognize that it has changed.
@@ -981,15 +1049,14 @@ public class SearchResultsPresenter extends
     }
 
     /**
-     * Show search results as documents in the display. This will replace any
-     * existing results being displayed.
+     * Show search results as documents in the display, after any existing
+     * results being displayed.
      *
      * @param result
      *            results to display
      * @return the number of text flows that were displayed
      */
     private int displaySearchResults(GetProjectTransUnitListsResult result) {
-        clearAllExistingData();
         int totalTransUnits = 0;
         for (Long docId : result.getDocumentIds()) {
             docPaths.put(docId, result.getDocPath(docId));
@@ -1112,17 +1179,34 @@ public class SearchResultsPresenter extends
         display.getCaseSensitiveChk().setValue(caseSensitive, false);
 
         clearAllExistingData();
+        nextSearchPage = null;
+        display.setMoreResultsButtonVisible(false);
 
         if (!searchText.isEmpty()) {
             display.setSearching(true);
             GetProjectTransUnitLists action =
-                    new GetProjectTransUnitLists(searchText, searchInSource,
-                            searchInTarget, caseSensitive,
-                            windowLocation.getQueryDocuments());
+                    GetProjectTransUnitLists.firstPage(searchText,
+                            searchInSource, searchInTarget, caseSensitive,
+                            windowLocation.getQueryDocuments(),
+                            TEXT_FLOWS_PER_SEARCH_PAGE);
+            projectSearchCallback = buildProjectSearchCallback();
             dispatcher.execute(action, projectSearchCallback);
         }
     }
 
+    /**
+     * Fetch the next page of results for the current search, and show them
+     * after the results already shown.
+     */
+    private void fetchMoreSearchResults() {
+        if (nextSearchPage == null) {
+            return;
+        }
+        display.setMoreResultsButtonVisible(false);
+        display.setSearching(true);
+        dispatcher.execute(nextSearchPage, projectSearchCallback);
+    }
+
     public void updateReplacementText(String replacement) {
         display.getReplacementTextBox().setValue(replacement, true);
         for (TransUnitReplaceInfo info : allReplaceInfos.values()) {
@@ -88,7 +88,7 @@ public class SearchResultsView extends Composite implements
     CheckBox caseSensitiveChk, selectAllChk, requirePreviewChk;
 
     @UiField
-    Button searchButton, replaceAllButton;
+    Button searchButton, replaceAllButton, moreResultsButton;
 
     @UiField
     ListBox searchFieldsSelect;
@@ -213,6 +213,16 @@ public class SearchResultsView extends Composite implements
         replaceAllButton.setVisible(visible);
     }
 
+    @Override
+    public HasClickHandlers getMoreResultsButton() {
+        return moreResultsButton;
+    }
+
+    @Override
+    public void setMoreResultsButtonVisible(boolean visible) {
+        moreResultsButton.setVisible(visible);
+    }
+
     @Override
     public HasValue<Boolean> getRequirePreviewChk() {
         return requirePreviewChk;
@@ -7,9 +7,13 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.zanata.common.ProjectType;
+import org.zanata.webtrans.client.events.TransUnitUpdatedEvent;
 import org.zanata.webtrans.client.events.WorkspaceContextUpdateEvent;
+import org.zanata.webtrans.shared.auth.EditorClientId;
 import org.zanata.webtrans.shared.model.UserWorkspaceContext;
 import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
 import org.zanata.webtrans.shared.rpc.WorkspaceContextUpdate;
 import com.allen_sauer.gwt.log.client.Log;
 import com.google.gwt.user.client.rpc.AsyncCallback;
@@ -24,9 +28,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static java.util.Arrays.asList;
 import static org.zanata.webtrans.test.GWTTestData.userWorkspaceContext;
 
 /**
@@ -116,4 +122,24 @@ public class EventProcessorTest {
 
         verifyZeroInteractions(eventBus);
     }
+
+    @Test
+    public void applyBatchFiresEventForEachUpdate() {
+        EditorClientId editorClientId = new EditorClientId("session", 1);
+        TransUnitUpdated first = new TransUnitUpdated(null, editorClientId,
+                TransUnitUpdated.UpdateType.WebEditorSave);
+        TransUnitUpdated second = new TransUnitUpdated(null, editorClientId,
+                TransUnitUpdated.UpdateType.NonEditorSave);
+        ArgumentCaptor<TransUnitUpdatedEvent> eventCaptor =
+                ArgumentCaptor.forClass(TransUnitUpdatedEvent.class);
+
+        eventProcessor.apply(
+                new TransUnitUpdatedBatch(asList(first, second)));
+
+        verify(eventBus, times(2)).fireEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues())
+                .extracting(TransUnitUpdatedEvent::getUpdateType)
+                .containsExactly(TransUnitUpdated.UpdateType.WebEditorSave,
+                        TransUnitUpdated.UpdateType.NonEditorSave);
+    }
 }
@@ -21,8 +21,10 @@
 package org.zanata.webtrans.client.presenter;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -153,6 +155,8 @@ public class SearchResultsPresenterTest {
     @Mock
     HasClickHandlers mockSearchButton;
     @Mock
+    HasClickHandlers mockMoreResultsButton;
+    @Mock
     HasText mockSearchResponseLabel;
     @Mock
     HasValue<Boolean> mockSelectAllChk;
@@ -168,6 +172,8 @@ public class SearchResultsPresenterTest {
     @Captor
     ArgumentCaptor<ClickHandler> capturedSearchButtonClickHandler;
     @Captor
+    ArgumentCaptor<ClickHandler> capturedMoreResultsButtonClickHandler;
+    @Captor
     ArgumentCaptor<ClickHandler> capturedSelectAllButtonClickHandler;
     @Captor
     ArgumentCaptor<ValueChangeHandler<Boolean>> capturedSelectAllChkValueChangeHandler;
@@ -248,6 +254,8 @@ public class SearchResultsPresenterTest {
                 mockRequirePreviewChk);
         when(mockDisplay.getReplaceAllButton())
                 .thenReturn(mockReplaceAllButton);
+        when(mockDisplay.getMoreResultsButton())
+                .thenReturn(mockMoreResultsButton);
 
         // getters used after bind
         when(mockDisplay.getCaseSensitiveChk())
@@ -399,6 +407,53 @@ public class SearchResultsPresenterTest {
                 .isTrue();
     }
 
+    @Test
+    public void laterSearchResultPagesAreFetchedOnRequest() {
+        searchResultsPresenter.bind();
+        verify(mockMoreResultsButton).addClickHandler(
+                capturedMoreResultsButtonClickHandler.capture());
+        searchResultsPresenter.updateViewAndRun(TEST_SEARCH_PHRASE, false,
+                true, true);
+
+        verify(mockDispatcher).execute(capturedDispatchedSearch.capture(),
+                capturedDispatchedSearchCallback.capture());
+        GetProjectTransUnitLists firstPage =
+                capturedDispatchedSearch.getValue();
+        assertThat(firstPage.getAfterDocumentId()).isNull();
+        assertThat(firstPage.getMaxTextFlows()).isEqualTo(
+                SearchResultsPresenter.TEXT_FLOWS_PER_SEARCH_PAGE);
+
+        capturedDispatchedSearchCallback.getValue().onSuccess(
+                new GetProjectTransUnitListsResult(firstPage,
+                        new HashMap<Long, String>(),
+                        new HashMap<Long, List<TransUnit>>(), TEST_DOC_ID_1));
+
+        // the next page waits until the user asks for it
+        verify(mockDispatcher, times(1)).execute(
+                any(GetProjectTransUnitLists.class),
+                capturedDispatchedSearchCallback.capture());
+        verify(mockDisplay).setMoreResultsButtonVisible(true);
+        verify(mockDisplay).setSearching(false);
+
+        capturedMoreResultsButtonClickHandler.getValue().onClick(null);
+
+        verify(mockDispatcher, times(2)).execute(
+                capturedDispatchedSearch.capture(),
+                capturedDispatchedSearchCallback.capture());
+        GetProjectTransUnitLists nextPage = capturedDispatchedSearch.getValue();
+        assertThat(nextPage.getAfterDocumentId()).isEqualTo(TEST_DOC_ID_1);
+        assertThat(nextPage.getSearchString()).isEqualTo(TEST_SEARCH_PHRASE);
+
+        capturedDispatchedSearchCallback.getValue().onSuccess(
+                new GetProjectTransUnitListsResult(nextPage,
+                        new HashMap<Long, String>(),
+                        new HashMap<Long, List<TransUnit>>()));
+        verify(mockDispatcher, times(2)).execute(
+                any(GetProjectTransUnitLists.class),
+                capturedDispatchedSearchCallback.capture());
+        verify(mockDisplay, times(2)).setSearching(false);
+    }
+
     @Test
     public void replacementValueChanged() {
         when(mockHistory.getHistoryToken())
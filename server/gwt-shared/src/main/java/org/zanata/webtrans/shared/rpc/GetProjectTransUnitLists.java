@@ -38,6 +38,8 @@ public class GetProjectTransUnitLists extends
     private boolean searchInSource;
     private boolean searchInTarget;
     private List<String> documentPaths;
+    private Long afterDocumentId;
+    private int maxTextFlows;
 
     @SuppressWarnings("unused")
     private GetProjectTransUnitLists() {
@@ -59,6 +61,35 @@ public class GetProjectTransUnitLists extends
         this.documentPaths = documentPaths;
     }
 
+    /**
+     * Creates the first page of a search, which ends with the first document
+     * that brings the number of matching text flows to at least
+     * {@code maxTextFlows}.
+     *
+     * @see GetProjectTransUnitListsResult#hasMore()
+     */
+    public static GetProjectTransUnitLists firstPage(String searchString,
+            boolean searchInSource, boolean searchInTarget,
+            boolean caseSensitive, List<String> documentPaths,
+            int maxTextFlows) {
+        GetProjectTransUnitLists action = new GetProjectTransUnitLists(
+                searchString, searchInSource, searchInTarget, caseSensitive,
+                documentPaths);
+        action.maxTextFlows = maxTextFlows;
+        return action;
+    }
+
+    /**
+     * @return the same search, for the documents after the given one
+     */
+    public GetProjectTransUnitLists nextPage(Long afterDocumentId) {
+        GetProjectTransUnitLists action = firstPage(searchString,
+                searchInSource, searchInTarget, caseSensitive, documentPaths,
+                maxTextFlows);
+        action.afterDocumentId = afterDocumentId;
+        return action;
+    }
+
     public String getSearchString() {
         return this.searchString;
     }
@@ -78,4 +109,24 @@ public class GetProjectTransUnitLists extends
     public List<String> getDocumentPaths() {
         return documentPaths;
     }
+
+    /**
+     * @return id of the last document of the previous page, or null for the
+     *         first page
+     */
+    public Long getAfterDocumentId() {
+        return afterDocumentId;
+    }
+
+    /**
+     * @return how many matching text flows a page should have, or 0 to get
+     *         all results at once
+     */
+    public int getMaxTextFlows() {
+        return maxTextFlows;
+    }
+
+    public boolean isPaged() {
+        return maxTextFlows > 0;
+    }
 }
@@ -48,6 +48,11 @@ public class GetProjectTransUnitListsResult implements DispatchResult {
      */
     private Map<Long, String> docPaths;
 
+    /**
+     * Id of the last document in this page, if there may be more results
+     */
+    private Long nextAfterDocumentId;
+
     @SuppressWarnings("unused")
     private GetProjectTransUnitListsResult() {
     }
@@ -60,6 +65,13 @@ public class GetProjectTransUnitListsResult implements DispatchResult {
         this.documents = documents;
     }
 
+    public GetProjectTransUnitListsResult(
+            GetProjectTransUnitLists searchAction, Map<Long, String> docPaths,
+            Map<Long, List<TransUnit>> documents, Long nextAfterDocumentId) {
+        this(searchAction, docPaths, documents);
+        this.nextAfterDocumentId = nextAfterDocumentId;
+    }
+
     public GetProjectTransUnitLists getSearchAction() {
         return searchAction;
     }
@@ -76,4 +88,18 @@ public class GetProjectTransUnitListsResult implements DispatchResult {
         return docPaths.keySet();
     }
 
+    /**
+     * @return whether the next page of the search may have more results
+     */
+    public boolean hasMore() {
+        return nextAfterDocumentId != null;
+    }
+
+    /**
+     * @return the action for the next page of the search
+     */
+    public GetProjectTransUnitLists nextPage() {
+        return searchAction.nextPage(nextAfterDocumentId);
+    }
+
 }
@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.google.common.base.MoreObjects;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.zanata.webtrans.shared.model.TransUnitId;
 import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
 
 public class UpdateTransUnitResult implements DispatchResult {
@@ -12,9 +13,12 @@ public class UpdateTransUnitResult implements DispatchResult {
     private static final long serialVersionUID = 1L;
     @SuppressFBWarnings(value = "SE_BAD_FIELD")
     private List<TransUnitUpdateInfo> tuUpdateInfo;
+    @SuppressFBWarnings(value = "SE_BAD_FIELD")
+    private List<TransUnitId> failedTransUnitIds;
 
     public UpdateTransUnitResult() {
         tuUpdateInfo = new ArrayList<TransUnitUpdateInfo>();
+        failedTransUnitIds = new ArrayList<TransUnitId>();
     }
 
     public UpdateTransUnitResult(TransUnitUpdateInfo updateInfo) {
@@ -30,6 +34,21 @@ public class UpdateTransUnitResult implements DispatchResult {
         return tuUpdateInfo;
     }
 
+    /**
+     * Records a requested update which was not saved, and has no update info
+     * because its changes were rolled back.
+     */
+    public void addFailedTransUnit(TransUnitId transUnitId) {
+        failedTransUnitIds.add(transUnitId);
+    }
+
+    /**
+     * @return ids of requested updates which were rolled back
+     */
+    public List<TransUnitId> getFailedTransUnitIds() {
+        return failedTransUnitIds;
+    }
+
     public Integer getSingleVersionNum() {
         return getSingleUpdateInfo().getTransUnit().getVerNum();
     }
@@ -50,10 +69,13 @@ public class UpdateTransUnitResult implements DispatchResult {
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).add("tuUpdateInfo", tuUpdateInfo)
-                .toString();
+                .add("failedTransUnitIds", failedTransUnitIds).toString();
     }
 
     public boolean isAllSuccess() {
+        if (!failedTransUnitIds.isEmpty()) {
+            return false;
+        }
         for (TransUnitUpdateInfo transUnitUpdateInfo : tuUpdateInfo) {
             if (!transUnitUpdateInfo.isSuccess()) {
                 return false;
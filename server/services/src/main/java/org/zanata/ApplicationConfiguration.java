@@ -423,6 +423,26 @@ public class ApplicationConfiguration implements Serializable {
                 databaseBackedConfig.getMaxActiveRequestsPerApiKey(), 2);
     }
 
+    public boolean isDistributedRateLimit() {
+        return sysPropConfigStore.isDistributedRateLimitEnabled();
+    }
+
+    public boolean isTrigramSearchIndex() {
+        return sysPropConfigStore.isTrigramSearchIndexEnabled();
+    }
+
+    public boolean isBulkTmxImport() {
+        return sysPropConfigStore.isBulkTmxImportEnabled();
+    }
+
+    public long getTranslatedFileCacheSizeMB() {
+        return sysPropConfigStore.getTranslatedFileCacheSizeMB();
+    }
+
+    public boolean isDistributedTranslatedFileCache() {
+        return sysPropConfigStore.isDistributedTranslatedFileCacheEnabled();
+    }
+
     public int getMaxFilesPerUpload() {
         return parseIntegerOrDefault(
                 databaseBackedConfig.getMaxFilesPerUpload(),
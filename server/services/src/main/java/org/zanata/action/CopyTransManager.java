@@ -101,6 +101,8 @@ public class CopyTransManager implements Serializable {
         }
         AsyncTaskKey key = CopyTransProcessKey.getKey(document);
         CopyTransTaskHandle handle = new CopyTransTaskHandle();
+        handle.setProjectSlug(
+                document.getProjectIteration().getProject().getSlug());
         handle.setTaskName(messages.format("jsf.tasks.copyTranslationsDoc",
                 document.getDocId()));
         handle.setTriggeredBy(identity.getAccountUsername());
@@ -123,6 +125,7 @@ public class CopyTransManager implements Serializable {
         AsyncTaskKey key = CopyTransProcessKey.getKey(iteration);
         CopyTransTaskHandle handle = new CopyTransTaskHandle();
         handle.setTriggeredBy(identity.getAccountUsername());
+        handle.setProjectSlug(iteration.getProject().getSlug());
         handle.setTaskName(
                 messages.format("jsf.tasks.copyTranslationsVersion",
                 iteration.getProject().getSlug(), iteration.getSlug()));
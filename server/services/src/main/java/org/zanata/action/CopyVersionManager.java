@@ -53,6 +53,7 @@ public class CopyVersionManager implements Serializable {
             String newVersionSlug) {
         AsyncTaskKey key = CopyVersionKey.getKey(projectSlug, newVersionSlug);
         CopyVersionTaskHandle handle = new CopyVersionTaskHandle();
+        handle.setProjectSlug(projectSlug);
         handle.setTaskName(
                 messages.format("jsf.tasks.copyVersion", projectSlug,
                         versionSlug, newVersionSlug));
@@ -60,6 +60,7 @@ public class MergeTranslationsManager implements Serializable {
         AsyncTaskKey key = MergeVersionKey
                 .getKey(targetProjectSlug, targetVersionSlug);
         MergeTranslationsTaskHandle handle = new MergeTranslationsTaskHandle(key);
+        handle.setProjectSlug(targetProjectSlug);
         handle.setTaskName(msgs.format("jsf.tasks.mergeTranslations",
                 sourceProjectSlug, sourceVersionSlug,
                 targetProjectSlug, targetVersionSlug));
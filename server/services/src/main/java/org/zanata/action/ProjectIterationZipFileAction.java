@@ -11,6 +11,7 @@ import org.apache.deltaspike.core.api.scope.GroupedConversationScoped;
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.dao.ProjectIterationDAO;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.TranslationArchiveService;
@@ -46,6 +47,8 @@ public class ProjectIterationZipFileAction implements Serializable {
         }
         // Start the zip file build
         zipFilePrepHandle = new AsyncTaskHandle<String>();
+        zipFilePrepHandle.setTaskType(AsyncTaskType.ARCHIVE);
+        zipFilePrepHandle.setProjectSlug(projectSlug);
         asyncTaskHandleManager.registerTaskHandle(zipFilePrepHandle);
         try {
             translationArchiveServiceImpl.startBuildingTranslationFileArchive(
@@ -2,6 +2,7 @@ package org.zanata.action;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -14,6 +15,7 @@ import org.joda.time.Period;
 import org.joda.time.format.PeriodFormatter;
 import org.joda.time.format.PeriodFormatterBuilder;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.handle.ReindexTaskHandle;
 import org.zanata.service.SearchIndexManager;
 import com.google.common.base.Optional;
 
@@ -127,6 +129,14 @@ public class ReindexAction implements Serializable {
         return searchIndexManager.getCurrentClassName();
     }
 
+    public List<ReindexTaskHandle.ClassProgress> getClassProgress() {
+        ReindexTaskHandle taskHandle = searchIndexManager.getProcessHandle();
+        if (taskHandle == null) {
+            return Collections.emptyList();
+        }
+        return taskHandle.getClassProgress();
+    }
+
     public boolean isError() {
         AsyncTaskHandle<Void> taskHandle =
                 searchIndexManager.getProcessHandle();
@@ -13,11 +13,16 @@ public class ReindexClassOptions implements Serializable {
     private boolean purge = false;
     private boolean reindex = false;
     private boolean optimize = false;
+    private int threads = 1;
 
     public ReindexClassOptions(Class<?> indexableClass) {
         clazz = indexableClass;
     }
 
+    public Class<?> getClazz() {
+        return clazz;
+    }
+
     public String getClassName() {
         return clazz.getSimpleName();
     }
@@ -61,4 +66,17 @@ public class ReindexClassOptions implements Serializable {
     public void setOptimize(final boolean optimize) {
         this.optimize = optimize;
     }
+
+    /**
+     * Number of worker threads used to reindex the class. More than one
+     * thread reindexes id ranges in parallel, and lets an interrupted reindex
+     * resume where it stopped.
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
 }
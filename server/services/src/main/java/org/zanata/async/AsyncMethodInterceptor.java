@@ -30,6 +30,7 @@ import javax.interceptor.InvocationContext;
 import java.lang.reflect.InvocationTargetException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @author Carlos Munoz <a href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -38,6 +39,8 @@ import java.util.concurrent.Future;
 @Interceptor
 //@Priority(Interceptor.Priority.LIBRARY_BEFORE)
 public class AsyncMethodInterceptor {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(AsyncMethodInterceptor.class);
 
     private static final ThreadLocal<Boolean> shouldRunAsyncThreadLocal =
             ThreadLocal.withInitial(() -> true);
@@ -84,6 +87,10 @@ public class AsyncMethodInterceptor {
                 shouldRunAsyncThreadLocal.set(false);
                 try {
                     if (handle.isPresent()) {
+                        if (handle.get().isCancelled()) {
+                            // cancelled while it was waiting to start
+                            return null;
+                        }
                         handle.get().startTiming();
                     }
                     // TODO Handle CDI Qualifiers
@@ -104,8 +111,21 @@ public class AsyncMethodInterceptor {
                 }
             };
 
-            CompletableFuture<Object> futureResult =
-                    taskManager.startTask(asyncTask);
+            CompletableFuture<Object> futureResult;
+            try {
+                futureResult =
+                        taskManager.startTask(asyncTask, handle.orNull());
+            } catch (RejectedExecutionException e) {
+                // fail the task rather than the caller, so that clients
+                // see why through the task's status
+                log.warn("async method {} rejected: {}",
+                        ctx.getMethod().getName(), e.getMessage());
+                futureResult = new CompletableFuture<>();
+                futureResult.completeExceptionally(e);
+                if (handle.isPresent()) {
+                    taskHandleManager.taskFinished(handle.get());
+                }
+            }
             if (handle.isPresent()) {
                 handle.get().setFutureResult(futureResult);
             }
@@ -21,11 +21,17 @@
 package org.zanata.async;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
 import javax.annotation.Nullable;
@@ -51,13 +57,28 @@ public class AsyncTaskHandle<V> implements Serializable {
     @SuppressFBWarnings("SE_BAD_FIELD")
     private CompletableFuture<V> futureResult;
     private long maxProgress = 100;
-    private long currentProgress = 0;
+    private volatile long currentProgress = 0;
     private long startTime = -1;
     private long finishTime = -1;
     private String cancelledBy;
     private long cancelledTime;
     private String keyId;
     protected String taskName;
+    private AsyncTaskType taskType;
+    private String projectSlug;
+    private final ConcurrentMap<String, AtomicLong> stageNanos =
+            new ConcurrentHashMap<>();
+    // the scheduler, while this handle's task is waiting to start
+    @SuppressFBWarnings("SE_TRANSIENT_FIELD_NOT_RESTORED")
+    private transient volatile AsyncTaskScheduler queuedIn;
+
+    public AsyncTaskHandle() {
+        this(AsyncTaskType.OTHER);
+    }
+
+    protected AsyncTaskHandle(AsyncTaskType taskType) {
+        this.taskType = taskType;
+    }
 
     public static boolean taskIsNotRunning(
             @Nullable AsyncTaskHandle<?> handleByKey) {
@@ -69,7 +90,7 @@ public class AsyncTaskHandle<V> implements Serializable {
         return isStarted() && !isCancelled() && !isDone();
     }
 
-    public long increaseProgress(long increaseBy) {
+    public synchronized long increaseProgress(long increaseBy) {
         currentProgress += increaseBy;
         return currentProgress;
     }
@@ -107,6 +128,20 @@ public class AsyncTaskHandle<V> implements Serializable {
         return startTime >= 0;
     }
 
+    /**
+     * @return the position of this task among the tasks waiting for a free
+     *         worker (1 means next), or empty if it is not waiting
+     */
+    public OptionalInt getQueuePosition() {
+        AsyncTaskScheduler scheduler = queuedIn;
+        return scheduler == null ? OptionalInt.empty()
+                : scheduler.getQueuePosition(this);
+    }
+
+    void setQueuedIn(@Nullable AsyncTaskScheduler scheduler) {
+        queuedIn = scheduler;
+    }
+
     /**
      * @return An optional container with the estimated time remaining for the
      *         process to finish, or an empty container if the time cannot be
@@ -189,6 +224,27 @@ public class AsyncTaskHandle<V> implements Serializable {
         }
     }
 
+    /**
+     * Adds to the time spent in one stage of the task (eg fetching data or
+     * waiting for a remote service). Stages may run concurrently, so their
+     * total can exceed the executing time.
+     */
+    public void addStageTime(String stage, long duration, TimeUnit unit) {
+        stageNanos.computeIfAbsent(stage, k -> new AtomicLong())
+                .addAndGet(unit.toNanos(duration));
+    }
+
+    /**
+     * @return The time (in milliseconds) spent in each stage of the task so
+     *         far, by stage name.
+     */
+    public Map<String, Long> getStageTimes() {
+        Map<String, Long> times = new TreeMap<>();
+        stageNanos.forEach((stage, nanos) -> times.put(stage,
+                TimeUnit.NANOSECONDS.toMillis(nanos.get())));
+        return times;
+    }
+
     protected void setFutureResult(final CompletableFuture<V> futureResult) {
         this.futureResult = futureResult;
     }
@@ -254,6 +310,31 @@ public class AsyncTaskHandle<V> implements Serializable {
         this.keyId = keyId;
     }
 
+    public AsyncTaskType getTaskType() {
+        return taskType;
+    }
+
+    /**
+     * Sets the kind of task, which determines its priority when it is
+     * waiting to start.
+     */
+    public void setTaskType(AsyncTaskType taskType) {
+        this.taskType = taskType;
+    }
+
+    /**
+     * @return the project the task works on, used to limit the number of
+     *         running tasks per project, or null
+     */
+    @Nullable
+    public String getProjectSlug() {
+        return projectSlug;
+    }
+
+    public void setProjectSlug(@Nullable String projectSlug) {
+        this.projectSlug = projectSlug;
+    }
+
     public void setTaskName(String name) {
         this.taskName = name;
     }
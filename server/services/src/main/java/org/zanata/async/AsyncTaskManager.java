@@ -22,10 +22,12 @@ package org.zanata.async;
 
 import java.security.Principal;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.RequestScoped;
@@ -36,6 +38,7 @@ import javax.security.auth.Subject;
 import org.apache.deltaspike.cdise.api.ContextControl;
 import org.zanata.config.AsyncConfig;
 import org.zanata.dao.AccountDAO;
+import org.zanata.metrics.MetricRegistry;
 import org.zanata.model.HAccount;
 import org.zanata.seam.security.ZanataJpaIdentityStore;
 import org.zanata.security.ZanataIdentity;
@@ -52,14 +55,27 @@ public class AsyncTaskManager {
     private static final org.slf4j.Logger log =
             org.slf4j.LoggerFactory.getLogger(AsyncTaskManager.class);
 
-    private ExecutorService scheduler;
+    private AsyncTaskScheduler scheduler;
     @Inject
     private AsyncConfig asyncConfig;
 
     @PostConstruct
     public void init() {
-        scheduler =
-                Executors.newFixedThreadPool(asyncConfig.getThreadPoolSize());
+        AsyncTaskScheduler taskScheduler = new AsyncTaskScheduler(
+                asyncConfig.getThreadPoolSize(), asyncConfig.getQueueSize(),
+                asyncConfig.getMaxRunningTasksPerUser(),
+                asyncConfig.getMaxRunningTasksPerProject());
+        scheduler = taskScheduler;
+        MetricRegistry metrics = MetricRegistry.getDefault();
+        metrics.gauge("zanata_async_executor_active_threads",
+                "Threads running async tasks",
+                taskScheduler::getRunningCount);
+        for (AsyncTaskType type : AsyncTaskType.values()) {
+            metrics.gauge("zanata_async_executor_queue_size",
+                    "Async tasks waiting for a thread",
+                    () -> taskScheduler.getQueuedCount(type), "type",
+                    type.name());
+        }
     }
 
     @PreDestroy
@@ -79,6 +95,70 @@ public class AsyncTaskManager {
      */
     public <V> CompletableFuture<V>
             startTask(@Nonnull final AsyncTask<Future<V>> task) {
+        return startTask(task, null);
+    }
+
+    /**
+     * Queues a task to run asynchronously, with the priority and limits
+     * which apply to the handle's task type, user and project. A task
+     * without a handle is an {@link AsyncTaskType#INTERNAL} task: it is
+     * not counted against its user's limit, and is never rejected.
+     *
+     * @param task
+     *            The task to run.
+     * @param handle
+     *            The task's handle, if any.
+     * @param <V>
+     *            The type of result expected.
+     * @return A listenable future for the expected result.
+     * @throws RejectedExecutionException
+     *             if too many tasks of the same type are already waiting,
+     *             or the task manager has been shut down
+     * @see AsyncTaskScheduler
+     */
+    public <V> CompletableFuture<V> startTask(
+            @Nonnull final AsyncTask<Future<V>> task,
+            @Nullable AsyncTaskHandle<?> handle) {
+        AsyncTaskType type = handle != null ? handle.getTaskType()
+                : AsyncTaskType.INTERNAL;
+        String projectSlug = handle != null ? handle.getProjectSlug() : null;
+        return runInTaskContext(
+                (owner, command) -> scheduler.submit(
+                        new AsyncTaskScheduler.QueuedTask(type,
+                                handle != null ? owner : null, projectSlug,
+                                handle, command)),
+                () -> getReturnValue(task.call()));
+    }
+
+    /**
+     * Runs a task on the given executor, with the same CDI contexts and
+     * security context that {@link #startTask(AsyncTask)} provides. The
+     * security context is captured from the calling thread, so this can be
+     * used by an asynchronous task to fan work out to other threads on behalf
+     * of the same user.
+     *
+     * @param executor
+     *            The executor which will run the task.
+     * @param task
+     *            The task to run.
+     * @param <V>
+     *            The type of result expected.
+     * @return A future for the task's result.
+     */
+    public <V> CompletableFuture<V> runInTaskContext(
+            @Nonnull Executor executor, @Nonnull final AsyncTask<V> task) {
+        return runInTaskContext(
+                (owner, command) -> executor.execute(command), task);
+    }
+
+    /**
+     * @param submitter
+     *            accepts the task owner's username (if any) and the command
+     *            to run
+     */
+    private <V> CompletableFuture<V> runInTaskContext(
+            BiConsumer<String, Runnable> submitter,
+            final AsyncTask<V> task) {
         HAccount taskOwner = ServiceLocator.instance()
                 .getInstance(HAccount.class, new AuthenticatedLiteral());
         ZanataIdentity ownerIdentity = ZanataIdentity.instance();
@@ -102,7 +182,7 @@ public class AsyncTaskManager {
                 prepareSecurityContext(taskOwnerUsername, runAsPpal,
                         runAsSubject);
                 // run the task and capture the result
-                V returnValue = getReturnValue(task.call());
+                V returnValue = task.call();
                 taskFuture.complete(returnValue);
             } catch (Throwable t) {
                 taskFuture.completeExceptionally(t);
@@ -115,7 +195,7 @@ public class AsyncTaskManager {
                 }
             }
         };
-        scheduler.execute(executableCommand);
+        submitter.accept(taskOwnerUsername, executableCommand);
         return taskFuture;
     }
 
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+/**
+ * Decides when queued async tasks are started. There is one queue per
+ * {@link AsyncTaskType}, and the queues are served in priority order, each
+ * in submission order. A task is passed over while its user or project
+ * already has the maximum number of running tasks, so that one user or
+ * project can not take every worker. Each queue except the one for
+ * {@link AsyncTaskType#INTERNAL} tasks is bounded: submitting to a full
+ * queue is rejected rather than queued indefinitely.
+ *
+ * @see AsyncTaskManager
+ */
+class AsyncTaskScheduler {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(AsyncTaskScheduler.class);
+
+    private final ExecutorService workers;
+    private final int maxRunning;
+    private final int maxQueuedPerType;
+    private final int maxRunningPerUser;
+    private final int maxRunningPerProject;
+
+    private final Map<AsyncTaskType, Deque<QueuedTask>> queues =
+            new EnumMap<>(AsyncTaskType.class);
+    private final Multiset<String> runningByUser = HashMultiset.create();
+    private final Multiset<String> runningByProject = HashMultiset.create();
+    private int running;
+    private boolean shutdown;
+
+    /**
+     * @param maxRunning
+     *            number of worker threads
+     * @param maxQueuedPerType
+     *            maximum number of waiting tasks of each type, or 0 for no
+     *            limit
+     * @param maxRunningPerUser
+     *            maximum number of running tasks started by one user, or 0
+     *            for no limit
+     * @param maxRunningPerProject
+     *            maximum number of running tasks for one project, or 0 for
+     *            no limit
+     */
+    AsyncTaskScheduler(int maxRunning, int maxQueuedPerType,
+            int maxRunningPerUser, int maxRunningPerProject) {
+        this(Executors.newFixedThreadPool(maxRunning), maxRunning,
+                maxQueuedPerType, maxRunningPerUser, maxRunningPerProject);
+    }
+
+    @VisibleForTesting
+    AsyncTaskScheduler(ExecutorService workers, int maxRunning,
+            int maxQueuedPerType, int maxRunningPerUser,
+            int maxRunningPerProject) {
+        this.workers = workers;
+        this.maxRunning = maxRunning;
+        this.maxQueuedPerType = maxQueuedPerType;
+        this.maxRunningPerUser = maxRunningPerUser;
+        this.maxRunningPerProject = maxRunningPerProject;
+        for (AsyncTaskType type : AsyncTaskType.values()) {
+            queues.put(type, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Queues a task, and starts it straight away if a worker is free.
+     *
+     * @throws RejectedExecutionException
+     *             if the queue for the task's type is full, or the scheduler
+     *             has been shut down (only the latter for internal tasks)
+     */
+    synchronized void submit(QueuedTask task) {
+        if (shutdown) {
+            throw new RejectedExecutionException(
+                    "async task scheduler has been shut down");
+        }
+        Deque<QueuedTask> queue = queues.get(task.type);
+        if (maxQueuedPerType > 0 && task.type != AsyncTaskType.INTERNAL) {
+            queue.removeIf(QueuedTask::isCancelled);
+            if (queue.size() >= maxQueuedPerType) {
+                throw new RejectedExecutionException("Too many " + task.type
+                        + " tasks are waiting to run (maximum is "
+                        + maxQueuedPerType + "). Please try again later.");
+            }
+        }
+        queue.addLast(task);
+        if (task.handle != null) {
+            task.handle.setQueuedIn(this);
+        }
+        dispatch();
+    }
+
+    /**
+     * @return the 1-based position of the handle's task among waiting
+     *         tasks, in the order they would be started if no limits
+     *         applied, or empty if the task is not waiting
+     */
+    synchronized OptionalInt getQueuePosition(AsyncTaskHandle<?> handle) {
+        int position = 0;
+        for (Deque<QueuedTask> queue : queues.values()) {
+            for (QueuedTask task : queue) {
+                if (task.isCancelled()) {
+                    continue;
+                }
+                position++;
+                if (task.handle == handle) {
+                    return OptionalInt.of(position);
+                }
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    synchronized int getQueuedCount(AsyncTaskType type) {
+        return queues.get(type).size();
+    }
+
+    synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Discards waiting tasks and stops the workers once running tasks have
+     * finished.
+     */
+    synchronized void shutdown() {
+        shutdown = true;
+        queues.values().forEach(Deque::clear);
+        workers.shutdown();
+    }
+
+    private void dispatch() {
+        while (running < maxRunning) {
+            QueuedTask next = pollNext();
+            if (next == null) {
+                return;
+            }
+            start(next);
+        }
+    }
+
+    @Nullable
+    private QueuedTask pollNext() {
+        // cancelled tasks only have to clean up, so let them go first and
+        // ignore the limits
+        for (Deque<QueuedTask> queue : queues.values()) {
+            for (Iterator<QueuedTask> it = queue.iterator(); it.hasNext();) {
+                QueuedTask task = it.next();
+                if (task.isCancelled()) {
+                    it.remove();
+                    return task;
+                }
+            }
+        }
+        for (Deque<QueuedTask> queue : queues.values()) {
+            for (Iterator<QueuedTask> it = queue.iterator(); it.hasNext();) {
+                QueuedTask task = it.next();
+                if (withinLimit(runningByUser, task.user, maxRunningPerUser)
+                        && withinLimit(runningByProject, task.project,
+                                maxRunningPerProject)) {
+                    it.remove();
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean withinLimit(Multiset<String> running,
+            @Nullable String key, int limit) {
+        return key == null || limit <= 0 || running.count(key) < limit;
+    }
+
+    private void start(QueuedTask task) {
+        running++;
+        if (task.user != null) {
+            runningByUser.add(task.user);
+        }
+        if (task.project != null) {
+            runningByProject.add(task.project);
+        }
+        if (task.handle != null) {
+            task.handle.setQueuedIn(null);
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    task.command.run();
+                } finally {
+                    finished(task);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("async task {} was not started", task.type, e);
+            release(task);
+        }
+    }
+
+    private synchronized void finished(QueuedTask task) {
+        release(task);
+        if (!shutdown) {
+            dispatch();
+        }
+    }
+
+    private void release(QueuedTask task) {
+        running--;
+        if (task.user != null) {
+            runningByUser.remove(task.user);
+        }
+        if (task.project != null) {
+            runningByProject.remove(task.project);
+        }
+    }
+
+    static final class QueuedTask {
+        private final AsyncTaskType type;
+        @Nullable
+        private final String user;
+        @Nullable
+        private final String project;
+        @Nullable
+        private final AsyncTaskHandle<?> handle;
+        private final Runnable command;
+
+        QueuedTask(AsyncTaskType type, @Nullable String user,
+                @Nullable String project, @Nullable AsyncTaskHandle<?> handle,
+                Runnable command) {
+            this.type = type;
+            this.user = user;
+            this.project = project;
+            this.handle = handle;
+            this.command = command;
+        }
+
+        private boolean isCancelled() {
+            return handle != null && handle.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+/**
+ * Kinds of async task, declared in priority order: when a worker is free,
+ * queued tasks of an earlier type are started before those of a later one.
+ * Short internal tasks come first, then tasks which a user is actively
+ * waiting for, and maintenance tasks such as reindexing come last.
+ *
+ * @see AsyncTaskScheduler
+ */
+public enum AsyncTaskType {
+    /**
+     * tasks started without a handle, such as {@link Async} event
+     * observers; these are never rejected, however many are waiting
+     */
+    INTERNAL,
+    /** document uploads from the client and REST API */
+    PUSH,
+    /** building a translation file archive for download */
+    ARCHIVE,
+    /** TM merge from the editor or version page */
+    TM_MERGE,
+    MACHINE_TRANSLATION,
+    COPY_TRANS,
+    MERGE_TRANSLATIONS,
+    COPY_VERSION,
+    OTHER,
+    REINDEX
+}
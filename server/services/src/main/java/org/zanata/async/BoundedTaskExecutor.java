@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.Nonnull;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.zanata.config.AsyncConfig;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Bounded pool of worker threads which one kind of task uses to fan its work
+ * out. The pool is shared by every task of that kind in the server, so that
+ * the resources used by the workers (eg database sessions) stay bounded
+ * however many tasks are running.
+ * <p>
+ * Subclasses are application scoped beans which only name the pool and its
+ * size setting.
+ *
+ * @see AsyncConfig#getWorkerPoolSize(String)
+ */
+public abstract class BoundedTaskExecutor {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(BoundedTaskExecutor.class);
+
+    private final String name;
+    private final String poolSizeKey;
+    @Inject
+    private AsyncConfig asyncConfig;
+    @Inject
+    private AsyncTaskManager asyncTaskManager;
+
+    private ExecutorService workers;
+    private int poolSize;
+
+    /**
+     * @param name
+     *            names the pool's threads and log messages
+     * @param poolSizeKey
+     *            the {@link AsyncConfig} key for the number of threads
+     */
+    protected BoundedTaskExecutor(String name, String poolSizeKey) {
+        this.name = name;
+        this.poolSizeKey = poolSizeKey;
+    }
+
+    @PostConstruct
+    public void init() {
+        poolSize = asyncConfig.getWorkerPoolSize(poolSizeKey);
+        if (poolSize > 1) {
+            log.info("{} will run up to {} tasks concurrently", name,
+                    poolSize);
+            workers = Executors.newFixedThreadPool(poolSize,
+                    new ThreadFactoryBuilder().setNameFormat(name + "-%d")
+                            .setDaemon(true).build());
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true if work should be submitted to this executor, false if it
+     *         should run sequentially in the calling thread.
+     */
+    public boolean isParallel() {
+        return workers != null;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Runs a task on the pool, with CDI and security contexts for the same
+     * user as the calling thread. Each task gets its own request context, and
+     * therefore its own persistence context.
+     */
+    public <V> CompletableFuture<V> submit(@Nonnull AsyncTask<V> task) {
+        return asyncTaskManager.runInTaskContext(getExecutor(), task);
+    }
+
+    /**
+     * @return the pool's threads, for work which needs no CDI or security
+     *         context
+     */
+    public Executor getExecutor() {
+        if (workers == null) {
+            throw new IllegalStateException(
+                    "parallel " + name + " is not enabled");
+        }
+        return workers;
+    }
+}
@@ -22,6 +22,7 @@ package org.zanata.async.handle;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.UserTriggeredTaskHandle;
 
 /**
@@ -35,6 +36,10 @@ public class CopyTransTaskHandle extends AsyncTaskHandle<Void> implements
     private String triggeredBy;
     private boolean prepared;
 
+    public CopyTransTaskHandle() {
+        super(AsyncTaskType.COPY_TRANS);
+    }
+
     public void setPrepared() {
         this.prepared = true;
     }
@@ -22,6 +22,7 @@ package org.zanata.async.handle;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.UserTriggeredTaskHandle;
 
 /**
@@ -38,6 +39,10 @@ public class CopyVersionTaskHandle extends AsyncTaskHandle<Void> implements
     private int totalDoc;
     private String triggeredBy;
 
+    public CopyVersionTaskHandle() {
+        super(AsyncTaskType.COPY_VERSION);
+    }
+
     /**
      * Increments the processed document count by 1
      */
@@ -22,6 +22,7 @@ package org.zanata.async.handle;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.AsyncTaskKey;
 import org.zanata.async.UserTriggeredTaskHandle;
 
@@ -38,6 +39,7 @@ public class MachineTranslationPrefillTaskHandle extends AsyncTaskHandle<Void>
     private String targetVersion;
 
     public MachineTranslationPrefillTaskHandle(AsyncTaskKey key) {
+        super(AsyncTaskType.MACHINE_TRANSLATION);
         super.setKeyId(key.id());
     }
 
@@ -62,6 +64,7 @@ public class MachineTranslationPrefillTaskHandle extends AsyncTaskHandle<Void>
                 .add("currentProgress", getCurrentProgress())
                 .add("maxProgress", getMaxProgress())
                 .add("triggeredBy", triggeredBy)
+                .add("stageTimes", getStageTimes())
                 .toString();
     }
 
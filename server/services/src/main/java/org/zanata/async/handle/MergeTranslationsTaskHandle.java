@@ -22,6 +22,7 @@ package org.zanata.async.handle;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.AsyncTaskKey;
 import org.zanata.async.UserTriggeredTaskHandle;
 
@@ -40,6 +41,7 @@ public class MergeTranslationsTaskHandle extends AsyncTaskHandle<Void> implement
 
     public MergeTranslationsTaskHandle(
             AsyncTaskKey key) {
+        super(AsyncTaskType.MERGE_TRANSLATIONS);
         setKeyId(key.id());
     }
 
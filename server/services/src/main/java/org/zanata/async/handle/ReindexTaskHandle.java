@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.async.handle;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskType;
+
+/**
+ * Task handle for the search index rebuild, which also tracks progress and
+ * throughput for each indexed class.
+ */
+public class ReindexTaskHandle extends AsyncTaskHandle<Void> {
+
+    private static final long serialVersionUID = 1L;
+    // keyed by simple class name, in the order the classes were started
+    private final Map<String, ClassProgress> classProgress =
+            new ConcurrentHashMap<>();
+    private final List<String> classOrder = new ArrayList<>();
+    private volatile String currentClassName;
+
+    public ReindexTaskHandle() {
+        super(AsyncTaskType.REINDEX);
+    }
+
+    /**
+     * Records that indexing of entities of the given class has started.
+     */
+    public synchronized void startClass(Class<?> clazz) {
+        String name = clazz.getSimpleName();
+        if (!classProgress.containsKey(name)) {
+            classOrder.add(name);
+        }
+        classProgress.put(name, new ClassProgress(name));
+        currentClassName = name;
+    }
+
+    /**
+     * Adds to the number of entities indexed for the given class, as well as
+     * to the overall progress of the task.
+     */
+    public void increaseClassProgress(Class<?> clazz, long increaseBy) {
+        ClassProgress progress = classProgress.get(clazz.getSimpleName());
+        if (progress != null) {
+            progress.indexed.addAndGet(increaseBy);
+        }
+        increaseProgress(increaseBy);
+    }
+
+    public void finishClass(Class<?> clazz) {
+        ClassProgress progress = classProgress.get(clazz.getSimpleName());
+        if (progress != null) {
+            progress.finishTime = System.currentTimeMillis();
+        }
+        currentClassName = null;
+    }
+
+    /**
+     * @return simple name of the class currently being indexed, or null
+     */
+    public String getCurrentClassName() {
+        return currentClassName;
+    }
+
+    /**
+     * @return progress of each class indexed so far by this task
+     */
+    public synchronized List<ClassProgress> getClassProgress() {
+        List<ClassProgress> result = new ArrayList<>(classOrder.size());
+        for (String name : classOrder) {
+            result.add(classProgress.get(name));
+        }
+        return result;
+    }
+
+    @Override
+    public String getTaskName() {
+        return ObjectUtils.firstNonNull(this.taskName, "Search index rebuild");
+    }
+
+    public static class ClassProgress implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String className;
+        private final AtomicLong indexed = new AtomicLong();
+        private final long startTime = System.currentTimeMillis();
+        private volatile long finishTime = -1;
+
+        ClassProgress(String className) {
+            this.className = className;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public long getIndexed() {
+            return indexed.get();
+        }
+
+        public boolean isFinished() {
+            return finishTime >= 0;
+        }
+
+        /**
+         * @return entities indexed per second since the class was started
+         */
+        public long getThroughput() {
+            long end = isFinished() ? finishTime : System.currentTimeMillis();
+            long elapsed = Math.max(end - startTime, 1);
+            return indexed.get() * 1000 / elapsed;
+        }
+    }
+}
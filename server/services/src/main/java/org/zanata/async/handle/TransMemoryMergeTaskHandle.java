@@ -22,6 +22,7 @@ package org.zanata.async.handle;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.UserTriggeredTaskHandle;
 import org.zanata.common.LocaleId;
 import org.zanata.webtrans.shared.model.DocumentId;
@@ -38,6 +39,10 @@ public class TransMemoryMergeTaskHandle extends AsyncTaskHandle<Void> implements
     private String triggeredBy;
     private String mergeTarget;
 
+    public TransMemoryMergeTaskHandle() {
+        super(AsyncTaskType.TM_MERGE);
+    }
+
     @Override
     public String getTriggeredBy() {
         return this.triggeredBy;
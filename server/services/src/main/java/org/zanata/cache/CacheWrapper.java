@@ -1,5 +1,8 @@
 package org.zanata.cache;
 
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
 public interface CacheWrapper<K, V> {
     void put(K key, V value);
 
@@ -8,4 +11,25 @@ public interface CacheWrapper<K, V> {
     V getWithLoader(K key);
 
     boolean remove(K key);
+
+    /**
+     * Replaces the cached value of a key, only if it is still oldValue.
+     *
+     * @return true if the value was replaced
+     */
+    boolean replace(K key, V oldValue, V newValue);
+
+    /**
+     * Atomically replaces the cached value of a key with a new value computed
+     * from it. The function must not modify the cached value, and may be
+     * called more than once if the entry changes concurrently. A key which is
+     * not cached is left alone; if it is being loaded by
+     * {@link #getWithLoader}, the loaded value is not cached, since it may
+     * predate the update.
+     *
+     * @return true if the key was cached and has been updated
+     */
+    boolean update(K key, UnaryOperator<V> function);
+
+    Set<K> keySet();
 }
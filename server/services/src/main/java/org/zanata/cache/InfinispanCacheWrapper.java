@@ -20,9 +20,17 @@
  */
 package org.zanata.cache;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
 import com.google.common.cache.CacheLoader;
 import org.infinispan.Cache;
 import org.infinispan.manager.CacheContainer;
+import org.zanata.metrics.Counter;
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.metrics.Timer;
 
 /**
  * @author Carlos Munoz <a href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
@@ -32,11 +40,27 @@ public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
     private final String cacheName;
     private final CacheContainer cacheContainer;
     private CacheLoader<K, V> cacheLoader;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loadTime;
+    // keys being loaded by getWithLoader on this node, mapped to whether
+    // they were updated during the load
+    private final ConcurrentMap<K, Boolean> loading =
+            new ConcurrentHashMap<>();
 
     public InfinispanCacheWrapper(String cacheName,
             CacheContainer cacheContainer) {
         this.cacheName = cacheName;
         this.cacheContainer = cacheContainer;
+        MetricRegistry metrics = MetricRegistry.getDefault();
+        String requestsHelp = "Lookups through the cache loader";
+        this.hits = metrics.counter("zanata_cache_requests_total",
+                requestsHelp, "cache", cacheName, "result", "hit");
+        this.misses = metrics.counter("zanata_cache_requests_total",
+                requestsHelp, "cache", cacheName, "result", "miss");
+        this.loadTime = metrics.timer("zanata_cache_load_seconds",
+                "Time taken by the cache loader on a miss", "cache",
+                cacheName);
     }
 
     public InfinispanCacheWrapper(String cacheName,
@@ -61,13 +85,29 @@ public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
         // NB: Need to manually implement the cache loader feature
         V cachedValue = getCache().get(key);
         if(cachedValue == null && cacheLoader != null) {
+            misses.inc();
+            long start = System.nanoTime();
+            loading.put(key, false);
             try {
                 cachedValue = cacheLoader.load(key);
             } catch (Exception e) {
+                loading.remove(key);
                 throw new RuntimeException(
                         "Unable to load entry with cache loader ", e);
+            } finally {
+                loadTime.recordSince(start);
             }
-            getCache().put(key, cachedValue);
+            V loaded = cachedValue;
+            // atomic with the check in update(), so that an update either
+            // stops this value being cached, or sees it in the cache
+            loading.compute(key, (k, updated) -> {
+                if (!updated) {
+                    getCache().putIfAbsent(key, loaded);
+                }
+                return null;
+            });
+        } else if (cachedValue != null) {
+            hits.inc();
         }
         return cachedValue;
     }
@@ -77,6 +117,32 @@ public class InfinispanCacheWrapper<K, V> implements CacheWrapper<K, V> {
         return getCache().remove(key) != null;
     }
 
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return getCache().replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public boolean update(K key, UnaryOperator<V> function) {
+        // loads on other nodes are not visible here; they are corrected by
+        // reconciliation
+        loading.computeIfPresent(key, (k, updated) -> true);
+        while (true) {
+            V current = getCache().get(key);
+            if (current == null) {
+                return false;
+            }
+            if (getCache().replace(key, current, function.apply(current))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return getCache().keySet();
+    }
+
     public Cache<K, V> getCache() {
         return cacheContainer.getCache(cacheName);
     }
@@ -34,6 +34,26 @@ import javax.inject.Named;
 @javax.enterprise.context.Dependent
 public class AsyncConfig {
     public static final String THREAD_POOL_SIZE = "async.threadpool.size";
+    public static final String QUEUE_SIZE = "async.queue.size";
+    public static final String MAX_RUNNING_PER_USER = "async.user.max.running";
+    public static final String MAX_RUNNING_PER_PROJECT =
+            "async.project.max.running";
+    // Worker pool sizes: see getWorkerPoolSize
+    /** copy trans work units, one document and locale each */
+    public static final String COPY_TRANS_THREAD_POOL_SIZE =
+            "async.copytrans.threadpool.size";
+    /** rendering the documents of a translation file archive */
+    public static final String ARCHIVE_THREAD_POOL_SIZE =
+            "async.archive.threadpool.size";
+    /** converting parsed translation units during a bulk TMX import */
+    public static final String TMX_IMPORT_THREAD_POOL_SIZE =
+            "async.tmximport.threadpool.size";
+    /**
+     * serialising the partitions (documents or ranges of translation units)
+     * of TMX exports
+     */
+    public static final String TMX_EXPORT_THREAD_POOL_SIZE =
+            "async.tmxexport.threadpool.size";
     @Inject
     private SystemPropertyConfigStore systemPropertyConfigStore;
 
@@ -45,6 +65,42 @@ public class AsyncConfig {
         return systemPropertyConfigStore.get(THREAD_POOL_SIZE, 10);
     }
 
+    /**
+     * Maximum number of tasks of each type (eg pushes, reindexing) which may
+     * wait for a free thread. Further tasks of that type are rejected until
+     * the queue drains. Internal tasks, which have no handle, are never
+     * rejected. A value of 0 or less means no limit.
+     */
+    public int getQueueSize() {
+        return systemPropertyConfigStore.get(QUEUE_SIZE, 1000);
+    }
+
+    /**
+     * Maximum number of async tasks started by one user which may run at
+     * once. A value of 0 or less means no limit.
+     */
+    public int getMaxRunningTasksPerUser() {
+        return systemPropertyConfigStore.get(MAX_RUNNING_PER_USER, 0);
+    }
+
+    /**
+     * Maximum number of async tasks for one project which may run at once.
+     * A value of 0 or less means no limit.
+     */
+    public int getMaxRunningTasksPerProject() {
+        return systemPropertyConfigStore.get(MAX_RUNNING_PER_PROJECT, 0);
+    }
+
+    /**
+     * Number of threads in a worker pool which one kind of task uses to fan
+     * its work out, such as {@link #COPY_TRANS_THREAD_POOL_SIZE}. A value of 1
+     * or less keeps the sequential behaviour, running everything on the
+     * task's own thread.
+     */
+    public int getWorkerPoolSize(String key) {
+        return systemPropertyConfigStore.get(key, 1);
+    }
+
     public AsyncConfig() {
     }
 }
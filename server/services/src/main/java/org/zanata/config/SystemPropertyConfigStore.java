@@ -81,6 +81,83 @@ public class SystemPropertyConfigStore implements ConfigStore {
      * Server-wide switch to enable/disable OAuth support
      */
     private static final String KEY_SUPPORT_OAUTH = "zanata.support.oauth";
+    /**
+     * Whether REST rate limits are shared by all nodes of a cluster
+     */
+    private static final String KEY_RATE_LIMIT_DISTRIBUTED =
+            "zanata.ratelimit.distributed";
+    /**
+     * Whether editor text search may use the content trigram index. The value
+     * "index" maintains the index without searching it.
+     *
+     * @see org.zanata.hibernate.search.TrigramBridge#isIndexMaintained()
+     */
+    private static final String KEY_SEARCH_TRIGRAM_INDEX =
+            "zanata.search.trigramIndex";
+    /**
+     * Disk space (in megabytes) for cached translated file downloads
+     */
+    private static final String KEY_TRANSLATED_FILE_CACHE_SIZE =
+            "zanata.cache.translatedFiles.maxMB";
+    /**
+     * Whether changes which invalidate cached translated files are shared by
+     * all nodes of a cluster
+     */
+    private static final String KEY_TRANSLATED_FILE_CACHE_DISTRIBUTED =
+            "zanata.cache.translatedFiles.distributed";
+    /**
+     * Whether TMX uploads are imported with JDBC batches instead of Hibernate
+     */
+    private static final String KEY_TMX_BULK_IMPORT = "zanata.tmx.bulkImport";
+    /**
+     * Whether locks (eg for pushes) are shared by all nodes of a cluster
+     */
+    private static final String KEY_LOCK_DISTRIBUTED =
+            "zanata.lock.distributed";
+    /**
+     * How long a lock is held (in minutes) if its holder stops renewing it
+     * without releasing it
+     */
+    public static final String KEY_LOCK_LEASE_MINUTES =
+            "zanata.lock.lease.minutes";
+    /**
+     * How long (in seconds) to wait for a lock held by someone else
+     */
+    public static final String KEY_LOCK_WAIT_SECONDS =
+            "zanata.lock.wait.seconds";
+    /**
+     * Maximum number of concurrent connections to the MT service
+     */
+    public static final String KEY_MT_SERVICE_CONNECTIONS =
+            "mt.service.connections";
+    /**
+     * How long (in milliseconds) to collect editor suggestion requests for
+     * the same document into one MT request; 0 sends each one immediately
+     */
+    public static final String KEY_MT_SUGGESTION_BATCH_MILLIS =
+            "mt.suggestion.batch.millis";
+    /**
+     * Maximum number of machine translation suggestions kept in memory
+     */
+    public static final String KEY_MT_SUGGESTION_CACHE_SIZE =
+            "mt.suggestion.cache.size";
+    /**
+     * How many documents a machine translation prefill sends to MT before
+     * it waits to save the oldest one's translations
+     */
+    public static final String KEY_MT_PREFILL_DOCUMENTS =
+            "mt.prefill.documents";
+    /**
+     * Whether editor updates are sent to editors on every node of a cluster
+     */
+    private static final String KEY_EDITOR_EVENTS_DISTRIBUTED =
+            "zanata.editor.events.distributed";
+    /**
+     * How long (in milliseconds) to collect translation updates for a
+     * workspace into one message to editors; 0 sends each one immediately
+     */
+    public static final String KEY_EDITOR_EVENTS_BATCH_MILLIS =
+            "zanata.editor.events.batch.millis";
     private static final Logger log =
             LoggerFactory.getLogger(SystemPropertyConfigStore.class);
     private static final long serialVersionUID = 1086764656937071302L;
@@ -206,6 +283,81 @@ public class SystemPropertyConfigStore implements ConfigStore {
                 .parseBoolean(System.getProperty(KEY_SUPPORT_OAUTH, "false"));
     }
 
+    /**
+     *
+     * @return whether REST rate limits should be counted across the cluster
+     */
+    public boolean isDistributedRateLimitEnabled() {
+        return Boolean.parseBoolean(
+                System.getProperty(KEY_RATE_LIMIT_DISTRIBUTED, "false"));
+    }
+
+    /**
+     *
+     * @return whether locks should be shared by the cluster
+     */
+    public boolean isDistributedLockEnabled() {
+        return Boolean.parseBoolean(
+                System.getProperty(KEY_LOCK_DISTRIBUTED, "false"));
+    }
+
+    /**
+     *
+     * @return whether editor updates should be shared by the cluster
+     */
+    public boolean isDistributedEditorEventsEnabled() {
+        return Boolean.parseBoolean(
+                System.getProperty(KEY_EDITOR_EVENTS_DISTRIBUTED, "false"));
+    }
+
+    /**
+     *
+     * @return whether the content trigram index has been built and may be
+     *         used for editor text search
+     */
+    public boolean isTrigramSearchIndexEnabled() {
+        return Boolean.parseBoolean(
+                System.getProperty(KEY_SEARCH_TRIGRAM_INDEX, "false"));
+    }
+
+    /**
+     *
+     * @return whether uploaded TMX files should be imported in bulk mode
+     */
+    public boolean isBulkTmxImportEnabled() {
+        return Boolean.parseBoolean(
+                System.getProperty(KEY_TMX_BULK_IMPORT, "false"));
+    }
+
+    /**
+     *
+     * @return maximum disk space in megabytes for cached translated file
+     *         downloads, or 0 if they should not be cached
+     */
+    public long getTranslatedFileCacheSizeMB() {
+        String value = System.getProperty(KEY_TRANSLATED_FILE_CACHE_SIZE);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("invalid value for {}: {}",
+                    KEY_TRANSLATED_FILE_CACHE_SIZE, value);
+            return 0;
+        }
+    }
+
+    /**
+     *
+     * @return whether cached translated files should be invalidated across
+     *         the cluster
+     */
+    public boolean isDistributedTranslatedFileCacheEnabled() {
+        return Boolean.parseBoolean(System.getProperty(
+                KEY_TRANSLATED_FILE_CACHE_DISTRIBUTED, "false"));
+    }
+
     /**
      *
      * @return true if there are required system properties that are not defined
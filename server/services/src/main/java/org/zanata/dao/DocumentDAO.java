@@ -5,11 +5,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.hibernate.LobHelper;
 import org.hibernate.Query;
 import org.hibernate.Session;
+import org.hibernate.type.StringType;
 import org.hibernate.type.TimestampType;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Named;
@@ -23,6 +25,7 @@ import org.zanata.common.TransUnitWords;
 import org.zanata.file.GlobalDocumentId;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
+import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HRawDocument;
 import org.zanata.model.HTextFlowTarget;
@@ -458,6 +461,13 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
         return totalCount.intValue();
     }
 
+    /**
+     * Latest change to a document or to its translations in :locale. Used as
+     * the translated document's ETag.
+     */
+    private static final String TRANSLATED_STATE_LATEST =
+            "greatest(\n  d.lastChanged,\n  max(ifnull(tft.lastChanged, {d \'1753-01-01\'})),\n  max(ifnull(c.lastChanged, {d \'1753-01-01\'})),\n  max(ifnull(poth.lastChanged, {d \'1753-01-01\'}))\n) as latest\nfrom HDocument d\n  left outer join HTextFlow tf\n    on d.id = tf.document_id\n  left outer join HTextFlowTarget tft\n    on tft.tf_id = tf.id and tft.locale = :locale\n  left outer join HSimpleComment c\n    on c.id = tft.comment_id\n  left outer join HPoTargetHeader poth\n    on poth.document_id = d.id\n    and poth.targetLanguage = :locale\n";
+
     /**
      * Calculates a translated document's hash.
      *
@@ -482,8 +492,8 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
         }
         // NB: This method uses a native SQL query tested on mysql and h2
         // databases.
-        String sql =
-                "select greatest(\n  d.lastChanged,\n  max(ifnull(tft.lastChanged, {d \'1753-01-01\'})),\n  max(ifnull(c.lastChanged, {d \'1753-01-01\'})),\n  max(ifnull(poth.lastChanged, {d \'1753-01-01\'}))\n) as latest\nfrom HDocument d\n  left outer join HTextFlow tf\n    on d.id = tf.document_id\n  left outer join HTextFlowTarget tft\n    on tft.tf_id = tf.id and tft.locale = :locale\n  left outer join HSimpleComment c\n    on c.id = tft.comment_id\n  left outer join HPoTargetHeader poth\n    on poth.document_id = d.id\n    and poth.targetLanguage = :locale\nwhere d.id = :doc\ngroup by d.lastChanged";
+        String sql = "select " + TRANSLATED_STATE_LATEST
+                + "where d.id = :doc\ngroup by d.lastChanged";
         Query query =
                 // ensure that mysql driver doesn't return byte[] :
                 getSession().createSQLQuery(sql)
@@ -494,6 +504,36 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
         return timestamp.toString();
     }
 
+    /**
+     * Returns the result of
+     * {@link #getTranslatedDocumentStateHash(String, String, String, HLocale)}
+     * for every non-obsolete document in a version, using a single query.
+     *
+     * @return map of docId to state hash
+     */
+    public Map<String, String> getTranslatedDocumentStateHashes(
+            HProjectIteration iteration, HLocale locale) {
+        // NB: This method uses a native SQL query tested on mysql and h2
+        // databases.
+        String sql = "select d.docId as docId, " + TRANSLATED_STATE_LATEST
+                + "where d.project_iteration_id = :iteration and d.obsolete = 0\n"
+                + "group by d.id, d.docId, d.lastChanged";
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = getSession().createSQLQuery(sql)
+                .addScalar("docId", StringType.INSTANCE)
+                // ensure that mysql driver doesn't return byte[] :
+                .addScalar("latest", TimestampType.INSTANCE)
+                .setParameter("locale", locale)
+                .setParameter("iteration", iteration)
+                .setComment("DocumentDAO.getTranslatedDocumentStateHashes")
+                .list();
+        Map<String, String> hashes = new HashMap<>(results.size());
+        for (Object[] row : results) {
+            hashes.put((String) row[0], row[1].toString());
+        }
+        return hashes;
+    }
+
     /**
      * Do not use this method when adding a new raw document, instead use
      * {@link #addRawDocument(HDocument, HRawDocument)}
@@ -554,6 +594,57 @@ public class DocumentDAO extends AbstractDAOImpl<HDocument, Long> {
         return docs;
     }
 
+    /**
+     * Returns the ids of the documents whose text flows are included in a TMX
+     * export of all projects, one project or one version, in id order.
+     * Obsolete documents are skipped, as are obsolete versions and projects
+     * unless they were requested explicitly.
+     *
+     * @param project
+     *            project to export, or null for all projects
+     * @param iteration
+     *            version to export, or null for all versions
+     * @param srcLocale
+     *            source locale of the documents to export, if any
+     */
+    public List<Long> getIdsForTMXExport(@Nullable HProject project,
+            @Nullable HProjectIteration iteration,
+            Optional<LocaleId> srcLocale) {
+        StringBuilder query = new StringBuilder(
+                "select doc.id from HDocument doc where doc.obsolete = false ");
+        if (iteration != null) {
+            query.append("and doc.projectIteration = :iteration ");
+        } else {
+            query.append("and doc.projectIteration.status <> :obsolete ");
+            if (project != null) {
+                query.append("and doc.projectIteration.project = :project ");
+            } else {
+                query.append(
+                        "and doc.projectIteration.project.status <> :obsolete ");
+            }
+        }
+        if (srcLocale.isPresent()) {
+            query.append("and doc.locale.localeId = :localeId ");
+        }
+        query.append("order by doc.id");
+        Query q = getSession().createQuery(query.toString());
+        if (iteration != null) {
+            q.setParameter("iteration", iteration);
+        } else {
+            q.setParameter("obsolete", EntityStatus.OBSOLETE);
+            if (project != null) {
+                q.setParameter("project", project);
+            }
+        }
+        if (srcLocale.isPresent()) {
+            q.setParameter("localeId", srcLocale.get());
+        }
+        q.setComment("DocumentDAO.getIdsForTMXExport");
+        @SuppressWarnings("unchecked")
+        List<Long> ids = q.list();
+        return ids;
+    }
+
     public LobHelper getLobHelper() {
         return getSession().getLobHelper();
     }
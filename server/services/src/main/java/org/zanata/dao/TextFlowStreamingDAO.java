@@ -203,4 +203,40 @@ public class TextFlowStreamingDAO extends StreamingDAO<HTextFlow> {
         }
     }
 
+    /**
+     * Returns all HTextFlows in a single document, eagerly fetches targets,
+     * document, iteration and project. Obsolete textflows are skipped. Used
+     * to export one partition of a larger TMX export.
+     * <p>
+     * NB: caller must close the iterator, or call next() until the iterator is
+     * exhausted, or else a database connection will be leaked.
+     *
+     * @return
+     */
+    public @Nonnull
+    CloseableIterator<HTextFlow> findTextFlowsByDocument(Long documentId) {
+        StreamingEntityIterator<HTextFlow> iter = createIterator();
+        try {
+            StringBuilder queryString = new StringBuilder();
+            queryString
+                    .append("from HTextFlow tf ")
+                    .append("inner join fetch tf.targets target ")
+                    .append("inner join fetch target.locale ")
+                    .append("inner join fetch tf.document ")
+                    .append("inner join fetch tf.document.locale ")
+                    .append("inner join fetch tf.document.projectIteration ")
+                    .append("inner join fetch tf.document.projectIteration.project ")
+                    .append("where tf.document.id=:docId ")
+                    .append("and tf.obsolete=0");
+            Query q = iter.getSession().createQuery(queryString.toString());
+            q.setParameter("docId", documentId);
+            q.setComment("TextFlowStreamDAO.findTextFlowsByDocument");
+            iter.initQuery(q);
+            return iter;
+        } catch (Throwable e) {
+            iter.close();
+            throw new RuntimeException(e);
+        }
+    }
+
 }
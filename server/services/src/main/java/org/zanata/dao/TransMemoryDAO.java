@@ -150,4 +150,33 @@ public class TransMemoryDAO extends AbstractDAOImpl<TransMemory, Long> {
                         "select count(tu) from TransMemoryUnit tu where tu.translationMemory.slug = :tmSlug")
                 .setString("tmSlug", tmSlug).setCacheable(true).uniqueResult();
     }
+
+    /**
+     * Returns the id which ends a partition of at most partitionSize trans
+     * units following afterId in the given translation memory, or null if
+     * there are no trans units after afterId. Used to split a TMX export
+     * into id ranges which can be serialized independently.
+     */
+    public @Nullable
+    Long getTransUnitPartitionEnd(@Nonnull TransMemory tm, long afterId,
+            int partitionSize) {
+        Long end = (Long) getSession()
+                .createQuery("select tu.id from TransMemoryUnit tu "
+                        + "where tu.translationMemory = :tm and tu.id > :afterId "
+                        + "order by tu.id")
+                .setParameter("tm", tm).setLong("afterId", afterId)
+                .setFirstResult(partitionSize - 1).setMaxResults(1)
+                .setComment("TransMemoryDAO.getTransUnitPartitionEnd")
+                .uniqueResult();
+        if (end != null) {
+            return end;
+        }
+        // fewer than partitionSize units remain: the last one ends it
+        return (Long) getSession()
+                .createQuery("select max(tu.id) from TransMemoryUnit tu "
+                        + "where tu.translationMemory = :tm and tu.id > :afterId")
+                .setParameter("tm", tm).setLong("afterId", afterId)
+                .setComment("TransMemoryDAO.getTransUnitPartitionEnd")
+                .uniqueResult();
+    }
 }
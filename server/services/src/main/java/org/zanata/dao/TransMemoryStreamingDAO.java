@@ -90,6 +90,45 @@ public class TransMemoryStreamingDAO extends StreamingDAO<TransMemoryUnit> {
 
     }
 
+    /**
+     * Finds the TransMemoryUnits for a given TransMemory whose ids fall in
+     * the range (afterId, upToId], in id order.
+     * <p>
+     * NB: caller must close the iterator, or call next() until the iterator is
+     * exhausted, or else a database connection will be leaked.
+     *
+     * @param transMemory
+     * @param afterId
+     *            exclusive lower bound of the id range
+     * @param upToId
+     *            inclusive upper bound of the id range
+     * @return
+     */
+    public CloseableIterator<TransMemoryUnit> findTransUnitsByTM(
+            TransMemory transMemory, long afterId, long upToId) {
+        StreamingEntityIterator<TransMemoryUnit> iter = createIterator();
+        try {
+            Query q =
+                    iter.getSession()
+                            .createQuery(
+                                    "FROM TransMemoryUnit tu FETCH ALL PROPERTIES "
+                                            + "JOIN FETCH tu.transUnitVariants tuv FETCH ALL PROPERTIES "
+                                            + "WHERE tu.translationMemory = :transMemory "
+                                            + "AND tu.id > :afterId AND tu.id <= :upToId "
+                                            + "ORDER BY tu.id");
+            q.setParameter("transMemory", transMemory);
+            q.setLong("afterId", afterId);
+            q.setLong("upToId", upToId);
+            q.setComment("TransMemoryStreamingDAO.findTransUnitsByTM");
+
+            iter.initQuery(q);
+            return iter;
+        } catch (Throwable e) {
+            iter.close();
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Finds all TransMemoryUnits.
      * <p>
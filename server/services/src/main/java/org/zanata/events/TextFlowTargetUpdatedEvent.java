@@ -1,6 +1,6 @@
 package org.zanata.events;
 
-import org.zanata.webtrans.server.TranslationWorkspace;
+import org.zanata.webtrans.shared.model.WorkspaceId;
 import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
 
 /**
@@ -16,22 +16,22 @@ import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
  *         <a href="mailto:pahuang@redhat.com">pahuang@redhat.com</a>
  */
 public final class TextFlowTargetUpdatedEvent {
-    private final TranslationWorkspace workspace;
+    private final WorkspaceId workspaceId;
     private final Long textFlowTargetId;
     private final TransUnitUpdated transUnitUpdated;
 
-    @java.beans.ConstructorProperties({ "workspace", "textFlowTargetId",
+    @java.beans.ConstructorProperties({ "workspaceId", "textFlowTargetId",
             "transUnitUpdated" })
-    public TextFlowTargetUpdatedEvent(final TranslationWorkspace workspace,
+    public TextFlowTargetUpdatedEvent(final WorkspaceId workspaceId,
             final Long textFlowTargetId,
             final TransUnitUpdated transUnitUpdated) {
-        this.workspace = workspace;
+        this.workspaceId = workspaceId;
         this.textFlowTargetId = textFlowTargetId;
         this.transUnitUpdated = transUnitUpdated;
     }
 
-    public TranslationWorkspace getWorkspace() {
-        return this.workspace;
+    public WorkspaceId getWorkspaceId() {
+        return this.workspaceId;
     }
 
     public Long getTextFlowTargetId() {
@@ -49,10 +49,10 @@ public final class TextFlowTargetUpdatedEvent {
         if (!(o instanceof TextFlowTargetUpdatedEvent))
             return false;
         final TextFlowTargetUpdatedEvent other = (TextFlowTargetUpdatedEvent) o;
-        final Object this$workspace = this.getWorkspace();
-        final Object other$workspace = other.getWorkspace();
-        if (this$workspace == null ? other$workspace != null
-                : !this$workspace.equals(other$workspace))
+        final Object this$workspaceId = this.getWorkspaceId();
+        final Object other$workspaceId = other.getWorkspaceId();
+        if (this$workspaceId == null ? other$workspaceId != null
+                : !this$workspaceId.equals(other$workspaceId))
             return false;
         final Object this$textFlowTargetId = this.getTextFlowTargetId();
         final Object other$textFlowTargetId = other.getTextFlowTargetId();
@@ -71,9 +71,9 @@ public final class TextFlowTargetUpdatedEvent {
     public int hashCode() {
         final int PRIME = 59;
         int result = 1;
-        final Object $workspace = this.getWorkspace();
+        final Object $workspaceId = this.getWorkspaceId();
         result = result * PRIME
-                + ($workspace == null ? 43 : $workspace.hashCode());
+                + ($workspaceId == null ? 43 : $workspaceId.hashCode());
         final Object $textFlowTargetId = this.getTextFlowTargetId();
         result = result * PRIME + ($textFlowTargetId == null ? 43
                 : $textFlowTargetId.hashCode());
@@ -85,7 +85,7 @@ public final class TextFlowTargetUpdatedEvent {
 
     @Override
     public String toString() {
-        return "TextFlowTargetUpdatedEvent(workspace=" + this.getWorkspace()
+        return "TextFlowTargetUpdatedEvent(workspaceId=" + this.getWorkspaceId()
                 + ", textFlowTargetId=" + this.getTextFlowTargetId()
                 + ", transUnitUpdated=" + this.getTransUnitUpdated() + ")";
     }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.FileUtils;
+import org.infinispan.manager.CacheContainer;
+import org.zanata.ApplicationConfiguration;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.util.Zanata;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Node-local disk cache of generated translation files, so that repeated
+ * downloads of an unchanged document are a file copy instead of reading and
+ * serialising all its translations again.
+ * <p>
+ * Each file is stored with the translated document ETag (see
+ * {@link org.zanata.rest.service.ETagUtils#generateETagForTranslatedDocument})
+ * which was current when it was generated, and is only served while the ETag
+ * is unchanged. Since the ETag has a resolution of one second on some
+ * databases, files are also stored with a version of their document and
+ * locale, which is replaced whenever translations of the document change or
+ * the document is uploaded. Versions are dropped when idle, which only
+ * causes the files using them to be generated again. With
+ * {@code zanata.cache.translatedFiles.distributed=true}
+ * the versions are kept in a clustered cache, so that a change made through
+ * one node stops the other nodes serving their files. The total size of the
+ * files is bounded, with the least recently used files evicted first.
+ * <p>
+ * Disabled unless {@code zanata.cache.translatedFiles.maxMB} is set.
+ */
+@ApplicationScoped
+public class TranslatedFileCache {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(TranslatedFileCache.class);
+    private static final String CLUSTER_VERSIONS_CACHE_NAME =
+            TranslatedFileCache.class.getName() + ".versions";
+    private static final long VERSION_IDLE_HOURS = 24;
+
+    @Inject
+    private ApplicationConfiguration applicationConfiguration;
+    @Inject
+    @Zanata
+    private Instance<CacheContainer> cacheContainer;
+
+    private File directory;
+    private long maxBytes;
+    private long totalBytes;
+    // access-ordered, so iteration starts at the least recently used file
+    private final LinkedHashMap<Key, Entry> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    // Random version per document and locale (or null locale for the
+    // whole document), created when a file is requested and removed whenever
+    // the document changes. An absent version is replaced by a new random
+    // one, so entries can be dropped at any time without serving stale files.
+    private ConcurrentMap<DocumentLocaleKey, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        long maxMB = applicationConfiguration.getTranslatedFileCacheSizeMB();
+        if (maxMB <= 0) {
+            return;
+        }
+        ConcurrentMap<DocumentLocaleKey, Long> versionMap;
+        if (applicationConfiguration.isDistributedTranslatedFileCache()) {
+            log.info("translated file versions will be shared by the cluster, using cache {}",
+                    CLUSTER_VERSIONS_CACHE_NAME);
+            versionMap =
+                    cacheContainer.get().getCache(CLUSTER_VERSIONS_CACHE_NAME);
+        } else {
+            versionMap = CacheBuilder.newBuilder()
+                    .expireAfterAccess(VERSION_IDLE_HOURS, TimeUnit.HOURS)
+                    .<DocumentLocaleKey, Long> build().asMap();
+        }
+        try {
+            init(Files.createTempDirectory("zanata-translated-files").toFile(),
+                    maxMB * FileUtils.ONE_MB, versionMap);
+            log.info("caching up to {} MB of translated files in {}", maxMB,
+                    directory);
+        } catch (IOException e) {
+            log.error("unable to create translated file cache directory", e);
+        }
+    }
+
+    @VisibleForTesting
+    void init(File directory, long maxBytes,
+            ConcurrentMap<DocumentLocaleKey, Long> versions) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.versions = versions;
+    }
+
+    @PreDestroy
+    public synchronized void cleanup() {
+        if (directory != null) {
+            entries.clear();
+            totalBytes = 0;
+            FileUtils.deleteQuietly(directory);
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Returns the cached file for a key if it was generated for the given
+     * ETag, and otherwise generates it with {@code generator}, caching the
+     * result.
+     *
+     * @param eTag
+     *            the current ETag of the translated document
+     * @param generator
+     *            writes the translated file
+     * @return the file, to be streamed promptly. If it has been evicted by
+     *         then, it is generated again while streaming.
+     */
+    public CachedFile getOrGenerate(@Nonnull Key key, @Nonnull String eTag,
+            @Nonnull StreamingOutput generator) throws IOException {
+        if (!isEnabled()) {
+            throw new IllegalStateException(
+                    "translated file cache is disabled");
+        }
+        String version = getVersion(key);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.eTag.equals(eTag)
+                    && entry.version.equals(version)) {
+                return new CachedFile(entry.file, false, generator);
+            }
+        }
+        File file = File.createTempFile("doc" + key.documentId + "-", ".tmp",
+                directory);
+        try (OutputStream output = new FileOutputStream(file)) {
+            generator.write(output);
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(file);
+            throw e;
+        }
+        boolean cached =
+                put(key, new Entry(eTag, version, file, file.length()));
+        return new CachedFile(file, !cached, generator);
+    }
+
+    /**
+     * @return the versions of the key's document and of its locale, which
+     *         change whenever the translated file may change
+     */
+    private String getVersion(Key key) {
+        return getVersion(new DocumentLocaleKey(key.documentId, null)) + ":"
+                + getVersion(
+                        new DocumentLocaleKey(key.documentId, key.localeId));
+    }
+
+    private Long getVersion(DocumentLocaleKey key) {
+        Long version = versions.get(key);
+        if (version != null) {
+            return version;
+        }
+        Long newVersion = ThreadLocalRandom.current().nextLong();
+        version = versions.putIfAbsent(key, newVersion);
+        return version != null ? version : newVersion;
+    }
+
+    private synchronized boolean put(Key key, Entry entry) {
+        if (!entry.version.equals(getVersion(key))
+                || entry.size > maxBytes) {
+            // the file may be out of date, or is too big to cache
+            return false;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            remove(previous);
+        }
+        totalBytes += entry.size;
+        Iterator<Entry> lru = entries.values().iterator();
+        while (totalBytes > maxBytes && lru.hasNext()) {
+            Entry eldest = lru.next();
+            lru.remove();
+            remove(eldest);
+        }
+        return true;
+    }
+
+    /**
+     * Drops the cached files for a document, on every node.
+     *
+     * @param localeId
+     *            the locale whose files should be dropped, or null for all
+     *            locales
+     */
+    public void invalidate(@Nonnull Long documentId,
+            @Nullable LocaleId localeId) {
+        if (!isEnabled()) {
+            return;
+        }
+        // the next request gets a new version, so other nodes drop their
+        // files when they are next requested
+        versions.remove(new DocumentLocaleKey(documentId, localeId));
+        synchronized (this) {
+            Iterator<Map.Entry<Key, Entry>> it =
+                    entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Entry> mapEntry = it.next();
+                Key key = mapEntry.getKey();
+                if (key.documentId.equals(documentId) && (localeId == null
+                        || key.localeId.equals(localeId))) {
+                    it.remove();
+                    remove(mapEntry.getValue());
+                }
+            }
+        }
+    }
+
+    public void onDocStatsChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            DocStatsEvent event) {
+        invalidate(event.getKey().getDocumentId(),
+                event.getKey().getLocaleId());
+    }
+
+    public void onDocumentUploaded(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            DocumentUploadedEvent event) {
+        // a new source document changes the files for every locale
+        invalidate(event.getDocumentId(),
+                event.isSourceDocument() ? null : event.getLocaleId());
+    }
+
+    @VisibleForTesting
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void remove(Entry entry) {
+        totalBytes -= entry.size;
+        // a download which is still streaming the file on another thread
+        // keeps reading it after deletion (on POSIX file systems)
+        FileUtils.deleteQuietly(entry.file);
+    }
+
+    /**
+     * Identifies a generated translation file.
+     */
+    public static final class Key {
+        private final Long documentId;
+        private final LocaleId localeId;
+        private final String fileType;
+        private final boolean approvedOnly;
+
+        public Key(@Nonnull Long documentId, @Nonnull LocaleId localeId,
+                @Nonnull String fileType, boolean approvedOnly) {
+            this.documentId = documentId;
+            this.localeId = localeId;
+            this.fileType = fileType;
+            this.approvedOnly = approvedOnly;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return approvedOnly == other.approvedOnly
+                    && documentId.equals(other.documentId)
+                    && localeId.equals(other.localeId)
+                    && fileType.equals(other.fileType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentId, localeId, fileType, approvedOnly);
+        }
+
+        @Override
+        public String toString() {
+            return "Key(" + documentId + ", " + localeId + ", " + fileType
+                    + ", approvedOnly=" + approvedOnly + ")";
+        }
+    }
+
+    private static final class Entry {
+        private final String eTag;
+        private final String version;
+        private final File file;
+        private final long size;
+
+        private Entry(String eTag, String version, File file, long size) {
+            this.eTag = eTag;
+            this.version = version;
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Streams a generated file. A file which could not be cached is deleted
+     * once it has been streamed.
+     */
+    public static final class CachedFile implements StreamingOutput {
+        private final File file;
+        private final boolean temporary;
+        private final StreamingOutput generator;
+
+        private CachedFile(File file, boolean temporary,
+                StreamingOutput generator) {
+            this.file = file;
+            this.temporary = temporary;
+            this.generator = generator;
+        }
+
+        @Override
+        public void write(OutputStream output)
+                throws IOException, WebApplicationException {
+            try {
+                Files.copy(file.toPath(), output);
+            } catch (NoSuchFileException e) {
+                // evicted before we could open it; nothing has been written
+                log.debug("cached file {} evicted; generating it again",
+                        file);
+                generator.write(output);
+            } finally {
+                if (temporary) {
+                    FileUtils.deleteQuietly(file);
+                }
+            }
+        }
+    }
+}
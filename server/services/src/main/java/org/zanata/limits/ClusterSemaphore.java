@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.limits;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+import org.infinispan.Cache;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * A semaphore whose permits are shared by every node in the cluster. Each
+ * permit in use is a lease in an Infinispan cache entry, which maps lease ids
+ * to their expiry times. The entry is updated with conditional
+ * (compare-and-set) operations, so that a limit holds across all nodes behind
+ * a load balancer.
+ *
+ * Only the methods which RestCallLimiter uses are supported, similar to
+ * RestCallLimiter's NoLimitSemaphore. Each lease expires on its own, an hour
+ * after it was taken, so that permits held by a node which left the cluster
+ * are given back even while other nodes keep acquiring and releasing.
+ *
+ * @see RateLimitManager
+ */
+class ClusterSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(ClusterSemaphore.class);
+    static final long LEASE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long MIN_POLL_MILLIS = 10;
+    private static final long MAX_POLL_MILLIS = 250;
+
+    // lease id -> expiry time (millis) of each permit in use, by key
+    private final transient Cache<String, Map<String, Long>> leases;
+    private final String key;
+    private final int permits;
+    private final transient LongSupplier clock;
+    // leases acquired through this semaphore and not yet released
+    private final Deque<String> heldLeases = new ConcurrentLinkedDeque<>();
+    // threads on this node waiting in tryAcquire(timeout, unit)
+    private final AtomicInteger localQueueLength = new AtomicInteger();
+
+    /**
+     * @param leases
+     *            cache of leases on permits in use, shared by the cluster
+     * @param key
+     *            cache key for this semaphore
+     * @param permits
+     *            number of permits for the whole cluster
+     */
+    ClusterSemaphore(Cache<String, Map<String, Long>> leases, String key,
+            int permits) {
+        this(leases, key, permits, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    ClusterSemaphore(Cache<String, Map<String, Long>> leases, String key,
+            int permits, LongSupplier clock) {
+        super(0);
+        this.leases = leases;
+        this.key = key;
+        this.permits = permits;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        String leaseId = UUID.randomUUID().toString();
+        while (true) {
+            long now = clock.getAsLong();
+            Map<String, Long> current = leases.get(key);
+            Map<String, Long> live = liveLeases(current, now);
+            if (live.size() >= permits) {
+                return false;
+            }
+            Map<String, Long> updated = ImmutableMap.<String, Long> builder()
+                    .putAll(live).put(leaseId, now + LEASE_MILLIS).build();
+            if (compareAndSet(current, updated)) {
+                heldLeases.push(leaseId);
+                return true;
+            }
+            log.debug("lost race for cluster permit {}, retrying", key);
+        }
+    }
+
+    /**
+     * Polls the cluster for a permit, backing off up to
+     * {@value #MAX_POLL_MILLIS} ms between attempts, since other nodes cannot
+     * signal this one when they release.
+     */
+    @Override
+    public boolean tryAcquire(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long pollMillis = MIN_POLL_MILLIS;
+        localQueueLength.incrementAndGet();
+        try {
+            while (!tryAcquire()) {
+                long remainingMillis = TimeUnit.NANOSECONDS
+                        .toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                Thread.sleep(Math.min(pollMillis, remainingMillis));
+                pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+            }
+            return true;
+        } finally {
+            localQueueLength.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void release() {
+        String leaseId = heldLeases.poll();
+        if (leaseId == null) {
+            log.warn("released cluster permit {} which was not acquired", key);
+            return;
+        }
+        while (true) {
+            Map<String, Long> current = leases.get(key);
+            if (current == null || !current.containsKey(leaseId)) {
+                // expired, and removed by another node
+                return;
+            }
+            Map<String, Long> live =
+                    liveLeases(current, clock.getAsLong());
+            Map<String, Long> updated = ImmutableMap.copyOf(
+                    Maps.filterKeys(live, id -> !id.equals(leaseId)));
+            if (compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return permits available in the whole cluster
+     */
+    @Override
+    public int availablePermits() {
+        int inUse = liveLeases(leases.get(key), clock.getAsLong()).size();
+        return Math.max(0, permits - inUse);
+    }
+
+    /**
+     * Replaces the leases for this key, if they are still the given ones.
+     * The entry is removed when there are no leases left. Each write gives
+     * the entry the lifespan of a new lease, so that the entry expires once
+     * all of its leases have, even if they are never released.
+     */
+    private boolean compareAndSet(@Nullable Map<String, Long> expected,
+            Map<String, Long> updated) {
+        if (expected == null) {
+            return updated.isEmpty() || leases.putIfAbsent(key, updated,
+                    LEASE_MILLIS, TimeUnit.MILLISECONDS) == null;
+        }
+        if (updated.isEmpty()) {
+            return leases.remove(key, expected);
+        }
+        return leases.replace(key, expected, updated, LEASE_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return number of permits in use in a cache entry of leases
+     */
+    static int countLiveLeases(@Nullable Map<String, Long> leases) {
+        return liveLeases(leases, System.currentTimeMillis()).size();
+    }
+
+    private static Map<String, Long> liveLeases(
+            @Nullable Map<String, Long> leases, long now) {
+        if (leases == null) {
+            return ImmutableMap.of();
+        }
+        return Maps.filterValues(leases, expiry -> expiry > now);
+    }
+
+    /**
+     * Semaphore.getQueueLength() is final, and always 0 here since no thread
+     * blocks on the base semaphore.
+     *
+     * @return number of threads waiting on this node (waiters on other nodes
+     *         are not visible)
+     */
+    int getLocalQueueLength() {
+        return localQueueLength.get();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("key", key)
+                .add("permits", permits)
+                .add("available", availablePermits())
+                .add("localQueueLength", getLocalQueueLength()).toString();
+    }
+}
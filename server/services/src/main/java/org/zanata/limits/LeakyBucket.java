@@ -1,8 +1,9 @@
 package org.zanata.limits;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
 
 /**
  * @author Patrick Huang
@@ -14,7 +15,9 @@ public class LeakyBucket {
     private final long refillPeriod;
     private final long capacity;
     private final TimeTracker timeTracker;
-    private volatile long availablePermits;
+    private final AtomicLong availablePermits;
+    // time of the last acquire (or refill); refills are counted from here
+    private final AtomicLong lastRefillTime;
     private final long waitSleepTime;
 
     /**
@@ -22,6 +25,10 @@ public class LeakyBucket {
      * will deduct 1 permit. Permits is refilled on demand after set time
      * period.
      *
+     * This class is lock-free: permits and refill time are updated with
+     * compare-and-set, so that many threads can share one bucket without
+     * contending on a monitor.
+     *
      * @param capacity
      *            capacity
      * @param refillDuration
@@ -38,8 +45,9 @@ public class LeakyBucket {
     protected LeakyBucket(long capacity, int refillDuration,
             TimeUnit refillTimeUnit, TimeTracker timeTracker) {
         this.capacity = capacity;
-        availablePermits = capacity;
+        availablePermits = new AtomicLong(capacity);
         this.timeTracker = timeTracker;
+        lastRefillTime = new AtomicLong(timeTracker.now());
         refillPeriod =
                 TimeUnit.NANOSECONDS.convert(refillDuration, refillTimeUnit);
         long refillInMillis =
@@ -62,61 +70,68 @@ public class LeakyBucket {
      *
      * @return true if there is enough permits
      */
-    public synchronized boolean tryAcquire(final long requestPermits) {
+    public boolean tryAcquire(final long requestPermits) {
         onDemandRefill();
-        if (this.availablePermits >= requestPermits) {
-            timeTracker.recordCurrentTime();
-            this.availablePermits -= requestPermits;
-            log.debug(
-                    "deduct {} permits(s), current left permits {}, return true",
-                    requestPermits, this.availablePermits);
-            return true;
-        } else {
-            return false;
+        while (true) {
+            long permits = availablePermits.get();
+            if (permits < requestPermits) {
+                return false;
+            }
+            if (availablePermits.compareAndSet(permits,
+                    permits - requestPermits)) {
+                lastRefillTime.set(timeTracker.now());
+                log.debug(
+                        "deduct {} permits(s), current left permits {}, return true",
+                        requestPermits, permits - requestPermits);
+                return true;
+            }
         }
     }
 
-    private synchronized void onDemandRefill() {
-        if (availablePermits == capacity) {
+    private void onDemandRefill() {
+        if (availablePermits.get() >= capacity) {
             return;
         }
-        long timePassed = timeTracker.timePassed();
+        long lastTime = lastRefillTime.get();
+        long timePassed = timeTracker.now() - lastTime;
         log.debug("time passed: {}", timePassed);
+        if (timePassed < refillPeriod) {
+            return;
+        }
+        // only the thread which moves the refill time on may add permits,
+        // otherwise concurrent callers would each add the same refill
+        if (!lastRefillTime.compareAndSet(lastTime, lastTime + timePassed)) {
+            return;
+        }
         long permitsShouldAdd = timePassed / refillPeriod;
         log.debug("permits should add: {}", permitsShouldAdd);
-        if (timePassed >= refillPeriod) {
-            availablePermits =
-                    Math.min(capacity, availablePermits + permitsShouldAdd);
-            log.debug("refilled and now with {} permits", availablePermits);
-        }
+        long refilled = availablePermits.accumulateAndGet(permitsShouldAdd,
+                (current, add) -> Math.min(capacity, current + add));
+        log.debug("refilled and now with {} permits", refilled);
     }
 
     static class TimeTracker {
-        private Stopwatch stopWatch;
+        private final Ticker ticker;
 
         TimeTracker() {
-            stopWatch = Stopwatch.createStarted();
+            this(Ticker.systemTicker());
         }
 
         @VisibleForTesting
-        TimeTracker(Stopwatch stopWatch) {
-            this.stopWatch = stopWatch;
-        }
-
-        void recordCurrentTime() {
-            if (stopWatch.isRunning()) {
-                stopWatch.reset();
-                stopWatch.start();
-            }
+        TimeTracker(Ticker ticker) {
+            this.ticker = ticker;
         }
 
-        long timePassed() {
-            return stopWatch.elapsed(TimeUnit.NANOSECONDS);
+        /**
+         * @return current time in nanoseconds, from an arbitrary origin
+         */
+        long now() {
+            return ticker.read();
         }
 
         @Override
         public String toString() {
-            return "LeakyBucket.TimeTracker(ticker=" + this.stopWatch + ")";
+            return "LeakyBucket.TimeTracker(ticker=" + this.ticker + ")";
         }
     }
 
@@ -1,5 +1,6 @@
 package org.zanata.limits;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
@@ -9,16 +10,20 @@ import javax.enterprise.event.Observes;
 import javax.enterprise.event.TransactionPhase;
 import javax.inject.Named;
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
+import org.infinispan.manager.CacheContainer;
 import org.zanata.ApplicationConfiguration;
 import org.zanata.async.Async;
 import org.zanata.events.ConfigurationChanged;
 import org.zanata.rest.dto.DTOUtil;
 import org.zanata.util.Introspectable;
 import org.zanata.util.ServiceLocator;
+import org.zanata.util.Zanata;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
 
 /**
  * @author Patrick Huang
@@ -29,6 +34,8 @@ import com.google.common.collect.ImmutableMap;
 public class RateLimitManager implements Introspectable {
     private static final org.slf4j.Logger log =
             org.slf4j.LoggerFactory.getLogger(RateLimitManager.class);
+    private static final String CLUSTER_PERMITS_CACHE_NAME =
+            RateLimitManager.class.getName() + ".clusterPermits";
 
     private final Cache<RateLimiterToken, RestCallLimiter> activeCallers =
             CacheBuilder.newBuilder().maximumSize(100).build();
@@ -38,6 +45,12 @@ public class RateLimitManager implements Introspectable {
     private int maxActive;
     @Inject
     private ApplicationConfiguration appConfig;
+    @Inject
+    @Zanata
+    private CacheContainer cacheContainer;
+    // leases on permits in use per token, for the whole cluster. null unless
+    // running in distributed mode
+    private org.infinispan.Cache<String, Map<String, Long>> clusterPermits;
 
     public static RateLimitManager getInstance() {
         return ServiceLocator.instance().getInstance(RateLimitManager.class);
@@ -46,6 +59,11 @@ public class RateLimitManager implements Introspectable {
     @PostConstruct
     public void loadConfig() {
         readRateLimitState();
+        if (appConfig.isDistributedRateLimit()) {
+            log.info("rate limits will be shared by the cluster, using cache {}",
+                    CLUSTER_PERMITS_CACHE_NAME);
+            clusterPermits = cacheContainer.getCache(CLUSTER_PERMITS_CACHE_NAME);
+        }
     }
 
     private void readRateLimitState() {
@@ -99,6 +117,21 @@ public class RateLimitManager implements Introspectable {
         map.forEach((key, value) -> {
             builder.put(key.toString(), value.toString());
         });
+        if (clusterPermits != null) {
+            // includes tokens which are only active on other nodes
+            int requestsInFlight = 0;
+            for (Map.Entry<String, Map<String, Long>> entry : clusterPermits
+                    .entrySet()) {
+                int inUse = ClusterSemaphore.countLiveLeases(entry.getValue());
+                builder.put("cluster:" + entry.getKey(), String.valueOf(inUse));
+                // every request being served holds one [concurrent] permit
+                if (entry.getKey().endsWith(":concurrent")) {
+                    requestsInFlight += inUse;
+                }
+            }
+            builder.put("cluster:requestsInFlight",
+                    String.valueOf(requestsInFlight));
+        }
         return builder.build();
     }
 
@@ -117,6 +150,14 @@ public class RateLimitManager implements Introspectable {
         try {
             return activeCallers.get(key, () -> {
                 log.debug("creating rate limiter for key: {}", key);
+                if (clusterPermits != null) {
+                    return new RestCallLimiter(getMaxConcurrent(),
+                            getMaxActive(),
+                            permits -> new ClusterSemaphore(clusterPermits,
+                                    clusterKey(key, "concurrent"), permits),
+                            permits -> new ClusterSemaphore(clusterPermits,
+                                    clusterKey(key, "active"), permits));
+                }
                 return new RestCallLimiter(getMaxConcurrent(), getMaxActive());
             });
         } catch (ExecutionException e) {
@@ -124,6 +165,18 @@ public class RateLimitManager implements Introspectable {
         }
     }
 
+    /**
+     * Cache key for a token's permits. The token value is hashed so that API
+     * keys and OAuth tokens are not copied around the cluster.
+     */
+    @VisibleForTesting
+    static String clusterKey(RateLimiterToken token, String semaphoreName) {
+        return token.getType() + ":" + Hashing.sha256()
+                .hashString(Strings.nullToEmpty(token.getValue()),
+                        StandardCharsets.UTF_8) + ":"
+                + semaphoreName;
+    }
+
     private static class NoLimitLimiter extends RestCallLimiter {
         private static final NoLimitLimiter INSTANCE = new NoLimitLimiter();
 
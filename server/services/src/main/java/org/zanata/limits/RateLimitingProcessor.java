@@ -1,6 +1,7 @@
 package org.zanata.limits;
 
 import java.util.concurrent.TimeUnit;
+import org.zanata.metrics.MetricRegistry;
 import org.zanata.util.RunnableEx;
 import javax.servlet.http.HttpServletResponse;
 
@@ -66,6 +67,11 @@ public class RateLimitingProcessor {
                         "Too many concurrent requests for client \'%s\' (maximum is %d)",
                         key.getValue(), rateLimiter.getMaxConcurrentPermits());
             }
+            MetricRegistry.getDefault()
+                    .counter("zanata_rest_rate_limited_total",
+                            "REST requests rejected by the rate limiter",
+                            "type", key.getType().name())
+                    .inc();
             response.sendError(TOO_MANY_REQUEST, errorMessage);
         }
     }
@@ -2,6 +2,7 @@ package org.zanata.limits;
 
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import org.zanata.util.RunnableEx;
@@ -17,6 +18,8 @@ class RestCallLimiter {
     private volatile Semaphore maxActiveSemaphore;
     private int maxConcurrent;
     private int maxActive;
+    private final IntFunction<Semaphore> concurrentSemaphores;
+    private final IntFunction<Semaphore> activeSemaphores;
 
     /**
      * Creates a limiter which limits maximum concurrent requests and maximum
@@ -32,10 +35,29 @@ class RestCallLimiter {
      *            maximum allowed active requests/threads for a single user.
      */
     RestCallLimiter(int maxConcurrent, int maxActive) {
+        this(maxConcurrent, maxActive, RestCallLimiter::makeLocalSemaphore,
+                RestCallLimiter::makeLocalSemaphore);
+    }
+
+    /**
+     * Creates a limiter whose semaphores are created by the given factories
+     * (eg cluster-wide semaphores). A limit of 0 still means no limit.
+     *
+     * @param concurrentSemaphores
+     *            creates the [concurrent] semaphore for a number of permits
+     * @param activeSemaphores
+     *            creates the [active] semaphore for a number of permits
+     */
+    RestCallLimiter(int maxConcurrent, int maxActive,
+            IntFunction<Semaphore> concurrentSemaphores,
+            IntFunction<Semaphore> activeSemaphores) {
         this.maxConcurrent = maxConcurrent;
         this.maxActive = maxActive;
-        this.maxConcurrentSemaphore = makeSemaphore(maxConcurrent);
-        this.maxActiveSemaphore = makeSemaphore(maxActive);
+        this.concurrentSemaphores = concurrentSemaphores;
+        this.activeSemaphores = activeSemaphores;
+        this.maxConcurrentSemaphore =
+                makeSemaphore(maxConcurrent, concurrentSemaphores);
+        this.maxActiveSemaphore = makeSemaphore(maxActive, activeSemaphores);
     }
 
     @VisibleForTesting
@@ -115,7 +137,8 @@ class RestCallLimiter {
         if (maxConcurrent != this.maxConcurrent) {
             log.debug("change max [concurrent] semaphore with new permit {}",
                     maxConcurrent);
-            maxConcurrentSemaphore = makeSemaphore(maxConcurrent);
+            maxConcurrentSemaphore =
+                    makeSemaphore(maxConcurrent, concurrentSemaphores);
             this.maxConcurrent = maxConcurrent;
         }
     }
@@ -134,7 +157,7 @@ class RestCallLimiter {
         if (maxActive != this.maxActive) {
             log.debug("change max [active] semaphore with new permit {}",
                     maxActive);
-            maxActiveSemaphore = makeSemaphore(maxActive);
+            maxActiveSemaphore = makeSemaphore(maxActive, activeSemaphores);
             this.maxActive = maxActive;
         }
     }
@@ -152,14 +175,19 @@ class RestCallLimiter {
         return maxActiveSemaphore.availablePermits();
     }
 
-    private static Semaphore makeSemaphore(int permit) {
+    private static Semaphore makeSemaphore(int permit,
+            IntFunction<Semaphore> semaphoreFactory) {
         if (permit == 0) {
             return NoLimitSemaphore.INSTANCE;
         } else {
-            return new Semaphore(permit, true);
+            return semaphoreFactory.apply(permit);
         }
     }
 
+    private static Semaphore makeLocalSemaphore(int permit) {
+        return new Semaphore(permit, true);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).add("id", super.toString())
@@ -61,4 +61,9 @@ public class Lock implements Serializable {
             return properties.equals(other.properties);
         }
     }
+
+    @Override
+    public String toString() {
+        return "Lock" + properties;
+    }
 }
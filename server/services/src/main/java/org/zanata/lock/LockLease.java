@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.lock;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A user's hold on a {@link Lock}, which lapses at a fixed time unless the
+ * lock is released first. Each lease has a unique id, so that a holder
+ * whose lease expired and was taken over can not release the new holder's
+ * lease. A renewed lease keeps its id, but it is not equal to the lease it
+ * replaced, so that a lease can not be taken over while it is being renewed.
+ */
+public final class LockLease implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String id;
+    private final String owner;
+    private final long expiresAtMillis;
+
+    LockLease(String owner, long expiresAtMillis) {
+        this(UUID.randomUUID().toString(), owner, expiresAtMillis);
+    }
+
+    private LockLease(String id, String owner, long expiresAtMillis) {
+        this.id = id;
+        this.owner = owner;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * @return the same lease, lasting until the given time
+     */
+    LockLease renewUntil(long expiresAtMillis) {
+        return new LockLease(id, owner, expiresAtMillis);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LockLease)) {
+            return false;
+        }
+        LockLease other = (LockLease) o;
+        return id.equals(other.id) && owner.equals(other.owner)
+                && expiresAtMillis == other.expiresAtMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, owner, expiresAtMillis);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("owner", owner)
+                .add("expiresAtMillis", expiresAtMillis).toString();
+    }
+}
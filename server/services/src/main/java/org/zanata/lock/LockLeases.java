@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.lock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Table of lock leases. Backed by a clustered Infinispan cache, the table
+ * is shared by every node, and updated with conditional (compare-and-set)
+ * operations. A lease expires after a fixed time, so that a lock whose
+ * holder never released it (eg because its node died) becomes free again.
+ * A holder which is still working renews its lease before it expires.
+ * <p>
+ * Threads which wait for a lock queue on a fair lock chosen from a fixed
+ * set of stripes, so that waiters for the same lock on this node are served
+ * roughly in arrival order, without a single global lock. A release on this
+ * node wakes the waiters; releases on other nodes and expired leases are
+ * noticed by polling with backoff.
+ *
+ * @see org.zanata.service.LockManagerService
+ */
+public class LockLeases {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(LockLeases.class);
+    private static final int NUM_STRIPES =
+            Runtime.getRuntime().availableProcessors() * 4;
+    private static final long MIN_POLL_MILLIS = 10;
+    private static final long MAX_POLL_MILLIS = 250;
+
+    private final ConcurrentMap<Lock, LockLease> leases;
+    private final long leaseMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock[] stripes = new ReentrantLock[NUM_STRIPES];
+    private final Condition[] released = new Condition[NUM_STRIPES];
+
+    /**
+     * @param leases
+     *            the lease table, which may be a clustered cache
+     * @param leaseMillis
+     *            how long a lease lasts if it is not released
+     */
+    public LockLeases(ConcurrentMap<Lock, LockLease> leases,
+            long leaseMillis) {
+        this(leases, leaseMillis, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    LockLeases(ConcurrentMap<Lock, LockLease> leases, long leaseMillis,
+            LongSupplier clock) {
+        this.leases = leases;
+        this.leaseMillis = leaseMillis;
+        this.clock = clock;
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new ReentrantLock(true);
+            released[i] = stripes[i].newCondition();
+        }
+    }
+
+    /**
+     * Takes a lease on the lock if it is free, or if its lease has expired.
+     *
+     * @return the lease which was taken, or null if someone else holds the
+     *         lock
+     */
+    @Nullable
+    public LockLease tryAcquire(Lock lock, String owner) {
+        while (true) {
+            long now = clock.getAsLong();
+            LockLease lease = new LockLease(owner, now + leaseMillis);
+            LockLease current = leases.putIfAbsent(lock, lease);
+            if (current == null) {
+                return lease;
+            }
+            if (!current.isExpired(now)) {
+                return null;
+            }
+            if (leases.replace(lock, current, lease)) {
+                log.warn("lease on {} held by {} expired; taken by {}", lock,
+                        current.getOwner(), owner);
+                MetricRegistry.getDefault()
+                        .counter("zanata_lock_leases_expired_total",
+                                "Lock leases taken over after expiring")
+                        .inc();
+                return lease;
+            }
+            // lost a race with another taker; look again
+        }
+    }
+
+    /**
+     * Takes a lease on the lock, waiting up to the timeout for it to be
+     * released or to expire.
+     *
+     * @return the lease which was taken, or null if someone else still held
+     *         the lock at the time of giving up
+     */
+    @Nullable
+    public LockLease acquire(Lock lock, String owner, long timeout,
+            TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+        LockLease lease = tryAcquire(lock, owner);
+        if (lease != null) {
+            waitTimer("acquired").recordSince(start);
+            return lease;
+        }
+        int stripe = stripeFor(lock);
+        ReentrantLock stripeLock = stripes[stripe];
+        if (!stripeLock.tryLock(deadline - System.nanoTime(),
+                TimeUnit.NANOSECONDS)) {
+            waitTimer("timeout").recordSince(start);
+            return null;
+        }
+        try {
+            long pollMillis = MIN_POLL_MILLIS;
+            while ((lease = tryAcquire(lock, owner)) == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    waitTimer("timeout").recordSince(start);
+                    return null;
+                }
+                released[stripe].awaitNanos(Math.min(remaining,
+                        TimeUnit.MILLISECONDS.toNanos(pollMillis)));
+                pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+            }
+            waitTimer("acquired").recordSince(start);
+            return lease;
+        } finally {
+            stripeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the user holding the lock, or null if it is free
+     */
+    @Nullable
+    public String getOwner(Lock lock) {
+        LockLease current = leases.get(lock);
+        if (current == null || current.isExpired(clock.getAsLong())) {
+            return null;
+        }
+        return current.getOwner();
+    }
+
+    /**
+     * Extends a lease which is still held, so that it lasts for the full
+     * lease time from now.
+     *
+     * @param lease
+     *            the lease returned by acquire, or by the previous renewal
+     * @return the renewed lease, or null if the lease expired and was taken
+     *         by someone else, or was released
+     */
+    @Nullable
+    public LockLease renew(Lock lock, LockLease lease) {
+        LockLease renewed =
+                lease.renewUntil(clock.getAsLong() + leaseMillis);
+        if (leases.replace(lock, lease, renewed)) {
+            return renewed;
+        }
+        return null;
+    }
+
+    /**
+     * Gives up a lease on the lock, unless it expired and was taken by
+     * someone else, and wakes any threads on this node waiting for it.
+     *
+     * @param lease
+     *            the holder's current lease
+     * @return false if the lease was no longer held
+     */
+    public boolean release(Lock lock, LockLease lease) {
+        boolean removed = leases.remove(lock, lease);
+        int stripe = stripeFor(lock);
+        stripes[stripe].lock();
+        try {
+            released[stripe].signalAll();
+        } finally {
+            stripes[stripe].unlock();
+        }
+        return removed;
+    }
+
+    /**
+     * @return every lease in the table, including those of other nodes
+     */
+    public Map<Lock, LockLease> getLeases() {
+        return ImmutableMap.copyOf(leases);
+    }
+
+    private static int stripeFor(Lock lock) {
+        int h = lock.hashCode();
+        // spread the bits, as HashMap does
+        return Math.floorMod(h ^ (h >>> 16), NUM_STRIPES);
+    }
+
+    private static Timer waitTimer(String result) {
+        return MetricRegistry.getDefault().timer("zanata_lock_wait_seconds",
+                "Time spent waiting for locks", "result", result);
+    }
+}
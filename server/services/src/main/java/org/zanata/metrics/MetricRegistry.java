@@ -0,0 +1,236 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Registry of counters, timers and gauges, which can be written out in the
+ * Prometheus text exposition format (version 0.0.4).
+ * <p>
+ * The default registry is a plain singleton rather than a CDI bean, so that
+ * code which is not managed by CDI (eg cache wrappers and JAX-RS providers)
+ * can record metrics too. Metrics are identified by name plus label values:
+ * asking for the same name and labels again returns the same metric, so
+ * callers may look them up on every use or keep a reference.
+ * <p>
+ * Labels are passed as alternating keys and values, eg
+ * {@code counter("zanata_cache_requests_total", help, "cache", name,
+ * "result", "hit")}.
+ *
+ * @see org.zanata.rest.service.MetricsService
+ */
+public final class MetricRegistry {
+    private static final Logger log =
+            LoggerFactory.getLogger(MetricRegistry.class);
+    private static final MetricRegistry DEFAULT = new MetricRegistry();
+    private static final Pattern METRIC_NAME =
+            Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME =
+            Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM;
+
+        String exposedName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final ConcurrentMap<String, Family> families =
+            new ConcurrentSkipListMap<>();
+
+    public static MetricRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    @VisibleForTesting
+    MetricRegistry() {
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return family(name, help, Type.COUNTER).child(labels, Counter.class,
+                Counter::new);
+    }
+
+    public Timer timer(String name, String help, String... labels) {
+        return family(name, help, Type.HISTOGRAM).child(labels, Timer.class,
+                Timer::new);
+    }
+
+    /**
+     * Registers a gauge which is sampled whenever the registry is written.
+     * Registering the same name and labels again replaces the previous
+     * supplier, so that a redeployed bean does not keep the old one alive.
+     */
+    public void gauge(String name, String help, DoubleSupplier value,
+            String... labels) {
+        family(name, help, Type.GAUGE).replace(labels, new Sampled(value));
+    }
+
+    /**
+     * Like {@link #gauge} but for a value which only goes up and is counted
+     * elsewhere, eg a Hibernate statistic.
+     */
+    public void functionCounter(String name, String help,
+            DoubleSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).replace(labels, new Sampled(value));
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format, with metric
+     * families sorted by name.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        StringBuilder out = new StringBuilder();
+        for (Family family : families.values()) {
+            family.appendTo(out);
+        }
+        writer.write(out.toString());
+    }
+
+    private Family family(String name, String help, Type type) {
+        if (!METRIC_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("invalid metric name: " + name);
+        }
+        Family family =
+                families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("metric " + name
+                    + " is already registered as a " + family.type.exposedName());
+        }
+        return family;
+    }
+
+    private static String renderLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException(
+                    "labels must be key/value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            String key = labels[i];
+            if (!LABEL_NAME.matcher(key).matches() || key.equals("le")) {
+                throw new IllegalArgumentException("invalid label name: " + key);
+            }
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(key).append("=\"");
+            String value = String.valueOf(labels[i + 1]);
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        // keyed by rendered labels
+        private final ConcurrentMap<String, Metric> children =
+                new ConcurrentSkipListMap<>();
+
+        private Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        private <M extends Metric> M child(String[] labels, Class<M> clazz,
+                Supplier<M> factory) {
+            Metric metric = children.computeIfAbsent(renderLabels(labels),
+                    l -> factory.get());
+            if (!clazz.isInstance(metric)) {
+                throw new IllegalArgumentException("metric " + name
+                        + " is registered with a function for these labels");
+            }
+            return clazz.cast(metric);
+        }
+
+        private void replace(String[] labels, Metric metric) {
+            children.put(renderLabels(labels), metric);
+        }
+
+        private void appendTo(StringBuilder out) {
+            if (children.isEmpty()) {
+                return;
+            }
+            out.append("# HELP ").append(name).append(' ')
+                    .append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+                    .append('\n');
+            out.append("# TYPE ").append(name).append(' ')
+                    .append(type.exposedName()).append('\n');
+            for (Map.Entry<String, Metric> child : children.entrySet()) {
+                child.getValue().appendTo(out, name, child.getKey());
+            }
+        }
+    }
+
+    private static final class Sampled implements Metric {
+        private final DoubleSupplier supplier;
+
+        private Sampled(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void appendTo(StringBuilder out, String name, String labels) {
+            double value;
+            try {
+                value = supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                // one broken gauge should not break the whole scrape
+                log.warn("unable to sample metric {}", name, e);
+                return;
+            }
+            Metric.appendSample(out, name, labels, value);
+        }
+    }
+}
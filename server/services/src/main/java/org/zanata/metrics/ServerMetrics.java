@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.metrics;
+
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.servlet.ServletContext;
+
+import org.apache.deltaspike.core.api.lifecycle.Initialized;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.util.Zanata;
+
+/**
+ * Registers gauges for server state which is owned by CDI beans: async task
+ * handles and Hibernate statistics. Other metrics are recorded directly
+ * where they happen.
+ */
+@ApplicationScoped
+public class ServerMetrics {
+    @Inject
+    private AsyncTaskHandleManager asyncTaskHandleManager;
+
+    @Inject
+    @Zanata
+    private SessionFactory sessionFactory;
+
+    void onContextCreation(@Observes @Initialized ServletContext context) {
+        MetricRegistry metrics = MetricRegistry.getDefault();
+        registerAsyncTasks(metrics);
+        registerHibernateStatistics(metrics);
+    }
+
+    private void registerAsyncTasks(MetricRegistry metrics) {
+        String help = "Async tasks which have not finished, by state";
+        metrics.gauge("zanata_async_tasks", help,
+                () -> countTasks(AsyncTaskHandle::isRunning), "state",
+                "running");
+        metrics.gauge("zanata_async_tasks", help,
+                () -> countTasks(handle -> !handle.isStarted()
+                        && !handle.isCancelled()),
+                "state", "queued");
+    }
+
+    private long countTasks(Predicate<AsyncTaskHandle<?>> predicate) {
+        return asyncTaskHandleManager.getRunningTasks().values().stream()
+                .filter(predicate).count();
+    }
+
+    private void registerHibernateStatistics(MetricRegistry metrics) {
+        // statistics are enabled by hibernate.generate_statistics in
+        // persistence.xml
+        Statistics stats = sessionFactory.getStatistics();
+        hibernateCounter(metrics, stats, "zanata_hibernate_queries_total",
+                "HQL/JPQL queries executed",
+                Statistics::getQueryExecutionCount);
+        hibernateCounter(metrics, stats,
+                "zanata_hibernate_entity_loads_total", "Entities loaded",
+                Statistics::getEntityLoadCount);
+        hibernateCounter(metrics, stats,
+                "zanata_hibernate_entity_fetches_total",
+                "Entities fetched by a separate select",
+                Statistics::getEntityFetchCount);
+        hibernateCounter(metrics, stats,
+                "zanata_hibernate_statements_total",
+                "JDBC statements prepared",
+                Statistics::getPrepareStatementCount);
+        hibernateCounter(metrics, stats, "zanata_hibernate_sessions_total",
+                "Hibernate sessions opened",
+                Statistics::getSessionOpenCount);
+        hibernateCounter(metrics, stats,
+                "zanata_hibernate_transactions_total",
+                "Transactions completed", Statistics::getTransactionCount);
+        String cacheHelp = "Second-level cache lookups";
+        metrics.functionCounter("zanata_hibernate_second_level_cache_total",
+                cacheHelp, stats::getSecondLevelCacheHitCount, "result",
+                "hit");
+        metrics.functionCounter("zanata_hibernate_second_level_cache_total",
+                cacheHelp, stats::getSecondLevelCacheMissCount, "result",
+                "miss");
+    }
+
+    private static void hibernateCounter(MetricRegistry metrics,
+            Statistics stats, String name, String help,
+            ToLongFunction<Statistics> statistic) {
+        metrics.functionCounter(name, help,
+                () -> statistic.applyAsLong(stats));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the distribution of durations of an operation, exported as a
+ * Prometheus histogram in seconds.
+ *
+ * @see MetricRegistry#timer(String, String, String...)
+ */
+public final class Timer implements Metric {
+    /** upper bounds of the histogram buckets, in seconds */
+    private static final double[] BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1,
+            0.25, 0.5, 1, 2.5, 5, 10, 30, 60 };
+
+    // counts[i] counts durations in (BUCKETS[i-1], BUCKETS[i]], and the
+    // last one counts everything over the largest bucket
+    private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+    private final DoubleAdder sumSeconds = new DoubleAdder();
+
+    Timer() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        double seconds = unit.toNanos(duration) / 1e9;
+        int bucket = 0;
+        while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) {
+            bucket++;
+        }
+        counts[bucket].increment();
+        sumSeconds.add(seconds);
+    }
+
+    /**
+     * Records the time since startNanos, which should be a value from
+     * System.nanoTime().
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public double getSumSeconds() {
+        return sumSeconds.sum();
+    }
+
+    @Override
+    public void appendTo(StringBuilder out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            cumulative += counts[i].sum();
+            Metric.appendSample(out, name + "_bucket", labels + separator
+                    + "le=\"" + Metric.formatValue(BUCKETS[i]) + "\"",
+                    cumulative);
+        }
+        cumulative += counts[BUCKETS.length].sum();
+        Metric.appendSample(out, name + "_bucket",
+                labels + separator + "le=\"+Inf\"", cumulative);
+        Metric.appendSample(out, name + "_sum", labels, getSumSeconds());
+        Metric.appendSample(out, name + "_count", labels, cumulative);
+    }
+}
@@ -97,6 +97,9 @@ public class RestLimitingFilter implements Filter {
                 || authCodeOpt.isPresent() || accessTokenOpt.isPresent()
                 || refreshTokenOpt.isPresent();
         RunnableEx invokeChain = () -> chain.doFilter(req, resp);
+        // the time taken is recorded by RestMetricsFilter
+        request.setAttribute(RestMetricsFilter.START_NANOS_ATTRIBUTE,
+                System.nanoTime());
         try {
             // authenticatedUser can be from browser or client request
             if (authenticatedUser != null) {
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+import org.zanata.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Records the time taken by each REST call, labelled by the resource class
+ * and method which handled it rather than by its URL, so that the number of
+ * timers stays bounded. The time is measured from when
+ * {@link RestLimitingFilter} received the request, so it includes any time
+ * queued by the rate limiter.
+ */
+@Provider
+public class RestMetricsFilter implements ContainerResponseFilter {
+    /**
+     * Request attribute holding the {@link System#nanoTime()} at which the
+     * request was received.
+     */
+    static final String START_NANOS_ATTRIBUTE =
+            RestMetricsFilter.class.getName() + ".startNanos";
+    private static final ImmutableSet<String> HTTP_METHODS = ImmutableSet
+            .of("GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS", "PATCH");
+
+    @Context
+    private ResourceInfo resourceInfo;
+    @Context
+    private HttpServletRequest request;
+
+    public RestMetricsFilter() {
+    }
+
+    @VisibleForTesting
+    RestMetricsFilter(ResourceInfo resourceInfo, HttpServletRequest request) {
+        this.resourceInfo = resourceInfo;
+        this.request = request;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+            ContainerResponseContext responseContext) throws IOException {
+        Object start = request.getAttribute(START_NANOS_ATTRIBUTE);
+        if (!(start instanceof Long)) {
+            return;
+        }
+        Method method = resourceInfo.getResourceMethod();
+        // the class which declares the method (which may be an interface),
+        // rather than the resource class, which may be a CDI proxy
+        String resource = method != null
+                ? method.getDeclaringClass().getSimpleName() : "none";
+        String operation = method != null ? method.getName() : "none";
+        int status = responseContext.getStatus();
+        MetricRegistry.getDefault()
+                .timer("zanata_rest_request_seconds",
+                        "Time taken by REST requests, including time queued "
+                                + "by the rate limiter",
+                        "resource", resource, "operation", operation,
+                        "method", httpMethod(requestContext.getMethod()),
+                        "status", statusClass(status))
+                .recordSince((Long) start);
+    }
+
+    @VisibleForTesting
+    static String httpMethod(@Nullable String method) {
+        return method != null && HTTP_METHODS.contains(method) ? method
+                : "other";
+    }
+
+    private static String statusClass(int status) {
+        return status >= 100 && status < 600 ? (status / 100) + "xx"
+                : "unknown";
+    }
+}
@@ -32,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.async.AsyncTaskKey;
 import org.zanata.async.GenericAsyncTaskKey;
 import org.zanata.async.handle.MergeTranslationsTaskHandle;
@@ -97,6 +98,7 @@ public class TransMemoryMergeManager implements Serializable {
         if (AsyncTaskHandle.taskIsNotRunning(handleByKey)) {
             TransMemoryMergeTaskHandle handle = new TransMemoryMergeTaskHandle();
             handle.setTriggeredBy(identity.getAccountUsername());
+            handle.setProjectSlug(request.projectIterationId.getProjectSlug());
             handle.setTaskName(messages.format("jsf.tasks.translationMemoryMerge",
                     request.projectIterationId.getProjectSlug(),
                     request.projectIterationId.getIterationSlug()));
@@ -137,6 +139,7 @@ public class TransMemoryMergeManager implements Serializable {
                 (MergeTranslationsTaskHandle) asyncTaskHandleManager.getHandleByKey(key);
         if (AsyncTaskHandle.taskIsNotRunning(handleByKey)) {
             handleByKey = new MergeTranslationsTaskHandle(key);
+            handleByKey.setTaskType(AsyncTaskType.TM_MERGE);
             handleByKey.setTaskName(
                     messages.format("jsf.tasks.TMMerge", mergeRequest.getLocaleId()));
             handleByKey.setTriggeredBy(identity.getAccountUsername());
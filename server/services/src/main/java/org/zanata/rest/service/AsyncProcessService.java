@@ -22,6 +22,7 @@ package org.zanata.rest.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
@@ -225,7 +226,12 @@ public class AsyncProcessService {
         }
         status.setPercentageComplete(percentComplete);
         status.setUrl(url);
-        if (handle.isCancelled()) {
+        OptionalInt queuePosition = handle.getQueuePosition();
+        if (queuePosition.isPresent() && !handle.isDone()) {
+            status.setStatusCode(ProcessStatus.ProcessStatusCode.Waiting);
+            status.addMessage("Waiting for a free worker, at position "
+                    + queuePosition.getAsInt() + " in the queue");
+        } else if (handle.isCancelled()) {
             status.setStatusCode(ProcessStatus.ProcessStatusCode.Cancelled);
             status.addMessage("Cancelled by " + handle.getCancelledBy());
         } else if (handle.isDone()) {
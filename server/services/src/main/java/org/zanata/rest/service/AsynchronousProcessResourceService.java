@@ -29,6 +29,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.common.EntityStatus;
 import org.zanata.common.LocaleId;
 import org.zanata.common.MergeType;
@@ -112,7 +113,7 @@ public class AsynchronousProcessResourceService
         }
         String name = "SourceDocCreation: " + projectSlug + "-" + iterationSlug
                 + "-" + idNoSlash;
-        AsyncTaskHandle<HDocument> handle = new AsyncTaskHandle<>();
+        AsyncTaskHandle<HDocument> handle = newPushHandle(projectSlug);
         String keyId = asyncTaskHandleManager.registerTaskHandle(handle);
         documentServiceImpl
                 .saveDocumentAsync(projectSlug, iterationSlug,
@@ -157,7 +158,7 @@ public class AsynchronousProcessResourceService
         identity.checkPermission(hProjectIteration, "import-template");
         String name = "SourceDocCreationOrUpdate: " + projectSlug + "-"
                 + iterationSlug + "-" + docId;
-        AsyncTaskHandle<HDocument> handle = new AsyncTaskHandle<HDocument>();
+        AsyncTaskHandle<HDocument> handle = newPushHandle(projectSlug);
         String keyId = asyncTaskHandleManager.registerTaskHandle(handle);
         documentServiceImpl
                 .saveDocumentAsync(projectSlug, iterationSlug, resource,
@@ -167,6 +168,14 @@ public class AsynchronousProcessResourceService
         // Accepted, with a url to get the progress
     }
 
+    private static AsyncTaskHandle<HDocument> newPushHandle(
+            String projectSlug) {
+        AsyncTaskHandle<HDocument> handle = new AsyncTaskHandle<>();
+        handle.setTaskType(AsyncTaskType.PUSH);
+        handle.setProjectSlug(projectSlug);
+        return handle;
+    }
+
     private <T> void logWhenUploadComplete(
             AsyncTaskHandle<T> taskHandle,
             final String taskName, final String taskId) {
@@ -223,7 +232,7 @@ public class AsynchronousProcessResourceService
         String taskName =
                 "TranslatedDocUpload: " + projectSlug + "-" + iterationSlug +
                         "-" + docId;
-        AsyncTaskHandle<HDocument> handle = new AsyncTaskHandle<>();
+        AsyncTaskHandle<HDocument> handle = newPushHandle(projectSlug);
         String keyId = asyncTaskHandleManager.registerTaskHandle(handle);
         translationServiceImpl.translateAllInDocAsync(projectSlug,
                 iterationSlug, docId, locale, translatedDoc, extensions,
@@ -91,7 +91,11 @@ public class ETagUtils implements Serializable {
         HDocument doc = documentDAO.getByDocIdAndIteration(iteration, id);
         if (doc == null)
             throw new NoSuchEntityException("Document '" + id + "' not found.");
+        return generateETagForDocument(doc, extensions);
+    }
 
+    public EntityTag generateETagForDocument(HDocument doc,
+            Set<String> extensions) {
         Integer hashcode = 1;
         hashcode = hashcode * 31 + doc.getRevision();
 
@@ -31,12 +31,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.enterprise.context.RequestScoped;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Path;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -62,8 +64,10 @@ import org.zanata.file.FilePersistService;
 import org.zanata.file.GlobalDocumentId;
 import org.zanata.file.RawDocumentContentAccessException;
 import org.zanata.file.SourceDocumentUpload;
+import org.zanata.file.TranslatedFileCache;
 import org.zanata.file.TranslationDocumentUpload;
 import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HRawDocument;
 import org.zanata.rest.dto.TranslationSourceType;
@@ -76,6 +80,7 @@ import org.zanata.rest.dto.resource.TranslationsResource;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.FileSystemService;
 import org.zanata.service.FileSystemService.DownloadDescriptorProperties;
+import org.zanata.service.LocaleService;
 import org.zanata.service.TranslationFileService;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
@@ -114,6 +119,12 @@ public class FileService implements FileResource {
     private ProjectIterationDAO projectIterationDAO;
     @Inject
     private ZanataIdentity identity;
+    @Inject
+    private TranslatedFileCache translatedFileCache;
+    @Inject
+    private ETagUtils eTagUtils;
+    @Inject
+    private LocaleService localeServiceImpl;
 
     /**
      * Deprecated.
@@ -227,7 +238,6 @@ public class FileService implements FileResource {
     }
 
     @Override
-    @SuppressFBWarnings({"SLF4J_FORMAT_SHOULD_BE_CONST"})
     public Response downloadTranslationFile(String projectSlug,
             String iterationSlug, String locale, String fileType,
             String docId, boolean approvedOnly) {
@@ -246,21 +256,15 @@ public class FileService implements FileResource {
                 // Note: could return 404 or Unsupported media type for "po" in
                 // non-po projects,
                 // and suggest to use offlinepo
-                final Set<String> extensions = new HashSet<String>();
-                extensions.add("gettext");
-                extensions.add("comment");
-                // Perform translation of Hibernate DTOs to JAXB DTOs
-
-                // FIXME convertFromDocumentURIId expects an idNoSlash, but what type is docId?
-                String convertedId = RestUtil.convertFromDocumentURIId(docId);
-                TranslationsResource transRes =
-                        (TranslationsResource) this.translatedDocResourceService
-                                .getTranslationsWithDocId(localeId, convertedId,
-                                        extensions, true, false, null)
-                                .getEntity();
-                Resource res = this.resourceUtils.buildResource(document);
-                StreamingOutput output = new POStreamingOutput(res, transRes,
-                        FILETYPE_OFFLINE_PO.equals(fileType), approvedOnly);
+                final StreamingOutput output;
+                try {
+                    output = cachedOrGenerated(document, localeId, fileType,
+                            approvedOnly, () -> generatePoFile(docId, document,
+                                    localeId, fileType, approvedOnly));
+                } catch (IOException e) {
+                    log.error("unable to cache translated file", e);
+                    return Response.serverError().build();
+                }
                 response = Response.ok()
                         .header("Content-Disposition",
                                 "attachment; filename=\"" + document.getName()
@@ -273,69 +277,25 @@ public class FileService implements FileResource {
                 }
                 assert document.getRawDocument() != null;
                 HRawDocument hRawDocument = document.getRawDocument();
-                Resource res = this.resourceUtils.buildResource(document);
-                final Set<String> extensions = Collections.<String> emptySet();
-                // FIXME convertFromDocumentURIId expects an idNoSlash, but what type is docId?
-                String convertedId = RestUtil.convertFromDocumentURIId(docId);
-                TranslationsResource transRes =
-                        (TranslationsResource) this.translatedDocResourceService
-                                .getTranslationsWithDocId(localeId, convertedId,
-                                        extensions, true, false, null)
-                                .getEntity();
-                // Filter to only provide translated targets. "Preview" downloads
-                // include fuzzy.
-                // New list is used as transRes list appears not to be a modifiable
-                // implementation.
-                List<TextFlowTarget> filteredTranslations = Lists.newArrayList();
-                boolean useFuzzy =
-                        FILETYPE_TRANSLATED_APPROVED_AND_FUZZY.equals(fileType);
-                for (TextFlowTarget target : transRes.getTextFlowTargets()) {
-                    // TODO rhbz953734 - translatedDocResourceService will map
-                    // review content state to old state. For now this is
-                    // acceptable. Once we have new REST options, we should review
-                    // this
-                    ContentState state = target.getState();
-                    if (state.isApproved() ||
-                            (useFuzzy && state.isRejectedOrFuzzy()) ||
-                            (!approvedOnly && state.isTranslated())) {
-                        filteredTranslations.add(target);
-                    }
-                }
-                transRes.getTextFlowTargets().clear();
-                transRes.getTextFlowTargets().addAll(filteredTranslations);
-                InputStream inputStream;
-                try {
-                    inputStream = filePersistService.getRawDocumentContentAsStream(
-                            hRawDocument);
-                } catch (RawDocumentContentAccessException e) {
-                    log.error(e.toString(), e);
-                    return Response.status(Status.INTERNAL_SERVER_ERROR).entity(e)
-                            .build();
-                }
-                File tempFile =
-                        translationFileServiceImpl.persistToTempFile(inputStream);
-                String name = projectSlug + ":" + iterationSlug + ":" + docId;
-                // TODO damason: this file is not transmitted, but used to generate
-                // a file later
-                // the generated file should be scanned instead
-                virusScanner.scan(tempFile, name);
-                URI uri = tempFile.toURI();
                 FileFormatAdapter adapter = translationFileServiceImpl
                         .getAdapterFor(hRawDocument.getType());
-                String rawParamString = hRawDocument.getAdapterParameters();
-                String params = Strings.nullToEmpty(rawParamString);
-                StreamingOutput output = new FormatAdapterStreamingOutput(uri, res,
-                        transRes, localeId, adapter, params, approvedOnly);
+                final StreamingOutput output;
+                try {
+                    output = cachedOrGenerated(document, localeId, fileType,
+                            approvedOnly,
+                            () -> generateTranslatedFile(projectSlug,
+                                    iterationSlug, docId, document, localeId,
+                                    fileType, approvedOnly, adapter));
+                } catch (IOException e) {
+                    log.error("unable to cache translated file", e);
+                    return Response.serverError().build();
+                }
                 String translationFilename =
                         adapter.generateTranslationFilename(document, locale);
                 response = Response.ok()
                         .header("Content-Disposition", "attachment; filename=\""
                                 + translationFilename + "\"")
                         .entity(output).build();
-                // TODO damason: remove more immediately, but make sure response has
-                // finished with the file
-                // Note: may not be necessary when file storage is on disk.
-                tempFile.deleteOnExit();
             } else {
                 // TODO wrong code: fileType is not a mime media type
                 response = Response.status(Status.UNSUPPORTED_MEDIA_TYPE).build();
@@ -344,6 +304,121 @@ public class FileService implements FileResource {
         return response;
     }
 
+    /**
+     * Builds the output for a PO file of a document's translations.
+     */
+    private StreamingOutput generatePoFile(String docId, HDocument document,
+            LocaleId localeId, String fileType, boolean approvedOnly) {
+        final Set<String> extensions = new HashSet<String>();
+        extensions.add("gettext");
+        extensions.add("comment");
+        // Perform translation of Hibernate DTOs to JAXB DTOs
+
+        // FIXME convertFromDocumentURIId expects an idNoSlash, but what type is docId?
+        String convertedId = RestUtil.convertFromDocumentURIId(docId);
+        TranslationsResource transRes =
+                (TranslationsResource) this.translatedDocResourceService
+                        .getTranslationsWithDocId(localeId, convertedId,
+                                extensions, true, false, null)
+                        .getEntity();
+        Resource res = this.resourceUtils.buildResource(document);
+        return new POStreamingOutput(res, transRes,
+                FILETYPE_OFFLINE_PO.equals(fileType), approvedOnly);
+    }
+
+    /**
+     * Builds the output for an approved/fuzzy translated file in the
+     * document's original format.
+     *
+     * @throws WebApplicationException
+     *             if the original document can't be read
+     */
+    @SuppressFBWarnings({"SLF4J_FORMAT_SHOULD_BE_CONST"})
+    private StreamingOutput generateTranslatedFile(String projectSlug,
+            String iterationSlug, String docId, HDocument document,
+            LocaleId localeId, String fileType, boolean approvedOnly,
+            FileFormatAdapter adapter) {
+        HRawDocument hRawDocument = document.getRawDocument();
+        Resource res = this.resourceUtils.buildResource(document);
+        final Set<String> extensions = Collections.<String> emptySet();
+        // FIXME convertFromDocumentURIId expects an idNoSlash, but what type is docId?
+        String convertedId = RestUtil.convertFromDocumentURIId(docId);
+        TranslationsResource transRes =
+                (TranslationsResource) this.translatedDocResourceService
+                        .getTranslationsWithDocId(localeId, convertedId,
+                                extensions, true, false, null)
+                        .getEntity();
+        // Filter to only provide translated targets. "Preview" downloads
+        // include fuzzy.
+        // New list is used as transRes list appears not to be a modifiable
+        // implementation.
+        List<TextFlowTarget> filteredTranslations = Lists.newArrayList();
+        boolean useFuzzy =
+                FILETYPE_TRANSLATED_APPROVED_AND_FUZZY.equals(fileType);
+        for (TextFlowTarget target : transRes.getTextFlowTargets()) {
+            // TODO rhbz953734 - translatedDocResourceService will map
+            // review content state to old state. For now this is
+            // acceptable. Once we have new REST options, we should review
+            // this
+            ContentState state = target.getState();
+            if (state.isApproved() ||
+                    (useFuzzy && state.isRejectedOrFuzzy()) ||
+                    (!approvedOnly && state.isTranslated())) {
+                filteredTranslations.add(target);
+            }
+        }
+        transRes.getTextFlowTargets().clear();
+        transRes.getTextFlowTargets().addAll(filteredTranslations);
+        InputStream inputStream;
+        try {
+            inputStream = filePersistService.getRawDocumentContentAsStream(
+                    hRawDocument);
+        } catch (RawDocumentContentAccessException e) {
+            log.error(e.toString(), e);
+            throw new WebApplicationException(e, Response
+                    .status(Status.INTERNAL_SERVER_ERROR).entity(e).build());
+        }
+        File tempFile =
+                translationFileServiceImpl.persistToTempFile(inputStream);
+        String name = projectSlug + ":" + iterationSlug + ":" + docId;
+        // TODO damason: this file is not transmitted, but used to generate
+        // a file later
+        // the generated file should be scanned instead
+        virusScanner.scan(tempFile, name);
+        URI uri = tempFile.toURI();
+        String rawParamString = hRawDocument.getAdapterParameters();
+        String params = Strings.nullToEmpty(rawParamString);
+        // TODO damason: remove more immediately, but make sure response has
+        // finished with the file
+        // Note: may not be necessary when file storage is on disk.
+        tempFile.deleteOnExit();
+        return new FormatAdapterStreamingOutput(uri, res, transRes, localeId,
+                adapter, params, approvedOnly);
+    }
+
+    /**
+     * Returns the output of {@code generator}, from the translated file cache
+     * if it is enabled. When the file is cached for the document's current
+     * ETag, {@code generator} is not called at all.
+     */
+    private StreamingOutput cachedOrGenerated(HDocument document,
+            LocaleId localeId, String fileType, boolean approvedOnly,
+            Supplier<StreamingOutput> generator) throws IOException {
+        if (!translatedFileCache.isEnabled()) {
+            return generator.get();
+        }
+        HLocale hLocale = localeServiceImpl.getByLocaleId(localeId);
+        if (hLocale == null) {
+            return generator.get();
+        }
+        EntityTag eTag = eTagUtils.generateETagForTranslatedDocument(
+                document.getProjectIteration(), document.getDocId(), hLocale);
+        return translatedFileCache.getOrGenerate(
+                new TranslatedFileCache.Key(document.getId(), localeId,
+                        fileType, approvedOnly),
+                eTag.getValue(), output -> generator.get().write(output));
+    }
+
     @Override
     public Response download(String downloadId) {
         // TODO scan (again) for virus
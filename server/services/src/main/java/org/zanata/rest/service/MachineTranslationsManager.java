@@ -78,6 +78,7 @@ public class MachineTranslationsManager {
                             versionSlug, prefillRequest.getToLocale().getId()));
             taskHandle.setTriggeredBy(authenticatedAccount.getUsername());
             taskHandle.setTargetVersion(projectIterationId.toString());
+            taskHandle.setProjectSlug(projectSlug);
             asyncTaskHandleManager.registerTaskHandle(taskHandle, taskKey);
             machineTranslationService.prefillProjectVersionWithMachineTranslation(
                     projectIteration.getId(), prefillRequest,
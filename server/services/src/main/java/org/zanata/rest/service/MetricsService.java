@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.rest.service;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import javax.enterprise.context.RequestScoped;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.security.annotations.CheckRole;
+import com.google.common.annotations.Beta;
+
+/**
+ * Exposes server metrics in the Prometheus text format, for scraping by a
+ * monitoring system using an admin API key. This API is experimental and
+ * the metric names are subject to change.
+ */
+@RequestScoped
+@Path("/metrics")
+@CheckRole("admin")
+@Beta
+public class MetricsService {
+    static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4";
+
+    /**
+     * Return the current value of every registered metric.
+     *
+     * @return The following response status codes will be returned from this
+     *         operation:<br>
+     *         OK(200) - metrics in the Prometheus text format.<br>
+     *         UNAUTHORIZED(401) - if not admin role.<br>
+     *         INTERNAL SERVER ERROR(500) - If there is an unexpected error in
+     *         the server while performing this operation.
+     */
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public Response get() {
+        StreamingOutput output = out -> {
+            Writer writer =
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            MetricRegistry.getDefault().writeTo(writer);
+            writer.flush();
+        };
+        return Response.ok(output).build();
+    }
+}
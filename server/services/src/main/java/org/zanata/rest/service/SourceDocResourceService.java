@@ -60,6 +60,8 @@ import org.zanata.rest.ReadOnlyEntityException;
 import org.zanata.rest.RestUtil;
 import org.zanata.rest.dto.resource.Resource;
 import org.zanata.rest.dto.resource.ResourceMeta;
+import org.zanata.rest.dto.resource.SyncManifest;
+import org.zanata.rest.dto.resource.SyncManifestEntry;
 import org.zanata.rest.dto.resource.TextFlow;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.DocumentService;
@@ -388,6 +390,37 @@ public class SourceDocResourceService implements SourceDocResource {
                 .build();
     }
 
+    @Override
+    public Response getSyncManifest(Set<String> extensions,
+            Set<LocaleId> locales) {
+        HProjectIteration hProjectIteration = retrieveAndCheckIteration(false);
+        ResourceUtils.validateExtensions(extensions);
+        List<HLocale> hLocales = new ArrayList<>(locales.size());
+        for (LocaleId locale : locales) {
+            hLocales.add(validateTargetLocale(locale, projectSlug,
+                    iterationSlug));
+        }
+        SyncManifest manifest = new SyncManifest();
+        List<SyncManifestEntry> entries = manifest.getEntries();
+        for (HDocument doc : hProjectIteration.getDocuments().values()) {
+            if (!doc.isObsolete()) {
+                entries.add(new SyncManifestEntry(doc.getDocId(), null,
+                        eTagUtils.generateETagForDocument(doc, extensions)
+                                .getValue()));
+            }
+        }
+        // one query per locale, rather than one per document and locale
+        for (HLocale hLocale : hLocales) {
+            String localeId = hLocale.getLocaleId().getId();
+            documentDAO
+                    .getTranslatedDocumentStateHashes(hProjectIteration,
+                            hLocale)
+                    .forEach((docId, hash) -> entries.add(
+                            new SyncManifestEntry(docId, localeId, hash)));
+        }
+        return Response.ok(manifest).build();
+    }
+
     private HProjectIteration
             retrieveAndCheckIteration(boolean writeOperation) {
         HProjectIteration hProjectIteration =
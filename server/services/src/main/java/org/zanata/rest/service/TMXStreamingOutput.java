@@ -20,11 +20,20 @@
  */
 package org.zanata.rest.service;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
-import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.StreamingOutput;
@@ -36,6 +45,7 @@ import org.zanata.util.CloseableIterator;
 import org.zanata.util.NullCloseable;
 import org.zanata.xml.StreamSerializer;
 import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.PeekingIterator;
 
@@ -50,16 +60,28 @@ import com.google.common.collect.PeekingIterator;
 public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
     private static final org.slf4j.Logger log =
             org.slf4j.LoggerFactory.getLogger(TMXStreamingOutput.class);
-    @Nonnull
+    @Nullable
     private final Iterator<T> tuIter;
+    @Nullable
+    private final Iterable<? extends Supplier<? extends CloseableIterator<T>>>
+            partitions;
+    @Nullable
+    private final Executor executor;
+    private final int parallelism;
     private final TMXExportStrategy<T> exportStrategy;
     private final Closeable closeable;
     private final String jobName;
+    // partitions which have been opened but not yet written, in output order
+    private final Deque<Partition> pending = new ArrayDeque<>();
+    private final AtomicInteger tuCount = new AtomicInteger();
 
     private TMXStreamingOutput(String jobName, Iterator<T> tuIter,
             TMXExportStrategy<T> exportTUStrategy, Closeable closeable) {
         this.jobName = jobName;
         this.tuIter = tuIter;
+        this.partitions = null;
+        this.executor = null;
+        this.parallelism = 1;
         this.exportStrategy = exportTUStrategy;
         this.closeable = (Closeable) (tuIter instanceof Closeable ? tuIter
                 : NullCloseable.INSTANCE);
@@ -82,6 +104,41 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
         this(jobName, tuIter, exportTUStrategy, tuIter);
     }
 
+    /**
+     * Constructs an instance which will write the translation units of each
+     * partition using the specified export strategy. Partitions are
+     * serialized concurrently on the executor, but written to the output
+     * stream in the order of the partitions iterable, so the output is the
+     * same as if the partitions had been concatenated into one iterator.
+     *
+     * @param partitions
+     *            suppliers which open an iterator over each partition of the
+     *            translation units. They are called lazily in the writing
+     *            thread, and each iterator is closed once its partition has
+     *            been serialized, or by close().
+     * @param exportTUStrategy
+     *            strategy to use when converting from translation units into
+     *            TMX. It must be safe to call buildTU from several threads.
+     * @param executor
+     *            executor which serializes the partitions
+     * @param parallelism
+     *            number of partitions the executor can serialize at once. Up
+     *            to twice this many partitions are buffered in memory.
+     */
+    public TMXStreamingOutput(String jobName,
+            Iterable<? extends Supplier<? extends CloseableIterator<T>>>
+                    partitions,
+            TMXExportStrategy<T> exportTUStrategy, Executor executor,
+            int parallelism) {
+        this.jobName = jobName;
+        this.tuIter = null;
+        this.partitions = partitions;
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.exportStrategy = exportTUStrategy;
+        this.closeable = NullCloseable.INSTANCE;
+    }
+
     /**
      * Constructs an instance which will write the translation units using the
      * specified export strategy.
@@ -104,7 +161,14 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
 
     @Override
     public void close() throws IOException {
-        closeable.close();
+        try {
+            closeable.close();
+        } finally {
+            Partition partition;
+            while ((partition = pending.poll()) != null) {
+                partition.cancel();
+            }
+        }
     }
 
     /**
@@ -118,15 +182,23 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
     @Override
     public void write(OutputStream output)
             throws IOException, WebApplicationException {
-        int tuCount = 0;
         try {
             log.info("streaming output started for: {}", jobName);
-            PeekingIterator<T> iter = Iterators.peekingIterator(tuIter);
-            // Fetch the first result, so that we can fail fast, before
-            // writing any output. This should enable RESTEasy to return an
-            // error instead of simply aborting the output stream.
-            if (iter.hasNext())
-                iter.peek();
+            PeekingIterator<T> iter = null;
+            Iterator<? extends Supplier<? extends CloseableIterator<T>>> parts =
+                    null;
+            // Fetch the first result (or open the first partitions), so that
+            // we can fail fast, before writing any output. This should enable
+            // RESTEasy to return an error instead of simply aborting the
+            // output stream.
+            if (partitions == null) {
+                iter = Iterators.peekingIterator(tuIter);
+                if (iter.hasNext())
+                    iter.peek();
+            } else {
+                parts = partitions.iterator();
+                fillWindow(parts);
+            }
             StreamSerializer stream = new StreamSerializer(output);
             stream.writeXMLDeclaration();
             stream.write(
@@ -140,10 +212,14 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
             indent(stream);
             Element body = new Element("body");
             startElem(stream, body);
-            while (iter.hasNext()) {
-                T tu = iter.next();
-                writeIfComplete(stream, tu);
-                ++tuCount;
+            if (iter != null) {
+                while (iter.hasNext()) {
+                    T tu = iter.next();
+                    writeIfComplete(stream, tu);
+                    tuCount.incrementAndGet();
+                }
+            } else {
+                writePartitions(stream, output, parts);
             }
             indent(stream);
             endElem(stream, body);
@@ -152,7 +228,39 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
         } finally {
             close();
             log.info("streaming output stopped for: {}, TU count={}", jobName,
-                    tuCount);
+                    tuCount.get());
+        }
+    }
+
+    /**
+     * Opens partitions and hands them to the executor until the window of
+     * pending partitions is full or there are no more partitions.
+     */
+    private void fillWindow(
+            Iterator<? extends Supplier<? extends CloseableIterator<T>>> parts) {
+        while (pending.size() < parallelism * 2 && parts.hasNext()) {
+            Partition partition = new Partition(parts.next().get());
+            pending.add(partition);
+            executor.execute(partition);
+        }
+    }
+
+    /**
+     * Writes the serialized partitions in order, opening further partitions
+     * as earlier ones are written.
+     */
+    private void writePartitions(StreamSerializer stream, OutputStream output,
+            Iterator<? extends Supplier<? extends CloseableIterator<T>>> parts)
+            throws IOException {
+        // make sure everything written by the serializer so far precedes
+        // the partitions
+        stream.flush();
+        Partition partition;
+        while ((partition = pending.peek()) != null) {
+            byte[] bytes = partition.await();
+            pending.remove();
+            output.write(bytes);
+            fillWindow(parts);
         }
     }
 
@@ -178,6 +286,66 @@ public class TMXStreamingOutput<T> implements StreamingOutput, Closeable {
         stream.writeNewLine();
     }
 
+    /**
+     * Serializes the translation units of one partition into memory, and
+     * closes its iterator. The iterator is closed exactly once, either by
+     * the worker which serializes it, or by close() if no worker has
+     * started on it yet.
+     */
+    private final class Partition implements Runnable {
+        private final CloseableIterator<T> tuIter;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<byte[]> result =
+                new CompletableFuture<>();
+
+        private Partition(CloseableIterator<T> tuIter) {
+            this.tuIter = tuIter;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try (CloseableIterator<T> iter = tuIter) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                StreamSerializer stream = new StreamSerializer(buffer);
+                while (iter.hasNext()) {
+                    writeIfComplete(stream, iter.next());
+                    tuCount.incrementAndGet();
+                }
+                stream.flush();
+                result.complete(buffer.toByteArray());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private byte[] await() throws IOException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while exporting " + jobName,
+                        e);
+            } catch (ExecutionException e) {
+                Throwables.propagateIfPossible(e.getCause(), IOException.class);
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        private void cancel() {
+            if (claimed.compareAndSet(false, true)) {
+                result.cancel(false);
+                try {
+                    tuIter.close();
+                } catch (IOException e) {
+                    log.warn("error closing partition of " + jobName, e);
+                }
+            }
+        }
+    }
+
     private void writeIfComplete(StreamSerializer stream, T tu)
             throws IOException {
         Optional<Element> textUnit = exportStrategy.buildTU(tu);
@@ -22,23 +22,33 @@ package org.zanata.rest.service;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.enterprise.context.RequestScoped;
 import javax.ws.rs.Path;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import com.google.common.collect.AbstractIterator;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.commons.lang3.StringUtils;
+import org.zanata.ApplicationConfiguration;
 import org.zanata.security.annotations.CheckRole;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskResult;
 import org.zanata.common.LocaleId;
+import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.TextFlowStreamingDAO;
 import org.zanata.dao.TransMemoryDAO;
 import org.zanata.dao.TransMemoryStreamingDAO;
@@ -54,6 +64,8 @@ import org.zanata.model.tm.TransMemoryUnit;
 import org.zanata.security.ZanataIdentity;
 import org.zanata.service.LocaleService;
 import org.zanata.service.LockManagerService;
+import org.zanata.service.impl.TMXExportExecutor;
+import org.zanata.tmx.TMXBulkImporter;
 import org.zanata.tmx.TMXParser;
 import org.zanata.util.CloseableIterator;
 // TODO this should use transactions (probably too big for one though)
@@ -68,6 +80,11 @@ public class TranslationMemoryResourceService
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
             .getLogger(TranslationMemoryResourceService.class);
     private static final long serialVersionUID = -8860942738710793736L;
+    /**
+     * Maximum number of trans units in each partition of a parallel export of
+     * a translation memory.
+     */
+    private static final int TM_PARTITION_SIZE = 1000;
 
     @Inject
     private LocaleService localeServiceImpl;
@@ -84,7 +101,18 @@ public class TranslationMemoryResourceService
     @Inject
     private TMXParser tmxParser;
     @Inject
+    private TMXBulkImporter tmxBulkImporter;
+    @Inject
+    private ApplicationConfiguration applicationConfiguration;
+    @Inject
     private ZanataIdentity identity;
+    @Inject
+    private DocumentDAO documentDAO;
+    @Inject
+    private TMXExportExecutor tmxExportExecutor;
+    @Context
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private HttpHeaders headers;
 
     @Override
     @CheckRole("admin")
@@ -99,6 +127,11 @@ public class TranslationMemoryResourceService
             // TODO findTextFlowsByLocale
         }
         String filename = makeTMXFilename(null, null, srcLocale, locale);
+        if (tmxExportExecutor.isParallel()) {
+            return buildTMX("getAllTranslationMemory",
+                    documentPartitions(null, null, srcLocale), srcLocale,
+                    locale, filename);
+        }
         CloseableIterator<HTextFlow> iter = textFlowStreamDAO.findTextFlows(
                 Optional.ofNullable(srcLocale));
         return buildTMX("getAllTranslationMemory", iter, srcLocale, locale,
@@ -121,6 +154,11 @@ public class TranslationMemoryResourceService
             // TODO findTextFlowsByProjectAndLocale
         }
         String filename = makeTMXFilename(projectSlug, null, srcLocale, locale);
+        if (tmxExportExecutor.isParallel()) {
+            return buildTMX("getProjectTranslationMemory-" + filename,
+                    documentPartitions(hProject, null, srcLocale), srcLocale,
+                    locale, filename);
+        }
         CloseableIterator<HTextFlow> iter =
                 textFlowStreamDAO.findTextFlowsByProject(hProject, Optional.ofNullable(srcLocale));
         return buildTMX("getProjectTranslationMemory-" + filename, iter,
@@ -146,6 +184,11 @@ public class TranslationMemoryResourceService
         }
         String filename =
                 makeTMXFilename(projectSlug, iterationSlug, srcLocale, locale);
+        if (tmxExportExecutor.isParallel()) {
+            return buildTMX("getProjectIterationTranslationMemory-" + filename,
+                    documentPartitions(null, hProjectIteration, srcLocale),
+                    srcLocale, locale, filename);
+        }
         CloseableIterator<HTextFlow> iter = textFlowStreamDAO
                 .findTextFlowsByProjectIteration(hProjectIteration, Optional.ofNullable(srcLocale));
         return buildTMX("getProjectIterationTranslationMemory-" + filename,
@@ -158,6 +201,15 @@ public class TranslationMemoryResourceService
         log.debug("exporting TMX for translation memory {}", slug);
         TransMemory tm = getTM(transMemoryDAO.getBySlug(slug), slug);
         String filename = makeTMXFilename(slug);
+        if (tmxExportExecutor.isParallel()) {
+            TMXStreamingOutput<TransMemoryUnit> output =
+                    new TMXStreamingOutput<>("getTranslationMemory-" + filename,
+                            transUnitPartitions(tm),
+                            new TransMemoryTMXExportStrategy(tm),
+                            tmxExportExecutor.getExecutor(),
+                            tmxExportExecutor.getPoolSize());
+            return okResponse(filename, output);
+        }
         CloseableIterator<TransMemoryUnit> iter =
                 transMemoryStreamingDAO.findTransUnitsByTM(tm);
         return buildTMX("getTranslationMemory-" + filename, tm, iter, filename);
@@ -170,7 +222,11 @@ public class TranslationMemoryResourceService
         Lock tmLock = lockTM(slug);
         try {
             Optional<TransMemory> tm = transMemoryDAO.getBySlug(slug);
-            tmxParser.parseAndSaveTMX(input, getTM(tm, slug));
+            if (applicationConfiguration.isBulkTmxImport()) {
+                tmxBulkImporter.importTMX(input, getTM(tm, slug));
+            } else {
+                tmxParser.parseAndSaveTMX(input, getTM(tm, slug));
+            }
             return Response.ok().build();
         } finally {
             lockManagerServiceImpl.release(tmLock);
@@ -259,6 +315,61 @@ public class TranslationMemoryResourceService
         return okResponse(filename, output);
     }
 
+    private Response buildTMX(String jobName,
+            List<Supplier<CloseableIterator<HTextFlow>>> partitions,
+            @Nullable LocaleId srcLocale, @Nullable LocaleId locale,
+            @Nonnull String filename) {
+        TMXStreamingOutput<HTextFlow> output = new TMXStreamingOutput<>(
+                jobName, partitions,
+                new TranslationsTMXExportStrategy<>(srcLocale, locale),
+                tmxExportExecutor.getExecutor(),
+                tmxExportExecutor.getPoolSize());
+        return okResponse(filename, output);
+    }
+
+    /**
+     * Partitions the text flows of a TMX export by document. The document
+     * ids are fetched up front; each document's text flows are only queried
+     * when the export reaches it.
+     */
+    private List<Supplier<CloseableIterator<HTextFlow>>> documentPartitions(
+            @Nullable HProject project, @Nullable HProjectIteration iteration,
+            @Nullable LocaleId srcLocale) {
+        List<Long> docIds = documentDAO.getIdsForTMXExport(project, iteration,
+                Optional.ofNullable(srcLocale));
+        return docIds.stream()
+                .map(docId -> (Supplier<CloseableIterator<HTextFlow>>) () ->
+                        textFlowStreamDAO.findTextFlowsByDocument(docId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Partitions the trans units of a translation memory into id ranges of
+     * at most TM_PARTITION_SIZE units. Each range is only computed when the
+     * export reaches it.
+     */
+    private Iterable<Supplier<CloseableIterator<TransMemoryUnit>>>
+            transUnitPartitions(TransMemory tm) {
+        return () -> new AbstractIterator<
+                Supplier<CloseableIterator<TransMemoryUnit>>>() {
+            private long afterId = 0L;
+
+            @Override
+            protected Supplier<CloseableIterator<TransMemoryUnit>>
+                    computeNext() {
+                Long upToId = transMemoryDAO.getTransUnitPartitionEnd(tm,
+                        afterId, TM_PARTITION_SIZE);
+                if (upToId == null) {
+                    return endOfData();
+                }
+                long fromId = afterId;
+                afterId = upToId;
+                return () -> transMemoryStreamingDAO.findTransUnitsByTM(tm,
+                        fromId, upToId);
+            }
+        };
+    }
+
     private Response buildTMX(String jobName, TransMemory tm,
             CloseableIterator<TransMemoryUnit> iter, String filename) {
         TMXStreamingOutput<TransMemoryUnit> output =
@@ -268,10 +379,30 @@ public class TranslationMemoryResourceService
     }
 
     private Response okResponse(String filename, StreamingOutput output) {
-        return Response.ok()
+        Response.ResponseBuilder response = Response.ok()
                 .header("Content-Disposition",
                         "attachment; filename=\"" + filename + "\"")
-                .type(PREFERRED_MEDIA_TYPE).entity(output).build();
+                .type(PREFERRED_MEDIA_TYPE).entity(output);
+        if (acceptsGzip()) {
+            // RESTEasy's GZIPEncodingInterceptor compresses the stream
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build();
+    }
+
+    /**
+     * TMX compresses very well, so exports are gzipped for any client which
+     * says it can accept that.
+     */
+    private boolean acceptsGzip() {
+        if (headers == null) {
+            return false;
+        }
+        List<String> acceptEncodings =
+                headers.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncodings != null && acceptEncodings.stream()
+                .anyMatch(value -> StringUtils.containsIgnoreCase(value,
+                        "gzip"));
     }
 
     @Nonnull
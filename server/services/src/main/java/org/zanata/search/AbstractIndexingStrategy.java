@@ -3,6 +3,7 @@ package org.zanata.search;
 import org.hibernate.ScrollableResults;
 import org.hibernate.search.FullTextSession;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.handle.ReindexTaskHandle;
 
 /**
  * Base indexing strategy.
@@ -40,9 +41,7 @@ public abstract class AbstractIndexingStrategy<T> {
                 @SuppressWarnings("unchecked")
                 T entity = (T) scrollableResults.get(0);
                 session.index(entity);
-                if (handle != null) {
-                    handle.increaseProgress(1);
-                }
+                reportProgress(handle);
                 if (rowNum % sessionClearBatchSize == 0) {
                     log.info("periodic flush and clear for {} (n={})",
                             entityType, rowNum);
@@ -58,6 +57,47 @@ public abstract class AbstractIndexingStrategy<T> {
         }
     }
 
+    /**
+     * Indexes the entities with ids from fromId (inclusive) to toId
+     * (exclusive), and applies the changes to the indexes before returning.
+     *
+     * @return the number of entities indexed
+     */
+    public int invokeRange(AsyncTaskHandle<?> handle, FullTextSession session,
+            long fromId, long toId) {
+        int rowNum = 0;
+        ScrollableResults results = queryRange(fromId, toId, session);
+        try {
+            while (results.next()) {
+                if (handle != null && handle.isCancelled()) {
+                    break;
+                }
+                rowNum++;
+                @SuppressWarnings("unchecked")
+                T entity = (T) results.get(0);
+                session.index(entity);
+                reportProgress(handle);
+                if (rowNum % sessionClearBatchSize == 0) {
+                    session.flushToIndexes();
+                    session.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
+        session.flushToIndexes();
+        session.clear();
+        return rowNum;
+    }
+
+    private void reportProgress(AsyncTaskHandle<?> handle) {
+        if (handle instanceof ReindexTaskHandle) {
+            ((ReindexTaskHandle) handle).increaseClassProgress(entityType, 1);
+        } else if (handle != null) {
+            handle.increaseProgress(1);
+        }
+    }
+
     /**
      * Callback method that is called every time an entity is indexed.
      *
@@ -75,6 +115,13 @@ public abstract class AbstractIndexingStrategy<T> {
     protected abstract ScrollableResults queryResults(int offset,
             FullTextSession session);
 
+    /**
+     * Returns the Scrollable results for instances of clazz (of type T) with
+     * ids from fromId (inclusive) to toId (exclusive).
+     */
+    protected abstract ScrollableResults queryRange(long fromId, long toId,
+            FullTextSession session);
+
     Class<T> getEntityType() {
         return entityType;
     }
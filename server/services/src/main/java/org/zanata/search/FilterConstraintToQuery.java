@@ -35,6 +35,7 @@ public class FilterConstraintToQuery {
     private String searchString;
     private DocumentId documentId;
     private Collection<Long> documentIds;
+    private Collection<Long> textFlowIds;
     private ContentCriterion contentCriterion = new ContentCriterion();
 
     private FilterConstraintToQuery(FilterConstraints constraints,
@@ -76,6 +77,21 @@ public class FilterConstraintToQuery {
         return new FilterConstraintToQuery(constraints, documentIds);
     }
 
+    /**
+     * Restricts the content search to the given text flows, e.g. candidates
+     * found in the content trigram index. The content condition is still
+     * applied, so that only real matches are returned.
+     *
+     * @param textFlowIds
+     *            ids of candidate text flows (must not be empty)
+     */
+    public FilterConstraintToQuery restrictSearchToTextFlows(
+            Collection<Long> textFlowIds) {
+        Preconditions.checkArgument(!textFlowIds.isEmpty());
+        this.textFlowIds = textFlowIds;
+        return this;
+    }
+
     /**
      * This builds a query for constructing TransUnit in editor. Executing the
      * query will returns a list of HTextFlow objects.
@@ -144,8 +160,13 @@ public class FilterConstraintToQuery {
                     .from("HTextFlowTarget")
                     .where(QueryBuilder.and(targetConjunction)).toQueryString();
         }
-        return QueryBuilder.or(searchInSourceCondition,
+        String contentCondition = QueryBuilder.or(searchInSourceCondition,
                 searchInTargetCondition);
+        if (textFlowIds != null) {
+            return and("tf.id in (" + TextFlowIdList.placeHolder() + ")",
+                    contentCondition);
+        }
+        return contentCondition;
     }
 
     protected boolean needToQueryNullTarget() {
@@ -321,6 +342,10 @@ public class FilterConstraintToQuery {
         if (hasSearch) {
             textFlowQuery.setParameter(Parameters.SearchString.namedParam(),
                     searchString);
+            if (textFlowIds != null) {
+                textFlowQuery.setParameterList(TextFlowIdList.namedParam(),
+                        textFlowIds);
+            }
         }
         if (!constraints.getIncludedStates().hasAllStates()) {
             textFlowQuery.setParameterList(ContentStateList.namedParam(),
@@ -379,6 +404,7 @@ public class FilterConstraintToQuery {
         Locale,
         DocumentId,
         DocumentIdList,
+        TextFlowIdList,
         ResId,
         SourceComment,
         MsgContext,
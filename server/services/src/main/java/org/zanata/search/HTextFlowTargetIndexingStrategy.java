@@ -45,6 +45,9 @@ public class HTextFlowTargetIndexingStrategy
         extends AbstractIndexingStrategy<HTextFlowTarget> {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory
             .getLogger(HTextFlowTargetIndexingStrategy.class);
+    // TODO move this query into something like HTextFlowTargetStreamingDAO
+    private static final String EAGER_QUERY =
+            "from HTextFlowTarget tft join fetch tft.locale join fetch tft.textFlow join fetch tft.textFlow.document join fetch tft.textFlow.document.locale join fetch tft.textFlow.document.projectIteration version join fetch tft.textFlow.document.projectIteration.project project where project.status <> :state and version.status <> :state";
 
     public HTextFlowTargetIndexingStrategy() {
         super(HTextFlowTarget.class);
@@ -58,14 +61,23 @@ public class HTextFlowTargetIndexingStrategy
     @Override
     protected ScrollableResults queryResults(int ignoredOffset,
             FullTextSession session) {
-        // TODO move this query into something like HTextFlowTargetStreamingDAO
-        Query query = session.createQuery(
-                "from HTextFlowTarget tft join fetch tft.locale join fetch tft.textFlow join fetch tft.textFlow.document join fetch tft.textFlow.document.locale join fetch tft.textFlow.document.projectIteration version join fetch tft.textFlow.document.projectIteration.project project where project.status <> :state and version.status <> :state");
+        Query query = session.createQuery(EAGER_QUERY);
         query.setFetchSize(Integer.MIN_VALUE)
                 .setParameter("state", EntityStatus.OBSOLETE);
         return query.scroll(ScrollMode.FORWARD_ONLY);
     }
 
+    @Override
+    protected ScrollableResults queryRange(long fromId, long toId,
+            FullTextSession session) {
+        Query query = session.createQuery(
+                EAGER_QUERY + " and tft.id >= :fromId and tft.id < :toId");
+        query.setFetchSize(Integer.MIN_VALUE)
+                .setParameter("state", EntityStatus.OBSOLETE)
+                .setParameter("fromId", fromId).setParameter("toId", toId);
+        return query.scroll(ScrollMode.FORWARD_ONLY);
+    }
+
     public void reindexForProject(HProject project, FullTextSession session,
             AsyncTaskHandle<?> handle) {
         // it must use the same session in the DAO and to do the indexing
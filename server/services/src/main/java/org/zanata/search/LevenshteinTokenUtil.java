@@ -35,82 +35,11 @@ public class LevenshteinTokenUtil {
     }
 
     /**
-     * Compute Levenshtein distance. Taken from
-     * http://web.archive.org/web/20110720093554
-     * /http://www.merriampark.com/ldjava.htm (public domain)
+     * Compute Levenshtein distance in words (bit-parallel, see
+     * MyersLevenshtein).
      */
     public static int getLevenshteinDistanceInWords(String[] s, String[] t) {
-        if (s == null || t == null) {
-            throw new IllegalArgumentException("Strings must not be null");
-        }
-
-        /*
-         * The difference between this impl. and the previous is that, rather
-         * than creating and retaining a matrix of size s.length()+1 by
-         * t.length()+1, we maintain two single-dimensional arrays of length
-         * s.length()+1. The first, d, is the 'current working' distance array
-         * that maintains the newest distance cost counts as we iterate through
-         * the characters of String s. Each time we increment the index of
-         * String t we are comparing, d is copied to p, the second int[]. Doing
-         * so allows us to retain the previous cost counts as required by the
-         * algorithm (taking the minimum of the cost count to the left, up one,
-         * and diagonally up and to the left of the current cost count being
-         * calculated). (Note that the arrays aren't really copied anymore, just
-         * switched...this is clearly much better than cloning an array or doing
-         * a System.arraycopy() each time through the outer loop.)
-         *
-         * Effectively, the difference between the two implementations is this
-         * one does not cause an out of memory condition when calculating the LD
-         * over two very large strings.
-         */
-
-        int n = s.length; // length of s
-        int m = t.length; // length of t
-
-        if (n == 0) {
-            return m;
-        } else if (m == 0) {
-            return n;
-        }
-
-        int p[] = new int[n + 1]; // 'previous' cost array, horizontally
-        int d[] = new int[n + 1]; // cost array, horizontally
-        int _d[]; // placeholder to assist in swapping p and d
-
-        // indexes into strings s and t
-        int i; // iterates through s
-        int j; // iterates through t
-
-        String t_j; // jth token of t
-
-        int cost; // cost
-
-        for (i = 0; i <= n; i++) {
-            p[i] = i;
-        }
-
-        for (j = 1; j <= m; j++) {
-            t_j = t[j - 1];
-            d[0] = j;
-
-            for (i = 1; i <= n; i++) {
-                cost = s[i - 1].equals(t_j) ? 0 : 1;
-                // minimum of cell to the left+1, to the top+1, diagonally left
-                // and up +cost
-                d[i] =
-                        Math.min(Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1]
-                                + cost);
-            }
-
-            // copy current distance counts to 'previous row' distance counts
-            _d = p;
-            p = d;
-            d = _d;
-        }
-
-        // our last action in the above loop was to switch d and p, so p now
-        // actually has the most recent cost counts
-        return p[n];
+        return MyersLevenshtein.distance(s, t);
     }
 
     public static double getSimilarity(final String s1, final String s2) {
@@ -191,6 +120,19 @@ public class LevenshteinTokenUtil {
      */
     public static double getSimilarity(final List<String> strings1,
             final List<String> strings2) {
+        return getSimilarity(strings1, strings2, 0.0);
+    }
+
+    /**
+     * As getSimilarity(List, List), but stops comparing once the similarity
+     * is known to be below minSimilarity (eg the minimum of a TM merge band).
+     *
+     * @param minSimilarity the minimum similarity of interest (0.0 to 1.0)
+     * @return the similarity if it is at least minSimilarity, otherwise some
+     *         value below minSimilarity
+     */
+    public static double getSimilarity(final List<String> strings1,
+            final List<String> strings2, double minSimilarity) {
         // all empty lists are identical
         if (strings1.isEmpty() && strings2.isEmpty()) {
             return 1.0;
@@ -205,29 +147,19 @@ public class LevenshteinTokenUtil {
         final int extraStringLengths =
                 countExtraStringLengths(longestList, minListSize);
 
-        // running total of Levenshtein distance between corresponding strings
-        // in the two lists
-        int cumulativeLevDistance = 0;
-
-        // running total of max editing distance between all the corresponding
+        String[][] tokens1 = new String[minListSize][];
+        String[][] tokens2 = new String[minListSize][];
+        // total of max editing distance between all the corresponding
         // strings.
         int cumulativeMaxDistance = 0;
-
-        // count the strings which correspond between both lists
         for (int i = 0; i < minListSize; i++) {
-            final String string1 = strings1.get(i);
-            final String string2 = strings2.get(i);
-            String[] tokens1 = tokenise(string1);
-            String[] tokens2 = tokenise(string2);
-            final int levenshteinDistance =
-                    getLevenshteinDistanceInWords(tokens1, tokens2);
-            cumulativeLevDistance += levenshteinDistance;
-
+            tokens1[i] = tokenise(strings1.get(i));
+            tokens2[i] = tokenise(strings2.get(i));
             // When a string contains only stop words, tokenise returns an empty
             // array, so this value can remain at 0.
-            cumulativeMaxDistance += Math.max(tokens1.length, tokens2.length);
+            cumulativeMaxDistance +=
+                    Math.max(tokens1[i].length, tokens2[i].length);
         }
-        final int totalLevDistance = cumulativeLevDistance + extraStringLengths;
         final int totalMaxDistance = cumulativeMaxDistance + extraStringLengths;
 
         // if there would be a divide-by-zero situation due to all strings being
@@ -236,6 +168,21 @@ public class LevenshteinTokenUtil {
             return 0.0;
         }
 
+        // the largest total distance which still reaches minSimilarity
+        // (allowing for floating point error)
+        final int maxTotalDistance = (int) Math.min(totalMaxDistance,
+                Math.floor(totalMaxDistance * (1.0 - minSimilarity) + 1e-9));
+
+        // running total of Levenshtein distance between corresponding strings
+        // in the two lists
+        int totalLevDistance = extraStringLengths;
+
+        // count the strings which correspond between both lists
+        for (int i = 0; i < minListSize && totalLevDistance <= maxTotalDistance;
+                i++) {
+            totalLevDistance += MyersLevenshtein.distance(tokens1[i],
+                    tokens2[i], maxTotalDistance - totalLevDistance);
+        }
         return (totalMaxDistance - totalLevDistance) / (double) totalMaxDistance;
     }
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Levenshtein distance using the bit-parallel algorithm of Myers (1999), in
+ * the multi-block formulation of Hyyr&ouml; (2003). Each column of the
+ * dynamic programming matrix is kept as vertical delta bit-vectors, so a
+ * column is computed in O(n/64) word operations instead of O(n) cell updates.
+ *
+ * The bounded variants stop as soon as the distance is known to exceed a
+ * maximum, which lets callers abandon candidates which can't reach a minimum
+ * similarity.
+ *
+ * @see LevenshteinUtil
+ * @see LevenshteinTokenUtil
+ */
+public final class MyersLevenshtein {
+    private static final int WORD_SIZE = Long.SIZE;
+    private static final int ASCII_SIZE = 128;
+
+    private MyersLevenshtein() {
+    }
+
+    public static int distance(CharSequence s, CharSequence t) {
+        return distance(s, t, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the Levenshtein distance between s and t, or maxDistance + 1 if
+     *         the distance is greater than maxDistance
+     */
+    public static int distance(CharSequence s, CharSequence t,
+            int maxDistance) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+        // the shorter sequence is the pattern, to minimise the blocks needed
+        CharSequence pattern = s.length() <= t.length() ? s : t;
+        CharSequence text = pattern == s ? t : s;
+        int[] patternCodes = new int[pattern.length()];
+        int[] textCodes = new int[text.length()];
+        int alphabetSize = encode(pattern, text, patternCodes, textCodes);
+        return distance(patternCodes, textCodes, alphabetSize, maxDistance);
+    }
+
+    public static int distance(Object[] s, Object[] t) {
+        return distance(s, t, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Distance between two sequences of tokens (compared with equals()).
+     *
+     * @return the Levenshtein distance between s and t, or maxDistance + 1 if
+     *         the distance is greater than maxDistance
+     */
+    public static int distance(Object[] s, Object[] t, int maxDistance) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null");
+        }
+        Object[] pattern = s.length <= t.length ? s : t;
+        Object[] text = pattern == s ? t : s;
+        Map<Object, Integer> codes = new HashMap<>();
+        int[] patternCodes = new int[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            Integer code = codes.get(pattern[i]);
+            if (code == null) {
+                code = codes.size();
+                codes.put(pattern[i], code);
+            }
+            patternCodes[i] = code;
+        }
+        int[] textCodes = new int[text.length];
+        for (int j = 0; j < text.length; j++) {
+            Integer code = codes.get(text[j]);
+            textCodes[j] = code == null ? -1 : code;
+        }
+        return distance(patternCodes, textCodes, codes.size(), maxDistance);
+    }
+
+    /**
+     * Assigns a small integer code to each distinct character of the pattern.
+     * Text characters which don't occur in the pattern are coded as -1.
+     *
+     * @return the number of distinct codes
+     */
+    private static int encode(CharSequence pattern, CharSequence text,
+            int[] patternCodes, int[] textCodes) {
+        int[] asciiCodes = new int[ASCII_SIZE];
+        Map<Character, Integer> otherCodes = null;
+        int alphabetSize = 0;
+        for (int i = 0; i < patternCodes.length; i++) {
+            char c = pattern.charAt(i);
+            if (c < ASCII_SIZE) {
+                // asciiCodes holds code + 1, so that 0 means unassigned
+                if (asciiCodes[c] == 0) {
+                    asciiCodes[c] = ++alphabetSize;
+                }
+                patternCodes[i] = asciiCodes[c] - 1;
+            } else {
+                if (otherCodes == null) {
+                    otherCodes = new HashMap<>();
+                }
+                Integer code = otherCodes.get(c);
+                if (code == null) {
+                    code = alphabetSize++;
+                    otherCodes.put(c, code);
+                }
+                patternCodes[i] = code;
+            }
+        }
+        for (int j = 0; j < textCodes.length; j++) {
+            char c = text.charAt(j);
+            if (c < ASCII_SIZE) {
+                textCodes[j] = asciiCodes[c] - 1;
+            } else {
+                Integer code = otherCodes == null ? null : otherCodes.get(c);
+                textCodes[j] = code == null ? -1 : code;
+            }
+        }
+        return alphabetSize;
+    }
+
+    /**
+     * Column-wise Myers/Hyyr&ouml; computation. pattern must not be longer
+     * than text.
+     */
+    private static int distance(int[] pattern, int[] text, int alphabetSize,
+            int maxDistance) {
+        int n = pattern.length;
+        int m = text.length;
+        // the distance is at least the difference in lengths
+        if (m - n > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (n == 0) {
+            return m;
+        }
+        int blocks = (n + WORD_SIZE - 1) / WORD_SIZE;
+        int lastBit = (n - 1) % WORD_SIZE;
+        // peq[code * blocks + b]: bits set where pattern block b equals code
+        long[] peq = new long[alphabetSize * blocks];
+        for (int i = 0; i < n; i++) {
+            peq[pattern[i] * blocks + i / WORD_SIZE] |= 1L << (i % WORD_SIZE);
+        }
+        // vertical deltas of the current column: all +1 in column 0
+        long[] pv = new long[blocks];
+        long[] mv = new long[blocks];
+        for (int b = 0; b < blocks; b++) {
+            pv[b] = -1L;
+        }
+        int score = n;
+        for (int j = 0; j < m; j++) {
+            int code = text[j];
+            // horizontal delta entering the top of the block: the first row
+            // of the matrix always increases by one
+            int hin = 1;
+            for (int b = 0; b < blocks; b++) {
+                long eq = code < 0 ? 0L : peq[code * blocks + b];
+                long pvb = pv[b];
+                long mvb = mv[b];
+                long hinNeg = hin < 0 ? 1L : 0L;
+                long xv = eq | mvb;
+                eq |= hinNeg;
+                long xh = (((eq & pvb) + pvb) ^ pvb) | eq;
+                long ph = mvb | ~(xh | pvb);
+                long mh = pvb & xh;
+                int outBit = b == blocks - 1 ? lastBit : WORD_SIZE - 1;
+                int hout = (int) ((ph >>> outBit) & 1L)
+                        - (int) ((mh >>> outBit) & 1L);
+                ph <<= 1;
+                mh <<= 1;
+                mh |= hinNeg;
+                if (hin > 0) {
+                    ph |= 1L;
+                }
+                pv[b] = mh | ~(xv | ph);
+                mv[b] = ph & xv;
+                hin = hout;
+            }
+            score += hin;
+            // each remaining column can reduce the score by at most one
+            if (score - (m - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+        }
+        return score;
+    }
+}
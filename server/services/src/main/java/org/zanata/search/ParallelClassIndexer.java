@@ -0,0 +1,185 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.search.FullTextSession;
+import org.zanata.async.handle.ReindexTaskHandle;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Indexes a class by splitting its id space into fixed-size ranges which are
+ * indexed concurrently by a pool of worker threads, each with its own
+ * session.
+ * <p>
+ * Whenever all the ranges below some id have been indexed, that id is saved
+ * in a {@link ReindexCheckpoint}. If the reindex is interrupted, the next
+ * reindex of the class (without purging) resumes from there. At most one
+ * range per worker is indexed twice, which is harmless. The caller clears the
+ * checkpoint once the class has been indexed completely.
+ */
+public class ParallelClassIndexer<T> extends ClassIndexer<T> {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(ParallelClassIndexer.class);
+    static final long ID_RANGE_SIZE = 5000;
+    private final ReindexTaskHandle handle;
+    private final Class<T> entityType;
+    private final int threads;
+    private final ReindexCheckpoint checkpoint;
+    private final Supplier<FullTextSession> sessionFactory;
+
+    public ParallelClassIndexer(ReindexTaskHandle handle, Class<T> entityType,
+            AbstractIndexingStrategy<T> indexingStrategy, int threads,
+            ReindexCheckpoint checkpoint,
+            Supplier<FullTextSession> sessionFactory) {
+        super(handle, entityType, indexingStrategy);
+        this.handle = handle;
+        this.entityType = entityType;
+        this.threads = threads;
+        this.checkpoint = checkpoint;
+        this.sessionFactory = sessionFactory;
+    }
+
+    private long getFirstId() {
+        return checkpoint.getResumeId(entityType).orElse(0L);
+    }
+
+    /**
+     * Counts the entities still to be indexed, ie those at or after the
+     * checkpoint.
+     */
+    @Override
+    public int getEntityCount(FullTextSession session) {
+        Long result = (Long) session
+                .createQuery("select count(*) from " + entityType.getName()
+                        + " e where e.id >= :firstId")
+                .setParameter("firstId", getFirstId()).uniqueResult();
+        return result.intValue();
+    }
+
+    @Override
+    public void index(FullTextSession session) throws Exception {
+        long firstId = getFirstId();
+        if (firstId > 0) {
+            log.info("resuming reindex of {} from id {}", entityType, firstId);
+        }
+        Long minId = (Long) session
+                .createQuery("select min(e.id) from " + entityType.getName()
+                        + " e where e.id >= :firstId")
+                .setParameter("firstId", firstId).uniqueResult();
+        Long maxId = (Long) session
+                .createQuery("select max(e.id) from " + entityType.getName())
+                .uniqueResult();
+        if (minId == null || maxId == null) {
+            return;
+        }
+        int rangeCount = (int) ((maxId - minId) / ID_RANGE_SIZE + 1);
+        log.info("reindexing {} in {} id ranges with {} threads", entityType,
+                rangeCount, threads);
+        CompletedRanges completed = new CompletedRanges();
+        ExecutorService workers = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder()
+                        .setNameFormat(
+                                "reindex-" + entityType.getSimpleName() + "-%d")
+                        .setDaemon(true).build());
+        try {
+            List<Future<?>> futures = new ArrayList<>(rangeCount);
+            for (int i = 0; i < rangeCount; i++) {
+                int rangeIndex = i;
+                long fromId = minId + rangeIndex * ID_RANGE_SIZE;
+                futures.add(workers.submit(() -> {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    indexRange(fromId, fromId + ID_RANGE_SIZE);
+                    if (handle.isCancelled()) {
+                        // the range may be incomplete
+                        return;
+                    }
+                    synchronized (completed) {
+                        int before = completed.getContiguousCount();
+                        int after = completed.markDone(rangeIndex);
+                        if (after > before) {
+                            checkpoint.save(entityType,
+                                    minId + after * ID_RANGE_SIZE);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // the checkpoint stays at the last contiguous range
+                    log.error("reindex of {} failed", entityType);
+                    throw e;
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void indexRange(long fromId, long toId) {
+        FullTextSession session = sessionFactory.get();
+        try {
+            session.setFlushMode(FlushMode.MANUAL);
+            session.setCacheMode(CacheMode.IGNORE);
+            int indexed = getIndexingStrategy().invokeRange(handle, session,
+                    fromId, toId);
+            log.debug("indexed {} {} with ids in [{}, {})", indexed,
+                    entityType.getSimpleName(), fromId, toId);
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Tracks which ranges have completed, and how many ranges from the start
+     * have all completed. Not thread-safe.
+     */
+    static class CompletedRanges {
+        private final BitSet done = new BitSet();
+
+        /**
+         * @return the number of leading ranges which have all completed
+         */
+        int markDone(int rangeIndex) {
+            done.set(rangeIndex);
+            return getContiguousCount();
+        }
+
+        int getContiguousCount() {
+            return done.nextClearBit(0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+/**
+ * Remembers how far a partitioned reindex of each class has got, so that an
+ * interrupted reindex can carry on from the last completed id range instead
+ * of starting over.
+ * <p>
+ * Checkpoints are kept in a properties file next to the Lucene indexes, since
+ * they describe the state of those indexes. If there is no index directory,
+ * checkpoints are only kept in memory.
+ */
+public class ReindexCheckpoint {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(ReindexCheckpoint.class);
+    static final String FILE_NAME = "reindex-checkpoint.properties";
+    @Nullable
+    private final Path file;
+    private final Properties nextIds = new Properties();
+
+    /**
+     * @param directory
+     *            directory holding the checkpoint file, usually the Hibernate
+     *            Search index base, or null to keep checkpoints in memory
+     */
+    public ReindexCheckpoint(@Nullable File directory) {
+        this.file = directory == null ? null
+                : new File(directory, FILE_NAME).toPath();
+        if (file != null && Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                nextIds.load(in);
+            } catch (IOException e) {
+                log.warn("unable to read reindex checkpoints from {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * @return the id from which indexing of the class should resume, if an
+     *         earlier reindex of the class did not finish
+     */
+    public synchronized Optional<Long> getResumeId(Class<?> clazz) {
+        String value = nextIds.getProperty(clazz.getName());
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.valueOf(value));
+        } catch (NumberFormatException e) {
+            log.warn("ignoring invalid reindex checkpoint {}={}",
+                    clazz.getName(), value);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records that every entity of the class with an id below nextId has been
+     * indexed.
+     */
+    public synchronized void save(Class<?> clazz, long nextId) {
+        nextIds.setProperty(clazz.getName(), Long.toString(nextId));
+        store();
+    }
+
+    /**
+     * Forgets the checkpoint for the class, eg when its reindex has finished
+     * or its index has been purged.
+     */
+    public synchronized void clear(Class<?> clazz) {
+        if (nextIds.remove(clazz.getName()) != null) {
+            store();
+        }
+    }
+
+    private void store() {
+        if (file == null) {
+            return;
+        }
+        try {
+            // write a temp file first so that a crash can't leave a
+            // truncated checkpoint behind
+            Path tmp = file.resolveSibling(FILE_NAME + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                nextIds.store(out, "Zanata reindex checkpoints");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("unable to save reindex checkpoints to {}", file, e);
+        }
+    }
+}
@@ -61,4 +61,13 @@ public class SimpleClassIndexingStrategy<T>
         query.setMaxResults(MAX_QUERY_ROWS);
         return query.scroll(ScrollMode.FORWARD_ONLY);
     }
+
+    @Override
+    protected ScrollableResults queryRange(long fromId, long toId,
+            FullTextSession session) {
+        Query query = session.createQuery("from " + getEntityType().getName()
+                + " e where e.id >= :fromId and e.id < :toId");
+        query.setParameter("fromId", fromId).setParameter("toId", toId);
+        return query.scroll(ScrollMode.FORWARD_ONLY);
+    }
 }
@@ -23,6 +23,7 @@ package org.zanata.service;
 import org.zanata.action.ReindexClassOptions;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
+import org.zanata.async.handle.ReindexTaskHandle;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 
@@ -37,7 +38,7 @@ public interface IndexingService extends Serializable {
     @Async
     Future<Void> startIndexing(
             Map<Class<?>, ReindexClassOptions> indexingOptions,
-            AsyncTaskHandle<Void> handle)
+            ReindexTaskHandle handle)
             throws Exception;
 
     /**
@@ -60,6 +60,17 @@ public interface LockManagerService extends Serializable {
      */
     public void attain(Lock l) throws LockNotAcquiredException;
 
+    /**
+     * Attains a lock, waiting for it to be released if necessary. The wait
+     * is limited by the system property {@code zanata.lock.wait.seconds}.
+     *
+     * @param l
+     *            The lock to attain.
+     * @throws LockNotAcquiredException
+     *             If the lock was not released in time.
+     */
+    public void attainWaiting(Lock l) throws LockNotAcquiredException;
+
     /**
      * Releases a lock.
      *
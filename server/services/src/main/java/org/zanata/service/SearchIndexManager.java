@@ -14,10 +14,12 @@ import javax.inject.Named;
 import org.zanata.util.Synchronized;
 import org.zanata.ServerConstants;
 import org.zanata.action.ReindexClassOptions;
-import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.async.handle.ReindexTaskHandle;
+import org.zanata.hibernate.search.TrigramBridge;
 import org.zanata.model.HGlossaryTerm;
 import org.zanata.model.HProject;
+import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.model.tm.TransMemoryUnit;
 // not @Transactional, because the DB work happens in other threads
@@ -37,8 +39,7 @@ public class SearchIndexManager implements Serializable {
     private final List<Class<?>> indexables = new ArrayList<Class<?>>();
     private final LinkedHashMap<Class<?>, ReindexClassOptions> indexingOptions =
             new LinkedHashMap<Class<?>, ReindexClassOptions>();
-    private Class<?> currentClass;
-    private AsyncTaskHandle<Void> handle;
+    private ReindexTaskHandle handle;
 
     @PostConstruct
     public void create() {
@@ -50,6 +51,9 @@ public class SearchIndexManager implements Serializable {
         indexables.add(TransMemoryUnit.class);
         // NB we put the largest tables at the bottom, so that the small
         // tables can be indexed early
+        if (TrigramBridge.isIndexMaintained()) {
+            indexables.add(HTextFlow.class);
+        }
         indexables.add(HTextFlowTarget.class);
         for (Class<?> clazz : indexables) {
             indexingOptions.put(clazz, new ReindexClassOptions(clazz));
@@ -88,17 +92,14 @@ public class SearchIndexManager implements Serializable {
         return result;
     }
 
-    public AsyncTaskHandle<Void> getProcessHandle() {
+    public ReindexTaskHandle getProcessHandle() {
         return handle;
     }
-    // TODO: current class is not implemented now, should be getting the value
-    // from indexingServiceImpl
-
     public String getCurrentClassName() {
-        if (currentClass == null) {
+        if (handle == null || handle.getCurrentClassName() == null) {
             return "none";
         }
-        return currentClass.getSimpleName();
+        return handle.getCurrentClassName();
     }
 
     /**
@@ -107,7 +108,7 @@ public class SearchIndexManager implements Serializable {
      */
     public void startProcess() {
         assert handle == null || handle.isDone();
-        this.handle = new AsyncTaskHandle<Void>();
+        this.handle = new ReindexTaskHandle();
         asyncTaskHandleManager.registerTaskHandle(handle);
         try {
             indexingServiceImpl.startIndexing(indexingOptions, handle);
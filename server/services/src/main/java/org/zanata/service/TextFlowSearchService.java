@@ -21,6 +21,7 @@
 package org.zanata.service;
 
 import java.util.List;
+import javax.annotation.Nullable;
 
 import org.zanata.model.HTextFlow;
 import org.zanata.webtrans.shared.search.FilterConstraints;
@@ -67,6 +68,30 @@ public interface TextFlowSearchService {
     List<HTextFlow> findTextFlows(WorkspaceId workspace,
             List<String> documents, FilterConstraints constraints);
 
+    /**
+     * Find a page of matching textflows within a set of documents in a given
+     * workspace. Documents are searched in order of id, and a page has all
+     * the matches in each of its documents.
+     *
+     * @param workspace
+     * @param documents
+     *            list of documents to search, null or empty to search all
+     *            documents in the workspace
+     * @param constraints
+     *            determine fields that will be checked for searchTerm
+     * @param afterDocumentId
+     *            only documents with a greater id are searched, or null to
+     *            start with the first document
+     * @param maxTextFlows
+     *            the page ends with the first document which brings the
+     *            number of matches to at least this many
+     * @return matching textflows, grouped by document in order of id. If
+     *         there are fewer than maxTextFlows, there are no more matches.
+     */
+    List<HTextFlow> findTextFlows(WorkspaceId workspace,
+            List<String> documents, FilterConstraints constraints,
+            @Nullable Long afterDocumentId, int maxTextFlows);
+
     /**
      * Find matching textflows in a given workspace.
      *
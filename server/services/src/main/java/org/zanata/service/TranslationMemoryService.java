@@ -22,6 +22,7 @@ package org.zanata.service;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.zanata.common.LocaleId;
@@ -64,6 +65,21 @@ public interface TranslationMemoryService extends TranslationFinder,
             boolean checkDocument, boolean checkProject, int thresholdPercent,
             InternalTMSource internalTMSource);
 
+    /**
+     * Batched form of the TM merge lookup above. All the text flows are
+     * searched with one combined Lucene query, and the hits are distributed
+     * back to the text flow(s) they match.
+     * @param textFlows
+     *            text flows which share the source locale sourceLocaleId
+     * @return best match for each text flow, keyed by text flow id. Text
+     *         flows without a match above the threshold are not included.
+     */
+    Map<Long, TransMemoryResultItem> searchBestMatchTransMemory(
+            List<HTextFlow> textFlows, LocaleId targetLocaleId,
+            LocaleId sourceLocaleId, boolean checkContext,
+            boolean checkDocument, boolean checkProject, int thresholdPercent,
+            InternalTMSource internalTMSource);
+
     /**
      * Returns a list sorted by similarity etc
      * @param targetLocaleId
@@ -88,4 +88,12 @@ public interface TranslationStateCache extends Serializable {
      * @param localeId
      */
     void clearDocumentStatistics(Long documentId, LocaleId localeId);
+
+    /**
+     * Compares up to maxEntries cached document statistics with the database,
+     * and corrects any which have drifted.
+     *
+     * @return number of entries corrected
+     */
+    int reconcileDocumentStatistics(int maxEntries);
 }
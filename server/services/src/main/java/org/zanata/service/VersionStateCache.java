@@ -50,4 +50,12 @@ public interface VersionStateCache extends Serializable {
      * @param versionId All cached stats for this version will be cleared.
      */
     void clearVersionStatsCache(Long versionId);
+
+    /**
+     * Compares up to maxEntries cached version statistics with the database,
+     * and corrects any which have drifted.
+     *
+     * @return number of entries corrected
+     */
+    int reconcileVersionStatistics(int maxEntries);
 }
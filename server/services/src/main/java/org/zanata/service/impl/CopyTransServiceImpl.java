@@ -21,7 +21,10 @@
 package org.zanata.service.impl;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnull;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -40,9 +43,10 @@ import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
 import org.zanata.service.CopyTransService;
 import org.zanata.service.LocaleService;
-import org.zanata.service.TranslationStateCache;
+import org.zanata.util.ServiceLocator;
 import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
 // Not @Transactional, because we use CopyTransWorkFactory.runCopyTransInNewTx
 
 @RequestScoped
@@ -62,9 +66,9 @@ public class CopyTransServiceImpl implements CopyTransService {
     @Inject
     private TextFlowTargetDAO textFlowTargetDAO;
     @Inject
-    private TranslationStateCache translationStateCacheImpl;
-    @Inject
     private TextFlowDAO textFlowDAO;
+    @Inject
+    private CopyTransWorkUnitExecutor copyTransWorkUnitExecutor;
 
     /**
      * Copies previous matching translations for the given locale into a
@@ -78,10 +82,15 @@ public class CopyTransServiceImpl implements CopyTransService {
      *            the document to copy translations into
      * @param targetLocale
      *            the locale of translations to copy
+     * @param workFactory
+     *            the work factory to run copy trans transactions with. Work
+     *            units running in a worker thread must use an instance
+     *            resolved in that thread.
      */
     private void copyTransForDocumentLocale(HDocument document,
             final HLocale targetLocale, final HCopyTransOptions options,
-            Optional<CopyTransTaskHandle> taskHandleOpt) throws Exception {
+            Optional<CopyTransTaskHandle> taskHandleOpt,
+            CopyTransWorkFactory workFactory) throws Exception {
         int numCopied = 0;
         int start = 0;
         // need to reload HDocument because of different hibernate session
@@ -110,7 +119,7 @@ public class CopyTransServiceImpl implements CopyTransService {
             while (start < document.getTextFlows().size()) {
                 numCopied += copyTransForBatch(document, start,
                         COPY_TRANS_BATCH_SIZE, targetLocale, options,
-                        taskHandleOpt);
+                        taskHandleOpt, workFactory);
                 start += COPY_TRANS_BATCH_SIZE;
                 documentDAO.clear();
             }
@@ -119,11 +128,6 @@ public class CopyTransServiceImpl implements CopyTransService {
                     .countActiveTextFlowsInDocument(document.getId());
             taskHandleOpt.get().increaseProgress(totalActiveTextFlows);
         }
-        // If there have been any changes to the document stats, reset them
-        if (numCopied > 0) {
-            translationStateCacheImpl.clearDocumentStatistics(document.getId(),
-                    targetLocale.getLocaleId());
-        }
         stopwatch.stop();
         log.info(
                 "copyTrans: {} {} translations for document \"{}{}\" - duration: {}",
@@ -144,7 +148,8 @@ public class CopyTransServiceImpl implements CopyTransService {
     private int copyTransForBatch(HDocument document, final int batchStart,
             final int batchLength, final HLocale targetLocale,
             final HCopyTransOptions options,
-            Optional<CopyTransTaskHandle> taskHandleOpt) throws Exception {
+            Optional<CopyTransTaskHandle> taskHandleOpt,
+            CopyTransWorkFactory workFactory) throws Exception {
         HDocument hDocument = documentDAO.findById(document.getId());
         List<HTextFlow> docTextFlows = hDocument.getTextFlows();
         int batchEnd = Math.min(batchStart + batchLength, docTextFlows.size());
@@ -152,7 +157,7 @@ public class CopyTransServiceImpl implements CopyTransService {
         List<HTextFlow> copyTargets =
                 docTextFlows.subList(batchStart, batchEnd);
         Integer numCopied =
-                copyTransWorkFactory.runCopyTransInNewTx(targetLocale, options,
+                workFactory.runCopyTransInNewTx(targetLocale, options,
                         document, copyTargets);
         if (taskHandleOpt.isPresent()) {
             taskHandleOpt.get().increaseProgress(batchSize);
@@ -211,7 +216,7 @@ public class CopyTransServiceImpl implements CopyTransService {
             }
             try {
                 copyTransForDocumentLocale(document, targetLocale,
-                        copyTransOpts, taskHandleOpt);
+                        copyTransOpts, taskHandleOpt, copyTransWorkFactory);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -261,28 +266,89 @@ public class CopyTransServiceImpl implements CopyTransService {
         if (taskHandleOpt.isPresent()) {
             prepareCopyTransHandle(iteration, taskHandleOpt.get());
         }
+        // if options are to reject translation from other projects and there
+        // is only one version in current project, don't even bother running
+        // copyTrans
+        if (copyTransOptions
+                .getProjectMismatchAction() == HCopyTransOptions.ConditionRuleAction.REJECT
+                && !iteration.getDocuments().isEmpty()) {
+            int copyCandidates = projectDAO.getTranslationCandidateCount(
+                    iteration.getProject().getId());
+            if (copyCandidates < 2) {
+                if (taskHandleOpt.isPresent()) {
+                    taskHandleOpt.get().increaseProgress(
+                            taskHandleOpt.get().getMaxProgress());
+                }
+                return;
+            }
+        }
+        if (copyTransWorkUnitExecutor != null
+                && copyTransWorkUnitExecutor.isParallel()) {
+            copyTransForIterationInParallel(iteration, copyTransOptions,
+                    taskHandleOpt);
+            return;
+        }
         for (HDocument doc : iteration.getDocuments().values()) {
             if (taskHandleOpt.isPresent()
                     && taskHandleOpt.get().isCancelled()) {
                 return;
             }
-            // if options are to reject translation from other projects and
-            // there is
-            // only one version in current project, don't even bother running
-            // copyTrans
-            if (copyTransOptions
-                    .getProjectMismatchAction() == HCopyTransOptions.ConditionRuleAction.REJECT) {
-                int copyCandidates = projectDAO.getTranslationCandidateCount(
-                        iteration.getProject().getId());
-                if (copyCandidates < 2) {
-                    if (taskHandleOpt.isPresent()) {
-                        taskHandleOpt.get().increaseProgress(
-                                taskHandleOpt.get().getMaxProgress());
+            this.copyTransForDocument(doc, copyTransOptions, handle);
+        }
+    }
+
+    /**
+     * Splits the iteration into one work unit per document and locale, and
+     * runs the units concurrently on {@link CopyTransWorkUnitExecutor}. Each
+     * unit still copies its text flows in batches, each batch in a new
+     * transaction, and reports progress to the shared task handle.
+     */
+    private void copyTransForIterationInParallel(HProjectIteration iteration,
+            HCopyTransOptions copyTransOptions,
+            Optional<CopyTransTaskHandle> taskHandleOpt) {
+        List<HLocale> localeList =
+                localeServiceImpl.getSupportedLanguageByProjectIteration(
+                        iteration.getProject().getSlug(), iteration.getSlug());
+        // set when a unit fails, so that units which have not started yet
+        // are skipped
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        List<CompletableFuture<Void>> workUnits = Lists.newArrayList();
+        for (HDocument doc : iteration.getDocuments().values()) {
+            for (HLocale targetLocale : localeList) {
+                workUnits.add(copyTransWorkUnitExecutor.submit(() -> {
+                    if (aborted.get() || (taskHandleOpt.isPresent()
+                            && taskHandleOpt.get().isCancelled())) {
+                        return null;
                     }
-                    return;
+                    // the injected work factory belongs to the calling
+                    // thread's contexts
+                    CopyTransWorkFactory workFactory = ServiceLocator
+                            .instance().getInstance(CopyTransWorkFactory.class);
+                    copyTransForDocumentLocale(doc, targetLocale,
+                            copyTransOptions, taskHandleOpt, workFactory);
+                    return null;
+                }));
+            }
+        }
+        log.info("copyTrans: {} work units submitted for version \"{}\"",
+                workUnits.size(), iteration.getSlug());
+        Throwable failure = null;
+        for (CompletableFuture<Void> workUnit : workUnits) {
+            try {
+                workUnit.get();
+            } catch (InterruptedException e) {
+                aborted.set(true);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                aborted.set(true);
+                if (failure == null) {
+                    failure = e.getCause();
                 }
             }
-            this.copyTransForDocument(doc, copyTransOptions, handle);
+        }
+        if (failure != null) {
+            throw new RuntimeException(failure);
         }
     }
 
@@ -329,20 +395,20 @@ public class CopyTransServiceImpl implements CopyTransService {
 
     @java.beans.ConstructorProperties({ "localeServiceImpl", "projectDAO",
             "documentDAO", "copyTransWorkFactory", "textFlowTargetDAO",
-            "translationStateCacheImpl", "textFlowDAO" })
+            "textFlowDAO", "copyTransWorkUnitExecutor" })
     public CopyTransServiceImpl(final LocaleService localeServiceImpl,
             final ProjectDAO projectDAO, final DocumentDAO documentDAO,
             final CopyTransWorkFactory copyTransWorkFactory,
             final TextFlowTargetDAO textFlowTargetDAO,
-            final TranslationStateCache translationStateCacheImpl,
-            final TextFlowDAO textFlowDAO) {
+            final TextFlowDAO textFlowDAO,
+            final CopyTransWorkUnitExecutor copyTransWorkUnitExecutor) {
         this.localeServiceImpl = localeServiceImpl;
         this.projectDAO = projectDAO;
         this.documentDAO = documentDAO;
         this.copyTransWorkFactory = copyTransWorkFactory;
         this.textFlowTargetDAO = textFlowTargetDAO;
-        this.translationStateCacheImpl = translationStateCacheImpl;
         this.textFlowDAO = textFlowDAO;
+        this.copyTransWorkUnitExecutor = copyTransWorkUnitExecutor;
     }
 
     public CopyTransServiceImpl() {
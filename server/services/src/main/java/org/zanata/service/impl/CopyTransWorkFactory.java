@@ -41,6 +41,7 @@ import org.zanata.common.ContentState;
 import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.events.DocStatsEvent;
 import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.TextFlowTargetStateEvent;
 import org.zanata.model.HAccount;
 import org.zanata.model.HCopyTransOptions;
 import org.zanata.model.HDocument;
@@ -52,9 +53,9 @@ import org.zanata.model.HTextFlowTarget;
 import org.zanata.rest.dto.TranslationSourceType;
 import org.zanata.security.annotations.Authenticated;
 import org.zanata.service.ValidationService;
-import org.zanata.service.VersionStateCache;
 import org.zanata.util.TranslationUtil;
 import org.zanata.webtrans.shared.model.ValidationAction;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
@@ -79,11 +80,21 @@ public class CopyTransWorkFactory implements Serializable {
     @Inject
     private ValidationService validationServiceImpl;
     @Inject
-    private VersionStateCache versionStateCacheImpl;
+    private TranslationEventAggregator translationEventAggregator;
     @Inject
     @Authenticated
     private HAccount authenticatedAccount;
 
+    public CopyTransWorkFactory() {
+    }
+
+    @VisibleForTesting
+    CopyTransWorkFactory(TextFlowTargetDAO textFlowTargetDAO,
+            TranslationEventAggregator eventAggregator) {
+        this.textFlowTargetDAO = textFlowTargetDAO;
+        this.translationEventAggregator = eventAggregator;
+    }
+
     public Integer runCopyTransInNewTx(HLocale targetLocale,
             HCopyTransOptions options, HDocument document,
             List<HTextFlow> copyTargets)
@@ -358,27 +369,32 @@ public class CopyTransWorkFactory implements Serializable {
         return true;
     }
 
-    private void signalCopiedTranslation(HTextFlowTarget target,
+    @VisibleForTesting
+    void signalCopiedTranslation(HTextFlowTarget target,
             ContentState previousState, Long wordCount) {
-        /*
-         * Using a direct method call instead of an event because it's easier to
-         * read. Since these events are being called synchronously (as opposed
-         * to an 'after Transaction' events), there is no big performance gain
-         * and makes the code easier to read and navigate.
-         */
-        // TODO how was this not causing duplicate events? Is this bypassing
-        // TranslationServiceImpl?
-        // FIXME other observers may not be notified
+        if (target.getId() == null) {
+            // A target created by getOrCreateTarget has no id until it is
+            // saved, and the observers of these events look targets up by id.
+            textFlowTargetDAO.makePersistent(target);
+        }
+        // Aggregated per document and locale, so copying a whole document
+        // invalidates each statistics cache entry once, at commit.
         HDocument document = target.getTextFlow().getDocument();
+        Long versionId = document.getProjectIteration().getId();
         DocumentLocaleKey key =
                 new DocumentLocaleKey(document.getId(), target.getLocaleId());
+        // No actor: copied translations are not logged as user activity.
+        translationEventAggregator.fireAtCommit(new TextFlowTargetStateEvent(
+                key, versionId, null,
+                new TextFlowTargetStateEvent.TextFlowTargetStateChange(
+                        target.getTextFlow().getId(), target.getId(),
+                        target.getState(), previousState)));
         Map<ContentState, Long> contentStates = Maps.newHashMap();
         DocStatsEvent.updateContentStateDeltas(contentStates, target.getState(),
                 previousState, wordCount);
-        DocStatsEvent docEvent =
-                new DocStatsEvent(key, document.getProjectIteration().getId(),
-                        contentStates, target.getId());
-        versionStateCacheImpl.docStatsUpdated(docEvent);
+        DocStatsEvent docEvent = new DocStatsEvent(key, versionId,
+                contentStates, target.getId());
+        translationEventAggregator.fireAtCommit(docEvent);
     }
 
     /**
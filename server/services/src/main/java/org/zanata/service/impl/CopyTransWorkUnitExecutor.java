@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.zanata.async.BoundedTaskExecutor;
+import org.zanata.config.AsyncConfig;
+
+/**
+ * Runs copy trans work units (one document and locale each) concurrently, so
+ * that the number of concurrent copy trans transactions stays bounded however
+ * many versions are being processed.
+ *
+ * @see AsyncConfig#COPY_TRANS_THREAD_POOL_SIZE
+ */
+@ApplicationScoped
+public class CopyTransWorkUnitExecutor extends BoundedTaskExecutor {
+
+    public CopyTransWorkUnitExecutor() {
+        super("copytrans", AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE);
+    }
+}
@@ -127,7 +127,7 @@ public class DocumentServiceImpl implements DocumentService {
             // Lock this document for push
             docLock = new Lock(projectSlug, iterationSlug, sourceDoc.getName(),
                     "push");
-            lockManagerServiceImpl.attain(docLock);
+            lockManagerServiceImpl.attainWaiting(docLock);
         }
         try {
             return this.saveDocument(projectSlug, iterationSlug, sourceDoc,
@@ -246,9 +246,10 @@ public class DocumentServiceImpl implements DocumentService {
         }
         Long docId = event.getKey().getDocumentId();
         LocaleId localeId = event.getKey().getLocaleId();
-        translationStateCacheImpl.clearDocumentStatistics(docId, localeId);
-        WordStatistic stats = translationStateCacheImpl
-                .getDocumentStatistics(docId, localeId);
+        // Load from the database rather than the statistics cache: this
+        // observer runs before commit, while the cache only receives the
+        // event's word deltas after commit.
+        WordStatistic stats = documentDAO.getWordStatistics(docId, localeId);
         WordStatistic oldStats = StatisticsUtil.copyWordStatistic(stats);
         if (oldStats == null) {
             return;
@@ -20,6 +20,7 @@
  */
 package org.zanata.service.impl;
 
+import java.io.File;
 import java.util.Map;
 import java.util.concurrent.Future;
 
@@ -31,16 +32,20 @@ import javax.persistence.EntityManagerFactory;
 import org.hibernate.Session;
 import org.hibernate.search.FullTextSession;
 import org.hibernate.search.Search;
+import org.zanata.ApplicationConfiguration;
 import org.zanata.action.ReindexClassOptions;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskResult;
+import org.zanata.async.handle.ReindexTaskHandle;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.search.AbstractIndexingStrategy;
 import org.zanata.search.ClassIndexer;
 import org.zanata.search.HTextFlowTargetIndexingStrategy;
+import org.zanata.search.ParallelClassIndexer;
+import org.zanata.search.ReindexCheckpoint;
 import org.zanata.search.SimpleClassIndexingStrategy;
 import org.zanata.service.IndexingService;
 import org.zanata.util.Zanata;
@@ -60,16 +65,27 @@ public class IndexingServiceImpl implements IndexingService {
     @Inject
     @Zanata
     private EntityManagerFactory entityManagerFactory;
+    @Inject
+    private ApplicationConfiguration applicationConfiguration;
 
     @Override
     @Async
     public Future<Void> startIndexing(
             Map<Class<?>, ReindexClassOptions> indexingOptions,
-            AsyncTaskHandle<Void> handle) throws Exception {
+            ReindexTaskHandle handle) throws Exception {
         FullTextSession session = openFullTextSession();
+        String indexBase =
+                applicationConfiguration.getHibernateSearchIndexBase();
+        ReindexCheckpoint checkpoint = new ReindexCheckpoint(
+                indexBase == null ? null : new File(indexBase));
         try {
+            // a purged index can't be resumed
+            indexingOptions.values().stream()
+                    .filter(ReindexClassOptions::isPurge)
+                    .forEach(opts -> checkpoint.clear(opts.getClazz()));
             handle.setMaxProgress(
-                    getTotalOperations(session, indexingOptions, handle));
+                    getTotalOperations(session, indexingOptions, handle,
+                            checkpoint));
             // TODO this is necessary because isInProgress checks number of
             // operations, which may be 0
             // look at updating isInProgress not to care about count
@@ -90,8 +106,13 @@ public class IndexingServiceImpl implements IndexingService {
                 if (!handle.isCancelled()
                         && indexingOptions.get(clazz).isReindex()) {
                     log.info("reindexing {}", clazz);
-                    // currentClass = clazz;
-                    getIndexer(clazz, handle).index(session);
+                    handle.startClass(clazz);
+                    getIndexer(clazz, indexingOptions.get(clazz), handle,
+                            checkpoint).index(session);
+                    handle.finishClass(clazz);
+                    if (!handle.isCancelled()) {
+                        checkpoint.clear(clazz);
+                    }
                 }
                 if (!handle.isCancelled()
                         && indexingOptions.get(clazz).isOptimize()) {
@@ -130,7 +151,7 @@ public class IndexingServiceImpl implements IndexingService {
      */
     private int getTotalOperations(FullTextSession session,
             Map<Class<?>, ReindexClassOptions> indexingOptions,
-            AsyncTaskHandle<?> handle) {
+            ReindexTaskHandle handle, ReindexCheckpoint checkpoint) {
         // set up progress counter
         int totalOperations = 0;
         for (Map.Entry<Class<?>, ReindexClassOptions> entry : indexingOptions
@@ -141,8 +162,8 @@ public class IndexingServiceImpl implements IndexingService {
                 totalOperations++;
             }
             if (opts.isReindex()) {
-                totalOperations +=
-                        getIndexer(clazz, handle).getEntityCount(session);
+                totalOperations += getIndexer(clazz, opts, handle, checkpoint)
+                        .getEntityCount(session);
             }
             if (opts.isOptimize()) {
                 totalOperations++;
@@ -151,9 +172,14 @@ public class IndexingServiceImpl implements IndexingService {
         return totalOperations;
     }
 
+    /**
+     * Returns a sequential indexer, or a resumable partitioned indexer if more
+     * than one thread was requested for the class.
+     */
     @SuppressWarnings("unchecked")
     private <T> ClassIndexer<T> getIndexer(Class<T> clazz,
-            AsyncTaskHandle<?> handle) {
+            ReindexClassOptions opts, ReindexTaskHandle handle,
+            ReindexCheckpoint checkpoint) {
         AbstractIndexingStrategy<T> strategy;
         // TODO add a strategy which uses TransMemoryStreamingDAO
         if (clazz.equals(HTextFlowTarget.class)) {
@@ -162,6 +188,10 @@ public class IndexingServiceImpl implements IndexingService {
         } else {
             strategy = new SimpleClassIndexingStrategy<T>(clazz);
         }
+        if (opts.getThreads() > 1) {
+            return new ParallelClassIndexer<T>(handle, clazz, strategy,
+                    opts.getThreads(), checkpoint, this::openFullTextSession);
+        }
         return new ClassIndexer<T>(handle, clazz, strategy);
     }
 
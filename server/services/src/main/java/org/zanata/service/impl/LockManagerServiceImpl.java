@@ -20,34 +20,136 @@
  */
 package org.zanata.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
 import javax.inject.Named;
+
+import org.infinispan.manager.CacheContainer;
+import org.zanata.config.SystemPropertyConfigStore;
 import org.zanata.lock.Lock;
+import org.zanata.lock.LockLease;
+import org.zanata.lock.LockLeases;
 import org.zanata.lock.LockNotAcquiredException;
+import org.zanata.metrics.MetricRegistry;
 import org.zanata.model.HAccount;
+import org.zanata.rest.dto.DTOUtil;
 import org.zanata.security.annotations.AuthenticatedLiteral;
 import org.zanata.service.LockManagerService;
+import org.zanata.util.Introspectable;
 import org.zanata.util.ServiceLocator;
+import org.zanata.util.Zanata;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
- * Default implementation of the {@link LockManagerService} interface. Manages
- * locks at the application level.
+ * Default implementation of the {@link LockManagerService} interface. Locks
+ * are held as leases which expire after {@code zanata.lock.lease.minutes}
+ * (default 60), in case a holder never releases them, and are renewed
+ * while they are held so that long-running work (eg a large TMX import)
+ * keeps its lock. With the system
+ * property {@code zanata.lock.distributed=true}, leases are kept in a
+ * clustered cache so that a lock is exclusive across all nodes.
  *
  * @author Carlos Munoz <a
  *         href="mailto:camunoz@redhat.com">camunoz@redhat.com</a>
+ * @see LockLeases
  */
 @Named("lockManagerServiceImpl")
 @ApplicationScoped
-public class LockManagerServiceImpl implements LockManagerService {
+public class LockManagerServiceImpl
+        implements LockManagerService, Introspectable {
     private static final long serialVersionUID = 9100776788798773866L;
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(LockManagerServiceImpl.class);
+    private static final String CLUSTER_LEASES_CACHE_NAME =
+            LockManagerServiceImpl.class.getName() + ".leases";
+
+    @Inject
+    private SystemPropertyConfigStore configStore;
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    @Inject
+    @Zanata
+    private Instance<CacheContainer> cacheContainer;
+
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private LockLeases leases;
+    // leases held through this node, by the caller's Lock instance, so that
+    // an expired holder can not release a lock which was taken over
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private final Map<Lock, Holding> holdings =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private @Nullable ScheduledExecutorService renewer;
+    private long waitSeconds;
+
+    @PostConstruct
+    public void init() {
+        long leaseMinutes = configStore.getLong(
+                SystemPropertyConfigStore.KEY_LOCK_LEASE_MINUTES, 60);
+        waitSeconds = configStore.getLong(
+                SystemPropertyConfigStore.KEY_LOCK_WAIT_SECONDS, 60);
+        ConcurrentMap<Lock, LockLease> table;
+        if (configStore.isDistributedLockEnabled()) {
+            log.info("locks will be shared by the cluster, using cache {}",
+                    CLUSTER_LEASES_CACHE_NAME);
+            table = cacheContainer.get().getCache(CLUSTER_LEASES_CACHE_NAME);
+        } else {
+            table = new ConcurrentHashMap<>();
+        }
+        long leaseMillis = TimeUnit.MINUTES.toMillis(leaseMinutes);
+        leases = new LockLeases(table, leaseMillis);
+        MetricRegistry.getDefault().gauge("zanata_locks_held",
+                "Locks held through this node", holdings::size);
+        long renewMillis = Math.max(leaseMillis / 3, 1000);
+        renewer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("lock-renewer-%d")
+                        .setDaemon(true).build());
+        renewer.scheduleWithFixedDelay(this::renewLeases, renewMillis,
+                renewMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+    }
+
     /**
-     * Maps locks to their owners' usernames
+     * Renews the leases of every lock held through this node.
      */
-    private final ConcurrentMap<Lock, String> locks =
-            new ConcurrentHashMap<Lock, String>();
+    @VisibleForTesting
+    void renewLeases() {
+        List<Map.Entry<Lock, Holding>> held;
+        synchronized (holdings) {
+            held = new ArrayList<>(holdings.entrySet());
+        }
+        for (Map.Entry<Lock, Holding> entry : held) {
+            try {
+                entry.getValue().renew(entry.getKey());
+            } catch (RuntimeException e) {
+                // an exception would stop the scheduled renewals
+                log.warn("failed to renew lease on {}", entry.getKey(), e);
+            }
+        }
+    }
 
     @Override
     public boolean checkAndAttain(Lock lock) {
@@ -63,16 +165,108 @@ public class LockManagerServiceImpl implements LockManagerService {
         }
     }
 
+    @Override
+    public void attainWaiting(Lock l) throws LockNotAcquiredException {
+        LockLease lease;
+        try {
+            lease = leases.acquire(l, getCurrentUser(), waitSeconds,
+                    TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockNotAcquiredException(l,
+                    "Interrupted while waiting for lock");
+        }
+        if (lease == null) {
+            throw new LockNotAcquiredException(l, "Still locked by user "
+                    + ownerOf(l) + " after waiting " + waitSeconds
+                    + " seconds");
+        }
+        holdings.put(l, new Holding(lease));
+    }
+
     @Override
     public String attainLockOrReturnOwner(Lock lock) {
-        String newLocker = getCurrentUser();
-        String previousLocker = locks.putIfAbsent(lock, newLocker);
-        return previousLocker;
+        LockLease lease = leases.tryAcquire(lock, getCurrentUser());
+        if (lease == null) {
+            return ownerOf(lock);
+        }
+        holdings.put(lock, new Holding(lease));
+        return null;
     }
 
     @Override
     public void release(Lock l) {
-        locks.remove(l);
+        Holding holding;
+        synchronized (holdings) {
+            holding = holdings.remove(l);
+            if (holding == null) {
+                // released with an equal Lock, not the one it was attained
+                // with
+                Lock held = holdings.keySet().stream().filter(l::equals)
+                        .findFirst().orElse(null);
+                if (held != null) {
+                    holding = holdings.remove(held);
+                }
+            }
+        }
+        if (holding == null) {
+            log.warn("{} is not held through this node", l);
+            return;
+        }
+        holding.release(l);
+    }
+
+    private String ownerOf(Lock lock) {
+        String owner = leases.getOwner(lock);
+        // the lock may have been released since the attempt
+        return owner != null ? owner : "unknown";
+    }
+
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getFieldValuesAsJSON() {
+        ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+        for (Map.Entry<Lock, LockLease> entry : leases.getLeases()
+                .entrySet()) {
+            builder.put(entry.getKey().toString(),
+                    entry.getValue().toString());
+        }
+        return DTOUtil.toJSON(builder.build());
+    }
+
+    /**
+     * The current lease of a lock held through this node.
+     */
+    private final class Holding {
+        private @Nullable LockLease lease;
+
+        private Holding(LockLease lease) {
+            this.lease = lease;
+        }
+
+        private synchronized void renew(Lock lock) {
+            if (lease == null) {
+                return;
+            }
+            LockLease renewed = leases.renew(lock, lease);
+            if (renewed == null) {
+                log.warn("lease on {} was lost by {}; it may be held by {}",
+                        lock, lease.getOwner(), leases.getOwner(lock));
+            }
+            lease = renewed;
+        }
+
+        private synchronized void release(Lock lock) {
+            if (lease != null && !leases.release(lock, lease)) {
+                log.warn("lease on {} had expired before {} released it",
+                        lock, lease.getOwner());
+            }
+            lease = null;
+        }
     }
 
     private String getCurrentUser() {
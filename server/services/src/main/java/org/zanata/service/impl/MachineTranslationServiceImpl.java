@@ -20,11 +20,14 @@
  */
 package org.zanata.service.impl;
 
-import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
@@ -32,14 +35,7 @@ import javax.annotation.Nullable;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
-import javax.ws.rs.ProcessingException;
-import javax.ws.rs.client.Entity;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
-
-import org.jboss.resteasy.client.jaxrs.ResteasyClient;
-import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
-import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zanata.async.Async;
@@ -47,9 +43,7 @@ import org.zanata.async.AsyncTaskResult;
 import org.zanata.async.handle.MachineTranslationPrefillTaskHandle;
 import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
-import org.zanata.config.MTServiceToken;
-import org.zanata.config.MTServiceURL;
-import org.zanata.config.MTServiceUser;
+import org.zanata.config.SystemPropertyConfigStore;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.exception.ZanataServiceException;
@@ -64,6 +58,7 @@ import org.zanata.service.LocaleService;
 import org.zanata.service.MachineTranslationService;
 import org.zanata.service.TranslationService;
 import org.zanata.service.VersionStateCache;
+import org.zanata.service.mt.MachineTranslationClient;
 import org.zanata.service.mt.TextFlowsToMTDoc;
 import org.zanata.service.mt.dto.MTDocument;
 import org.zanata.service.mt.dto.TypeString;
@@ -74,9 +69,10 @@ import org.zanata.webtrans.shared.model.TransUnitUpdateRequest;
 import org.zanata.webtrans.shared.search.FilterConstraints;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 
-import static java.util.stream.Collectors.toList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * @author Patrick Huang
@@ -87,6 +83,12 @@ public class MachineTranslationServiceImpl implements
         MachineTranslationService {
     private static final int SAVE_BATCH_SIZE = 100;
     private static final int REQUEST_BATCH_SIZE = 1000;
+    private static final int DEFAULT_DOCUMENTS_IN_FLIGHT = 4;
+    // stages of the prefill pipeline, for the task handle
+    private static final String STAGE_FETCH = "fetchTextFlows";
+    private static final String STAGE_TRANSLATE = "machineTranslate";
+    private static final String STAGE_WAIT = "waitForMT";
+    private static final String STAGE_SAVE = "saveTranslations";
     private static final Logger log =
             LoggerFactory.getLogger(MachineTranslationServiceImpl.class);
 
@@ -94,9 +96,8 @@ public class MachineTranslationServiceImpl implements
     private static final String BACKEND_GOOGLE = "GOOGLE";
     private static final String BACKEND_DEV = "DEV";
 
-    private URI mtServiceURL;
-    private String mtUser;
-    private String mtToken;
+    private MachineTranslationClient mtClient;
+    private SystemPropertyConfigStore configStore;
     private TextFlowsToMTDoc textFlowsToMTDoc;
     private TextFlowDAO textFlowDAO;
     private TextFlowTargetDAO textFlowTargetDAO;
@@ -112,9 +113,8 @@ public class MachineTranslationServiceImpl implements
     }
 
     @Inject
-    public MachineTranslationServiceImpl(@MTServiceURL URI mtServiceURL,
-            @MTServiceUser String mtUser,
-            @MTServiceToken String mtToken,
+    public MachineTranslationServiceImpl(MachineTranslationClient mtClient,
+            SystemPropertyConfigStore configStore,
             TextFlowsToMTDoc textFlowsToMTDoc,
             TextFlowDAO textFlowDAO,
             TextFlowTargetDAO textFlowTargetDAO,
@@ -124,9 +124,8 @@ public class MachineTranslationServiceImpl implements
             TranslationService translationService,
             VersionStateCache versionStateCache,
             AttributionService attributionService) {
-        this.mtServiceURL = mtServiceURL;
-        this.mtUser = mtUser;
-        this.mtToken = mtToken;
+        this.mtClient = mtClient;
+        this.configStore = configStore;
         this.textFlowsToMTDoc = textFlowsToMTDoc;
         this.textFlowDAO = textFlowDAO;
         this.textFlowTargetDAO = textFlowTargetDAO;
@@ -152,49 +151,11 @@ public class MachineTranslationServiceImpl implements
                 versionSlug, docId, fromLocale, textFlow, BACKEND_GOOGLE);
 
         try {
-            MTDocument result = getTranslationFromMT(doc, toLocale);
-            return result.getContents().stream().map(TypeString::getValue)
-                    .collect(toList());
+            return mtClient.getSuggestion(doc, toLocale);
         } catch (ZanataServiceException e) {
             log.error("failed to get translations from machine translation");
             return Collections.emptyList();
         }
-
-    }
-
-    private MTDocument getTranslationFromMT(MTDocument request,
-            LocaleId toLocale) throws ZanataServiceException {
-
-        try {
-            ResteasyClient client = new ResteasyClientBuilder().build();
-
-            ResteasyWebTarget webTarget = client.target(mtServiceURL).path("api")
-                    .path("document").path("translate")
-                    .queryParam("toLocaleCode", toLocale.getId());
-            Response response = webTarget.request(MediaType.APPLICATION_JSON_TYPE)
-                    .header("X-Auth-User", mtUser)
-                    .header("X-Auth-Token", mtToken)
-                    .header("Content-Type", MediaType.APPLICATION_JSON)
-                    .header("Accept", MediaType.APPLICATION_JSON)
-                    .post(Entity.json(request));
-
-            int status = response.getStatus();
-            if (status == 200) {
-                MTDocument result = response.readEntity(MTDocument.class);
-                if (!result.getWarnings().isEmpty()) {
-                    log.warn("MT returned warnings: {}", result.getWarnings());
-                }
-                return result;
-            } else {
-                String entity = response.readEntity(String.class);
-                log.error("MT returned status: {}, header: {}, body: {}",
-                        status, response.getHeaders(), entity);
-                throw new ZanataServiceException("Error code " + status +
-                        " returned from MT: " + entity);
-            }
-        } catch (ProcessingException e) {
-            throw new ZanataServiceException("Exception while talking to MT", 502, e);
-        }
     }
 
     @Async
@@ -223,64 +184,87 @@ public class MachineTranslationServiceImpl implements
         // trying to keep stats up to date during the merge.
         versionStateCache.clearVersionStatsCache(targetVersionId);
 
+        // Documents whose MT requests have been sent, oldest first. Fetching
+        // and saving use the entity manager, so they stay on this thread;
+        // only the MT requests run concurrently.
+        Deque<PendingDocument> inFlight = new ArrayDeque<>();
+        int maxInFlight = Math.max(1, configStore.get(
+                SystemPropertyConfigStore.KEY_MT_PREFILL_DOCUMENTS,
+                DEFAULT_DOCUMENTS_IN_FLIGHT));
         boolean cancelled = false;
-        for (Iterator<HDocument> iterator = documents.values().iterator();
-                iterator.hasNext() && !(cancelled = taskHandle.isCancelled()); ) {
-            HDocument doc = iterator.next();
-            Long docId = doc.getId();
-
-            if (!attributionService.supportsAttribution(doc)) {
-                log.warn("Attribution not supported for {}; skipping MT", doc);
-                continue;
-            }
-            String requestedBackend = BACKEND_GOOGLE;
-            String backendId = addMachineTranslationsToDoc(doc, targetLocale,
-                    projectSlug, versionSlug, options.getSaveState(),
-                    options.getOverwriteFuzzy(), requestedBackend);
-            if (backendId != null) {
-                try {
-                    transactionUtil.run(() -> {
-                        // Refresh HDocument after being cleared in processing
-                        HDocument refreshedDoc = entityManager.find(HDocument.class, docId);
-                        attributionService.addAttribution(refreshedDoc, targetLocale, backendId);
-                        entityManager.merge(refreshedDoc);
-                    });
-                } catch (Exception e) {
-                    throw new RuntimeException("error adding attribution for machine translation", e);
+        try {
+            for (Iterator<HDocument> iterator = documents.values().iterator();
+                    iterator.hasNext() && !(cancelled = taskHandle.isCancelled()); ) {
+                HDocument doc = iterator.next();
+
+                if (!attributionService.supportsAttribution(doc)) {
+                    log.warn("Attribution not supported for {}; skipping MT", doc);
+                    continue;
                 }
+                // backpressure: don't fetch more text flows until there is
+                // room in the pipeline
+                if (inFlight.size() >= maxInFlight) {
+                    saveMachineTranslations(inFlight.removeFirst(),
+                            targetLocale, options.getSaveState(), taskHandle);
+                }
+                String requestedBackend = BACKEND_GOOGLE;
+                PendingDocument pending = sendDocumentToMT(doc, targetLocale,
+                        projectSlug, versionSlug, options.getOverwriteFuzzy(),
+                        requestedBackend, taskHandle);
+                if (pending != null) {
+                    inFlight.addLast(pending);
+                } else {
+                    taskHandle.increaseProgress(1);
+                }
+            }
+            while (!inFlight.isEmpty() && !(cancelled = taskHandle.isCancelled())) {
+                saveMachineTranslations(inFlight.removeFirst(), targetLocale,
+                        options.getSaveState(), taskHandle);
             }
-            taskHandle.increaseProgress(1);
+        } finally {
+            // only left over if cancelled or failed
+            inFlight.forEach(PendingDocument::cancel);
         }
         // Clear the cache again to force recalculation (just in case of
         // concurrent activity):
         versionStateCache.clearVersionStatsCache(targetVersionId);
 
-        log.info("{} prefill with MT for {}, {}",
+        log.info("{} prefill with MT for {}, {} (stage times in ms: {})",
                 cancelled ? "CANCELLED" : "COMPLETED",
-                version.userFriendlyToString(), overallStopwatch);
+                version.userFriendlyToString(), overallStopwatch,
+                taskHandle.getStageTimes());
         return AsyncTaskResult.completed();
     }
 
-    private @Nullable String addMachineTranslationsToDoc(HDocument doc,
-            HLocale targetLocale, String projectSlug,
-            String versionSlug, ContentState saveState, boolean overwriteFuzzy,
-            String backendId) {
+    /**
+     * Fetches the text flows of doc which need translating, and sends them
+     * to MT without waiting for the response.
+     *
+     * @return the requests in flight, or null if nothing needs translating
+     */
+    private @Nullable PendingDocument sendDocumentToMT(HDocument doc,
+            HLocale targetLocale, String projectSlug, String versionSlug,
+            boolean overwriteFuzzy, String backendId,
+            MachineTranslationPrefillTaskHandle taskHandle) {
         DocumentId documentId = new DocumentId(doc.getId(),
                 doc.getDocId());
+        long fetchStart = System.nanoTime();
         entityManager.clear();
         List<HTextFlow> textFlowsToTranslate =
                 getTextFlowsByDocumentIdWithConstraints(targetLocale,
                         documentId, overwriteFuzzy);
+        taskHandle.addStageTime(STAGE_FETCH, System.nanoTime() - fetchStart,
+                NANOSECONDS);
         if (textFlowsToTranslate.isEmpty()) {
             log.info("No eligible text flows in document {}", doc.getQualifiedDocId());
             return null;
         }
+        PendingDocument pending = new PendingDocument(doc);
         int startBatch = 0;
-        String backendIdConfirmation = null;
         while (startBatch < textFlowsToTranslate.size()) {
             int batchEnd = Math.min(
                     startBatch + REQUEST_BATCH_SIZE, textFlowsToTranslate.size());
-            log.debug("[PERF] Starting batch {} - {}", startBatch, batchEnd);
+            log.debug("[PERF] Sending batch {} - {}", startBatch, batchEnd);
             List<HTextFlow> next =
                     textFlowsToTranslate.subList(startBatch, batchEnd);
             MTDocument mtDocument = textFlowsToMTDoc
@@ -289,22 +273,57 @@ public class MachineTranslationServiceImpl implements
                             next,
                             TextFlowsToMTDoc::extractPluralIfPresent,
                             backendId);
+            long sent = System.nanoTime();
+            CompletableFuture<MTDocument> result = mtClient
+                    .translateAsync(mtDocument, targetLocale.getLocaleId())
+                    .whenComplete((r, e) -> taskHandle.addStageTime(
+                            STAGE_TRANSLATE, System.nanoTime() - sent,
+                            NANOSECONDS));
+            pending.batches.add(new PendingBatch(next, result));
+            startBatch = batchEnd;
+        }
+        return pending;
+    }
 
-            log.debug("[PERF] Sending batch {} - {}", startBatch, batchEnd);
-            Stopwatch mtProviderStopwatch = Stopwatch.createStarted();
-            MTDocument result = getTranslationFromMT(mtDocument,
-                    targetLocale.getLocaleId());
-            log.debug("[PERF] Received response [{} contents] ({}ms)",
-                    result.getContents().size(), mtProviderStopwatch);
-            saveTranslationsInBatches(next, result, targetLocale, saveState);
+    /**
+     * Waits for the MT responses for a document, then saves them and adds
+     * the MT attribution.
+     */
+    private void saveMachineTranslations(PendingDocument pending,
+            HLocale targetLocale, ContentState saveState,
+            MachineTranslationPrefillTaskHandle taskHandle) {
+        String backendIdConfirmation = null;
+        for (PendingBatch batch : pending.batches) {
+            long waitStart = System.nanoTime();
+            MTDocument result = batch.awaitResult();
+            taskHandle.addStageTime(STAGE_WAIT, System.nanoTime() - waitStart,
+                    NANOSECONDS);
+            log.debug("[PERF] Received response [{} contents]",
+                    result.getContents().size());
+            long saveStart = System.nanoTime();
+            saveTranslationsInBatches(batch.textFlows, result, targetLocale,
+                    saveState);
+            taskHandle.addStageTime(STAGE_SAVE, System.nanoTime() - saveStart,
+                    NANOSECONDS);
             // TODO we only return the backendId from the final batch
             backendIdConfirmation = result.getBackendId();
-            startBatch = batchEnd;
         }
         if (backendIdConfirmation == null) {
-            log.warn("Error getting confirmation backend ID for {}", doc.getDocId());
+            log.warn("Error getting confirmation backend ID for {}", pending.docId);
+        } else {
+            String backendId = backendIdConfirmation;
+            try {
+                transactionUtil.run(() -> {
+                    // Refresh HDocument after being cleared in processing
+                    HDocument refreshedDoc = entityManager.find(HDocument.class, pending.id);
+                    attributionService.addAttribution(refreshedDoc, targetLocale, backendId);
+                    entityManager.merge(refreshedDoc);
+                });
+            } catch (Exception e) {
+                throw new RuntimeException("error adding attribution for machine translation", e);
+            }
         }
-        return backendIdConfirmation;
+        taskHandle.increaseProgress(1);
     }
 
     private List<HTextFlow> getTextFlowsByDocumentIdWithConstraints(
@@ -420,4 +439,38 @@ public class MachineTranslationServiceImpl implements
         return attributionService.getAttributionMessage(backendId);
     }
 
+    private static final class PendingDocument {
+        private final Long id;
+        private final String docId;
+        private final List<PendingBatch> batches = Lists.newArrayList();
+
+        private PendingDocument(HDocument doc) {
+            this.id = doc.getId();
+            this.docId = doc.getDocId();
+        }
+
+        private void cancel() {
+            batches.forEach(batch -> batch.result.cancel(false));
+        }
+    }
+
+    private static final class PendingBatch {
+        private final List<HTextFlow> textFlows;
+        private final CompletableFuture<MTDocument> result;
+
+        private PendingBatch(List<HTextFlow> textFlows,
+                CompletableFuture<MTDocument> result) {
+            this.textFlows = textFlows;
+            this.result = result;
+        }
+
+        private MTDocument awaitResult() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                Throwables.propagateIfPossible(e.getCause());
+                throw e;
+            }
+        }
+    }
 }
@@ -30,11 +30,9 @@ import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
 import javax.enterprise.context.RequestScoped;
-import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskResult;
 import org.zanata.async.handle.MergeTranslationsTaskHandle;
@@ -54,7 +52,6 @@ import org.zanata.rest.dto.TranslationSourceType;
 import org.zanata.security.annotations.Authenticated;
 import org.zanata.service.LocaleService;
 import org.zanata.service.MergeTranslationsService;
-import org.zanata.service.TranslationStateCache;
 import org.zanata.service.VersionStateCache;
 import org.zanata.util.TranslationUtil;
 
@@ -87,15 +84,9 @@ public class MergeTranslationsServiceImpl implements MergeTranslationsService {
     @Inject
     private VersionStateCache versionStateCacheImpl;
     @Inject
-    private TranslationStateCache translationStateCacheImpl;
-    @Inject
     private LocaleService localeServiceImpl;
-    @SuppressFBWarnings(value = "SE_BAD_FIELD")
-    @Inject
-    private Event<TextFlowTargetStateEvent> textFlowTargetStateEvent;
-    @SuppressFBWarnings(value = "SE_BAD_FIELD")
     @Inject
-    private Event<DocStatsEvent> docStatsEvent;
+    private TranslationEventAggregator translationEventAggregator;
     @Inject
     @Authenticated
     private HAccount authenticatedAccount;
@@ -225,8 +216,6 @@ public class MergeTranslationsServiceImpl implements MergeTranslationsService {
                 }
             }
             if (foundChange) {
-                translationStateCacheImpl.clearDocumentStatistics(
-                        targetTf.getDocument().getId());
                 textFlowDAO.makePersistent(targetTf);
                 textFlowDAO.flush();
                 for (Map.Entry<Long, ContentState> entry : localeContentStateMap
@@ -259,14 +248,14 @@ public class MergeTranslationsServiceImpl implements MergeTranslationsService {
                     new TextFlowTargetStateEvent(entry.getKey(),
                             targetVersionId, actorId,
                             ImmutableList.copyOf(entry.getValue()));
-            textFlowTargetStateEvent.fire(tftUpdatedEvent);
+            translationEventAggregator.fireAtCommit(tftUpdatedEvent);
         }
         for (Map.Entry<DocumentLocaleKey, Map<ContentState, Long>> entry : docStatsMap
                 .entrySet()) {
             DocStatsEvent docEvent = new DocStatsEvent(entry.getKey(),
                     targetVersionId, entry.getValue(),
                     lastUpdatedTargetId.get(entry.getKey()));
-            docStatsEvent.fire(docEvent);
+            translationEventAggregator.fireAtCommit(docEvent);
         }
         stopwatch.stop();
         log.info("Complete merge translations of {} in {}",
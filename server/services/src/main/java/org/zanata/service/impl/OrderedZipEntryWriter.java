@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes zip entries whose content is produced concurrently, in the order the
+ * entries were added. At most {@code capacity} entries are pending at once:
+ * adding another entry first waits for the oldest one and writes it, so no
+ * more than that many rendered entries are held in memory.
+ * <p>
+ * Not thread-safe; entries are added and written by a single thread.
+ */
+class OrderedZipEntryWriter {
+
+    private final ZipOutputStream zipOutput;
+    private final int capacity;
+    private final Runnable onEntryWritten;
+    private final Deque<PendingEntry> pending = new ArrayDeque<>();
+
+    /**
+     * @param capacity
+     *            maximum number of pending entries
+     * @param onEntryWritten
+     *            called after each entry has been written, eg to report
+     *            progress
+     */
+    OrderedZipEntryWriter(ZipOutputStream zipOutput, int capacity,
+            Runnable onEntryWritten) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.zipOutput = zipOutput;
+        this.capacity = capacity;
+        this.onEntryWritten = onEntryWritten;
+    }
+
+    /**
+     * Queues an entry, first writing the oldest pending entries if the queue
+     * is full.
+     *
+     * @throws ExecutionException
+     *             if the content of an entry written by this call could not
+     *             be produced
+     */
+    void add(String name, CompletableFuture<byte[]> content)
+            throws IOException, InterruptedException, ExecutionException {
+        while (pending.size() >= capacity) {
+            writeOldest();
+        }
+        pending.add(new PendingEntry(name, content));
+    }
+
+    /**
+     * Writes all pending entries.
+     */
+    void finish()
+            throws IOException, InterruptedException, ExecutionException {
+        while (!pending.isEmpty()) {
+            writeOldest();
+        }
+    }
+
+    /**
+     * Cancels all pending entries without writing them. Entries whose content
+     * is already being produced run to completion.
+     */
+    void cancel() {
+        for (PendingEntry entry : pending) {
+            entry.content.cancel(false);
+        }
+        pending.clear();
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    private void writeOldest()
+            throws IOException, InterruptedException, ExecutionException {
+        PendingEntry entry = pending.peek();
+        byte[] bytes = entry.content.get();
+        pending.remove();
+        zipOutput.putNextEntry(new ZipEntry(entry.name));
+        zipOutput.write(bytes);
+        zipOutput.closeEntry();
+        onEntryWritten.run();
+    }
+
+    private static class PendingEntry {
+        private final String name;
+        private final CompletableFuture<byte[]> content;
+
+        private PendingEntry(String name, CompletableFuture<byte[]> content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+}
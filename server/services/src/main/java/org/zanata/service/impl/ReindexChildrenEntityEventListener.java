@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.common.EntityStatus;
 import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
@@ -93,6 +94,7 @@ public class ReindexChildrenEntityEventListener
                 || oldStatus == EntityStatus.OBSOLETE) {
             log.debug("HProject [{}] status changed from/to obsolete");
             AsyncTaskHandle<Void> handle = new AsyncTaskHandle<>();
+            handle.setTaskType(AsyncTaskType.REINDEX);
             getAsyncTaskHandleManager().registerTaskHandle(handle);
             try {
                 getIndexingServiceImpl()
@@ -109,6 +111,7 @@ public class ReindexChildrenEntityEventListener
                 || oldStatus == EntityStatus.OBSOLETE) {
             log.debug("HProjectIteration [{}] changed from/to obsolete");
             AsyncTaskHandle<Void> handle = new AsyncTaskHandle<>();
+            handle.setTaskType(AsyncTaskType.REINDEX);
             getAsyncTaskHandleManager().registerTaskHandle(handle);
             try {
                 getIndexingServiceImpl()
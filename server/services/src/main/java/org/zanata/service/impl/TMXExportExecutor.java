@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.zanata.async.BoundedTaskExecutor;
+import org.zanata.config.AsyncConfig;
+
+/**
+ * Serialises the partitions of TMX exports concurrently. Each partition reads
+ * its translation units through its own streaming session, so the number of
+ * database connections used by exports stays bounded too.
+ *
+ * @see AsyncConfig#TMX_EXPORT_THREAD_POOL_SIZE
+ */
+@ApplicationScoped
+public class TMXExportExecutor extends BoundedTaskExecutor {
+
+    public TMXExportExecutor() {
+        super("tmx-export", AsyncConfig.TMX_EXPORT_THREAD_POOL_SIZE);
+    }
+}
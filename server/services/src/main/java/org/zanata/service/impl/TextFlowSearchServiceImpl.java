@@ -23,16 +23,30 @@ package org.zanata.service.impl;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.TermQuery;
+import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.engine.ProjectionConstants;
+import javax.annotation.Nullable;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
+import org.zanata.ApplicationConfiguration;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.exception.ZanataServiceException;
+import org.zanata.hibernate.search.IndexFieldLabels;
+import org.zanata.hibernate.search.TrigramBridge;
 import org.zanata.jpa.FullText;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
@@ -47,7 +61,9 @@ import org.zanata.webtrans.shared.model.ContentStateGroup;
 import org.zanata.webtrans.shared.model.DocumentId;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * @author David Mason,
@@ -59,6 +75,20 @@ import com.google.common.collect.Lists;
 public class TextFlowSearchServiceImpl implements TextFlowSearchService {
     private static final org.slf4j.Logger log =
             org.slf4j.LoggerFactory.getLogger(TextFlowSearchServiceImpl.class);
+    /**
+     * Above this many index hits (for source or target), the search string is
+     * not selective enough and the database is searched directly.
+     */
+    static final int MAX_INDEX_CANDIDATES = 1000;
+    /**
+     * Search strings can have many trigrams; any subset of them still finds
+     * every match.
+     */
+    static final int MAX_QUERY_TRIGRAMS = 32;
+    /**
+     * How many documents a paged search checks with each query.
+     */
+    static final int DOCUMENTS_PER_QUERY = 100;
 
     @Inject
     private LocaleService localeServiceImpl;
@@ -67,17 +97,29 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
     @Inject
     @FullText
     private FullTextSession session;
+    @Inject
+    private ApplicationConfiguration applicationConfiguration;
 
     @Override
     public List<HTextFlow> findTextFlows(WorkspaceId workspace,
             FilterConstraints constraints) {
-        return findTextFlowsByDocumentPaths(workspace, null, constraints);
+        return findTextFlowsByDocumentPaths(workspace, null, constraints,
+                null, Integer.MAX_VALUE);
     }
 
     @Override
     public List<HTextFlow> findTextFlows(WorkspaceId workspace,
             List<String> documents, FilterConstraints constraints) {
-        return findTextFlowsByDocumentPaths(workspace, documents, constraints);
+        return findTextFlowsByDocumentPaths(workspace, documents, constraints,
+                null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<HTextFlow> findTextFlows(WorkspaceId workspace,
+            List<String> documents, FilterConstraints constraints,
+            @Nullable Long afterDocumentId, int maxTextFlows) {
+        return findTextFlowsByDocumentPaths(workspace, documents, constraints,
+                afterDocumentId, maxTextFlows);
     }
 
     /**
@@ -88,10 +130,16 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
      *            for the given document paths will be returned
      * @param constraints
      *            filter constraints
+     * @param afterDocumentId
+     *            null, or only search documents with a greater id
+     * @param maxTextFlows
+     *            stop after the document which brings the number of results
+     *            to this many
      * @return list of matching text flows
      */
     private List<HTextFlow> findTextFlowsByDocumentPaths(WorkspaceId workspace,
-            List<String> documentPaths, FilterConstraints constraints) {
+            List<String> documentPaths, FilterConstraints constraints,
+            @Nullable Long afterDocumentId, int maxTextFlows) {
         LocaleId localeId = workspace.getLocaleId();
         String projectSlug = workspace.getProjectIterationId().getProjectSlug();
         String iterationSlug =
@@ -122,7 +170,8 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
             return Collections.emptyList();
         }
         return findTextFlowsWithDatabaseSearch(projectSlug, iterationSlug,
-                documentPaths, constraints, hLocale);
+                documentPaths, constraints, hLocale, afterDocumentId,
+                maxTextFlows);
     }
 
     /**
@@ -131,7 +180,8 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
      */
     private List<HTextFlow> findTextFlowsWithDatabaseSearch(String projectSlug,
             String iterationSlug, List<String> documentPaths,
-            FilterConstraints constraints, HLocale hLocale) {
+            FilterConstraints constraints, HLocale hLocale,
+            @Nullable Long afterDocumentId, int maxTextFlows) {
         boolean hasDocumentPaths =
                 documentPaths != null && !documentPaths.isEmpty();
         log.debug("document paths: {}", documentPaths);
@@ -149,9 +199,54 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
         }
         List<Long> documentIds = documents.stream()
                 .map(HDocument::getId)
+                .filter(id -> afterDocumentId == null || id > afterDocumentId)
+                .sorted()
                 .collect(Collectors.toList());
+        if (documentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Optional<Set<Long>> candidates = Optional.empty();
+        if (applicationConfiguration.isTrigramSearchIndex()) {
+            candidates = findCandidatesInTrigramIndex(
+                    documents.get(0).getProjectIteration().getId(),
+                    constraints, hLocale);
+            if (candidates.isPresent() && candidates.get().isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        if (maxTextFlows == Integer.MAX_VALUE) {
+            return findTextFlowsInDocuments(documentIds, constraints,
+                    hLocale, candidates);
+        }
+        List<HTextFlow> result = new ArrayList<HTextFlow>();
+        for (List<Long> idBatch : Lists.partition(documentIds,
+                DOCUMENTS_PER_QUERY)) {
+            Map<Long, List<HTextFlow>> matchesByDocument = new TreeMap<>(
+                    findTextFlowsInDocuments(idBatch, constraints, hLocale,
+                            candidates).stream()
+                            .collect(Collectors.groupingBy(
+                                    tf -> tf.getDocument().getId())));
+            for (List<HTextFlow> documentMatches : matchesByDocument
+                    .values()) {
+                result.addAll(documentMatches);
+                if (result.size() >= maxTextFlows) {
+                    // the rest of the batch is searched again by the next
+                    // page
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<HTextFlow> findTextFlowsInDocuments(List<Long> documentIds,
+            FilterConstraints constraints, HLocale hLocale,
+            Optional<Set<Long>> candidates) {
         FilterConstraintToQuery toQuery = FilterConstraintToQuery
                 .filterInMultipleDocuments(constraints, documentIds);
+        if (candidates.isPresent()) {
+            toQuery.restrictSearchToTextFlows(candidates.get());
+        }
         String hql = toQuery.toEntityQuery();
         log.debug("hql for searching: {}", hql);
         org.hibernate.Query query = session.createQuery(hql);
@@ -172,6 +267,83 @@ public class TextFlowSearchServiceImpl implements TextFlowSearchService {
         return result;
     }
 
+    /**
+     * Uses the content trigram index to find the text flows which may contain
+     * the search string in the version, in source or in target for the
+     * locale, so that the database only needs to check those text flows.
+     *
+     * @return ids of candidate text flows, or empty if the index can't narrow
+     *         down the search (search string too short or too common)
+     */
+    private Optional<Set<Long>> findCandidatesInTrigramIndex(Long versionId,
+            FilterConstraints constraints, HLocale hLocale) {
+        Set<String> trigrams =
+                TrigramBridge.trigrams(constraints.getSearchString());
+        if (trigrams.isEmpty()) {
+            return Optional.empty();
+        }
+        BooleanQuery.Builder queryBuilder = new BooleanQuery.Builder();
+        queryBuilder.add(new TermQuery(new Term(
+                IndexFieldLabels.PROJECT_VERSION_ID_FIELD,
+                versionId.toString())), BooleanClause.Occur.MUST);
+        for (String trigram : Iterables.limit(trigrams, MAX_QUERY_TRIGRAMS)) {
+            queryBuilder.add(new TermQuery(
+                    new Term(IndexFieldLabels.CONTENT_TRIGRAMS, trigram)),
+                    BooleanClause.Occur.MUST);
+        }
+        BooleanQuery versionQuery = queryBuilder.build();
+        Set<Long> textFlowIds = Sets.newHashSet();
+        if (constraints.isSearchInSource()) {
+            Optional<List<Long>> sourceIds =
+                    findIdsInIndex(versionQuery, HTextFlow.class);
+            if (!sourceIds.isPresent()) {
+                return Optional.empty();
+            }
+            textFlowIds.addAll(sourceIds.get());
+        }
+        if (constraints.isSearchInTarget()) {
+            BooleanQuery targetQuery = new BooleanQuery.Builder()
+                    .add(versionQuery, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(
+                            IndexFieldLabels.LOCALE_ID_FIELD,
+                            hLocale.getLocaleId().getId())),
+                            BooleanClause.Occur.MUST)
+                    .build();
+            Optional<List<Long>> targetIds =
+                    findIdsInIndex(targetQuery, HTextFlowTarget.class);
+            if (!targetIds.isPresent()) {
+                return Optional.empty();
+            }
+            if (!targetIds.get().isEmpty()) {
+                @SuppressWarnings("unchecked")
+                List<Long> ids = session.createQuery(
+                        "select tft.textFlow.id from HTextFlowTarget tft where tft.id in (:ids)")
+                        .setParameterList("ids", targetIds.get())
+                        .setComment(
+                                "TextFlowSearchServiceImpl.findCandidatesInTrigramIndex")
+                        .list();
+                textFlowIds.addAll(ids);
+            }
+        }
+        log.debug("trigram index found {} candidate text flows",
+                textFlowIds.size());
+        return Optional.of(textFlowIds);
+    }
+
+    private Optional<List<Long>> findIdsInIndex(BooleanQuery query,
+            Class<?> entityClass) {
+        FullTextQuery ftQuery = session.createFullTextQuery(query, entityClass)
+                .setProjection(ProjectionConstants.ID)
+                .setMaxResults(MAX_INDEX_CANDIDATES + 1);
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = ftQuery.list();
+        if (results.size() > MAX_INDEX_CANDIDATES) {
+            return Optional.empty();
+        }
+        return Optional.of(results.stream().map(row -> (Long) row[0])
+                .collect(Collectors.toList()));
+    }
+
     /**
      * Filter a list of text flows to include only those that have a case
      * sensitive match of the search string in the contents of interest.
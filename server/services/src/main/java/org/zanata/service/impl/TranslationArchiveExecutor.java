@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.zanata.async.BoundedTaskExecutor;
+import org.zanata.config.AsyncConfig;
+
+/**
+ * Renders the documents of translation file archives concurrently, so that
+ * the number of database sessions used for rendering stays bounded however
+ * many archives are being built.
+ *
+ * @see AsyncConfig#ARCHIVE_THREAD_POOL_SIZE
+ */
+@ApplicationScoped
+public class TranslationArchiveExecutor extends BoundedTaskExecutor {
+
+    public TranslationArchiveExecutor() {
+        super("archive", AsyncConfig.ARCHIVE_THREAD_POOL_SIZE);
+    }
+}
@@ -27,7 +27,6 @@ import javax.inject.Named;
 import javax.persistence.EntityNotFoundException;
 
 import org.apache.deltaspike.jpa.api.transaction.Transactional;
-import org.zanata.adapter.po.PoWriter2;
 import org.zanata.async.Async;
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskResult;
@@ -36,23 +35,19 @@ import org.zanata.common.ProjectType;
 import org.zanata.dao.DocumentDAO;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.ProjectIterationDAO;
-import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.model.HDocument;
 import org.zanata.model.HLocale;
 import org.zanata.model.HProjectIteration;
-import org.zanata.model.HTextFlowTarget;
-import org.zanata.rest.dto.resource.Resource;
-import org.zanata.rest.dto.resource.TranslationsResource;
-import org.zanata.rest.service.ResourceUtils;
 import org.zanata.service.ConfigurationService;
 import org.zanata.service.FileSystemService;
 import org.zanata.service.TranslationArchiveService;
+import org.zanata.util.ServiceLocator;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -78,13 +73,13 @@ public class TranslationArchiveServiceImpl
     @Inject
     private ProjectIterationDAO projectIterationDAO;
     @Inject
-    private ResourceUtils resourceUtils;
-    @Inject
-    private TextFlowTargetDAO textFlowTargetDAO;
-    @Inject
     private FileSystemService fileSystemServiceImpl;
     @Inject
     private ConfigurationService configurationServiceImpl;
+    @Inject
+    private TranslationPoRenderer translationPoRenderer;
+    @Inject
+    private TranslationArchiveExecutor translationArchiveExecutor;
 
     @Override
     public String buildTranslationFileArchive(String projectSlug,
@@ -109,13 +104,6 @@ public class TranslationArchiveServiceImpl
         final FileOutputStream output = new FileOutputStream(downloadFile);
         final ZipOutputStream zipOutput = new ZipOutputStream(output);
         zipOutput.setMethod(ZipOutputStream.DEFLATED);
-        // TODO should we have an option for approvedOnly?
-        final PoWriter2 poWriter =
-                new PoWriter2.Builder().mapIdToMsgctxt(!isPoProject)
-                        .create();
-        final Set<String> extensions = new HashSet<String>();
-        extensions.add("gettext");
-        extensions.add("comment");
         // Generate the download descriptor file
         String downloadId = fileSystemServiceImpl.createDownloadDescriptorFile(
                 downloadFile,
@@ -134,38 +122,113 @@ public class TranslationArchiveServiceImpl
         handle.increaseProgress(1);
         final List<HDocument> allIterationDocs = documentDAO
                 .getAllByProjectIteration(projectSlug, iterationSlug);
-        for (HDocument document : allIterationDocs) {
+        boolean completed;
+        if (translationArchiveExecutor != null
+                && translationArchiveExecutor.isParallel()) {
+            completed = writeDocumentsInParallel(zipOutput, allIterationDocs,
+                    hLocale, localeDirectory, !isPoProject, handleOpt);
+        } else {
+            completed = writeDocuments(zipOutput, allIterationDocs, hLocale,
+                    localeDirectory, !isPoProject, handleOpt);
+        }
+        if (!completed) {
+            zipOutput.close();
+            boolean deleted = downloadFile.delete();
+            if (deleted) {
+                log.debug("File {} deleted", downloadFile);
+            } else {
+                log.debug("File {} cannot be deleted", downloadFile);
+            }
+            fileSystemServiceImpl.deleteDownloadDescriptorFile(downloadId);
+            return null;
+        }
+        zipOutput.flush();
+        zipOutput.close();
+        return downloadId;
+    }
+
+    /**
+     * Writes one PO entry per document, rendering each in this thread.
+     *
+     * @return false if the task was cancelled
+     */
+    private boolean writeDocuments(ZipOutputStream zipOutput,
+            List<HDocument> documents, HLocale hLocale,
+            String localeDirectory, boolean mapIdToMsgctxt,
+            Optional<AsyncTaskHandle<String>> handleOpt) throws IOException {
+        for (HDocument document : documents) {
             // Stop the process if signaled to do so
             if (handleOpt.isPresent() && handleOpt.get().isCancelled()) {
-                zipOutput.close();
-                boolean deleted = downloadFile.delete();
-                if (deleted) {
-                    log.debug("File {} deleted", downloadFile);
-                } else {
-                    log.debug("File {} cannot be deleted", downloadFile);
-                }
-                fileSystemServiceImpl.deleteDownloadDescriptorFile(downloadId);
-                return null;
+                return false;
             }
-            TranslationsResource translationResource =
-                    new TranslationsResource();
-            List<HTextFlowTarget> hTargets =
-                    textFlowTargetDAO.findTranslations(document, hLocale);
-            resourceUtils.transferToTranslationsResource(translationResource,
-                    document, hLocale, extensions, hTargets,
-                    true);
-            Resource res = resourceUtils.buildResource(document);
             String filename = localeDirectory + document.getDocId() + ".po";
             zipOutput.putNextEntry(new ZipEntry(filename));
-            poWriter.writePo(zipOutput, "UTF-8", res, translationResource);
+            translationPoRenderer.writePo(zipOutput, document, hLocale,
+                    mapIdToMsgctxt);
             zipOutput.closeEntry();
             if (handleOpt.isPresent()) {
                 handleOpt.get().increaseProgress(1);
             }
         }
-        zipOutput.flush();
-        zipOutput.close();
-        return downloadId;
+        return true;
+    }
+
+    /**
+     * Writes one PO entry per document, rendering the documents concurrently
+     * on {@link TranslationArchiveExecutor}. Each document is loaded and
+     * rendered in the worker's own persistence context. The rendered entries
+     * are written in document order by this thread, and only a bounded number
+     * of them are held in memory at once.
+     *
+     * @return false if the task was cancelled
+     */
+    private boolean writeDocumentsInParallel(ZipOutputStream zipOutput,
+            List<HDocument> documents, HLocale hLocale,
+            String localeDirectory, boolean mapIdToMsgctxt,
+            Optional<AsyncTaskHandle<String>> handleOpt)
+            throws IOException, InterruptedException {
+        Long localeId = hLocale.getId();
+        OrderedZipEntryWriter entryWriter = new OrderedZipEntryWriter(
+                zipOutput, translationArchiveExecutor.getPoolSize() * 2,
+                () -> {
+                    if (handleOpt.isPresent()) {
+                        handleOpt.get().increaseProgress(1);
+                    }
+                });
+        try {
+            for (HDocument document : documents) {
+                // Stop the process if signaled to do so
+                if (handleOpt.isPresent() && handleOpt.get().isCancelled()) {
+                    entryWriter.cancel();
+                    return false;
+                }
+                Long documentId = document.getId();
+                String filename =
+                        localeDirectory + document.getDocId() + ".po";
+                entryWriter.add(filename,
+                        translationArchiveExecutor.submit(() -> {
+                            if (handleOpt.isPresent()
+                                    && handleOpt.get().isCancelled()) {
+                                return new byte[0];
+                            }
+                            // the injected renderer belongs to the calling
+                            // thread's contexts
+                            return ServiceLocator.instance()
+                                    .getInstance(TranslationPoRenderer.class)
+                                    .renderPo(documentId, localeId,
+                                            mapIdToMsgctxt);
+                        }));
+            }
+            entryWriter.finish();
+        } catch (ExecutionException e) {
+            entryWriter.cancel();
+            throw new IOException("unable to render translation file",
+                    e.getCause());
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            entryWriter.cancel();
+            throw e;
+        }
+        return !(handleOpt.isPresent() && handleOpt.get().isCancelled());
     }
 
     @Override
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.zanata.common.ContentState;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.events.TextFlowTargetStateEvent.TextFlowTargetStateChange;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Collects translation state and statistics events during a transaction, and
+ * fires one TextFlowTargetStateEvent and one DocStatsEvent per document and
+ * locale when the transaction begins to commit.
+ *
+ * Bulk operations (editor batch saves, TM merge, copy trans) may change many
+ * targets of the same document in one transaction. Without aggregation, each
+ * change evicts and reloads the same statistics cache entries. The word count
+ * deltas of the aggregated DocStatsEvent are the sums of the individual
+ * deltas, so observers see the same net change.
+ *
+ * The events are fired from a non-interposed Synchronization, which JTA
+ * completes before the interposed ones (such as the Hibernate flush, and the
+ * CDI transactional observers registered while the events are fired). So
+ * observers see the same transaction phases as if the events had been fired
+ * directly: plain observers run in the transaction, and AFTER_SUCCESS
+ * observers only run if it commits.
+ *
+ * Outside a JTA transaction, events are fired immediately.
+ */
+@ApplicationScoped
+public class TranslationEventAggregator {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(TranslationEventAggregator.class);
+    private static final String PENDING_EVENTS_KEY =
+            TranslationEventAggregator.class.getName() + ".pendingEvents";
+
+    @Resource(lookup = "java:comp/TransactionSynchronizationRegistry")
+    private TransactionSynchronizationRegistry txRegistry;
+    @Resource(lookup = "java:jboss/TransactionManager")
+    private TransactionManager transactionManager;
+    @SuppressFBWarnings(value = "SE_BAD_FIELD")
+    @Inject
+    private Event<TextFlowTargetStateEvent> textFlowTargetStateEvent;
+    @SuppressFBWarnings(value = "SE_BAD_FIELD")
+    @Inject
+    private Event<DocStatsEvent> docStatsEvent;
+
+    public TranslationEventAggregator() {
+    }
+
+    @VisibleForTesting
+    TranslationEventAggregator(TransactionSynchronizationRegistry txRegistry,
+            TransactionManager transactionManager,
+            Event<TextFlowTargetStateEvent> textFlowTargetStateEvent,
+            Event<DocStatsEvent> docStatsEvent) {
+        this.txRegistry = txRegistry;
+        this.transactionManager = transactionManager;
+        this.textFlowTargetStateEvent = textFlowTargetStateEvent;
+        this.docStatsEvent = docStatsEvent;
+    }
+
+    /**
+     * Fires the event before the current transaction commits, merged with
+     * other state changes for the same document, locale and actor.
+     */
+    public void fireAtCommit(TextFlowTargetStateEvent event) {
+        PendingEvents pending = getPendingEvents();
+        if (pending == null) {
+            textFlowTargetStateEvent.fire(event);
+            return;
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Fires the event before the current transaction commits, merged with
+     * other statistics changes for the same document and locale.
+     */
+    public void fireAtCommit(DocStatsEvent event) {
+        PendingEvents pending = getPendingEvents();
+        if (pending == null) {
+            docStatsEvent.fire(event);
+            return;
+        }
+        pending.add(event);
+    }
+
+    /**
+     * @return events pending for the current transaction, or null if there is
+     *         no active transaction, or its events have already been fired
+     */
+    private PendingEvents getPendingEvents() {
+        if (txRegistry == null || transactionManager == null || txRegistry
+                .getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return null;
+        }
+        PendingEvents pending =
+                (PendingEvents) txRegistry.getResource(PENDING_EVENTS_KEY);
+        if (pending == null) {
+            pending = new PendingEvents();
+            try {
+                transactionManager.getTransaction()
+                        .registerSynchronization(pending);
+            } catch (RollbackException | SystemException e) {
+                log.debug("firing translation events immediately", e);
+                return null;
+            }
+            txRegistry.putResource(PENDING_EVENTS_KEY, pending);
+        }
+        // events from later synchronizations (eg the flush) can't wait
+        return pending.fired ? null : pending;
+    }
+
+    /**
+     * Events for one transaction. Transactions are bound to a single thread,
+     * so this needs no locking.
+     */
+    private final class PendingEvents implements Synchronization {
+        // keyed by (DocumentLocaleKey, projectIterationId, actorId)
+        private final Map<List<Object>, List<TextFlowTargetStateChange>> states =
+                new LinkedHashMap<>();
+        private final Map<DocumentLocaleKey, DocStatsEvent> docStats =
+                new LinkedHashMap<>();
+        private int received;
+        private boolean fired;
+
+        void add(TextFlowTargetStateEvent event) {
+            received++;
+            states.computeIfAbsent(
+                    Arrays.asList(event.getKey(),
+                            event.getProjectIterationId(), event.getActorId()),
+                    k -> Lists.newArrayList()).addAll(event.getStates());
+        }
+
+        void add(DocStatsEvent event) {
+            received++;
+            docStats.merge(event.getKey(), event,
+                    TranslationEventAggregator::merge);
+        }
+
+        @Override
+        public void beforeCompletion() {
+            fired = true;
+            log.debug("firing {} aggregated translation events (from {})",
+                    states.size() + docStats.size(), received);
+            states.forEach((key, changes) -> textFlowTargetStateEvent
+                    .fire(new TextFlowTargetStateEvent(
+                            (DocumentLocaleKey) key.get(0), (Long) key.get(1),
+                            (Long) key.get(2), ImmutableList.copyOf(changes))));
+            docStats.values().forEach(docStatsEvent::fire);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+        }
+    }
+
+    /**
+     * Combines two statistics events for the same document and locale: word
+     * deltas are summed, and the later event's target is the last modified.
+     */
+    @VisibleForTesting
+    static DocStatsEvent merge(DocStatsEvent earlier, DocStatsEvent later) {
+        Map<ContentState, Long> wordDeltas =
+                Maps.newHashMap(earlier.getWordDeltasByState());
+        later.getWordDeltasByState().forEach(
+                (state, words) -> wordDeltas.merge(state, words, Long::sum));
+        return new DocStatsEvent(earlier.getKey(),
+                earlier.getProjectVersionId(), wordDeltas,
+                later.getLastModifiedTargetId());
+    }
+}
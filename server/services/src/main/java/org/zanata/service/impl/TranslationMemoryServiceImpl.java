@@ -26,6 +26,7 @@ import static org.zanata.webtrans.shared.rest.dto.InternalTMSource.InternalTMCho
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -36,6 +37,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 
@@ -219,14 +221,129 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                         checkContext, checkDocument, checkProject,
                         true, internalTMSource);
         // TODO would maxResults of, say, 5 be enough for this case?
-        return searchTransMemory(targetLocaleId, sourceLocaleId, query)
-                .stream()
+        return findBestMatch(
+                searchTransMemory(targetLocaleId, sourceLocaleId, query),
+                thresholdPercent);
+    }
+
+    /**
+     * This is used by TMMerge. The combined query returns up to
+     * SEARCH_MAX_RESULTS hits per text flow, and each hit is then offered to
+     * every text flow whose context conditions it satisfies, so the best match
+     * for each text flow is chosen by TransMemoryResultComparator exactly as
+     * in the per-segment search. If the combined result was truncated, any
+     * text flow's best hit may have been crowded out by those of other text
+     * flows, so every text flow is searched again individually.
+     */
+    @Override
+    public Map<Long, TransMemoryResultItem> searchBestMatchTransMemory(
+            List<HTextFlow> textFlows, LocaleId targetLocaleId,
+            LocaleId sourceLocaleId, boolean checkContext,
+            boolean checkDocument, boolean checkProject, int thresholdPercent,
+            InternalTMSource internalTMSource) {
+        return searchBestMatchTransMemory(textFlows, targetLocaleId,
+                sourceLocaleId, checkContext, checkDocument, checkProject,
+                thresholdPercent, internalTMSource,
+                SEARCH_MAX_RESULTS * textFlows.size());
+    }
+
+    /**
+     * @param maxResults
+     *            maximum number of hits for the combined query; if there are
+     *            more, the text flows are searched individually
+     */
+    @VisibleForTesting
+    Map<Long, TransMemoryResultItem> searchBestMatchTransMemory(
+            List<HTextFlow> textFlows, LocaleId targetLocaleId,
+            LocaleId sourceLocaleId, boolean checkContext,
+            boolean checkDocument, boolean checkProject, int thresholdPercent,
+            InternalTMSource internalTMSource, int maxResults) {
+        Map<HTextFlow, TransMemoryQuery> queries = new LinkedHashMap<>();
+        for (HTextFlow textFlow : textFlows) {
+            queries.put(textFlow, buildTMQuery(textFlow,
+                    HasSearchType.SearchType.FUZZY_PLURAL, checkContext,
+                    checkDocument, checkProject, true, internalTMSource));
+        }
+        Map<Long, TransMemoryResultItem> bestMatches = new HashMap<>();
+        if (queries.isEmpty()) {
+            return bestMatches;
+        }
+        List<Object[]> unfilteredMatches = findMatchingTranslationBatch(
+                targetLocaleId, sourceLocaleId, queries.values(), maxResults);
+        if (unfilteredMatches == null
+                || unfilteredMatches.size() >= maxResults) {
+            log.debug("batch TM search truncated; searching {} text flows individually",
+                    queries.size());
+            queries.forEach((textFlow, query) -> findBestMatch(
+                    searchTransMemory(targetLocaleId, sourceLocaleId, query),
+                    thresholdPercent).ifPresent(
+                            item -> bestMatches.put(textFlow.getId(), item)));
+            return bestMatches;
+        }
+        List<Object[]> matches = unfilteredMatches.stream()
+                .filter(new ValidTargetFilterPredicate(identity,
+                        targetLocaleId))
+                .collect(Collectors.toList());
+        for (Map.Entry<HTextFlow, TransMemoryQuery> entry : queries
+                .entrySet()) {
+            HTextFlow textFlow = entry.getKey();
+            TransMemoryQuery query = entry.getValue();
+            List<Object[]> segmentMatches = matches.stream()
+                    .filter(match -> isMatchForQuery(match[1], query))
+                    .collect(Collectors.toList());
+            findBestMatch(collateMatches(query, segmentMatches,
+                    sourceLocaleId, targetLocaleId,
+                    Math.max(MINIMUM_SIMILARITY, thresholdPercent)),
+                    thresholdPercent).ifPresent(
+                            item -> bestMatches.put(textFlow.getId(), item));
+        }
+        return bestMatches;
+    }
+
+    private static Optional<TransMemoryResultItem> findBestMatch(
+            List<TransMemoryResultItem> results, int thresholdPercent) {
+        return results.stream()
                 // findTMAboveThreshold
                 .filter(new TransMemoryAboveThresholdPredicate(thresholdPercent))
                 .filter(it -> !it.isMachineTranslation())
                 .findFirst();
     }
 
+    /**
+     * Checks the conditions which the per-segment query would have applied
+     * to this hit. The content itself is checked later by the similarity
+     * calculation.
+     */
+    private static boolean isMatchForQuery(Object entity,
+            TransMemoryQuery query) {
+        if (!(entity instanceof HTextFlowTarget)) {
+            // TransMemoryUnit queries don't use the context conditions
+            return true;
+        }
+        HTextFlow textFlow = ((HTextFlowTarget) entity).getTextFlow();
+        HDocument document = textFlow.getDocument();
+        if (isChecked(query.getProject()) && !query.getProject().getValue()
+                .equals(document.getProjectIteration().getProject().getId()
+                        .toString())) {
+            return false;
+        }
+        if (isChecked(query.getDocument()) && !query.getDocument().getValue()
+                .equals(document.getDocId())) {
+            return false;
+        }
+        if (isChecked(query.getRes())
+                && !query.getRes().getValue().equals(textFlow.getResId())) {
+            return false;
+        }
+        return query.getIncludeOwnTranslation().isCheck()
+                || !query.getIncludeOwnTranslation().getValue()
+                        .equals(textFlow.getId().toString());
+    }
+
+    private static boolean isChecked(TransMemoryQuery.Condition condition) {
+        return condition != null && condition.isCheck();
+    }
+
     @Override
     public List<TransMemoryResultItem> searchTransMemory(
             LocaleId targetLocaleId, LocaleId sourceLocaleId,
@@ -243,13 +360,28 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         Collection<Object[]> matches = findMatchingTranslation(targetLocaleId,
                 sourceLocaleId, transMemoryQuery, SEARCH_MAX_RESULTS,
                 textFlowTargetId, HTextFlowTarget.class, TransMemoryUnit.class);
+        return collateMatches(transMemoryQuery, matches, sourceLocaleId,
+                targetLocaleId, MINIMUM_SIMILARITY);
+    }
+
+    /**
+     * Converts index matches into result items (merging matches with the
+     * same source and target contents) sorted by similarity etc.
+     *
+     * @param minSimilarityPercent
+     *            matches less similar than this are discarded
+     */
+    private List<TransMemoryResultItem> collateMatches(
+            TransMemoryQuery transMemoryQuery, Collection<Object[]> matches,
+            LocaleId sourceLocaleId, LocaleId targetLocaleId,
+            double minSimilarityPercent) {
         Map<TMKey, TransMemoryResultItem> matchesMap =
                 new LinkedHashMap<TMKey, TransMemoryResultItem>(matches.size());
         for (Object[] match : matches) {
             float score = (Float) match[0];
             Object entity = match[1];
             processIndexMatch(transMemoryQuery, matchesMap, entity, score,
-                    sourceLocaleId, targetLocaleId);
+                    sourceLocaleId, targetLocaleId, minSimilarityPercent);
         }
         List<TransMemoryResultItem> results =
                 Lists.newArrayList(matchesMap.values());
@@ -345,17 +477,54 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         return Lists.newArrayList();
     }
 
+    /**
+     * Runs the FUZZY_PLURAL queries for a batch of text flows as a single
+     * Lucene query (one SHOULD clause per text flow).
+     *
+     * @return unfiltered matches (see findMatchingTranslation), or null if the
+     *         combined query could not be run
+     */
+    private @Nullable List<Object[]> findMatchingTranslationBatch(
+            LocaleId targetLocaleId, LocaleId sourceLocaleId,
+            Collection<TransMemoryQuery> queries, int maxResults) {
+        try {
+            BooleanQuery.Builder batchQuery = new BooleanQuery.Builder();
+            for (TransMemoryQuery query : queries) {
+                String[] multiQueryText = escapeQueries(query.getQueries());
+                if (multiQueryText == null) {
+                    continue;
+                }
+                batchQuery.add(generateQuery(query, sourceLocaleId,
+                        targetLocaleId, Optional.empty(), null,
+                        multiQueryText, IndexFieldLabels.TF_CONTENT_FIELDS),
+                        BooleanClause.Occur.SHOULD);
+            }
+            BooleanQuery textQuery = batchQuery.build();
+            if (textQuery.clauses().isEmpty()) {
+                return Lists.newArrayList();
+            }
+            return runQuery(textQuery, maxResults, HTextFlowTarget.class,
+                    TransMemoryUnit.class);
+        } catch (ParseException | RuntimeException e) {
+            log.warn("Can't run batch TM query for {} text flows: {}",
+                    queries.size(), e.toString());
+            return null;
+        }
+    }
+
     private void processIndexMatch(TransMemoryQuery transMemoryQuery,
             Map<TMKey, TransMemoryResultItem> matchesMap, Object entity,
-            float score, LocaleId sourceLocaleId, LocaleId targetLocaleId) {
+            float score, LocaleId sourceLocaleId, LocaleId targetLocaleId,
+            double minSimilarityPercent) {
         if (entity instanceof HTextFlowTarget) {
             HTextFlowTarget textFlowTarget = (HTextFlowTarget) entity;
             processTextFlowTargetMatch(transMemoryQuery, matchesMap,
-                    textFlowTarget, score);
+                    textFlowTarget, score, minSimilarityPercent);
         } else if (entity instanceof TransMemoryUnit) {
             TransMemoryUnit transUnit = (TransMemoryUnit) entity;
             processTransMemoryUnitMatch(transMemoryQuery, matchesMap,
-                    transUnit, score, sourceLocaleId, targetLocaleId);
+                    transUnit, score, sourceLocaleId, targetLocaleId,
+                    minSimilarityPercent);
         } else {
             log.warn("unexpected entity: {}", entity.getClass());
         }
@@ -363,16 +532,17 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     private void processTextFlowTargetMatch(TransMemoryQuery transMemoryQuery,
             Map<TMKey, TransMemoryResultItem> matchesMap,
-            HTextFlowTarget textFlowTarget, float score) {
+            HTextFlowTarget textFlowTarget, float score,
+            double minSimilarityPercent) {
         TransMemoryResultItem.MatchType matchType =
                 fromContentState(textFlowTarget.getState());
         ArrayList<String> textFlowContents = Lists
                 .newArrayList(textFlowTarget.getTextFlow().getContents());
         double percent = calculateSimilarityPercentage(transMemoryQuery,
-                textFlowContents);
-        if (percent < MINIMUM_SIMILARITY) {
+                textFlowContents, minSimilarityPercent);
+        if (percent < minSimilarityPercent) {
             log.debug("Ignoring TM - {} - similarity is less than {}%",
-                    textFlowContents, MINIMUM_SIMILARITY);
+                    textFlowContents, minSimilarityPercent);
             return;
         }
         ArrayList<String> targetContents =
@@ -391,7 +561,7 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
     private void processTransMemoryUnitMatch(TransMemoryQuery transMemoryQuery,
             Map<TMKey, TransMemoryResultItem> matchesMap,
             TransMemoryUnit transUnit, float score, LocaleId sourceLocaleId,
-            LocaleId targetLocaleId) {
+            LocaleId targetLocaleId, double minSimilarityPercent) {
         ArrayList<String> sourceContents =
                 Lists.newArrayList(transUnit.getTransUnitVariants()
                         .get(sourceLocaleId.getId()).getPlainTextSegment());
@@ -399,10 +569,10 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                 Lists.newArrayList(transUnit.getTransUnitVariants()
                         .get(targetLocaleId.getId()).getPlainTextSegment());
         double percent = calculateSimilarityPercentage(transMemoryQuery,
-                sourceContents);
-        if (percent < MINIMUM_SIMILARITY) {
+                sourceContents, minSimilarityPercent);
+        if (percent < minSimilarityPercent) {
             log.debug("Ignoring TM - {} with less than {}% matching.",
-                    sourceContents, MINIMUM_SIMILARITY);
+                    sourceContents, minSimilarityPercent);
             return;
         }
         TransMemoryResultItem item = createOrGetResultItem(matchesMap,
@@ -413,13 +583,24 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
     private static double calculateSimilarityPercentage(TransMemoryQuery query,
             List<String> sourceContents) {
+        return calculateSimilarityPercentage(query, sourceContents, 0.0);
+    }
+
+    /**
+     * @param minSimilarityPercent
+     *            the word-based comparison may stop early (returning some
+     *            lower value) once the similarity can't reach this
+     */
+    private static double calculateSimilarityPercentage(TransMemoryQuery query,
+            List<String> sourceContents, double minSimilarityPercent) {
         double percent;
         if (query.getSearchType() == HasSearchType.SearchType.CONTENT_HASH) {
             return 100;
         } else if (query
                 .getSearchType() == HasSearchType.SearchType.FUZZY_PLURAL) {
-            percent = 100 * LevenshteinTokenUtil
-                    .getSimilarity(query.getQueries(), sourceContents);
+            percent = 100 * LevenshteinTokenUtil.getSimilarity(
+                    query.getQueries(), sourceContents,
+                    minSimilarityPercent / 100);
             if (percent > 99.99) {
                 // make sure we only get 100% similarity if every character
                 // matches
@@ -659,12 +840,9 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
 
         // 'Fuzzy' in the editor, plus it is a plural entry
         case FUZZY_PLURAL:
-            multiQueryText = new String[query.getQueries().size()];
-            for (int i = 0; i < query.getQueries().size(); i++) {
-                multiQueryText[i] = escape(query.getQueries().get(i));
-                if (StringUtils.isBlank(multiQueryText[i])) {
-                    return Lists.newArrayList();
-                }
+            multiQueryText = escapeQueries(query.getQueries());
+            if (multiQueryText == null) {
+                return Lists.newArrayList();
             }
             break;
 
@@ -686,20 +864,8 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         Query textQuery = generateQuery(query, sourceLocale, targetLocale,
                 textFlowTargetId, queryText, multiQueryText,
                 IndexFieldLabels.TF_CONTENT_FIELDS);
-        log.debug("Executing Lucene query: {}", textQuery);
-        FullTextQuery ftQuery =
-                entityManager.createFullTextQuery(textQuery, entities);
-        ftQuery.setProjection(
-                ProjectionConstants.SCORE,
-                ProjectionConstants.THIS,
-                ProjectionConstants.OBJECT_CLASS,
-                ProjectionConstants.ID);
-        if (maxResults > 0) {
-            ftQuery.setMaxResults(maxResults);
-        }
-        ftQuery.setSort(lastChangedSort);
-        @SuppressWarnings("unchecked")
-        List<Object[]> unfilteredMatches = (List<Object[]>) ftQuery.getResultList();
+        List<Object[]> unfilteredMatches =
+                runQuery(textQuery, maxResults, entities);
 
         List<Object[]> filteredMatches =
                 unfilteredMatches.stream().filter(filter).collect(Collectors.toList());
@@ -712,7 +878,8 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
                             "the filter. More acceptable items may be found " +
                             "if maxResults is increased. Query: {}",
                     unfilteredMatches.size(),
-                    ftQuery.getResultSize(),
+                    entityManager.createFullTextQuery(textQuery, entities)
+                            .getResultSize(),
                     filteredMatches.size(),
                     textQuery);
             logQueryResults(unfilteredMatches);
@@ -720,6 +887,45 @@ public class TranslationMemoryServiceImpl implements TranslationMemoryService {
         return filteredMatches;
     }
 
+    /**
+     * return match[0] = (float)score, match[1] = entity, match[2] = entity
+     * class, match[3] = entity id
+     */
+    private List<Object[]> runQuery(Query textQuery, int maxResults,
+            Class<?>[] entities) {
+        log.debug("Executing Lucene query: {}", textQuery);
+        FullTextQuery ftQuery =
+                entityManager.createFullTextQuery(textQuery, entities);
+        ftQuery.setProjection(
+                ProjectionConstants.SCORE,
+                ProjectionConstants.THIS,
+                ProjectionConstants.OBJECT_CLASS,
+                ProjectionConstants.ID);
+        if (maxResults > 0) {
+            ftQuery.setMaxResults(maxResults);
+        }
+        ftQuery.setSort(lastChangedSort);
+        @SuppressWarnings("unchecked")
+        List<Object[]> matches = (List<Object[]>) ftQuery.getResultList();
+        return matches;
+    }
+
+    /**
+     * Escapes each of the (plural) queries.
+     *
+     * @return the escaped queries, or null if any of them is blank
+     */
+    private static @Nullable String[] escapeQueries(List<String> queries) {
+        String[] multiQueryText = new String[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            multiQueryText[i] = escape(queries.get(i));
+            if (StringUtils.isBlank(multiQueryText[i])) {
+                return null;
+            }
+        }
+        return multiQueryText;
+    }
+
     @VisibleForTesting
     protected static String escape(String string) {
         return QueryParser.escape(string).replaceAll(LUCENE_KEY_WORDS,
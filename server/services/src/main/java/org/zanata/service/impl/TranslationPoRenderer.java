@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityNotFoundException;
+
+import org.zanata.adapter.po.PoWriter2;
+import org.zanata.dao.DocumentDAO;
+import org.zanata.dao.LocaleDAO;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.model.HDocument;
+import org.zanata.model.HLocale;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TranslationsResource;
+import org.zanata.rest.service.ResourceUtils;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Renders the translations of a single document as a PO file, as included in
+ * translation file archives.
+ *
+ * @see TranslationArchiveServiceImpl
+ */
+@RequestScoped
+public class TranslationPoRenderer {
+    private static final ImmutableSet<String> EXTENSIONS =
+            ImmutableSet.of("gettext", "comment");
+
+    @Inject
+    private DocumentDAO documentDAO;
+    @Inject
+    private LocaleDAO localeDAO;
+    @Inject
+    private TextFlowTargetDAO textFlowTargetDAO;
+    @Inject
+    private ResourceUtils resourceUtils;
+
+    /**
+     * Writes the PO file for a document and locale. The stream is not closed.
+     *
+     * @param mapIdToMsgctxt
+     *            true if the resIds should be written as msgctxt, ie the
+     *            project is not a PO project
+     */
+    public void writePo(OutputStream output, HDocument document,
+            HLocale locale, boolean mapIdToMsgctxt) throws IOException {
+        // TODO should we have an option for approvedOnly?
+        PoWriter2 poWriter = new PoWriter2.Builder()
+                .mapIdToMsgctxt(mapIdToMsgctxt).create();
+        TranslationsResource translationResource = new TranslationsResource();
+        List<HTextFlowTarget> hTargets =
+                textFlowTargetDAO.findTranslations(document, locale);
+        resourceUtils.transferToTranslationsResource(translationResource,
+                document, locale, EXTENSIONS, hTargets, true);
+        Resource res = resourceUtils.buildResource(document);
+        poWriter.writePo(output, "UTF-8", res, translationResource);
+    }
+
+    /**
+     * Loads a document and locale in this bean's persistence context and
+     * renders its PO file into memory. This is used by worker threads, which
+     * can't share entities with the thread which loaded them.
+     *
+     * @return the PO file content in UTF-8
+     */
+    public byte[] renderPo(Long documentId, Long localeId,
+            boolean mapIdToMsgctxt) throws IOException {
+        HDocument document = documentDAO.findById(documentId);
+        HLocale locale = localeDAO.findById(localeId);
+        if (document == null || locale == null) {
+            throw new EntityNotFoundException("document " + documentId
+                    + " or locale " + localeId + " no longer exists");
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writePo(output, document, locale, mapIdToMsgctxt);
+        return output.toByteArray();
+    }
+}
@@ -130,12 +130,8 @@ public class TranslationServiceImpl implements TranslationService {
     @SuppressFBWarnings(value = "SE_BAD_FIELD")
     @Inject
     private Event<DocumentUploadedEvent> documentUploadedEvent;
-    @SuppressFBWarnings(value = "SE_BAD_FIELD")
-    @Inject
-    private Event<TextFlowTargetStateEvent> textFlowTargetStateEvent;
-    @SuppressFBWarnings(value = "SE_BAD_FIELD")
     @Inject
-    private Event<DocStatsEvent> docStatsEvent;
+    private TranslationEventAggregator translationEventAggregator;
 
     @Transactional
     @Override
@@ -266,11 +262,11 @@ public class TranslationServiceImpl implements TranslationService {
                             projectIteration.getId(),
                             authenticatedAccount.getPerson().getId(),
                             ImmutableList.copyOf(targetStates));
-            textFlowTargetStateEvent.fire(tftUpdatedEvent);
+            translationEventAggregator.fireAtCommit(tftUpdatedEvent);
             DocStatsEvent docEvent = new DocStatsEvent(documentLocaleKey,
                     projectIteration.getId(), contentStateDeltas,
                     Iterables.getLast(targetStates).getTextFlowTargetId());
-            docStatsEvent.fire(docEvent);
+            translationEventAggregator.fireAtCommit(docEvent);
         }
         return results;
     }
@@ -520,7 +516,7 @@ public class TranslationServiceImpl implements TranslationService {
         if (lock) {
             transLock =
                     new Lock(projectSlug, iterationSlug, docId, locale, "push");
-            lockManagerServiceImpl.attain(transLock);
+            lockManagerServiceImpl.attainWaiting(transLock);
         }
         List<String> warnings;
         try {
@@ -810,12 +806,12 @@ public class TranslationServiceImpl implements TranslationService {
                     new TextFlowTargetStateEvent(documentLocaleKey,
                             projectIterationId, actorId,
                             ImmutableList.copyOf(targetStates));
-            textFlowTargetStateEvent.fire(tftUpdatedEvent);
+            translationEventAggregator.fireAtCommit(tftUpdatedEvent);
             DocStatsEvent docEvent = new DocStatsEvent(documentLocaleKey,
                     projectIterationId, contentStateDeltas,
                     Iterables.getLast(tftUpdatedEvent.getStates())
                             .getTextFlowTargetId());
-            docStatsEvent.fire(docEvent);
+            translationEventAggregator.fireAtCommit(docEvent);
         }
         textFlowTargetDAO.flush();
         return changed;
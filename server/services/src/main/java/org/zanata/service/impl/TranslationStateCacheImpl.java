@@ -198,15 +198,21 @@ public class TranslationStateCacheImpl implements TranslationStateCache {
     public void docStatsUpdated(
         @Observes(during = TransactionPhase.AFTER_SUCCESS)
             DocStatsEvent event) {
-        // invalidate document statistic cache
-        clearDocumentStatistics(event.getKey().getDocumentId(),
-            event.getKey().getLocaleId());
+        // apply the word deltas to document statistic cache
+        WordStatisticReconciler.applyDeltas(documentStatisticCache,
+            event.getKey(), event.getWordDeltasByState());
 
         // update document status information
         updateDocStatusCache(event.getKey(),
             event.getLastModifiedTargetId());
     }
 
+    @Override
+    public int reconcileDocumentStatistics(int maxEntries) {
+        return WordStatisticReconciler.reconcile(DOC_STATISTIC_CACHE_NAME,
+                documentStatisticCache, documentStatisticLoader, maxEntries);
+    }
+
     private void updateDocStatusCache(DocumentLocaleKey key,
             Long updatedTargetId) {
         DocumentStatus documentStatus = docStatusCache.get(key);
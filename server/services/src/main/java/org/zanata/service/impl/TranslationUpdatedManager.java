@@ -48,8 +48,15 @@ public class TranslationUpdatedManager {
 
     @VisibleForTesting
     protected void processWebHookEvent(DocStatsEvent event) {
-        HTextFlowTarget target =
-                textFlowTargetDAO.findById(event.getLastModifiedTargetId());
+        Long targetId = event.getLastModifiedTargetId();
+        if (targetId == null) {
+            // no target to attribute the change to, eg an unsaved target
+            return;
+        }
+        HTextFlowTarget target = textFlowTargetDAO.findById(targetId);
+        if (target == null) {
+            return;
+        }
         HPerson person = target.getLastModifiedBy();
         if (person == null) {
             return;
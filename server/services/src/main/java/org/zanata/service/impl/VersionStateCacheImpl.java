@@ -22,8 +22,6 @@
 
 package org.zanata.service.impl;
 
-import java.util.Map;
-
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.infinispan.manager.CacheContainer;
 import javax.annotation.PostConstruct;
@@ -31,7 +29,6 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import org.zanata.cache.CacheWrapper;
 import org.zanata.cache.InfinispanCacheWrapper;
-import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.LocaleDAO;
 import org.zanata.dao.ProjectIterationDAO;
@@ -98,15 +95,8 @@ public class VersionStateCacheImpl implements VersionStateCache {
         VersionLocaleKey key =
             new VersionLocaleKey(event.getProjectVersionId(),
                 event.getKey().getLocaleId());
-        WordStatistic stats = versionStatisticCache.get(key);
-        if (stats != null) {
-            for (Map.Entry<ContentState, Long> entry : event
-                    .getWordDeltasByState().entrySet()) {
-                stats.increment(entry.getKey(),
-                        Math.toIntExact(entry.getValue()));
-            }
-            versionStatisticCache.put(key, stats);
-        }
+        WordStatisticReconciler.applyDeltas(versionStatisticCache, key,
+                event.getWordDeltasByState());
     }
 
     @Override
@@ -125,6 +115,12 @@ public class VersionStateCacheImpl implements VersionStateCache {
         }
     }
 
+    @Override
+    public int reconcileVersionStatistics(int maxEntries) {
+        return WordStatisticReconciler.reconcile(VERSION_STATISTIC_CACHE_NAME,
+                versionStatisticCache, versionStatisticLoader, maxEntries);
+    }
+
     public static class VersionStatisticLoader extends
             CacheLoader<VersionLocaleKey, WordStatistic> {
 
@@ -22,19 +22,19 @@ package org.zanata.service.impl;
 
 import java.util.Optional;
 import javax.annotation.Nonnull;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import org.apache.commons.lang3.StringUtils;
-import org.jboss.resteasy.client.jaxrs.ResteasyClient;
-import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
-import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
-import org.zanata.events.WebhookEventType;
 import org.zanata.util.HmacUtil;
 
 /**
  * Do http post for webhook event
  *
+ * @see WebhookDispatcher
+ *
  * @author Alex Eng <a href="mailto:aeng@redhat.com">aeng@redhat.com</a>
  */
 public class WebHooksPublisher {
@@ -43,30 +43,27 @@ public class WebHooksPublisher {
 
     public static final String WEBHOOK_HEADER = "X-Zanata-Webhook";
 
-    public static void publish(@Nonnull String callbackURL,
-            @Nonnull WebhookEventType event, Optional<String> secretKey) {
-        publish(callbackURL, event.getJSON(), MediaType.APPLICATION_JSON_TYPE,
-                MediaType.APPLICATION_JSON_TYPE, secretKey);
-    }
-
-    protected static void publish(@Nonnull String callbackURL,
-            @Nonnull String data, @Nonnull MediaType acceptType,
-            @Nonnull MediaType mediaType, Optional<String> secretKey) {
+    /**
+     * Posts webhook data to the callback URL using the given (shared) client,
+     * and waits for the response.
+     *
+     * @return the HTTP status of the response
+     */
+    static int post(@Nonnull Client client, @Nonnull String callbackURL,
+            @Nonnull String data, Optional<String> secretKey) {
+        Invocation.Builder postBuilder = client.target(callbackURL).request()
+                .accept(MediaType.APPLICATION_JSON_TYPE);
+        if (secretKey.isPresent() && StringUtils.isNotBlank(secretKey.get())) {
+            String sha = signWebhookHeader(data, secretKey.get(), callbackURL);
+            postBuilder.header(WEBHOOK_HEADER, sha);
+        }
+        log.debug("firing webhook: {}:{}", callbackURL, data);
+        Response response = postBuilder
+                .post(Entity.entity(data, MediaType.APPLICATION_JSON_TYPE));
         try {
-            ResteasyClient client = new ResteasyClientBuilder().build();
-            ResteasyWebTarget target = client.target(callbackURL);
-            Invocation.Builder postBuilder =
-                    target.request().accept(acceptType);
-            if (secretKey.isPresent()
-                    && StringUtils.isNotBlank(secretKey.get())) {
-                String sha =
-                        signWebhookHeader(data, secretKey.get(), callbackURL);
-                postBuilder.header(WEBHOOK_HEADER, sha);
-            }
-            log.debug("firing async webhook: {}:{}", callbackURL, data);
-            postBuilder.async().post(Entity.entity(data, mediaType));
-        } catch (Exception e) {
-            log.error("Error on webhooks post {}", callbackURL, e);
+            return response.getStatus();
+        } finally {
+            response.close();
         }
     }
 
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.zanata.common.ContentState;
+import org.zanata.events.WebhookEvent;
+import org.zanata.events.WebhookEventType;
+import org.zanata.limits.LeakyBucket;
+import org.zanata.rest.dto.DTOUtil;
+import org.zanata.util.Introspectable;
+import org.zanata.webhook.events.DocumentStatsEvent;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Delivers webhook events to their callback URLs.
+ *
+ * All deliveries share one pooled HTTP client. Each callback URL has its own
+ * bounded queue, and at most {@link #MAX_CONCURRENT_PER_ENDPOINT} deliveries
+ * in flight, so that a slow or broken endpoint cannot tie up every connection.
+ * Stats events for the same document and locale which are still waiting in a
+ * queue are coalesced into one event, with their word deltas summed. Failed
+ * deliveries (connection errors, 429 and 5xx responses) are retried with
+ * exponential backoff.
+ *
+ * @see WebHooksPublisher
+ */
+@ApplicationScoped
+public class WebhookDispatcher implements Introspectable {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    static final int QUEUE_CAPACITY_PER_ENDPOINT = 1000;
+    static final int MAX_CONCURRENT_PER_ENDPOINT = 2;
+    static final int MAX_ATTEMPTS = 5;
+    static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+    private static final int DELIVERY_THREADS = 10;
+    private static final int CONNECT_TIMEOUT_SECONDS = 10;
+    private static final int SOCKET_TIMEOUT_SECONDS = 30;
+
+    private final ConcurrentMap<String, EndpointQueue> endpoints =
+            new ConcurrentHashMap<>();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final LeakyBucket dropLogLimiter =
+            new LeakyBucket(1, 1, TimeUnit.MINUTES);
+
+    private Sender sender;
+    private ResteasyClient client;
+    private ExecutorService deliveryExecutor;
+    private ScheduledExecutorService retryScheduler;
+    private int queueCapacity = QUEUE_CAPACITY_PER_ENDPOINT;
+    private int maxConcurrentPerEndpoint = MAX_CONCURRENT_PER_ENDPOINT;
+    private int maxAttempts = MAX_ATTEMPTS;
+    private long initialRetryDelayMillis = INITIAL_RETRY_DELAY_MILLIS;
+
+    public WebhookDispatcher() {
+    }
+
+    @VisibleForTesting
+    WebhookDispatcher(Sender sender, ExecutorService deliveryExecutor,
+            ScheduledExecutorService retryScheduler, int queueCapacity,
+            int maxConcurrentPerEndpoint, int maxAttempts,
+            long initialRetryDelayMillis) {
+        this.sender = sender;
+        this.deliveryExecutor = deliveryExecutor;
+        this.retryScheduler = retryScheduler;
+        this.queueCapacity = queueCapacity;
+        this.maxConcurrentPerEndpoint = maxConcurrentPerEndpoint;
+        this.maxAttempts = maxAttempts;
+        this.initialRetryDelayMillis = initialRetryDelayMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        client = new ResteasyClientBuilder()
+                .connectionPoolSize(DELIVERY_THREADS)
+                .maxPooledPerRoute(MAX_CONCURRENT_PER_ENDPOINT)
+                .establishConnectionTimeout(CONNECT_TIMEOUT_SECONDS,
+                        TimeUnit.SECONDS)
+                .socketTimeout(SOCKET_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+        sender = (url, data, secret) -> WebHooksPublisher.post(client, url,
+                data, secret);
+        deliveryExecutor = Executors.newFixedThreadPool(DELIVERY_THREADS,
+                new ThreadFactoryBuilder().setNameFormat("webhook-%d")
+                        .setDaemon(true).build());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("webhook-retry-%d")
+                        .setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        retryScheduler.shutdownNow();
+        deliveryExecutor.shutdownNow();
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    /**
+     * Queues an event for delivery. Never blocks: if the endpoint's queue is
+     * full the event is dropped (and counted).
+     */
+    public void dispatch(WebhookEvent event) {
+        Delivery delivery = new Delivery(event.getUrl(),
+                Optional.ofNullable(event.getSecret()), event.getType());
+        EndpointQueue endpoint = endpoints.computeIfAbsent(event.getUrl(),
+                EndpointQueue::new);
+        if (!endpoint.offer(delivery)) {
+            dropped.incrementAndGet();
+            if (dropLogLimiter.tryAcquire()) {
+                log.warn("webhook queue for {} is full; dropping events",
+                        event.getUrl());
+            }
+        }
+    }
+
+    private void deliver(EndpointQueue endpoint, Delivery delivery) {
+        delivery.attempts++;
+        int status;
+        try {
+            status = sender.send(delivery.url, delivery.event.getJSON(),
+                    delivery.secret);
+        } catch (Exception e) {
+            log.debug("webhook post to {} failed", delivery.url, e);
+            retryOrFail(endpoint, delivery, e.toString());
+            return;
+        }
+        if (status < 300) {
+            sent.incrementAndGet();
+        } else if (status == 429 || status >= 500) {
+            retryOrFail(endpoint, delivery, "HTTP " + status);
+        } else {
+            // the endpoint rejected the event; sending it again won't help
+            failed.incrementAndGet();
+            log.warn("webhook post to {} rejected with HTTP {}", delivery.url,
+                    status);
+        }
+    }
+
+    private void retryOrFail(EndpointQueue endpoint, Delivery delivery,
+            String reason) {
+        if (delivery.attempts >= maxAttempts) {
+            failed.incrementAndGet();
+            log.error("giving up on webhook post to {} after {} attempts: {}",
+                    delivery.url, delivery.attempts, reason);
+            return;
+        }
+        long delay = initialRetryDelayMillis << (delivery.attempts - 1);
+        log.info("webhook post to {} failed ({}), retrying in {} ms",
+                delivery.url, reason, delay);
+        retried.incrementAndGet();
+        retryScheduler.schedule(() -> endpoint.retry(delivery), delay,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * If the events can be coalesced, returns the combined event, otherwise
+     * null.
+     */
+    @VisibleForTesting
+    static @Nullable WebhookEventType coalesce(WebhookEventType pending,
+            WebhookEventType next) {
+        if (!(pending instanceof DocumentStatsEvent)
+                || !(next instanceof DocumentStatsEvent)) {
+            return null;
+        }
+        DocumentStatsEvent a = (DocumentStatsEvent) pending;
+        DocumentStatsEvent b = (DocumentStatsEvent) next;
+        if (!Objects.equals(a.getUsername(), b.getUsername())
+                || !Objects.equals(a.getProject(), b.getProject())
+                || !Objects.equals(a.getVersion(), b.getVersion())
+                || !Objects.equals(a.getDocId(), b.getDocId())
+                || !Objects.equals(a.getLocale(), b.getLocale())) {
+            return null;
+        }
+        Map<ContentState, Long> wordDeltas = new EnumMap<>(ContentState.class);
+        a.getWordDeltasByState().forEach(
+                (state, words) -> wordDeltas.merge(state, words, Long::sum));
+        b.getWordDeltasByState().forEach(
+                (state, words) -> wordDeltas.merge(state, words, Long::sum));
+        return new DocumentStatsEvent(a.getUsername(), a.getProject(),
+                a.getVersion(), a.getDocId(), a.getLocale(), wordDeltas);
+    }
+
+    // below are all monitoring stuff
+
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getFieldValuesAsJSON() {
+        return DTOUtil.toJSON(getCounters());
+    }
+
+    @VisibleForTesting
+    Map<String, Long> getCounters() {
+        long pending = endpoints.values().stream()
+                .mapToLong(EndpointQueue::size).sum();
+        return ImmutableMap.<String, Long> builder()
+                .put("queued", queued.get())
+                .put("coalesced", coalesced.get())
+                .put("dropped", dropped.get())
+                .put("retried", retried.get())
+                .put("sent", sent.get())
+                .put("failed", failed.get())
+                .put("pending", pending)
+                .put("endpoints", (long) endpoints.size()).build();
+    }
+
+    /**
+     * Posts webhook data and returns the HTTP status.
+     */
+    @FunctionalInterface
+    interface Sender {
+        int send(String url, String data, Optional<String> secret)
+                throws Exception;
+    }
+
+    private static final class Delivery {
+        private final String url;
+        private final Optional<String> secret;
+        // replaced when another event is coalesced into this one
+        private WebhookEventType event;
+        private int attempts;
+
+        private Delivery(String url, Optional<String> secret,
+                WebhookEventType event) {
+            this.url = url;
+            this.secret = secret;
+            this.event = event;
+        }
+    }
+
+    /**
+     * Pending deliveries for one callback URL.
+     */
+    private final class EndpointQueue {
+        private final String url;
+        // guarded by this
+        private final Deque<Delivery> pending = new ArrayDeque<>();
+        // guarded by this
+        private int inFlight;
+
+        private EndpointQueue(String url) {
+            this.url = url;
+        }
+
+        synchronized boolean offer(Delivery delivery) {
+            for (Delivery waiting : pending) {
+                if (waiting.secret.equals(delivery.secret)) {
+                    WebhookEventType combined =
+                            coalesce(waiting.event, delivery.event);
+                    if (combined != null) {
+                        waiting.event = combined;
+                        coalesced.incrementAndGet();
+                        return true;
+                    }
+                }
+            }
+            if (pending.size() >= queueCapacity) {
+                return false;
+            }
+            pending.addLast(delivery);
+            queued.incrementAndGet();
+            startWorkers();
+            return true;
+        }
+
+        /**
+         * Puts a failed delivery back at the head of the queue. Retries are
+         * not subject to the queue capacity, since they were accepted before.
+         */
+        synchronized void retry(Delivery delivery) {
+            pending.addFirst(delivery);
+            startWorkers();
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+
+        private void startWorkers() {
+            while (inFlight < maxConcurrentPerEndpoint
+                    && inFlight < pending.size()) {
+                inFlight++;
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private synchronized Delivery next() {
+            Delivery delivery = pending.pollFirst();
+            if (delivery == null) {
+                inFlight--;
+            }
+            return delivery;
+        }
+
+        private void drain() {
+            Delivery delivery;
+            while ((delivery = next()) != null) {
+                deliver(this, delivery);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "EndpointQueue(url=" + url + ")";
+        }
+    }
+}
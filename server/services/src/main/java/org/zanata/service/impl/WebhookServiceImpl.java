@@ -5,7 +5,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.enterprise.context.RequestScoped;
@@ -61,6 +60,8 @@ public class WebhookServiceImpl implements Serializable {
     @Inject
     @ServerPath
     private String serverUrl;
+    @Inject
+    private WebhookDispatcher webhookDispatcher;
 
     /**
      * Need @Async annotation for TransactionPhase.AFTER_SUCCESS event
@@ -68,8 +69,7 @@ public class WebhookServiceImpl implements Serializable {
     @Async
     public void onPublishWebhook(@Observes(
             during = TransactionPhase.AFTER_SUCCESS) WebhookEvent event) {
-        WebHooksPublisher.publish(event.getUrl(), event.getType(),
-                Optional.ofNullable(event.getSecret()));
+        webhookDispatcher.dispatch(event);
     }
 
     /**
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.zanata.cache.CacheWrapper;
+import org.zanata.common.ContentState;
+import org.zanata.ui.model.statistic.WordStatistic;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.Lists;
+
+/**
+ * Maintains cached word statistics by applying the deltas carried by
+ * {@link org.zanata.events.DocStatsEvent}, instead of discarding the entry and
+ * re-aggregating all text flow targets from the database on the next read.
+ *
+ * Because cached values are no longer reloaded after each change, any missed
+ * or duplicated event would persist. {@link #reconcile} compares a sample of
+ * cached entries with the database and corrects (and logs) any drift.
+ */
+final class WordStatisticReconciler {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(WordStatisticReconciler.class);
+
+    private WordStatisticReconciler() {
+    }
+
+    /**
+     * Applies per-state word deltas to a cached statistic, if one is cached.
+     * The cached value is replaced atomically by an updated copy, and a value
+     * which is being loaded is not cached, since the database may have been
+     * read before the change.
+     *
+     * @return true if the entry was cached and has been updated
+     */
+    static <K> boolean applyDeltas(CacheWrapper<K, WordStatistic> cache,
+            K key, Map<ContentState, Long> wordDeltasByState) {
+        return cache.update(key, cached -> {
+            WordStatistic stats = copyOf(cached);
+            for (Map.Entry<ContentState, Long> entry : wordDeltasByState
+                    .entrySet()) {
+                stats.increment(entry.getKey(),
+                        Math.toIntExact(entry.getValue()));
+            }
+            return stats;
+        });
+    }
+
+    /**
+     * Reloads up to maxEntries randomly chosen cached statistics from the
+     * database and corrects any that have drifted. An entry which changes
+     * while its database value is being loaded is left for the next run.
+     *
+     * @return number of entries which were corrected
+     */
+    static <K> int reconcile(String cacheName,
+            CacheWrapper<K, WordStatistic> cache,
+            CacheLoader<K, WordStatistic> loader, int maxEntries) {
+        List<K> keys = Lists.newArrayList(cache.keySet());
+        Collections.shuffle(keys);
+        int corrected = 0;
+        for (K key : keys.subList(0, Math.min(maxEntries, keys.size()))) {
+            // cached values are replaced rather than modified, so this is a
+            // snapshot
+            WordStatistic cached = cache.get(key);
+            if (cached == null) {
+                continue;
+            }
+            WordStatistic actual;
+            try {
+                actual = loader.load(key);
+            } catch (Exception e) {
+                log.warn("unable to load statistics for {}", key, e);
+                continue;
+            }
+            if (cached.equals(actual) || !cache.replace(key, cached, actual)) {
+                continue;
+            }
+            log.warn("{}: statistics for {} drifted from database: {}",
+                    cacheName, key, describeDrift(cached, actual));
+            corrected++;
+        }
+        return corrected;
+    }
+
+    private static WordStatistic copyOf(WordStatistic stats) {
+        return new WordStatistic(stats.getApproved(), stats.getNeedReview(),
+                stats.getUntranslated(), stats.getTranslated(),
+                stats.getRejected());
+    }
+
+    private static String describeDrift(WordStatistic cached,
+            WordStatistic actual) {
+        StringBuilder sb = new StringBuilder();
+        for (ContentState state : ContentState.values()) {
+            int diff = cached.get(state) - actual.get(state);
+            if (diff != 0) {
+                sb.append(state).append(diff > 0 ? " +" : " ").append(diff)
+                        .append(' ');
+            }
+        }
+        return sb.toString().trim();
+    }
+}
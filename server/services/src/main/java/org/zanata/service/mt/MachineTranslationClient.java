@@ -0,0 +1,319 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.mt;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zanata.common.LocaleId;
+import org.zanata.config.MTServiceToken;
+import org.zanata.config.MTServiceURL;
+import org.zanata.config.MTServiceUser;
+import org.zanata.config.SystemPropertyConfigStore;
+import org.zanata.exception.ZanataServiceException;
+import org.zanata.metrics.Counter;
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.metrics.Timer;
+import org.zanata.service.mt.dto.MTDocument;
+import org.zanata.service.mt.dto.TypeString;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Talks to the MT service (Magpie) for the whole application.
+ *
+ * All requests share one pooled HTTP client, which limits the number of
+ * concurrent connections to the MT service (see
+ * {@link SystemPropertyConfigStore#KEY_MT_SERVICE_CONNECTIONS}).
+ * Editor suggestions are cached by source text, locales and backend, and
+ * suggestion requests for the same document which arrive together are sent
+ * as one MT request (see {@link SuggestionBatcher}). Requests sent with
+ * {@link #translateAsync} run on a pool with one thread per connection.
+ */
+@ApplicationScoped
+public class MachineTranslationClient {
+    private static final Logger log =
+            LoggerFactory.getLogger(MachineTranslationClient.class);
+
+    static final int DEFAULT_CONNECTIONS = 10;
+    static final int DEFAULT_BATCH_MILLIS = 20;
+    static final int DEFAULT_CACHE_SIZE = 10000;
+    // text flow contents per batched suggestion request
+    static final int MAX_BATCH_SIZE = 100;
+    private static final int CONNECT_TIMEOUT_SECONDS = 10;
+    private static final int CHECKOUT_TIMEOUT_SECONDS = 30;
+
+    @Inject
+    @MTServiceURL
+    private URI mtServiceURL;
+    @Inject
+    @MTServiceUser
+    private String mtUser;
+    @Inject
+    @MTServiceToken
+    private String mtToken;
+    @Inject
+    private SystemPropertyConfigStore configStore;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer requestTime;
+    private ResteasyClient client;
+    private ExecutorService requestExecutor;
+    private Executor executor;
+    private Translator translator;
+    private SuggestionBatcher batcher;
+    private Cache<SuggestionKey, List<String>> suggestionCache;
+
+    public MachineTranslationClient() {
+        MetricRegistry metrics = MetricRegistry.getDefault();
+        String help = "MT suggestion lookups in the suggestion cache";
+        this.cacheHits = metrics.counter("zanata_mt_suggestions_total", help,
+                "result", "hit");
+        this.cacheMisses = metrics.counter("zanata_mt_suggestions_total",
+                help, "result", "miss");
+        this.requestTime = metrics.timer("zanata_mt_request_seconds",
+                "Time taken by requests to the MT service");
+    }
+
+    @VisibleForTesting
+    MachineTranslationClient(Translator translator, long batchMillis,
+            int cacheSize) {
+        this();
+        init(translator, MoreExecutors.directExecutor(), batchMillis,
+                cacheSize);
+    }
+
+    @PostConstruct
+    public void init() {
+        int connections = Math.max(1, configStore.get(
+                SystemPropertyConfigStore.KEY_MT_SERVICE_CONNECTIONS,
+                DEFAULT_CONNECTIONS));
+        client = new ResteasyClientBuilder()
+                .connectionPoolSize(connections)
+                .maxPooledPerRoute(connections)
+                .establishConnectionTimeout(CONNECT_TIMEOUT_SECONDS,
+                        TimeUnit.SECONDS)
+                .connectionCheckoutTimeout(CHECKOUT_TIMEOUT_SECONDS,
+                        TimeUnit.SECONDS)
+                .build();
+        requestExecutor = Executors.newFixedThreadPool(connections,
+                new ThreadFactoryBuilder().setNameFormat("mt-%d")
+                        .setDaemon(true).build());
+        init(this::post, requestExecutor,
+                configStore.get(
+                        SystemPropertyConfigStore.KEY_MT_SUGGESTION_BATCH_MILLIS,
+                        DEFAULT_BATCH_MILLIS),
+                configStore.get(
+                        SystemPropertyConfigStore.KEY_MT_SUGGESTION_CACHE_SIZE,
+                        DEFAULT_CACHE_SIZE));
+    }
+
+    private void init(Translator translator, Executor executor,
+            long batchMillis, int cacheSize) {
+        this.translator = translator;
+        this.executor = executor;
+        this.batcher = batchMillis > 0 ? new SuggestionBatcher(translator,
+                batchMillis, TimeUnit.MILLISECONDS, MAX_BATCH_SIZE) : null;
+        this.suggestionCache = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(0, cacheSize)).build();
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    /**
+     * Sends a document to MT as a single request.
+     *
+     * @return the document with its contents translated to toLocale
+     */
+    public MTDocument translate(MTDocument request, LocaleId toLocale)
+            throws ZanataServiceException {
+        return translator.translate(request, toLocale);
+    }
+
+    /**
+     * Sends a document to MT without waiting for the response. Requests
+     * beyond the connection limit wait in an unbounded queue, so callers
+     * should limit how many they have outstanding.
+     *
+     * @return the document with its contents translated to toLocale, or a
+     *         ZanataServiceException
+     */
+    public CompletableFuture<MTDocument> translateAsync(MTDocument request,
+            LocaleId toLocale) {
+        return CompletableFuture.supplyAsync(
+                () -> translator.translate(request, toLocale), executor);
+    }
+
+    /**
+     * Gets the translation of a single text flow's contents, from the cache
+     * if it has been seen before.
+     *
+     * @param request
+     *            a document containing the contents of one text flow
+     * @return the translated contents
+     */
+    public List<String> getSuggestion(MTDocument request, LocaleId toLocale)
+            throws ZanataServiceException {
+        SuggestionKey key = new SuggestionKey(request, toLocale);
+        List<String> cached = suggestionCache.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.inc();
+            return cached;
+        }
+        cacheMisses.inc();
+        List<TypeString> translated = batcher != null
+                ? batcher.translate(request, toLocale)
+                : translator.translate(request, toLocale).getContents();
+        List<String> suggestion = ImmutableList.copyOf(translated.stream()
+                .map(TypeString::getValue).collect(toList()));
+        if (!suggestion.isEmpty()) {
+            suggestionCache.put(key, suggestion);
+        }
+        return suggestion;
+    }
+
+    @VisibleForTesting
+    long getCachedSuggestionCount() {
+        return suggestionCache.size();
+    }
+
+    private MTDocument post(MTDocument request, LocaleId toLocale) {
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = client.target(mtServiceURL).path("api")
+                    .path("document").path("translate")
+                    .queryParam("toLocaleCode", toLocale.getId())
+                    .request(MediaType.APPLICATION_JSON_TYPE)
+                    .header("X-Auth-User", mtUser)
+                    .header("X-Auth-Token", mtToken)
+                    .header("Content-Type", MediaType.APPLICATION_JSON)
+                    .header("Accept", MediaType.APPLICATION_JSON)
+                    .post(Entity.json(request));
+
+            int status = response.getStatus();
+            if (status == 200) {
+                MTDocument result = response.readEntity(MTDocument.class);
+                if (!result.getWarnings().isEmpty()) {
+                    log.warn("MT returned warnings: {}", result.getWarnings());
+                }
+                return result;
+            } else {
+                String entity = response.readEntity(String.class);
+                log.error("MT returned status: {}, header: {}, body: {}",
+                        status, response.getHeaders(), entity);
+                throw new ZanataServiceException("Error code " + status +
+                        " returned from MT: " + entity);
+            }
+        } catch (ProcessingException e) {
+            throw new ZanataServiceException("Exception while talking to MT",
+                    502, e);
+        } finally {
+            if (response != null) {
+                // returns the connection to the pool
+                response.close();
+            }
+            requestTime.recordSince(start);
+        }
+    }
+
+    @FunctionalInterface
+    interface Translator {
+        MTDocument translate(MTDocument request, LocaleId toLocale)
+                throws ZanataServiceException;
+    }
+
+    private static final class SuggestionKey {
+        private final String sourceHash;
+        private final String fromLocale;
+        private final LocaleId toLocale;
+        private final String backendId;
+
+        private SuggestionKey(MTDocument request, LocaleId toLocale) {
+            List<String> source = request.getContents().stream()
+                    .map(TypeString::getValue).collect(toList());
+            // NUL doesn't occur in text flow contents, so they can't run together
+            this.sourceHash = Hashing.sha256()
+                    .hashString(Joiner.on('\0').useForNull("").join(source),
+                            UTF_8)
+                    .toString();
+            this.fromLocale = request.getLocaleCode();
+            this.toLocale = toLocale;
+            this.backendId = request.getBackendId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SuggestionKey)) {
+                return false;
+            }
+            SuggestionKey other = (SuggestionKey) o;
+            return sourceHash.equals(other.sourceHash) &&
+                    Objects.equals(fromLocale, other.fromLocale) &&
+                    Objects.equals(toLocale, other.toLocale) &&
+                    Objects.equals(backendId, other.backendId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceHash, fromLocale, toLocale, backendId);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.mt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.zanata.common.LocaleId;
+import org.zanata.exception.ZanataServiceException;
+import org.zanata.service.mt.dto.MTDocument;
+import org.zanata.service.mt.dto.TypeString;
+
+/**
+ * Coalesces MT requests which arrive at about the same time for the same
+ * document, backend and locale pair into a single request.
+ *
+ * The first caller to open a batch waits for up to the linger time (or until
+ * the batch is full), then sends the whole batch from its own thread. Later
+ * callers add their contents to the open batch and wait for their slice of
+ * the result, so no extra threads are needed.
+ */
+class SuggestionBatcher {
+    private final MachineTranslationClient.Translator translator;
+    private final long lingerNanos;
+    private final int maxBatchSize;
+    // guarded by itself
+    private final Map<BatchKey, Batch> openBatches = new HashMap<>();
+
+    SuggestionBatcher(MachineTranslationClient.Translator translator,
+            long linger, TimeUnit unit, int maxBatchSize) {
+        this.translator = translator;
+        this.lingerNanos = unit.toNanos(linger);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Translates the contents of request, possibly together with other
+     * requests for the same document.
+     *
+     * @return the translated contents, in the same order as the request's
+     */
+    List<TypeString> translate(MTDocument request, LocaleId toLocale)
+            throws ZanataServiceException {
+        BatchKey key = new BatchKey(request, toLocale);
+        Batch batch;
+        boolean leader = false;
+        Part part;
+        synchronized (openBatches) {
+            batch = openBatches.get(key);
+            if (batch == null) {
+                batch = new Batch(request, toLocale);
+                openBatches.put(key, batch);
+                leader = true;
+            }
+            part = batch.add(request.getContents());
+            if (batch.contents.size() >= maxBatchSize) {
+                openBatches.remove(key);
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            try {
+                batch.full.await(lingerNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // send anyway: the other callers are waiting for this batch
+                Thread.currentThread().interrupt();
+            }
+            synchronized (openBatches) {
+                openBatches.remove(key, batch);
+            }
+            batch.send();
+        }
+        return part.await();
+    }
+
+    /**
+     * @return number of batches which are still accepting contents
+     */
+    int getOpenBatchCount() {
+        synchronized (openBatches) {
+            return openBatches.size();
+        }
+    }
+
+    private class Batch {
+        private final String url;
+        private final String fromLocale;
+        private final String backendId;
+        private final LocaleId toLocale;
+        private final List<TypeString> contents = new ArrayList<>();
+        private final List<Part> parts = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private Batch(MTDocument first, LocaleId toLocale) {
+            this.url = first.getUrl();
+            this.fromLocale = first.getLocaleCode();
+            this.backendId = first.getBackendId();
+            this.toLocale = toLocale;
+        }
+
+        private Part add(List<TypeString> newContents) {
+            Part part = new Part(contents.size(), newContents.size());
+            contents.addAll(newContents);
+            parts.add(part);
+            return part;
+        }
+
+        // only called by the leader, after the batch has been closed
+        private void send() {
+            try {
+                MTDocument result = translator.translate(
+                        new MTDocument(url, contents, fromLocale, backendId),
+                        toLocale);
+                List<TypeString> translated = result.getContents();
+                if (translated.size() != contents.size()) {
+                    throw new ZanataServiceException("MT returned " +
+                            translated.size() + " contents for a batch of " +
+                            contents.size());
+                }
+                for (Part part : parts) {
+                    part.result.complete(translated.subList(part.offset,
+                            part.offset + part.count));
+                }
+            } catch (RuntimeException e) {
+                parts.forEach(part -> part.result.completeExceptionally(e));
+            }
+        }
+    }
+
+    private static class Part {
+        private final int offset;
+        private final int count;
+        private final CompletableFuture<List<TypeString>> result =
+                new CompletableFuture<>();
+
+        private Part(int offset, int count) {
+            this.offset = offset;
+            this.count = count;
+        }
+
+        private List<TypeString> await() throws ZanataServiceException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ZanataServiceException(
+                        "Interrupted while waiting for MT");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ZanataServiceException) {
+                    throw (ZanataServiceException) e.getCause();
+                }
+                throw new ZanataServiceException(
+                        "Exception while talking to MT", 502, e.getCause());
+            }
+        }
+    }
+
+    private static final class BatchKey {
+        private final String url;
+        private final String fromLocale;
+        private final String backendId;
+        private final LocaleId toLocale;
+
+        private BatchKey(MTDocument request, LocaleId toLocale) {
+            this.url = request.getUrl();
+            this.fromLocale = request.getLocaleCode();
+            this.backendId = request.getBackendId();
+            this.toLocale = toLocale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return Objects.equals(url, other.url) &&
+                    Objects.equals(fromLocale, other.fromLocale) &&
+                    Objects.equals(backendId, other.backendId) &&
+                    Objects.equals(toLocale, other.toLocale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, fromLocale, backendId, toLocale);
+        }
+    }
+}
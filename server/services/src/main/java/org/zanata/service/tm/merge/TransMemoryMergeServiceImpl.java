@@ -25,9 +25,9 @@ import static org.zanata.webtrans.shared.rest.dto.InternalTMSource.InternalTMCho
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -49,6 +49,7 @@ import org.zanata.async.handle.MergeTranslationsTaskHandle;
 import org.zanata.async.handle.TransMemoryMergeTaskHandle;
 import org.zanata.common.ContentState;
 import org.zanata.common.HasContents;
+import org.zanata.common.LocaleId;
 import org.zanata.dao.ProjectIterationDAO;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TransMemoryUnitDAO;
@@ -96,6 +97,7 @@ import org.zanata.webtrans.shared.search.FilterConstraints;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import kotlin.Pair;
@@ -497,21 +499,31 @@ public class TransMemoryMergeServiceImpl implements TransMemoryMergeService {
                 boolean checkProject =
                         request.getDifferentProjectRule() == MergeRule.REJECT;
 
+                // one combined TM search per source locale in the batch
+                Map<LocaleId, List<HTextFlow>> textFlowsBySourceLocale =
+                        textFlows.stream().collect(Collectors.groupingBy(
+                                tf -> tf.getDocument().getLocale().getLocaleId(),
+                                LinkedHashMap::new, Collectors.toList()));
+                Map<Long, TransMemoryResultItem> tmResults = Maps.newHashMap();
+                textFlowsBySourceLocale.forEach((sourceLocaleId, group) ->
+                        tmResults.putAll(translationMemoryServiceImpl
+                                .searchBestMatchTransMemory(group,
+                                        targetLocale.getLocaleId(),
+                                        sourceLocaleId, checkContext,
+                                        checkDocument, checkProject,
+                                        request.getThresholdPercent(),
+                                        internalTMSource)));
+
                 List<TransUnitUpdateRequest> updateRequests = Lists.newLinkedList();
                 for (HTextFlow hTextFlow : textFlows) {
                     @Nullable HTextFlowTarget hTextFlowTarget =
                             hTextFlow.getTargets().get(targetLocale.getId());
-                    Optional<TransMemoryResultItem> tmResult =
-                            translationMemoryServiceImpl.searchBestMatchTransMemory(
-                                    hTextFlow, targetLocale.getLocaleId(),
-                                    hTextFlow.getDocument().getLocale().getLocaleId(),
-                                    checkContext, checkDocument, checkProject,
-                                    request.getThresholdPercent(),
-                                    internalTMSource);
-                    if (tmResult.isPresent()) {
+                    @Nullable TransMemoryResultItem tmResult =
+                            tmResults.get(hTextFlow.getId());
+                    if (tmResult != null) {
                         TransUnitUpdateRequest updateRequest =
                                 createRequest(request, targetLocale,
-                                        hTextFlow, tmResult.get(), hTextFlowTarget);
+                                        hTextFlow, tmResult, hTextFlowTarget);
 
                         if (updateRequest != null) {
                             updateRequests.add(updateRequest);
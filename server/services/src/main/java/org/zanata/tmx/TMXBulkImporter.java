@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.tmx;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.xml.stream.XMLStreamException;
+
+import nu.xom.Element;
+import org.hibernate.CacheMode;
+import org.hibernate.search.FullTextSession;
+import org.zanata.config.AsyncConfig;
+import org.zanata.jpa.FullText;
+import org.zanata.model.tm.TMXMetadataHelper;
+import org.zanata.model.tm.TransMemory;
+import org.zanata.model.tm.TransMemoryUnit;
+import org.zanata.model.tm.TransMemoryUnitVariant;
+import org.zanata.tmx.TMXRecordReader.TransUnitRecord;
+import org.zanata.tmx.TMXRecordReader.VariantRecord;
+import org.zanata.transaction.TransactionUtilImpl;
+import org.zanata.util.TMXParseException;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Imports large TMX files. Unlike {@link TMXParser}, translation units are
+ * read as lightweight records, converted to entities by a pool of threads
+ * and written with JDBC batch statements, one transaction per batch. Since
+ * this bypasses Hibernate Search, the translation memory is reindexed in a
+ * single pass once all the units have been written. If the import fails part
+ * way through, the batches already written stay in the translation memory,
+ * and are reindexed before the failure is reported.
+ *
+ * @see AsyncConfig#TMX_IMPORT_THREAD_POOL_SIZE
+ */
+@Named("tmxBulkImporter")
+@Dependent
+public class TMXBulkImporter implements Serializable {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(TMXBulkImporter.class);
+    private static final long serialVersionUID = 1L;
+    // Units per JDBC batch (and per transaction)
+    private static final int BATCH_SIZE = 500;
+    // Units loaded per transaction when reindexing
+    private static final int INDEX_BATCH_SIZE = 1000;
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    @Inject
+    @FullText
+    private FullTextSession session;
+    @Inject
+    private TransMemoryAdapter transMemoryAdapter;
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    @Inject
+    private AsyncConfig asyncConfig;
+
+    public void importTMX(InputStream input, TransMemory transMemory)
+            throws TMXParseException {
+        int handledTUs = 0;
+        int poolSize = asyncConfig
+                .getWorkerPoolSize(AsyncConfig.TMX_IMPORT_THREAD_POOL_SIZE);
+        ExecutorService converters = poolSize > 1
+                ? Executors.newFixedThreadPool(poolSize,
+                        new ThreadFactoryBuilder().setDaemon(true)
+                                .setNameFormat("tmx-import-%d").build())
+                : MoreExecutors.newDirectExecutorService();
+        // converted batches, in file order, waiting to be written
+        Deque<Future<List<TransMemoryUnit>>> pending = new ArrayDeque<>();
+        boolean reindexed = false;
+        try {
+            log.info("bulk import started for: {}", transMemory.getSlug());
+            session.setCacheMode(CacheMode.IGNORE);
+            TransMemoryBatchWriter writer =
+                    new TransMemoryBatchWriter(transMemory.getId());
+            try (TMXRecordReader reader = new TMXRecordReader(input)) {
+                Element header = reader.readHeader();
+                if (header != null) {
+                    TransactionUtilImpl.get().runEx(() -> transMemoryAdapter
+                            .processHeader(transMemory, header));
+                }
+                String tmSrcLang = transMemory.getSourceLanguage();
+                List<TransUnitRecord> batch = new ArrayList<>(BATCH_SIZE);
+                TransUnitRecord record;
+                while ((record = reader.nextTransUnit()) != null) {
+                    batch.add(record);
+                    if (batch.size() == BATCH_SIZE) {
+                        pending.add(convert(converters, batch, tmSrcLang));
+                        batch = new ArrayList<>(BATCH_SIZE);
+                        if (pending.size() > poolSize) {
+                            handledTUs += write(writer, pending.remove());
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    pending.add(convert(converters, batch, tmSrcLang));
+                }
+                while (!pending.isEmpty()) {
+                    handledTUs += write(writer, pending.remove());
+                }
+            }
+            reindexed = true;
+            reindex(transMemory.getId());
+        } catch (Exception e) {
+            if (!reindexed && handledTUs > 0) {
+                // the batches written before the failure stay committed, so
+                // they must be searchable too
+                try {
+                    reindex(transMemory.getId());
+                } catch (Exception reindexFailure) {
+                    e.addSuppressed(reindexFailure);
+                }
+            }
+            Throwable rootCause = Throwables.getRootCause(e);
+            if (rootCause instanceof TMXParseException) {
+                throw (TMXParseException) rootCause;
+            } else if (rootCause instanceof XMLStreamException) {
+                throw new TMXParseException(rootCause);
+            } else {
+                throw new RuntimeException(e);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            converters.shutdownNow();
+            log.info("bulk import stopped for: {}, TU count={}",
+                    transMemory.getSlug(), handledTUs);
+        }
+    }
+
+    private static Future<List<TransMemoryUnit>> convert(
+            ExecutorService converters, List<TransUnitRecord> records,
+            String tmSrcLang) {
+        return converters.submit(() -> {
+            List<TransMemoryUnit> units = new ArrayList<>(records.size());
+            for (TransUnitRecord record : records) {
+                units.add(toTransUnit(record, tmSrcLang));
+            }
+            return units;
+        });
+    }
+
+    private int write(TransMemoryBatchWriter writer,
+            Future<List<TransMemoryUnit>> batch) throws Exception {
+        List<TransMemoryUnit> units;
+        try {
+            units = batch.get();
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+            throw e;
+        }
+        return TransactionUtilImpl.get().call(() -> session
+                .doReturningWork(connection -> writer.write(connection,
+                        units)));
+    }
+
+    /**
+     * Builds a detached translation unit the same way
+     * {@link TransMemoryAdapter#processTransUnit} does, without merging it
+     * with an existing unit.
+     */
+    static TransMemoryUnit toTransUnit(TransUnitRecord record,
+            String tmSrcLang) throws TMXParseException {
+        TransMemoryUnit tu = new TransMemoryUnit();
+        TMXMetadataHelper.setMetadata(tu, record.getAttributes(),
+                record.getChildrenXml(), tmSrcLang);
+        tu.setVersionNum(0);
+        for (VariantRecord tuvRecord : record.getVariants()) {
+            String taggedSegment = tuvRecord.getTaggedSegment();
+            if (taggedSegment == null) {
+                throw new TMXParseException("missing seg in tuv");
+            }
+            TransMemoryUnitVariant tuv = new TransMemoryUnitVariant();
+            tuv.setTaggedSegment(taggedSegment);
+            TMXMetadataHelper.setMetadata(tuv, tuvRecord.getAttributes(),
+                    tuvRecord.getChildrenXml());
+            tu.getTransUnitVariants().put(tuv.getLanguage(), tuv);
+        }
+        tu.setUniqueId(TransMemoryAdapter.determineUniqueId(tu));
+        return tu;
+    }
+
+    /**
+     * Rebuilds the index documents of all the units in the translation
+     * memory, since the JDBC writes were not seen by Hibernate Search.
+     */
+    private void reindex(long tmId) throws Exception {
+        long lastId = 0;
+        int indexed = 0;
+        List<Long> ids;
+        do {
+            long fromId = lastId;
+            ids = TransactionUtilImpl.get()
+                    .call(() -> indexUnitsAfter(tmId, fromId));
+            if (!ids.isEmpty()) {
+                lastId = ids.get(ids.size() - 1);
+                indexed += ids.size();
+            }
+        } while (ids.size() == INDEX_BATCH_SIZE);
+        log.info("reindexed {} units of translation memory {}", indexed,
+                tmId);
+    }
+
+    /**
+     * Indexes the next batch of units with ids greater than fromId.
+     *
+     * @return the ids of the indexed units, in ascending order
+     */
+    private List<Long> indexUnitsAfter(long tmId, long fromId) {
+        @SuppressWarnings("unchecked")
+        List<Long> ids = session
+                .createQuery("select tu.id from TransMemoryUnit tu "
+                        + "where tu.translationMemory.id = :tmId "
+                        + "and tu.id > :fromId order by tu.id")
+                .setParameter("tmId", tmId).setParameter("fromId", fromId)
+                .setMaxResults(INDEX_BATCH_SIZE).list();
+        if (!ids.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            List<TransMemoryUnit> units = session
+                    .createQuery("select distinct tu from TransMemoryUnit tu "
+                            + "left join fetch tu.transUnitVariants "
+                            + "where tu.id in (:ids)")
+                    .setParameterList("ids", ids).list();
+            for (TransMemoryUnit unit : units) {
+                session.index(unit);
+            }
+            session.flushToIndexes();
+            session.clear();
+        }
+        return ids;
+    }
+}
@@ -77,21 +77,8 @@ public class TMXParser implements Serializable {
             log.info("parsing started for: {}", transMemory.getSlug());
             session.setFlushMode(FlushMode.MANUAL);
             session.setCacheMode(CacheMode.IGNORE);
-            XMLInputFactory factory = XMLInputFactory.newInstance();
-            factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
-            factory.setProperty(XMLInputFactory.IS_VALIDATING, true);
-            factory.setXMLResolver(new TmxDtdResolver());
-            XMLStreamReader reader = factory.createXMLStreamReader(input);
+            XMLStreamReader reader = openTmx(input);
             try {
-                QName tmx = new QName("tmx");
-                while (reader.hasNext()
-                        && reader.next() != XMLStreamConstants.START_ELEMENT) {
-                }
-                if (!reader.hasNext())
-                    throw new TMXParseException("No root element");
-                if (!reader.getName().equals(tmx))
-                    throw new TMXParseException(
-                            "Wrong root element: expected tmx");
                 // At this point, event = START_ELEMENT and name = tmx
                 while (reader.hasNext()) {
                     CommitBatch commitBatch =
@@ -123,6 +110,33 @@ public class TMXParser implements Serializable {
         }
     }
 
+    /**
+     * Creates a reader for TMX input, positioned at the root tmx element.
+     */
+    static XMLStreamReader openTmx(InputStream input)
+            throws XMLStreamException, TMXParseException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, true);
+        factory.setXMLResolver(new TmxDtdResolver());
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+        try {
+            QName tmx = new QName("tmx");
+            while (reader.hasNext()
+                    && reader.next() != XMLStreamConstants.START_ELEMENT) {
+            }
+            if (!reader.hasNext())
+                throw new TMXParseException("No root element");
+            if (!reader.getName().equals(tmx))
+                throw new TMXParseException(
+                        "Wrong root element: expected tmx");
+            return reader;
+        } catch (TMXParseException | XMLStreamException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
     private class CommitBatch implements RunnableEx {
         private XMLStreamReader reader;
         private int handledTUs;
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.tmx;
+
+import static com.google.common.base.Strings.nullToEmpty;
+import static javax.xml.XMLConstants.XML_NS_PREFIX;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import nu.xom.Element;
+import org.zanata.common.util.ElementBuilder;
+import org.zanata.model.tm.TMXMetadataHelper;
+import org.zanata.util.TMXParseException;
+
+/**
+ * Reads the translation units of TMX input as lightweight records, without
+ * building a XOM tree for each one. The XML kept for segments and metadata
+ * children is written the same way as {@link ElementBuilder} followed by
+ * {@link Element#toXML()}, so both import paths store the same content.
+ */
+class TMXRecordReader implements AutoCloseable {
+    private static final QName HEADER = new QName("header");
+    private static final QName BODY = new QName("body");
+    private static final QName TU = new QName("tu");
+    private static final QName TUV = new QName("tuv");
+    private static final QName SEG = new QName("seg");
+    private final XMLStreamReader reader;
+    // true if the reader has stopped at the start of a tu element
+    private boolean atTransUnit;
+
+    TMXRecordReader(InputStream input)
+            throws XMLStreamException, TMXParseException {
+        this.reader = TMXParser.openTmx(input);
+    }
+
+    /**
+     * Reads the header element, which must come before the body.
+     *
+     * @return the header, or null if there is none
+     */
+    @Nullable
+    Element readHeader() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == START_ELEMENT) {
+                QName name = reader.getName();
+                if (name.equals(HEADER)) {
+                    return ElementBuilder.buildElement(reader);
+                } else if (name.equals(TU)) {
+                    atTransUnit = true;
+                    return null;
+                } else if (name.equals(BODY)) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the next translation unit, or null at the end of the input
+     */
+    @Nullable
+    TransUnitRecord nextTransUnit() throws XMLStreamException {
+        if (!atTransUnit && !advanceToTransUnit()) {
+            return null;
+        }
+        atTransUnit = false;
+        Map<String, String> namespaces = getNamespaces();
+        TransUnitRecord tu = new TransUnitRecord(readAttributes());
+        while (nextChildElement()) {
+            if (reader.getName().equals(TUV)) {
+                tu.variants.add(readVariant(namespaces));
+            } else {
+                readChild(tu.getChildrenXml());
+            }
+        }
+        return tu;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    private boolean advanceToTransUnit() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == START_ELEMENT
+                    && reader.getName().equals(TU)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private VariantRecord readVariant(Map<String, String> tuNamespaces)
+            throws XMLStreamException {
+        // like a XOM element, the seg only declares namespaces which are
+        // not already in scope on its tu and tuv
+        Map<String, String> namespaces = new HashMap<>(tuNamespaces);
+        namespaces.putAll(getNamespaces());
+        VariantRecord tuv = new VariantRecord(readAttributes());
+        while (nextChildElement()) {
+            if (reader.getName().equals(SEG) && tuv.taggedSegment == null) {
+                StringBuilder xml = new StringBuilder();
+                writeElement(xml, namespaces, false);
+                tuv.taggedSegment = xml.toString();
+            } else {
+                readChild(tuv.getChildrenXml());
+            }
+        }
+        return tuv;
+    }
+
+    /**
+     * Keeps the XML of a supported child (with its namespace removed, as
+     * TMXMetadataHelper does) and skips any other element.
+     */
+    private void readChild(List<String> childrenXml)
+            throws XMLStreamException {
+        if (TMXMetadataHelper.isSupportedChild(
+                nullToEmpty(reader.getNamespaceURI()), reader.getLocalName())) {
+            StringBuilder xml = new StringBuilder();
+            writeElement(xml, Collections.emptyMap(), true);
+            childrenXml.add(xml.toString());
+        } else {
+            skipElement();
+        }
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Moves to the start of the next child element.
+     *
+     * @return false if the end of the current element was reached instead
+     */
+    private boolean nextChildElement() throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                return true;
+            } else if (event == END_ELEMENT) {
+                return false;
+            }
+        }
+    }
+
+    private Map<String, String> readAttributes() {
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = nullToEmpty(reader.getAttributePrefix(i));
+            String localName = reader.getAttributeLocalName(i);
+            String name = TMXMetadataHelper.getMetadataAttributeName(
+                    nullToEmpty(reader.getAttributeNamespace(i)), localName,
+                    qualify(prefix, localName));
+            if (name != null) {
+                attributes.put(name, reader.getAttributeValue(i));
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Returns the namespaces used by the name and attributes of the current
+     * element, which XOM treats as being in scope for its children.
+     */
+    private Map<String, String> getNamespaces() {
+        Map<String, String> namespaces = new HashMap<>();
+        namespaces.put(nullToEmpty(reader.getPrefix()),
+                nullToEmpty(reader.getNamespaceURI()));
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = nullToEmpty(reader.getAttributePrefix(i));
+            if (!prefix.isEmpty() && !prefix.equals(XML_NS_PREFIX)) {
+                namespaces.put(prefix,
+                        nullToEmpty(reader.getAttributeNamespace(i)));
+            }
+        }
+        return namespaces;
+    }
+
+    /**
+     * Writes the current element and its content, leaving the reader at its
+     * end tag.
+     *
+     * @param inScope
+     *            namespaces declared by the enclosing elements
+     * @param stripNamespace
+     *            whether to write the element itself without a namespace
+     */
+    private void writeElement(StringBuilder out, Map<String, String> inScope,
+            boolean stripNamespace) throws XMLStreamException {
+        String prefix = stripNamespace ? "" : nullToEmpty(reader.getPrefix());
+        String uri =
+                stripNamespace ? "" : nullToEmpty(reader.getNamespaceURI());
+        String name = qualify(prefix, reader.getLocalName());
+        Map<String, String> declared = new LinkedHashMap<>();
+        if (!uri.equals(lookup(inScope, prefix))) {
+            declared.put(prefix, uri);
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attrPrefix = nullToEmpty(reader.getAttributePrefix(i));
+            String attrUri = nullToEmpty(reader.getAttributeNamespace(i));
+            if (!attrPrefix.isEmpty() && !attrPrefix.equals(XML_NS_PREFIX)
+                    && !declared.containsKey(attrPrefix)
+                    && !attrUri.equals(lookup(inScope, attrPrefix))) {
+                declared.put(attrPrefix, attrUri);
+            }
+        }
+        out.append('<').append(name);
+        for (Map.Entry<String, String> ns : declared.entrySet()) {
+            out.append(' ').append(qualify("xmlns", ns.getKey()));
+            appendAttributeValue(out, ns.getValue());
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            out.append(' ').append(qualify(
+                    nullToEmpty(reader.getAttributePrefix(i)),
+                    reader.getAttributeLocalName(i)));
+            appendAttributeValue(out, reader.getAttributeValue(i));
+        }
+        Map<String, String> childScope = inScope;
+        if (!declared.isEmpty()) {
+            childScope = new HashMap<>(inScope);
+            childScope.putAll(declared);
+        }
+        boolean empty = true;
+        int event;
+        while ((event = reader.next()) != END_ELEMENT) {
+            if (event == START_ELEMENT || event == CHARACTERS
+                    || event == CDATA) {
+                if (empty) {
+                    out.append('>');
+                    empty = false;
+                }
+                if (event == START_ELEMENT) {
+                    writeElement(out, childScope, false);
+                } else {
+                    appendText(out, reader.getText());
+                }
+            }
+            // ignorable whitespace, comments and processing instructions
+            // are not kept
+        }
+        if (empty) {
+            out.append(" />");
+        } else {
+            out.append("</").append(name).append('>');
+        }
+    }
+
+    @Nullable
+    private static String lookup(Map<String, String> inScope, String prefix) {
+        String uri = inScope.get(prefix);
+        if (uri == null && prefix.isEmpty()) {
+            return "";
+        }
+        return uri;
+    }
+
+    private static String qualify(String prefix, String localName) {
+        if (prefix.isEmpty()) {
+            return localName;
+        } else if (localName.isEmpty()) {
+            return prefix;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private static void appendText(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '&':
+                out.append("&amp;");
+                break;
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '\r':
+                out.append("&#x0D;");
+                break;
+            default:
+                out.append(c);
+            }
+        }
+    }
+
+    private static void appendAttributeValue(StringBuilder out,
+            String value) {
+        out.append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '&':
+                out.append("&amp;");
+                break;
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '"':
+                out.append("&quot;");
+                break;
+            case '\t':
+                out.append("&#x09;");
+                break;
+            case '\n':
+                out.append("&#x0A;");
+                break;
+            case '\r':
+                out.append("&#x0D;");
+                break;
+            default:
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Attributes and supported children of a TMX element.
+     */
+    static class ElementRecord {
+        private final Map<String, String> attributes;
+        private final List<String> childrenXml = new ArrayList<>();
+
+        ElementRecord(Map<String, String> attributes) {
+            this.attributes = attributes;
+        }
+
+        /**
+         * @return TMX attributes, keyed as in TMXMetadataHelper
+         */
+        Map<String, String> getAttributes() {
+            return attributes;
+        }
+
+        /**
+         * @return XML of the supported children, without namespace
+         */
+        List<String> getChildrenXml() {
+            return childrenXml;
+        }
+    }
+
+    static final class TransUnitRecord extends ElementRecord {
+        private final List<VariantRecord> variants = new ArrayList<>();
+
+        TransUnitRecord(Map<String, String> attributes) {
+            super(attributes);
+        }
+
+        List<VariantRecord> getVariants() {
+            return variants;
+        }
+    }
+
+    static final class VariantRecord extends ElementRecord {
+        private String taggedSegment;
+
+        VariantRecord(Map<String, String> attributes) {
+            super(attributes);
+        }
+
+        /**
+         * @return XML of the first seg element, or null if there is none
+         */
+        @Nullable
+        String getTaggedSegment() {
+            return taggedSegment;
+        }
+    }
+}
@@ -84,7 +84,7 @@ public class TransMemoryAdapter implements Serializable {
         entityManager.merge(tu);
     }
 
-    private String determineUniqueId(TransMemoryUnit tu)
+    static String determineUniqueId(TransMemoryUnit tu)
             throws TMXParseException {
         if (tu.getTransUnitId() != null) {
             // tuid is the natural id by default
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.tmx;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+import org.zanata.model.tm.TMMetadataType;
+import org.zanata.model.tm.TransMemoryUnit;
+import org.zanata.model.tm.TransMemoryUnitVariant;
+import com.google.common.base.Joiner;
+
+/**
+ * Writes translation units to the database with JDBC batch statements,
+ * bypassing Hibernate (and Hibernate Search). Units which already exist in
+ * the translation memory are updated and get their variants replaced, the
+ * same way TransMemoryAdapter merges them.
+ */
+class TransMemoryBatchWriter {
+    private static final String INSERT_UNIT = "insert into TransMemoryUnit "
+            + "(trans_unit_id, source_language, position, metadata_type, "
+            + "metadata, tm_id, unique_id, creationDate, lastChanged, "
+            + "versionNum) values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_UNIT = "update TransMemoryUnit set "
+            + "trans_unit_id = ?, source_language = ?, position = ?, "
+            + "metadata_type = ?, metadata = ?, lastChanged = ?, "
+            + "versionNum = versionNum + 1 where id = ?";
+    private static final String DELETE_VARIANTS =
+            "delete from TransMemoryUnitVariant where trans_unit_id = ?";
+    private static final String INSERT_VARIANT =
+            "insert into TransMemoryUnitVariant (language, trans_unit_id, "
+                    + "tagged_segment, plain_text_segment, "
+                    + "plain_text_segment_hash, metadata_type, metadata, "
+                    + "creationDate, lastChanged, versionNum) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private final long tmId;
+
+    TransMemoryBatchWriter(long tmId) {
+        this.tmId = tmId;
+    }
+
+    /**
+     * Writes one batch of units. If several units share a unique id, the
+     * last one wins.
+     *
+     * @return the number of distinct units written
+     */
+    int write(Connection connection, Collection<TransMemoryUnit> units)
+            throws SQLException {
+        Map<String, TransMemoryUnit> byUniqueId = new LinkedHashMap<>();
+        for (TransMemoryUnit unit : units) {
+            byUniqueId.put(unit.getUniqueId(), unit);
+        }
+        if (byUniqueId.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Map<String, Long> existingIds =
+                findIds(connection, byUniqueId.keySet());
+        try (PreparedStatement insert =
+                connection.prepareStatement(INSERT_UNIT);
+                PreparedStatement update =
+                        connection.prepareStatement(UPDATE_UNIT);
+                PreparedStatement deleteVariants =
+                        connection.prepareStatement(DELETE_VARIANTS)) {
+            for (TransMemoryUnit unit : byUniqueId.values()) {
+                Long id = existingIds.get(unit.getUniqueId());
+                if (id == null) {
+                    setUnitColumns(insert, unit);
+                    insert.setLong(6, tmId);
+                    insert.setString(7, unit.getUniqueId());
+                    insert.setTimestamp(8,
+                            timestamp(unit.getCreationDate(), now));
+                    insert.setTimestamp(9,
+                            timestamp(unit.getLastChanged(), now));
+                    insert.addBatch();
+                } else {
+                    setUnitColumns(update, unit);
+                    update.setTimestamp(6, now);
+                    update.setLong(7, id);
+                    update.addBatch();
+                    deleteVariants.setLong(1, id);
+                    deleteVariants.addBatch();
+                }
+            }
+            insert.executeBatch();
+            update.executeBatch();
+            deleteVariants.executeBatch();
+        }
+        Map<String, Long> ids = existingIds.size() == byUniqueId.size()
+                ? existingIds : findIds(connection, byUniqueId.keySet());
+        try (PreparedStatement insertVariant =
+                connection.prepareStatement(INSERT_VARIANT)) {
+            for (TransMemoryUnit unit : byUniqueId.values()) {
+                long unitId = ids.get(unit.getUniqueId());
+                for (TransMemoryUnitVariant tuv : unit.getTransUnitVariants()
+                        .values()) {
+                    insertVariant.setString(1, tuv.getLanguage());
+                    insertVariant.setLong(2, unitId);
+                    insertVariant.setString(3, tuv.getTaggedSegment());
+                    insertVariant.setString(4, tuv.getPlainTextSegment());
+                    insertVariant.setString(5, tuv.getPlainTextSegmentHash());
+                    insertVariant.setString(6, name(tuv.getMetadataType()));
+                    insertVariant.setString(7, tuv.getMetadata());
+                    insertVariant.setTimestamp(8,
+                            timestamp(tuv.getCreationDate(), now));
+                    insertVariant.setTimestamp(9,
+                            timestamp(tuv.getLastChanged(), now));
+                    insertVariant.addBatch();
+                }
+            }
+            insertVariant.executeBatch();
+        }
+        return byUniqueId.size();
+    }
+
+    private Map<String, Long> findIds(Connection connection,
+            Collection<String> uniqueIds) throws SQLException {
+        String placeholders = Joiner.on(", ")
+                .join(Collections.nCopies(uniqueIds.size(), "?"));
+        String sql = "select id, unique_id from TransMemoryUnit "
+                + "where tm_id = ? and unique_id in (" + placeholders + ")";
+        Map<String, Long> ids = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            select.setLong(1, tmId);
+            int param = 2;
+            for (String uniqueId : uniqueIds) {
+                select.setString(param++, uniqueId);
+            }
+            try (ResultSet results = select.executeQuery()) {
+                while (results.next()) {
+                    ids.put(results.getString(2), results.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void setUnitColumns(PreparedStatement statement,
+            TransMemoryUnit unit) throws SQLException {
+        statement.setString(1, unit.getTransUnitId());
+        statement.setString(2, unit.getSourceLanguage());
+        if (unit.getPosition() != null) {
+            statement.setInt(3, unit.getPosition());
+        } else {
+            statement.setNull(3, Types.INTEGER);
+        }
+        statement.setString(4, name(unit.getMetadataType()));
+        statement.setString(5, unit.getMetadata());
+    }
+
+    @Nullable
+    private static String name(@Nullable TMMetadataType metadataType) {
+        return metadataType == null ? null : metadataType.name();
+    }
+
+    private static Timestamp timestamp(@Nullable Date date, Timestamp now) {
+        return date == null ? now : new Timestamp(date.getTime());
+    }
+}
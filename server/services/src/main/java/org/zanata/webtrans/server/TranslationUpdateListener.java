@@ -33,7 +33,6 @@ import org.zanata.webtrans.shared.model.TransUnitId;
 import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
 import org.zanata.webtrans.shared.model.WorkspaceId;
 import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
-import com.google.common.base.Optional;
 import com.google.common.base.Predicates;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -60,7 +59,7 @@ public class TranslationUpdateListener
                     .expireAfterAccess(1, TimeUnit.SECONDS).maximumSize(1000)
                     .build();
     @Inject
-    private TranslationWorkspaceManager translationWorkspaceManager;
+    private WorkspaceEventBus workspaceEventBus;
     @SuppressFBWarnings("SE_BAD_FIELD")
     @Inject
     private IServiceLocator serviceLocator;
@@ -121,9 +120,7 @@ public class TranslationUpdateListener
         WorkspaceId workspaceId = new WorkspaceId(
                 new ProjectIterationId(projectSlug, iterationSlug, projectType),
                 localeId);
-        Optional<TranslationWorkspace> workspaceOptional =
-                translationWorkspaceManager.tryGetWorkspace(workspaceId);
-        if (!workspaceOptional.isPresent()) {
+        if (!workspaceEventBus.hasEditors(workspaceId)) {
             return;
         }
         TransUnitTransformer transUnitTransformer =
@@ -155,7 +152,7 @@ public class TranslationUpdateListener
                     TransUnitUpdated.UpdateType.NonEditorSave);
         }
         textFlowTargetUpdatedEvent.fire(new TextFlowTargetUpdatedEvent(
-                workspaceOptional.get(), target.getId(), updated));
+                workspaceId, target.getId(), updated));
     }
 
     private static TransUnitUpdateInfo createTransUnitUpdateInfo(
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.infinispan.Cache;
+import org.infinispan.manager.CacheContainer;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.zanata.config.SystemPropertyConfigStore;
+import org.zanata.metrics.Counter;
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.rest.dto.DTOUtil;
+import org.zanata.util.Introspectable;
+import org.zanata.util.Zanata;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
+import org.zanata.webtrans.shared.model.WorkspaceId;
+import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Delivers translation updates to the editors of a workspace.
+ *
+ * Updates are collected for {@code zanata.editor.events.batch.millis}
+ * (default 100) and then sent as one message per workspace, with repeated
+ * updates of the same text flow merged into one. This way a burst of saves
+ * by many translators in one document costs each editor one message.
+ *
+ * With the system property {@code zanata.editor.events.distributed=true},
+ * the messages are also put in a clustered cache, and every node delivers
+ * the messages created by other nodes to its own editors. Nodes also record
+ * in the cache which workspaces have editors, so that updates are only
+ * prepared for workspaces which somebody is editing.
+ *
+ * @see TranslationUpdateListener
+ */
+@ApplicationScoped
+public class WorkspaceEventBus implements Introspectable {
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(WorkspaceEventBus.class);
+    static final String CLUSTER_CACHE_NAME =
+            WorkspaceEventBus.class.getName() + ".events";
+    static final long DEFAULT_BATCH_MILLIS = 100;
+    // messages only need to live long enough to reach the other nodes
+    private static final long MESSAGE_LIFESPAN_SECONDS = 60;
+    private static final long PRESENCE_REFRESH_SECONDS = 10;
+    private static final String PRESENCE_PREFIX = "workspace:";
+
+    @Inject
+    private TranslationWorkspaceManager translationWorkspaceManager;
+    @Inject
+    private SystemPropertyConfigStore configStore;
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    @Inject
+    @Zanata
+    private Instance<CacheContainer> cacheContainer;
+
+    private final ConcurrentMap<WorkspaceId, PendingUpdates> pending =
+            new ConcurrentHashMap<>();
+    // workspaces with editors on this node, as recorded in the cluster
+    private final Set<WorkspaceId> present = ConcurrentHashMap.newKeySet();
+    private final Counter updatesPublished;
+    private final Counter messagesSent;
+    private final Counter messagesReceived;
+    private Function<WorkspaceId, Optional<TranslationWorkspace>> localWorkspaces;
+    private long batchMillis;
+    private @Nullable ScheduledExecutorService scheduler;
+    private @Nullable Cache<Object, Object> clusterCache;
+    private @Nullable RemoteMessageListener remoteListener;
+
+    public WorkspaceEventBus() {
+        MetricRegistry metrics = MetricRegistry.getDefault();
+        updatesPublished = metrics.counter(
+                "zanata_editor_updates_published_total",
+                "Translation updates published to editor workspaces");
+        messagesSent = metrics.counter("zanata_editor_messages_total",
+                "Batched update messages delivered to editor workspaces",
+                "origin", "local");
+        messagesReceived = metrics.counter("zanata_editor_messages_total",
+                "Batched update messages delivered to editor workspaces",
+                "origin", "remote");
+    }
+
+    @VisibleForTesting
+    WorkspaceEventBus(
+            Function<WorkspaceId, Optional<TranslationWorkspace>> localWorkspaces,
+            long batchMillis) {
+        this();
+        this.localWorkspaces = localWorkspaces;
+        this.batchMillis = batchMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        localWorkspaces = translationWorkspaceManager::tryGetWorkspace;
+        batchMillis = configStore.getLong(
+                SystemPropertyConfigStore.KEY_EDITOR_EVENTS_BATCH_MILLIS,
+                DEFAULT_BATCH_MILLIS);
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("editor-events-%d")
+                        .setDaemon(true).build());
+        if (batchMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, batchMillis,
+                    batchMillis, TimeUnit.MILLISECONDS);
+        }
+        if (configStore.isDistributedEditorEventsEnabled()) {
+            log.info("editor updates will be shared by the cluster, using cache {}",
+                    CLUSTER_CACHE_NAME);
+            clusterCache = cacheContainer.get().getCache(CLUSTER_CACHE_NAME);
+            remoteListener = new RemoteMessageListener();
+            clusterCache.addListener(remoteListener);
+            scheduler.scheduleWithFixedDelay(this::refreshPresence, 0,
+                    PRESENCE_REFRESH_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flushQuietly();
+        if (clusterCache != null && remoteListener != null) {
+            clusterCache.removeListener(remoteListener);
+        }
+    }
+
+    /**
+     * @return whether any node has editors who might want updates for the
+     *         workspace
+     */
+    public boolean hasEditors(WorkspaceId workspaceId) {
+        if (localWorkspaces.apply(workspaceId).isPresent()) {
+            return true;
+        }
+        return clusterCache != null
+                && clusterCache.containsKey(presenceKey(workspaceId));
+    }
+
+    /**
+     * Records that an editor has joined the workspace on this node, so that
+     * other nodes start sending its updates straight away.
+     */
+    public void editorJoined(WorkspaceId workspaceId) {
+        if (clusterCache != null) {
+            markPresent(workspaceId);
+        }
+    }
+
+    /**
+     * Queues a translation update for the editors of a workspace, on all
+     * nodes.
+     */
+    public void publish(WorkspaceId workspaceId, TransUnitUpdated updated) {
+        updatesPublished.inc();
+        if (batchMillis <= 0) {
+            send(workspaceId, updated);
+            return;
+        }
+        // a closed batch is being sent; start another one
+        while (!pending.computeIfAbsent(workspaceId, id -> new PendingUpdates())
+                .add(updated)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Sends all queued updates.
+     */
+    @VisibleForTesting
+    void flush() {
+        for (WorkspaceId workspaceId : pending.keySet()) {
+            PendingUpdates updates = pending.remove(workspaceId);
+            if (updates != null) {
+                List<TransUnitUpdated> batch = updates.close();
+                send(workspaceId, batch.size() == 1 ? batch.get(0)
+                        : new TransUnitUpdatedBatch(batch));
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // an exception would stop the scheduled flushes
+            log.error("error sending editor updates", e);
+        }
+    }
+
+    private void send(WorkspaceId workspaceId, SessionEventData message) {
+        deliverLocally(workspaceId, message);
+        messagesSent.inc();
+        if (clusterCache != null) {
+            try {
+                clusterCache.put(UUID.randomUUID().toString(),
+                        new WorkspaceMessage(workspaceId, message),
+                        MESSAGE_LIFESPAN_SECONDS, TimeUnit.SECONDS);
+            } catch (RuntimeException e) {
+                log.warn("unable to send editor updates for {} to the cluster",
+                        workspaceId, e);
+            }
+        }
+    }
+
+    private void deliverLocally(WorkspaceId workspaceId,
+            SessionEventData message) {
+        Optional<TranslationWorkspace> workspace =
+                localWorkspaces.apply(workspaceId);
+        if (workspace.isPresent()) {
+            workspace.get().publish(message);
+        }
+    }
+
+    private void refreshPresence() {
+        try {
+            for (WorkspaceId workspaceId : present) {
+                Optional<TranslationWorkspace> workspace =
+                        localWorkspaces.apply(workspaceId);
+                if (workspace.isPresent()
+                        && !workspace.get().getUsers().isEmpty()) {
+                    markPresent(workspaceId);
+                } else {
+                    // let the cluster entry expire
+                    present.remove(workspaceId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("unable to record editor workspaces in the cluster", e);
+        }
+    }
+
+    private void markPresent(WorkspaceId workspaceId) {
+        present.add(workspaceId);
+        clusterCache.put(presenceKey(workspaceId), Boolean.TRUE,
+                PRESENCE_REFRESH_SECONDS * 3, TimeUnit.SECONDS);
+    }
+
+    private static String presenceKey(WorkspaceId workspaceId) {
+        return PRESENCE_PREFIX + workspaceId;
+    }
+
+    /**
+     * Merges two updates of the same text flow. Editors work out the change
+     * in document statistics from the state before the update, so the
+     * merged update keeps the earlier update's previous state.
+     */
+    @VisibleForTesting
+    static TransUnitUpdated merge(TransUnitUpdated earlier,
+            TransUnitUpdated later) {
+        TransUnitUpdateInfo first = earlier.getUpdateInfo();
+        TransUnitUpdateInfo last = later.getUpdateInfo();
+        TransUnitUpdateInfo merged = new TransUnitUpdateInfo(
+                last.isSuccess(), last.isTargetChanged(),
+                last.getDocumentId(), last.getTransUnit(),
+                last.getSourceWordCount(), first.getPreviousVersionNum(),
+                first.getPreviousState(), last.getErrorMessage());
+        return new TransUnitUpdated(merged, later.getEditorClientId(),
+                later.getUpdateType());
+    }
+
+    @Override
+    public String getIntrospectableId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getFieldValuesAsJSON() {
+        return DTOUtil.toJSON(ImmutableMap.<String, Object> builder()
+                .put("distributed", clusterCache != null)
+                .put("batchMillis", batchMillis)
+                .put("pendingWorkspaces", pending.size())
+                .put("updatesPublished", updatesPublished.get())
+                .put("messagesSent", messagesSent.get())
+                .put("messagesReceived", messagesReceived.get()).build());
+    }
+
+    private static final class PendingUpdates {
+        // in order of first update, so each editor sees text flows change in
+        // the order they were saved
+        private final Map<TransUnitId, TransUnitUpdated> updates =
+                new LinkedHashMap<>();
+        private boolean closed;
+
+        private synchronized boolean add(TransUnitUpdated updated) {
+            if (closed) {
+                return false;
+            }
+            TransUnitId id = updated.getUpdateInfo().getTransUnit().getId();
+            updates.merge(id, updated, WorkspaceEventBus::merge);
+            return true;
+        }
+
+        private synchronized List<TransUnitUpdated> close() {
+            closed = true;
+            return new ArrayList<>(updates.values());
+        }
+    }
+
+    private static final class WorkspaceMessage implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final WorkspaceId workspaceId;
+        private final SessionEventData message;
+
+        private WorkspaceMessage(WorkspaceId workspaceId,
+                SessionEventData message) {
+            this.workspaceId = workspaceId;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Delivers messages from other nodes to this node's editors.
+     */
+    @Listener(sync = false)
+    public final class RemoteMessageListener {
+
+        @CacheEntryCreated
+        public void onMessage(CacheEntryCreatedEvent<Object, Object> event) {
+            if (event.isPre() || event.isOriginLocal()
+                    || !(event.getValue() instanceof WorkspaceMessage)) {
+                return;
+            }
+            WorkspaceMessage received = (WorkspaceMessage) event.getValue();
+            messagesReceived.inc();
+            deliverLocally(received.workspaceId, received.message);
+        }
+    }
+}
@@ -50,6 +50,7 @@ import org.zanata.service.SecurityService;
 import org.zanata.webtrans.server.ActionHandlerFor;
 import org.zanata.webtrans.server.TranslationWorkspace;
 import org.zanata.webtrans.server.TranslationWorkspaceManager;
+import org.zanata.webtrans.server.WorkspaceEventBus;
 import org.zanata.webtrans.shared.auth.EditorClientId;
 import org.zanata.webtrans.shared.auth.Identity;
 import org.zanata.webtrans.shared.model.Person;
@@ -84,6 +85,8 @@ public class ActivateWorkspaceHandler extends
     @Inject
     private TranslationWorkspaceManager translationWorkspaceManager;
     @Inject
+    private WorkspaceEventBus workspaceEventBus;
+    @Inject
     private GravatarService gravatarServiceImpl;
     @Inject
     private ProjectDAO projectDAO;
@@ -126,6 +129,7 @@ public class ActivateWorkspaceHandler extends
                 new EditorClientId(httpSessionId, generateEditorClientNum());
         workspace.addEditorClient(httpSessionId, editorClientId,
                 person.getId());
+        workspaceEventBus.editorJoined(workspaceId);
         // Send EnterWorkspace event to clients
         EnterWorkspace event = new EnterWorkspace(editorClientId, person);
         workspace.publish(event);
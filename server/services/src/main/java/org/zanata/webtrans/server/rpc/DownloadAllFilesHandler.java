@@ -30,6 +30,7 @@ import javax.inject.Named;
 
 import org.zanata.async.AsyncTaskHandle;
 import org.zanata.async.AsyncTaskHandleManager;
+import org.zanata.async.AsyncTaskType;
 import org.zanata.dao.ProjectIterationDAO;
 import org.zanata.model.HProjectIteration;
 import org.zanata.security.ZanataIdentity;
@@ -74,6 +75,8 @@ public class DownloadAllFilesHandler extends
                         action.getVersionSlug());
         if (identity.hasPermission(version, "download-all")) {
             AsyncTaskHandle<String> handle = new AsyncTaskHandle<String>();
+            handle.setTaskType(AsyncTaskType.ARCHIVE);
+            handle.setProjectSlug(action.getProjectSlug());
             String keyId =
                     asyncTaskHandleManager.registerTaskHandle(handle);
             // TODO This should be in a service and share code with the JSF
@@ -100,9 +100,23 @@ public class GetProjectTransUnitListsHandler extends
                         .caseSensitive(action.isCaseSensitive())
                         .checkInSource(action.isSearchInSource())
                         .checkInTarget(action.isSearchInTarget()).build();
-        List<HTextFlow> matchingFlows =
-                textFlowSearchServiceImpl.findTextFlows(action.getWorkspaceId(),
-                        action.getDocumentPaths(), filterConstraints);
+        List<HTextFlow> matchingFlows;
+        Long nextAfterDocumentId = null;
+        if (action.isPaged()) {
+            matchingFlows = textFlowSearchServiceImpl.findTextFlows(
+                    action.getWorkspaceId(), action.getDocumentPaths(),
+                    filterConstraints, action.getAfterDocumentId(),
+                    action.getMaxTextFlows());
+            // a full page may be followed by more matching documents
+            if (matchingFlows.size() >= action.getMaxTextFlows()) {
+                nextAfterDocumentId = matchingFlows
+                        .get(matchingFlows.size() - 1).getDocument().getId();
+            }
+        } else {
+            matchingFlows = textFlowSearchServiceImpl.findTextFlows(
+                    action.getWorkspaceId(), action.getDocumentPaths(),
+                    filterConstraints);
+        }
         log.info("Returned {} results for search", matchingFlows.size());
         // FIXME remove when analyzer handles leading & trailing whitespace
         boolean needsWhitespaceCheck = !action.getSearchString()
@@ -132,7 +146,7 @@ public class GetProjectTransUnitListsHandler extends
                     textFlow.getDocument().getDocId());
         }
         return new GetProjectTransUnitListsResult(action, docPaths,
-                matchingTUs);
+                matchingTUs, nextAfterDocumentId);
     }
 
     private static String foldCase(String original) {
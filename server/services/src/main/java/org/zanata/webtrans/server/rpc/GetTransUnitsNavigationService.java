@@ -21,9 +21,7 @@
 package org.zanata.webtrans.server.rpc;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import org.hibernate.transform.ResultTransformer;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -34,9 +32,11 @@ import org.zanata.model.HLocale;
 import org.zanata.model.HTextFlow;
 import org.zanata.model.HTextFlowTarget;
 import org.zanata.rest.dto.TranslationSourceType;
-import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.server.rpc.NavigationIndexCache.NavigationIndex;
+import org.zanata.webtrans.shared.model.DocumentId;
 import org.zanata.webtrans.shared.rpc.GetTransUnitsNavigation;
 import org.zanata.webtrans.shared.rpc.GetTransUnitsNavigationResult;
+import org.zanata.webtrans.shared.search.FilterConstraints;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 @Named("getTransUnitsNavigationService")
@@ -47,27 +47,34 @@ public class GetTransUnitsNavigationService {
 
     @Inject
     private TextFlowDAO textFlowDAO;
+    @Inject
+    private NavigationIndexCache navigationIndexCache;
 
     protected GetTransUnitsNavigationResult getNavigationIndexes(
             GetTransUnitsNavigation action, HLocale hLocale) {
-        List<TransUnitId> idIndexList = new ArrayList<TransUnitId>();
-        Map<TransUnitId, ContentState> transIdStateMap =
-                new HashMap<TransUnitId, ContentState>();
-        List<HTextFlow> textFlows;
+        DocumentId documentId = action.getDocumentId();
+        NavigationIndex index = navigationIndexCache.get(documentId.getId(),
+                hLocale.getLocaleId(), action.getConstraints(),
+                constraints -> loadNavigationIndex(documentId, hLocale,
+                        constraints));
+        log.debug("for action {} returned size: {}", action, index.size());
+        return index.toResult();
+    }
+
+    private NavigationIndex loadNavigationIndex(DocumentId documentId,
+            HLocale hLocale, FilterConstraints constraints) {
         TextFlowResultTransformer resultTransformer =
                 new TextFlowResultTransformer(hLocale);
-        textFlows =
-                textFlowDAO.getNavigationByDocumentId(action.getDocumentId(),
-                        hLocale, resultTransformer, action.getConstraints());
+        List<HTextFlow> textFlows = textFlowDAO.getNavigationByDocumentId(
+                documentId, hLocale, resultTransformer, constraints);
+        List<Long> ids = new ArrayList<Long>(textFlows.size());
+        List<ContentState> states =
+                new ArrayList<ContentState>(textFlows.size());
         for (HTextFlow textFlow : textFlows) {
-            TransUnitId transUnitId = new TransUnitId(textFlow.getId());
-            idIndexList.add(transUnitId);
-            transIdStateMap.put(transUnitId,
-                    textFlow.getTargets().get(hLocale.getId()).getState());
+            ids.add(textFlow.getId());
+            states.add(textFlow.getTargets().get(hLocale.getId()).getState());
         }
-        log.debug("for action {} returned size: {}", action,
-                idIndexList.size());
-        return new GetTransUnitsNavigationResult(idIndexList, transIdStateMap);
+        return new NavigationIndex(ids, states);
     }
 
     /**
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.webtrans.server.rpc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.metrics.Counter;
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.rpc.GetTransUnitsNavigationResult;
+import org.zanata.webtrans.shared.search.FilterConstraints;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches the editor navigation index of a document: the ids and states of
+ * the text flows which match a filter, in document order.
+ * <p>
+ * Filters which only select text flows by state are served from one index
+ * of the whole document per locale, whose states are kept up to date from
+ * {@link TextFlowTargetStateEvent}s. Indexes for other filters (eg text
+ * search) are dropped when a translation of the document changes, since
+ * the change may affect which text flows match. All the indexes of a
+ * document are dropped when the document is uploaded.
+ * <p>
+ * Events are only observed on the node where the change was made, so
+ * indexes are also reloaded a short time after they were loaded, to pick
+ * up changes made through other nodes of a cluster.
+ *
+ * @see GetTransUnitsNavigationService
+ */
+@ApplicationScoped
+public class NavigationIndexCache {
+    /**
+     * Maximum number of text flows in each of the caches.
+     */
+    private static final long MAX_TEXT_FLOWS = 2_000_000;
+    /**
+     * How long an index may miss changes made through other nodes.
+     */
+    private static final long REMOTE_CHANGE_MINUTES = 1;
+    /**
+     * How long changes are remembered, to reject indexes whose loading
+     * started before the change but finished after it.
+     */
+    private static final long MAX_LOAD_MINUTES = 60;
+    private static final ContentState[] STATES = ContentState.values();
+
+    private final Cache<DocumentLocaleKey, DocumentIndex> documentIndexes =
+            CacheBuilder.newBuilder().maximumWeight(MAX_TEXT_FLOWS)
+                    .<DocumentLocaleKey, DocumentIndex> weigher(
+                            (key, index) -> index.size() + 1)
+                    .expireAfterWrite(REMOTE_CHANGE_MINUTES, TimeUnit.MINUTES)
+                    .build();
+    private final Cache<FilterKey, NavigationIndex> filteredIndexes =
+            CacheBuilder.newBuilder().maximumWeight(MAX_TEXT_FLOWS)
+                    .<FilterKey, NavigationIndex> weigher(
+                            (key, index) -> index.size() + 1)
+                    .expireAfterWrite(REMOTE_CHANGE_MINUTES, TimeUnit.MINUTES)
+                    .build();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<DocumentLocaleKey, Long> changes = CacheBuilder
+            .newBuilder().expireAfterWrite(MAX_LOAD_MINUTES, TimeUnit.MINUTES)
+            .build();
+    private final Counter hits;
+    private final Counter misses;
+
+    public NavigationIndexCache() {
+        MetricRegistry metrics = MetricRegistry.getDefault();
+        String requestsHelp = "Lookups through the cache loader";
+        String cacheName = NavigationIndexCache.class.getName();
+        hits = metrics.counter("zanata_cache_requests_total", requestsHelp,
+                "cache", cacheName, "result", "hit");
+        misses = metrics.counter("zanata_cache_requests_total", requestsHelp,
+                "cache", cacheName, "result", "miss");
+    }
+
+    /**
+     * Returns the navigation index for a document, locale and filter,
+     * loading it with {@code loader} if it is not cached.
+     *
+     * @param loader
+     *            queries the navigation index for the given filter, which
+     *            may keep all text flows instead of the requested filter
+     */
+    public NavigationIndex get(@Nonnull Long documentId,
+            @Nonnull LocaleId localeId, @Nonnull FilterConstraints constraints,
+            @Nonnull Function<FilterConstraints, NavigationIndex> loader) {
+        DocumentLocaleKey key = new DocumentLocaleKey(documentId, localeId);
+        if (isStateFilter(constraints)) {
+            DocumentIndex index = documentIndexes.getIfPresent(key);
+            if (index == null) {
+                misses.inc();
+                long start = sequence.get();
+                index = new DocumentIndex(
+                        loader.apply(FilterConstraints.builder().build()));
+                if (!changedSince(key, start)) {
+                    documentIndexes.put(key, index);
+                }
+            } else {
+                hits.inc();
+            }
+            return index.filter(constraints);
+        }
+        FilterKey filterKey = new FilterKey(key, constraints);
+        NavigationIndex index = filteredIndexes.getIfPresent(filterKey);
+        if (index == null) {
+            misses.inc();
+            long start = sequence.get();
+            index = loader.apply(constraints);
+            if (!changedSince(key, start)) {
+                filteredIndexes.put(filterKey, index);
+            }
+        } else {
+            hits.inc();
+        }
+        return index;
+    }
+
+    public void onTargetStateChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            TextFlowTargetStateEvent event) {
+        DocumentLocaleKey key = event.getKey();
+        changes.put(key, sequence.incrementAndGet());
+        DocumentIndex index = documentIndexes.getIfPresent(key);
+        if (index != null) {
+            for (TextFlowTargetStateEvent.TextFlowTargetStateChange change : event
+                    .getStates()) {
+                index.setState(change.getTextFlowId(), change.getNewState());
+            }
+        }
+        filteredIndexes.asMap().keySet()
+                .removeIf(filterKey -> filterKey.key.equals(key));
+    }
+
+    public void onDocumentUploaded(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            DocumentUploadedEvent event) {
+        // a new source document changes the text flows for every locale
+        invalidate(event.getDocumentId(),
+                event.isSourceDocument() ? null : event.getLocaleId());
+    }
+
+    /**
+     * Drops the navigation indexes of a document.
+     *
+     * @param localeId
+     *            the locale whose indexes should be dropped, or null for
+     *            all locales
+     */
+    public void invalidate(@Nonnull Long documentId,
+            @Nullable LocaleId localeId) {
+        changes.put(new DocumentLocaleKey(documentId, localeId),
+                sequence.incrementAndGet());
+        documentIndexes.asMap().keySet()
+                .removeIf(key -> matches(key, documentId, localeId));
+        filteredIndexes.asMap().keySet()
+                .removeIf(key -> matches(key.key, documentId, localeId));
+    }
+
+    @VisibleForTesting
+    long getCachedTextFlowCount() {
+        long count = 0;
+        for (DocumentIndex index : documentIndexes.asMap().values()) {
+            count += index.size();
+        }
+        for (NavigationIndex index : filteredIndexes.asMap().values()) {
+            count += index.size();
+        }
+        return count;
+    }
+
+    private boolean changedSince(DocumentLocaleKey key, long start) {
+        Long changed = changes.getIfPresent(key);
+        Long documentChanged = changes.getIfPresent(
+                new DocumentLocaleKey(key.getDocumentId(), null));
+        return (changed != null && changed > start)
+                || (documentChanged != null && documentChanged > start);
+    }
+
+    private static boolean matches(DocumentLocaleKey key, Long documentId,
+            @Nullable LocaleId localeId) {
+        return key.getDocumentId().equals(documentId)
+                && (localeId == null || key.getLocaleId().equals(localeId));
+    }
+
+    /**
+     * @return whether the filter only selects text flows by state, so that
+     *         it can be applied to the index of the whole document
+     */
+    @VisibleForTesting
+    static boolean isStateFilter(FilterConstraints constraints) {
+        return Strings.isNullOrEmpty(constraints.getSearchString())
+                && Strings.isNullOrEmpty(constraints.getResId())
+                && constraints.getChangedBefore() == null
+                && constraints.getChangedAfter() == null
+                && Strings.isNullOrEmpty(constraints.getLastModifiedByUser())
+                && Strings.isNullOrEmpty(constraints.getSourceComment())
+                && Strings.isNullOrEmpty(constraints.getTransComment())
+                && Strings.isNullOrEmpty(constraints.getMsgContext())
+                && !constraints.isIncludedMT();
+    }
+
+    /**
+     * The ids and states of text flows, in document order.
+     */
+    public static final class NavigationIndex {
+        private final long[] ids;
+        private final byte[] states;
+
+        private NavigationIndex(long[] ids, byte[] states) {
+            this.ids = ids;
+            this.states = states;
+        }
+
+        public NavigationIndex(List<Long> ids, List<ContentState> states) {
+            this(new long[ids.size()], new byte[states.size()]);
+            if (ids.size() != states.size()) {
+                throw new IllegalArgumentException(
+                        ids.size() + " ids for " + states.size() + " states");
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                this.ids[i] = ids.get(i);
+                this.states[i] = (byte) states.get(i).ordinal();
+            }
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public GetTransUnitsNavigationResult toResult() {
+            List<TransUnitId> idIndexList = new ArrayList<>(ids.length);
+            Map<TransUnitId, ContentState> transIdStateMap =
+                    new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                TransUnitId transUnitId = new TransUnitId(ids[i]);
+                idIndexList.add(transUnitId);
+                transIdStateMap.put(transUnitId, STATES[states[i]]);
+            }
+            return new GetTransUnitsNavigationResult(idIndexList,
+                    transIdStateMap);
+        }
+    }
+
+    /**
+     * All the text flows of a document, whose states are updated in place.
+     */
+    private static final class DocumentIndex {
+        private final long[] ids;
+        private final byte[] states;
+        // ids in numerical order, and the document position of each
+        private final long[] sortedIds;
+        private final int[] positions;
+
+        private DocumentIndex(NavigationIndex index) {
+            ids = index.ids;
+            states = index.states.clone();
+            sortedIds = ids.clone();
+            Arrays.sort(sortedIds);
+            positions = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                positions[Arrays.binarySearch(sortedIds, ids[i])] = i;
+            }
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private synchronized void setState(long id, ContentState state) {
+            int i = Arrays.binarySearch(sortedIds, id);
+            if (i >= 0) {
+                states[positions[i]] = (byte) state.ordinal();
+            }
+        }
+
+        private synchronized NavigationIndex filter(
+                FilterConstraints constraints) {
+            boolean[] included = new boolean[STATES.length];
+            for (ContentState state : constraints.getIncludedStates()
+                    .asList()) {
+                included[state.ordinal()] = true;
+            }
+            long[] filteredIds = new long[ids.length];
+            byte[] filteredStates = new byte[ids.length];
+            int count = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (included[states[i]]) {
+                    filteredIds[count] = ids[i];
+                    filteredStates[count] = states[i];
+                    count++;
+                }
+            }
+            return new NavigationIndex(Arrays.copyOf(filteredIds, count),
+                    Arrays.copyOf(filteredStates, count));
+        }
+    }
+
+    private static final class FilterKey {
+        private final DocumentLocaleKey key;
+        private final FilterConstraints constraints;
+
+        private FilterKey(DocumentLocaleKey key,
+                FilterConstraints constraints) {
+            this.key = key;
+            this.constraints = constraints;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FilterKey)) {
+                return false;
+            }
+            FilterKey other = (FilterKey) o;
+            return key.equals(other.key)
+                    && constraints.equals(other.constraints);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, constraints);
+        }
+    }
+}
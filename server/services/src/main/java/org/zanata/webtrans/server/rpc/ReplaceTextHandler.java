@@ -31,8 +31,10 @@ import org.zanata.service.SecurityService;
 import org.zanata.webtrans.server.ActionHandlerFor;
 import org.zanata.webtrans.shared.model.TransUnitUpdateRequest;
 import org.zanata.webtrans.shared.rpc.ReplaceText;
+import org.zanata.webtrans.shared.rpc.UpdateTransUnit;
 import org.zanata.webtrans.shared.rpc.UpdateTransUnitResult;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import net.customware.gwt.dispatch.server.ExecutionContext;
 import net.customware.gwt.dispatch.shared.ActionException;
 
@@ -44,6 +46,11 @@ public class ReplaceTextHandler
     private static final org.slf4j.Logger log =
             org.slf4j.LoggerFactory.getLogger(ReplaceTextHandler.class);
 
+    /**
+     * How many text flows are saved in each transaction of a replacement
+     */
+    static final int UPDATES_PER_BATCH = 100;
+
     @Inject
     @Any
     UpdateTransUnitHandler updateTransUnitHandler;
@@ -56,7 +63,45 @@ public class ReplaceTextHandler
         securityServiceImpl.checkWorkspaceAction(action.getWorkspaceId(),
                 SecurityService.TranslationAction.MODIFY);
         replaceTextInUpdateRequests(action);
-        return updateTransUnitHandler.execute(action, context);
+        List<TransUnitUpdateRequest> updateRequests =
+                action.getUpdateRequests();
+        if (updateRequests.size() <= UPDATES_PER_BATCH) {
+            return updateTransUnitHandler.execute(action, context);
+        }
+        // a project-wide replacement is saved in batches, so that it doesn't
+        // hold locks on every target in a single transaction. A batch which
+        // fails is rolled back on its own: the batches already saved are
+        // returned, and the text flows of the failed batch are reported as
+        // failed so that the editor can offer to replace them again.
+        UpdateTransUnitResult result = new UpdateTransUnitResult();
+        int failedBatches = 0;
+        for (List<TransUnitUpdateRequest> batch : Lists
+                .partition(updateRequests, UPDATES_PER_BATCH)) {
+            UpdateTransUnit batchAction =
+                    new UpdateTransUnit(action.getUpdateType());
+            batchAction.setWorkspaceId(action.getWorkspaceId());
+            batchAction.setEditorClientId(action.getEditorClientId());
+            batch.forEach(batchAction::addTransUnit);
+            try {
+                UpdateTransUnitResult batchResult =
+                        updateTransUnitHandler.execute(batchAction, context);
+                batchResult.getUpdateInfoList()
+                        .forEach(result::addUpdateResult);
+            } catch (ActionException | RuntimeException e) {
+                log.warn("failed to replace text in a batch of {} text flows",
+                        batch.size(), e);
+                failedBatches++;
+                for (TransUnitUpdateRequest request : batch) {
+                    result.addFailedTransUnit(request.getTransUnitId());
+                }
+            }
+        }
+        log.debug("replaced text in {} text flows with {} batches, {} failed",
+                updateRequests.size(),
+                (updateRequests.size() + UPDATES_PER_BATCH - 1)
+                        / UPDATES_PER_BATCH,
+                failedBatches);
+        return result;
     }
 
     /**
@@ -28,6 +28,7 @@ import org.zanata.events.TextFlowTargetUpdatedEvent;
 import org.zanata.model.*;
 import org.zanata.service.*;
 import org.zanata.util.IServiceLocator;
+import org.zanata.webtrans.server.WorkspaceEventBus;
 import org.zanata.webtrans.shared.model.*;
 import org.zanata.webtrans.shared.rpc.*;
 import com.google.common.cache.Cache;
@@ -46,6 +47,8 @@ public class TransUnitUpdateHelper {
 
     @Inject
     private IServiceLocator serviceLocator;
+    @Inject
+    private WorkspaceEventBus workspaceEventBus;
     private static Cache<CacheKey, TransUnitUpdateInfo> cache = CacheBuilder
             .newBuilder().expireAfterAccess(1, TimeUnit.MILLISECONDS)
             .softValues().maximumSize(100).build();
@@ -53,7 +56,7 @@ public class TransUnitUpdateHelper {
     public void onTargetUpdatedSuccessful(@Observes(
             during = TransactionPhase.AFTER_SUCCESS) TextFlowTargetUpdatedEvent event) {
         TransUnitUpdated transUnitUpdated = event.getTransUnitUpdated();
-        event.getWorkspace().publish(transUnitUpdated);
+        workspaceEventBus.publish(event.getWorkspaceId(), transUnitUpdated);
         TransUnit transUnit = transUnitUpdated.getUpdateInfo().getTransUnit();
         cache.put(
                 new CacheKey(event.getTextFlowTargetId(),
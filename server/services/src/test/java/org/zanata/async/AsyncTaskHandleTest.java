@@ -21,6 +21,8 @@
 package org.zanata.async;
 
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -165,4 +167,15 @@ public class AsyncTaskHandleTest {
         when(taskHandle.isDone()).thenReturn(true);
         assertThat(AsyncTaskHandle.taskIsNotRunning(taskHandle)).isTrue();
     }
+
+    @Test
+    public void stageTimesAreAddedUpPerStage() {
+        AsyncTaskHandle<Void> handle = new AsyncTaskHandle<>();
+        handle.addStageTime("fetch", 2, TimeUnit.SECONDS);
+        handle.addStageTime("save", 500, TimeUnit.MILLISECONDS);
+        handle.addStageTime("fetch", 1500, TimeUnit.MILLISECONDS);
+
+        assertThat(handle.getStageTimes()).containsEntry("fetch", 3500L)
+                .containsEntry("save", 500L).hasSize(2);
+    }
 }
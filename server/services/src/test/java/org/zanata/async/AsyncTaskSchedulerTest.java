@@ -0,0 +1,200 @@
+package org.zanata.async;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AsyncTaskSchedulerTest {
+    private ManualExecutor workers;
+    private List<String> started;
+
+    @Before
+    public void setUp() {
+        workers = new ManualExecutor();
+        started = new ArrayList<>();
+    }
+
+    @Test
+    public void startsHigherPriorityTasksFirst() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 1, 0, 0, 0);
+        scheduler.submit(task(AsyncTaskType.OTHER, "first", null, null));
+        scheduler.submit(task(AsyncTaskType.REINDEX, "reindex", null, null));
+        scheduler.submit(task(AsyncTaskType.PUSH, "push", null, null));
+
+        workers.runAll();
+
+        assertThat(started).containsExactly("first", "push", "reindex");
+        assertThat(scheduler.getRunningCount()).isZero();
+    }
+
+    @Test
+    public void limitsRunningTasksPerUser() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 2, 0, 1, 0);
+        scheduler.submit(task(AsyncTaskType.PUSH, "alice1", "alice", null));
+        scheduler.submit(task(AsyncTaskType.PUSH, "alice2", "alice", null));
+        scheduler.submit(task(AsyncTaskType.PUSH, "bob1", "bob", null));
+
+        assertThat(scheduler.getRunningCount()).isEqualTo(2);
+        workers.runNext();
+        workers.runNext();
+        assertThat(started).containsExactly("alice1", "bob1");
+        workers.runAll();
+        assertThat(started).containsExactly("alice1", "bob1", "alice2");
+    }
+
+    @Test
+    public void limitsRunningTasksPerProject() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 2, 0, 0, 1);
+        scheduler.submit(task(AsyncTaskType.PUSH, "a1", null, "a"));
+        scheduler.submit(task(AsyncTaskType.PUSH, "a2", null, "a"));
+        scheduler.submit(task(AsyncTaskType.REINDEX, "b1", null, "b"));
+
+        workers.runNext();
+        workers.runNext();
+        assertThat(started).containsExactly("a1", "b1");
+    }
+
+    @Test
+    public void rejectsTasksWhenQueueIsFull() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 1, 1, 0, 0);
+        scheduler.submit(task(AsyncTaskType.PUSH, "running", null, null));
+        scheduler.submit(task(AsyncTaskType.PUSH, "queued", null, null));
+
+        assertThatThrownBy(() -> scheduler
+                .submit(task(AsyncTaskType.PUSH, "rejected", null, null)))
+                        .isInstanceOf(RejectedExecutionException.class);
+        // other task types have their own queue
+        scheduler.submit(task(AsyncTaskType.REINDEX, "reindex", null, null));
+    }
+
+    @Test
+    public void neverRejectsInternalTasks() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 1, 1, 0, 0);
+        scheduler.submit(task(AsyncTaskType.PUSH, "running", null, null));
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(
+                    task(AsyncTaskType.INTERNAL, "internal" + i, null, null));
+        }
+        scheduler.submit(task(AsyncTaskType.PUSH, "push", null, null));
+
+        workers.runAll();
+        assertThat(started).containsExactly("running", "internal0",
+                "internal1", "internal2", "push");
+    }
+
+    @Test
+    public void reportsQueuePositionOfHandle() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 1, 0, 0, 0);
+        AsyncTaskHandle<Void> running = new AsyncTaskHandle<>();
+        AsyncTaskHandle<Void> reindex = new AsyncTaskHandle<>();
+        AsyncTaskHandle<Void> push = new AsyncTaskHandle<>();
+        scheduler.submit(task(AsyncTaskType.OTHER, running));
+        scheduler.submit(task(AsyncTaskType.REINDEX, reindex));
+        scheduler.submit(task(AsyncTaskType.PUSH, push));
+
+        assertThat(running.getQueuePosition()).isEmpty();
+        assertThat(push.getQueuePosition()).hasValue(1);
+        assertThat(reindex.getQueuePosition()).hasValue(2);
+
+        workers.runNext();
+        assertThat(push.getQueuePosition()).isEmpty();
+        assertThat(reindex.getQueuePosition()).hasValue(1);
+    }
+
+    @Test
+    public void cancelledTasksLeaveTheQueueFirst() {
+        AsyncTaskScheduler scheduler =
+                new AsyncTaskScheduler(workers, 1, 0, 0, 0);
+        AsyncTaskHandle<Void> cancelled = new AsyncTaskHandle<>();
+        cancelled.setFutureResult(new CompletableFuture<>());
+        AsyncTaskHandle<Void> push = new AsyncTaskHandle<>();
+        scheduler.submit(task(AsyncTaskType.OTHER, "running", null, null));
+        scheduler.submit(task(AsyncTaskType.PUSH, push));
+        scheduler.submit(task(AsyncTaskType.REINDEX, cancelled));
+        cancelled.cancel(false);
+
+        assertThat(push.getQueuePosition()).hasValue(1);
+        workers.runNext();
+        workers.runNext();
+        assertThat(started).containsExactly("running", "cancelled");
+    }
+
+    private AsyncTaskScheduler.QueuedTask task(AsyncTaskType type,
+            String name, String user, String project) {
+        return new AsyncTaskScheduler.QueuedTask(type, user, project, null,
+                () -> started.add(name));
+    }
+
+    private AsyncTaskScheduler.QueuedTask task(AsyncTaskType type,
+            AsyncTaskHandle<?> handle) {
+        return new AsyncTaskScheduler.QueuedTask(type, null, null, handle,
+                () -> started.add(
+                        handle.isCancelled() ? "cancelled" : type.name()));
+    }
+
+    /**
+     * Runs submitted commands only when the test asks it to.
+     */
+    private static class ManualExecutor extends AbstractExecutorService {
+        private final List<Runnable> pending =
+                Collections.synchronizedList(new ArrayList<>());
+        private boolean shutdown;
+
+        void runNext() {
+            pending.remove(0).run();
+        }
+
+        void runAll() {
+            while (!pending.isEmpty()) {
+                runNext();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return new ArrayList<>(pending);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && pending.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+}
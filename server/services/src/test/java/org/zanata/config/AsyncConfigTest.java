@@ -59,4 +59,31 @@ public class AsyncConfigTest {
 
         assertThat(asyncConfig.getThreadPoolSize()).isEqualTo(10);
     }
+
+    @Test
+    public void testCopyTransThreadsDefaultIsSequential() {
+        doReturn(null).when(configStore)
+                .get(AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE);
+
+        assertThat(asyncConfig.getWorkerPoolSize(
+                AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE)).isEqualTo(1);
+    }
+
+    @Test
+    public void testCopyTransThreads() {
+        doReturn("4").when(configStore)
+                .get(AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE);
+
+        assertThat(asyncConfig.getWorkerPoolSize(
+                AsyncConfig.COPY_TRANS_THREAD_POOL_SIZE)).isEqualTo(4);
+    }
+
+    @Test
+    public void testArchiveThreadsDefaultIsSequential() {
+        doReturn(null).when(configStore)
+                .get(AsyncConfig.ARCHIVE_THREAD_POOL_SIZE);
+
+        assertThat(asyncConfig.getWorkerPoolSize(
+                AsyncConfig.ARCHIVE_THREAD_POOL_SIZE)).isEqualTo(1);
+    }
 }
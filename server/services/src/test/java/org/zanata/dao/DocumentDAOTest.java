@@ -20,6 +20,7 @@
  */
 package org.zanata.dao;
 
+import java.util.Map;
 import java.util.function.Consumer;
 
 import org.dbunit.operation.DatabaseOperation;
@@ -98,6 +99,19 @@ public class DocumentDAOTest extends ZanataDbunitJpaTest {
         }
     }
 
+    @Test
+    public void bulkDocumentStateHashesMatchSingleDocument() throws Exception {
+        HDocument doc = documentDAO.getByProjectIterationAndDocId(
+                PROJECT_SLUG, ITERATION_SLUG, DOC_ID);
+        Map<String, String> hashes = documentDAO
+                .getTranslatedDocumentStateHashes(doc.getProjectIteration(),
+                        as);
+
+        assertThat(hashes).containsEntry(DOC_ID,
+                documentDAO.getTranslatedDocumentStateHash(PROJECT_SLUG,
+                        ITERATION_SLUG, DOC_ID, as));
+    }
+
     private void testHashChange(Consumer<HDocument> mutator,
             boolean expectHashChange) throws Exception {
         String docHash =
@@ -0,0 +1,203 @@
+package org.zanata.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.DocumentUploadedEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TranslatedFileCacheTest {
+    private static final LocaleId DE = LocaleId.DE;
+    private static final LocaleId FR = LocaleId.FR;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    private ConcurrentMap<DocumentLocaleKey, Long> versions;
+    private TranslatedFileCache cache;
+    private AtomicInteger generated;
+
+    @Before
+    public void setUp() throws IOException {
+        versions = new ConcurrentHashMap<>();
+        cache = newCache();
+        generated = new AtomicInteger();
+    }
+
+    private TranslatedFileCache newCache() throws IOException {
+        TranslatedFileCache newCache = new TranslatedFileCache();
+        newCache.init(tempFolder.newFolder(), 10, versions);
+        return newCache;
+    }
+
+    @Test
+    public void reusesFileForSameETag() throws Exception {
+        TranslatedFileCache.Key key = key(1L, DE);
+        assertThat(download(key, "etag1", "abc")).isEqualTo("abc");
+        assertThat(download(key, "etag1", "xyz")).isEqualTo("abc");
+        assertThat(generated.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void regeneratesWhenETagChanges() throws Exception {
+        TranslatedFileCache.Key key = key(1L, DE);
+        download(key, "etag1", "abc");
+        assertThat(download(key, "etag2", "xyz")).isEqualTo("xyz");
+        assertThat(generated.get()).isEqualTo(2);
+        assertThat(cache.getTotalBytes()).isEqualTo(3);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        download(key(1L, DE), "e", "1234");
+        download(key(2L, DE), "e", "1234");
+        // use document 1, so that document 2 is the least recently used
+        download(key(1L, DE), "e", "1234");
+        download(key(3L, DE), "e", "1234");
+        assertThat(cache.getTotalBytes()).isEqualTo(8);
+
+        download(key(1L, DE), "e", "1234");
+        assertThat(generated.get()).isEqualTo(3);
+        download(key(2L, DE), "e", "1234");
+        assertThat(generated.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void translationUploadInvalidatesOneLocale() throws Exception {
+        download(key(1L, DE), "e", "de");
+        download(key(1L, FR), "e", "fr");
+        cache.onDocumentUploaded(new DocumentUploadedEvent(0L, 1L, false, DE));
+
+        assertThat(download(key(1L, DE), "e", "de2")).isEqualTo("de2");
+        assertThat(download(key(1L, FR), "e", "fr2")).isEqualTo("fr");
+    }
+
+    @Test
+    public void sourceUploadInvalidatesAllLocales() throws Exception {
+        download(key(1L, DE), "e", "de");
+        download(key(1L, FR), "e", "fr");
+        cache.onDocumentUploaded(
+                new DocumentUploadedEvent(0L, 1L, true, LocaleId.EN_US));
+
+        assertThat(download(key(1L, DE), "e", "de2")).isEqualTo("de2");
+        assertThat(download(key(1L, FR), "e", "fr2")).isEqualTo("fr2");
+    }
+
+    @Test
+    public void statisticsChangeInvalidatesOneLocale() throws Exception {
+        download(key(1L, DE), "e", "de");
+        download(key(1L, FR), "e", "fr");
+        // eg copy trans, which does not change the ETag within a second
+        cache.onDocStatsChange(new DocStatsEvent(
+                new DocumentLocaleKey(1L, DE), 1L,
+                Collections.singletonMap(ContentState.Translated, 2L), 3L));
+
+        assertThat(download(key(1L, DE), "e", "de2")).isEqualTo("de2");
+        assertThat(download(key(1L, FR), "e", "fr2")).isEqualTo("fr");
+    }
+
+    @Test
+    public void invalidationOnOneNodeIsSeenByOthers() throws Exception {
+        TranslatedFileCache otherNode = newCache();
+        assertThat(read(otherNode.getOrGenerate(key(1L, DE), "e",
+                generator("old")))).isEqualTo("old");
+
+        cache.invalidate(1L, DE);
+
+        assertThat(read(otherNode.getOrGenerate(key(1L, DE), "e",
+                generator("new")))).isEqualTo("new");
+        assertThat(otherNode.getTotalBytes()).isEqualTo(3);
+    }
+
+    @Test
+    public void doesNotCacheFileInvalidatedWhileGenerating() throws Exception {
+        TranslatedFileCache.Key key = key(1L, DE);
+        StreamingOutput generator = output -> {
+            generated.incrementAndGet();
+            cache.invalidate(1L, DE);
+            output.write("old".getBytes(StandardCharsets.UTF_8));
+        };
+        TranslatedFileCache.CachedFile file =
+                cache.getOrGenerate(key, "e", generator);
+        assertThat(read(file)).isEqualTo("old");
+
+        assertThat(download(key, "e", "new")).isEqualTo("new");
+        assertThat(cache.getTotalBytes()).isEqualTo(3);
+    }
+
+    @Test
+    public void invalidationKeepsNoVersionForUncachedDocuments()
+            throws Exception {
+        for (long docId = 1; docId <= 100; docId++) {
+            cache.invalidate(docId, DE);
+            cache.invalidate(docId, null);
+        }
+        assertThat(versions).isEmpty();
+    }
+
+    @Test
+    public void droppedVersionDoesNotServeStaleFile() throws Exception {
+        TranslatedFileCache.Key key = key(1L, DE);
+        download(key, "e", "old");
+        // eg expired while idle
+        versions.clear();
+
+        assertThat(download(key, "e", "new")).isEqualTo("new");
+        assertThat(download(key, "e", "newer")).isEqualTo("new");
+    }
+
+    @Test
+    public void doesNotCacheFileLargerThanLimit() throws Exception {
+        TranslatedFileCache.Key key = key(1L, DE);
+        assertThat(download(key, "e", "12345678901")).isEqualTo("12345678901");
+        assertThat(cache.getTotalBytes()).isEqualTo(0);
+        assertThat(tempFolder.getRoot().listFiles()[0].list()).isEmpty();
+    }
+
+    @Test
+    public void regeneratesEvictedFileWhileStreaming() throws Exception {
+        TranslatedFileCache.Key key = key(1L, DE);
+        TranslatedFileCache.CachedFile file =
+                cache.getOrGenerate(key, "e", generator("abc"));
+        cache.invalidate(1L, null);
+        assertThat(read(file)).isEqualTo("abc");
+        assertThat(generated.get()).isEqualTo(2);
+    }
+
+    private static TranslatedFileCache.Key key(Long docId, LocaleId locale) {
+        return new TranslatedFileCache.Key(docId, locale, "po", false);
+    }
+
+    private StreamingOutput generator(String content) {
+        return output -> {
+            generated.incrementAndGet();
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private String download(TranslatedFileCache.Key key, String eTag,
+            String content) throws IOException {
+        return read(cache.getOrGenerate(key, eTag, generator(content)));
+    }
+
+    private static String read(StreamingOutput output) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.write(bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.limits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.Cache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.cache.InfinispanTestCacheContainer;
+
+public class ClusterSemaphoreTest {
+    private InfinispanTestCacheContainer cacheContainer;
+    private Cache<String, Map<String, Long>> permitsInUse;
+
+    @Before
+    public void setUp() {
+        cacheContainer = new InfinispanTestCacheContainer();
+        permitsInUse = cacheContainer.getCache("permits");
+    }
+
+    @After
+    public void tearDown() {
+        cacheContainer.stop();
+    }
+
+    @Test
+    public void limitIsSharedBetweenNodes() {
+        // two semaphores for the same key, as on two nodes
+        ClusterSemaphore node1 = new ClusterSemaphore(permitsInUse, "key", 2);
+        ClusterSemaphore node2 = new ClusterSemaphore(permitsInUse, "key", 2);
+
+        assertThat(node1.tryAcquire()).isTrue();
+        assertThat(node2.tryAcquire()).isTrue();
+        assertThat(node1.tryAcquire()).isFalse();
+        assertThat(node2.tryAcquire()).isFalse();
+        assertThat(node1.availablePermits()).isEqualTo(0);
+
+        node2.release();
+        assertThat(node1.availablePermits()).isEqualTo(1);
+        assertThat(node1.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void releasingLastPermitRemovesEntry() {
+        ClusterSemaphore semaphore =
+                new ClusterSemaphore(permitsInUse, "key", 1);
+
+        assertThat(semaphore.tryAcquire()).isTrue();
+        assertThat(permitsInUse.get("key")).hasSize(1);
+        semaphore.release();
+
+        assertThat(permitsInUse.containsKey("key")).isFalse();
+        assertThat(semaphore.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void leaseOfLostNodeExpiresDespiteActivityOnOtherNodes() {
+        AtomicLong now = new AtomicLong(0);
+        ClusterSemaphore lostNode =
+                new ClusterSemaphore(permitsInUse, "key", 2, now::get);
+        ClusterSemaphore node2 =
+                new ClusterSemaphore(permitsInUse, "key", 2, now::get);
+        // taken by a node which leaves without releasing
+        assertThat(lostNode.tryAcquire()).isTrue();
+
+        // other nodes keep using the semaphore
+        now.set(ClusterSemaphore.LEASE_MILLIS - 1000);
+        assertThat(node2.tryAcquire()).isTrue();
+        assertThat(node2.availablePermits()).isEqualTo(0);
+        node2.release();
+        assertThat(node2.availablePermits()).isEqualTo(1);
+
+        // the lost node's lease still expires on time
+        now.set(ClusterSemaphore.LEASE_MILLIS);
+        assertThat(node2.availablePermits()).isEqualTo(2);
+        assertThat(node2.tryAcquire()).isTrue();
+        assertThat(node2.tryAcquire()).isTrue();
+        assertThat(permitsInUse.get("key")).hasSize(2);
+    }
+
+    @Test
+    public void releaseOnlyGivesBackOwnLease() {
+        ClusterSemaphore node1 = new ClusterSemaphore(permitsInUse, "key", 2);
+        ClusterSemaphore node2 = new ClusterSemaphore(permitsInUse, "key", 2);
+        assertThat(node1.tryAcquire()).isTrue();
+
+        // node2 holds nothing, so this must not free node1's permit
+        node2.release();
+
+        assertThat(node1.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void timedAcquireWaitsForReleaseOnAnotherNode() throws Exception {
+        ClusterSemaphore node1 = new ClusterSemaphore(permitsInUse, "key", 1);
+        ClusterSemaphore node2 = new ClusterSemaphore(permitsInUse, "key", 1);
+        assertThat(node1.tryAcquire()).isTrue();
+
+        assertThat(node2.tryAcquire(30, TimeUnit.MILLISECONDS)).isFalse();
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            node1.release();
+        });
+        releaser.start();
+        assertThat(node2.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        releaser.join();
+        assertThat(node2.getLocalQueueLength()).isEqualTo(0);
+    }
+
+    @Test
+    public void restCallLimiterHonoursClusterLimit() throws Exception {
+        RestCallLimiter node1 = new RestCallLimiter(1, 1,
+                permits -> new ClusterSemaphore(permitsInUse, "c", permits),
+                permits -> new ClusterSemaphore(permitsInUse, "a", permits));
+        RestCallLimiter node2 = new RestCallLimiter(1, 1,
+                permits -> new ClusterSemaphore(permitsInUse, "c", permits),
+                permits -> new ClusterSemaphore(permitsInUse, "a", permits));
+
+        boolean[] node2Ran = new boolean[1];
+        boolean node1Ran = node1.tryAcquireAndRun(() -> {
+            // while node1 is serving a request, node2 must reject one
+            node2Ran[0] = node2.tryAcquireAndRun(() -> {
+            });
+        });
+
+        assertThat(node1Ran).isTrue();
+        assertThat(node2Ran[0]).isFalse();
+        assertThat(node2.availableConcurrentPermit()).isEqualTo(1);
+    }
+
+    @Test
+    public void clusterKeyDoesNotContainTokenValue() {
+        String key = RateLimitManager.clusterKey(
+                RateLimiterToken.fromApiKey("secret-api-key"), "concurrent");
+
+        assertThat(key).startsWith("API_KEY:").endsWith(":concurrent")
+                .doesNotContain("secret-api-key");
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.limits;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Many threads sharing one bucket, as when a burst of CI clients use the same
+ * API key. Compares the lock-free LeakyBucket with the synchronized
+ * implementation it replaced.
+ *
+ * Run from the IDE, or with the test classpath:
+ * java -cp ... org.zanata.limits.LeakyBucketBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class LeakyBucketBenchmark {
+    // refills often enough that callers see a mix of success and failure
+    private static final long CAPACITY = 1000;
+    private static final int REFILL_MICROS = 1;
+
+    private LeakyBucket lockFree;
+    private SynchronizedBucket synchronizedBucket;
+
+    @Setup
+    public void setUp() {
+        lockFree = new LeakyBucket(CAPACITY, REFILL_MICROS,
+                TimeUnit.MICROSECONDS);
+        synchronizedBucket = new SynchronizedBucket(CAPACITY, REFILL_MICROS,
+                TimeUnit.MICROSECONDS);
+    }
+
+    @Benchmark
+    public boolean lockFree() {
+        return lockFree.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean synchronizedBaseline() {
+        return synchronizedBucket.tryAcquire(1);
+    }
+
+    /**
+     * The previous LeakyBucket implementation, kept for comparison.
+     */
+    static class SynchronizedBucket {
+        private final long refillPeriod;
+        private final long capacity;
+        private final Stopwatch stopwatch = Stopwatch.createStarted();
+        private volatile long availablePermits;
+
+        SynchronizedBucket(long capacity, int refillDuration,
+                TimeUnit refillTimeUnit) {
+            this.capacity = capacity;
+            availablePermits = capacity;
+            refillPeriod = TimeUnit.NANOSECONDS.convert(refillDuration,
+                    refillTimeUnit);
+        }
+
+        synchronized boolean tryAcquire(long requestPermits) {
+            onDemandRefill();
+            if (availablePermits >= requestPermits) {
+                stopwatch.reset();
+                stopwatch.start();
+                availablePermits -= requestPermits;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized void onDemandRefill() {
+            if (availablePermits == capacity) {
+                return;
+            }
+            long timePassed = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+            if (timePassed >= refillPeriod) {
+                availablePermits = Math.min(capacity,
+                        availablePermits + timePassed / refillPeriod);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LeakyBucketBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
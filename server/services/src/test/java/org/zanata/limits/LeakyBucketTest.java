@@ -43,7 +43,7 @@ public class LeakyBucketTest {
     public void willWaitUntilRefill() throws InterruptedException {
         assertThat(bucket.tryAcquire()).isTrue();
         assertThat(bucket.tryAcquire()).isFalse();
-        when(timeTracker.timePassed()).thenReturn(timeOverRefillDuration);
+        when(timeTracker.now()).thenReturn(timeOverRefillDuration);
         assertThat(bucket.tryAcquire()).isTrue();
     }
 
@@ -64,12 +64,31 @@ public class LeakyBucketTest {
         List<Boolean> result = getFutureResult(futures);
         assertThat(result).contains(true, false, false);
         // here we simulate that we have waited enough time and try again
-        when(timeTracker.timePassed()).thenReturn(timeOverRefillDuration, 0L,
+        when(timeTracker.now()).thenReturn(timeOverRefillDuration, 0L,
                 0L);
         List<Future<Boolean>> callAgain = executorService.invokeAll(callables);
         assertThat(getFutureResult(callAgain)).contains(true, false, false);
     }
 
+    @Test
+    public void sharedBucketNeverGrantsMoreThanCapacity() throws Exception {
+        int capacity = 100;
+        LeakyBucket shared =
+                new LeakyBucket(capacity, 1, TimeUnit.HOURS);
+        Callable<Boolean> callable = shared::tryAcquire;
+        int threads = 16;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> futures = executorService
+                    .invokeAll(Collections.nCopies(capacity * 5, callable));
+            long acquired = getFutureResult(futures).stream()
+                    .filter(Boolean::booleanValue).count();
+            assertThat(acquired).isEqualTo(capacity);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private static List<Boolean>
             getFutureResult(List<Future<Boolean>> futures) {
         return futures.stream().map(input -> {
@@ -0,0 +1,139 @@
+package org.zanata.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LockLeasesTest {
+    private static final long LEASE_MILLIS = 1000;
+    private final AtomicLong now = new AtomicLong(10_000);
+    private LockLeases leases;
+
+    @Before
+    public void setUp() {
+        leases = new LockLeases(new ConcurrentHashMap<>(), LEASE_MILLIS,
+                now::get);
+    }
+
+    @Test
+    public void lockIsExclusiveUntilReleased() {
+        Lock lock = new Lock("proj", "ver", "doc", "push");
+
+        LockLease lease = leases.tryAcquire(lock, "alice");
+        assertThat(lease).isNotNull();
+        assertThat(leases.tryAcquire(new Lock("proj", "ver", "doc", "push"),
+                "bob")).isNull();
+        assertThat(leases.getOwner(lock)).isEqualTo("alice");
+
+        assertThat(leases.release(lock, lease)).isTrue();
+        assertThat(leases.tryAcquire(lock, "bob")).isNotNull();
+    }
+
+    @Test
+    public void expiredLeaseCanBeTakenOver() {
+        Lock lock = new Lock("tm", "slug");
+        assertThat(leases.tryAcquire(lock, "alice")).isNotNull();
+
+        now.addAndGet(LEASE_MILLIS);
+
+        assertThat(leases.tryAcquire(lock, "bob")).isNotNull();
+        assertThat(leases.getOwner(lock)).isEqualTo("bob");
+    }
+
+    @Test
+    public void releaseDoesNotRemoveNewHoldersLease() {
+        Lock lock = new Lock("tm", "slug");
+        ConcurrentHashMap<Lock, LockLease> shared = new ConcurrentHashMap<>();
+        LockLeases node1 = new LockLeases(shared, LEASE_MILLIS, now::get);
+        LockLeases node2 = new LockLeases(shared, LEASE_MILLIS, now::get);
+        LockLease aliceLease = node1.tryAcquire(lock, "alice");
+        now.addAndGet(LEASE_MILLIS);
+        assertThat(node2.tryAcquire(lock, "bob")).isNotNull();
+
+        // alice's node finally gives up its expired lease
+        assertThat(node1.release(lock, aliceLease)).isFalse();
+
+        assertThat(node2.tryAcquire(lock, "carol")).isNull();
+        assertThat(node2.getOwner(lock)).isEqualTo("bob");
+    }
+
+    @Test
+    public void releaseAfterTakeoverOnTheSameNodeKeepsNewHoldersLease() {
+        Lock lock = new Lock("tm", "slug");
+        LockLease aliceLease = leases.tryAcquire(lock, "alice");
+        now.addAndGet(LEASE_MILLIS);
+        LockLease bobLease = leases.tryAcquire(lock, "bob");
+        assertThat(bobLease).isNotNull();
+
+        assertThat(leases.release(lock, aliceLease)).isFalse();
+
+        assertThat(leases.getOwner(lock)).isEqualTo("bob");
+        assertThat(leases.tryAcquire(lock, "carol")).isNull();
+        assertThat(leases.release(lock, bobLease)).isTrue();
+        assertThat(leases.getOwner(lock)).isNull();
+    }
+
+    @Test
+    public void renewedLeaseDoesNotExpire() {
+        Lock lock = new Lock("tm", "slug");
+        LockLease lease = leases.tryAcquire(lock, "alice");
+
+        now.addAndGet(LEASE_MILLIS - 1);
+        lease = leases.renew(lock, lease);
+        assertThat(lease).isNotNull();
+        now.addAndGet(LEASE_MILLIS - 1);
+
+        assertThat(leases.tryAcquire(lock, "bob")).isNull();
+        assertThat(leases.release(lock, lease)).isTrue();
+    }
+
+    @Test
+    public void leaseWhichWasTakenOverCanNotBeRenewed() {
+        Lock lock = new Lock("tm", "slug");
+        LockLease aliceLease = leases.tryAcquire(lock, "alice");
+        now.addAndGet(LEASE_MILLIS);
+        assertThat(leases.tryAcquire(lock, "bob")).isNotNull();
+
+        assertThat(leases.renew(lock, aliceLease)).isNull();
+        assertThat(leases.getOwner(lock)).isEqualTo("bob");
+    }
+
+    @Test
+    public void acquireWaitsForRelease() throws Exception {
+        Lock lock = new Lock("proj", "ver", "doc", "push");
+        LockLease lease = leases.tryAcquire(lock, "alice");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<LockLease> waiter = executor.submit(
+                    () -> leases.acquire(lock, "bob", 10, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            assertThat(waiter.isDone()).isFalse();
+
+            leases.release(lock, lease);
+
+            assertThat(waiter.get(5, TimeUnit.SECONDS).getOwner())
+                    .isEqualTo("bob");
+            assertThat(leases.getOwner(lock)).isEqualTo("bob");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void acquireGivesUpAfterTimeout() throws Exception {
+        Lock lock = new Lock("proj", "ver", "doc", "push");
+        assertThat(leases.tryAcquire(lock, "alice")).isNotNull();
+
+        assertThat(leases.acquire(lock, "bob", 50, TimeUnit.MILLISECONDS))
+                .isNull();
+        assertThat(leases.getOwner(lock)).isEqualTo("alice");
+    }
+}
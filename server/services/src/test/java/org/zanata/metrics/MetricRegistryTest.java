@@ -0,0 +1,104 @@
+package org.zanata.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MetricRegistryTest {
+    private MetricRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new MetricRegistry();
+    }
+
+    @Test
+    public void sameNameAndLabelsReturnSameCounter() {
+        Counter counter = registry.counter("hits_total", "Hits", "k", "v");
+        counter.inc();
+        registry.counter("hits_total", "Hits", "k", "v").inc(2);
+        assertThat(counter.get()).isEqualTo(3);
+        assertThat(registry.counter("hits_total", "Hits", "k", "w").get())
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void writesCountersAndGaugesInTextFormat() throws IOException {
+        registry.gauge("queue_size", "Queued\nitems", () -> 4);
+        registry.counter("requests_total", "Requests", "cache", "a\"b\\c",
+                "result", "hit").inc(5);
+
+        assertThat(scrape()).isEqualTo(
+                "# HELP queue_size Queued\\nitems\n"
+                        + "# TYPE queue_size gauge\n"
+                        + "queue_size 4\n"
+                        + "# HELP requests_total Requests\n"
+                        + "# TYPE requests_total counter\n"
+                        + "requests_total{cache=\"a\\\"b\\\\c\",result=\"hit\"} 5\n");
+    }
+
+    @Test
+    public void writesTimerAsCumulativeHistogram() throws IOException {
+        Timer timer = registry.timer("load_seconds", "Load time", "cache", "x");
+        timer.record(3, TimeUnit.MILLISECONDS);
+        timer.record(200, TimeUnit.MILLISECONDS);
+        timer.record(2, TimeUnit.MINUTES);
+
+        String text = scrape();
+        assertThat(text)
+                .contains("# TYPE load_seconds histogram\n")
+                .contains("load_seconds_bucket{cache=\"x\",le=\"0.005\"} 1\n")
+                .contains("load_seconds_bucket{cache=\"x\",le=\"0.25\"} 2\n")
+                .contains("load_seconds_bucket{cache=\"x\",le=\"60\"} 2\n")
+                .contains("load_seconds_bucket{cache=\"x\",le=\"+Inf\"} 3\n")
+                .contains("load_seconds_sum{cache=\"x\"} 120.203\n")
+                .contains("load_seconds_count{cache=\"x\"} 3\n");
+    }
+
+    @Test
+    public void gaugeRegistrationReplacesSupplier() throws IOException {
+        registry.gauge("threads", "Threads", () -> 1);
+        registry.gauge("threads", "Threads", () -> 2);
+        assertThat(scrape()).contains("threads 2\n")
+                .doesNotContain("threads 1\n");
+    }
+
+    @Test
+    public void failingGaugeIsSkipped() throws IOException {
+        registry.gauge("broken", "Broken", () -> {
+            throw new IllegalStateException("boom");
+        });
+        registry.gauge("working", "Working", () -> 1.5);
+        assertThat(scrape()).contains("working 1.5\n")
+                .doesNotContain("\nbroken ");
+    }
+
+    @Test
+    public void rejectsConflictingTypes() {
+        registry.counter("things", "Things");
+        assertThatThrownBy(() -> registry.timer("things", "Things"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void rejectsInvalidNames() {
+        assertThatThrownBy(() -> registry.counter("bad-name", "Bad"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.counter("ok", "Ok", "odd"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registry.timer("ok_seconds", "Ok", "le", "1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String scrape() throws IOException {
+        StringWriter writer = new StringWriter();
+        registry.writeTo(writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package org.zanata.rest;
+
+import java.lang.reflect.Method;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.zanata.metrics.MetricRegistry;
+import org.zanata.metrics.Timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class RestMetricsFilterTest {
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private ContainerRequestContext requestContext;
+    @Mock
+    private ContainerResponseContext responseContext;
+    private Method resourceMethod;
+    private RestMetricsFilter filter;
+
+    interface SampleResource {
+        void getSample(String id);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        resourceMethod =
+                SampleResource.class.getMethod("getSample", String.class);
+        filter = new RestMetricsFilter(new ResourceInfo() {
+            @Override
+            public Method getResourceMethod() {
+                return resourceMethod;
+            }
+
+            @Override
+            public Class<?> getResourceClass() {
+                return SampleResource.class;
+            }
+        }, request);
+    }
+
+    private static Timer timer(String method, String status) {
+        return MetricRegistry.getDefault().timer(
+                "zanata_rest_request_seconds", "", "resource",
+                "SampleResource", "operation", "getSample", "method", method,
+                "status", status);
+    }
+
+    @Test
+    public void labelsTimeByResourceMethod() throws Exception {
+        long before = timer("GET", "2xx").getCount();
+        when(request.getAttribute(RestMetricsFilter.START_NANOS_ATTRIBUTE))
+                .thenReturn(System.nanoTime());
+        when(requestContext.getMethod()).thenReturn("GET");
+        when(responseContext.getStatus()).thenReturn(200);
+
+        filter.filter(requestContext, responseContext);
+
+        assertThat(timer("GET", "2xx").getCount()).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void unknownHttpMethodsShareOneLabel() throws Exception {
+        long before = timer("other", "4xx").getCount();
+        when(request.getAttribute(RestMetricsFilter.START_NANOS_ATTRIBUTE))
+                .thenReturn(System.nanoTime());
+        when(requestContext.getMethod()).thenReturn("PROPFIND");
+        when(responseContext.getStatus()).thenReturn(405);
+
+        filter.filter(requestContext, responseContext);
+
+        assertThat(timer("other", "4xx").getCount()).isEqualTo(before + 1);
+        assertThat(RestMetricsFilter.httpMethod("get")).isEqualTo("other");
+        assertThat(RestMetricsFilter.httpMethod("DELETE")).isEqualTo("DELETE");
+    }
+
+    @Test
+    public void requestsWhichBypassedTheLimiterAreNotTimed()
+            throws Exception {
+        long before = timer("GET", "2xx").getCount();
+        when(requestContext.getMethod()).thenReturn("GET");
+        when(responseContext.getStatus()).thenReturn(200);
+
+        filter.filter(requestContext, responseContext);
+
+        assertThat(timer("GET", "2xx").getCount()).isEqualTo(before);
+    }
+}
@@ -1,11 +1,18 @@
 package org.zanata.rest.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.zanata.model.tm.TransMemoryUnit.tu;
 import static org.zanata.model.tm.TransMemoryUnitVariant.tuv;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.ws.rs.core.StreamingOutput;
@@ -20,6 +27,7 @@ import org.zanata.model.tm.TMXMetadataHelper;
 import org.zanata.model.tm.TransMemoryUnit;
 import org.zanata.model.tm.TransMemory;
 import org.zanata.model.tm.TransMemoryUnitVariant;
+import org.zanata.util.CloseableIterator;
 import org.zanata.util.TMXConstants;
 import org.zanata.util.TMXParseException;
 
@@ -33,6 +41,34 @@ public class ExportTransMemoryTest extends TMXStreamingOutputTest {
         checkAllLocales(output);
     }
 
+    @Test
+    public void partitionedExportMatchesSequentialExport() throws Exception {
+        TransMemory tm = createTM();
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        TMXStreamingOutput.testInstance(createTestData(),
+                new TransMemoryTMXExportStrategy(tm)).write(sequential);
+
+        AtomicInteger closed = new AtomicInteger();
+        List<Supplier<CloseableIterator<TransMemoryUnit>>> partitions =
+                Lists.newArrayList();
+        for (List<TransMemoryUnit> units : Lists
+                .partition(Lists.newArrayList(createTestData()), 1)) {
+            partitions.add(() -> closeableIterator(units, closed));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ByteArrayOutputStream partitioned = new ByteArrayOutputStream();
+            new TMXStreamingOutput<>("test", partitions,
+                    new TransMemoryTMXExportStrategy(tm), executor, 2)
+                            .write(partitioned);
+            assertThat(partitioned.toByteArray())
+                    .isEqualTo(sequential.toByteArray());
+            assertThat(closed.get()).isEqualTo(partitions.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     boolean expectAttributes() {
         return true;
@@ -92,6 +128,27 @@ public class ExportTransMemoryTest extends TMXStreamingOutputTest {
         return tuList.iterator();
     }
 
+    private static CloseableIterator<TransMemoryUnit> closeableIterator(
+            List<TransMemoryUnit> units, AtomicInteger closed) {
+        Iterator<TransMemoryUnit> iter = units.iterator();
+        return new CloseableIterator<TransMemoryUnit>() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public TransMemoryUnit next() {
+                return iter.next();
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        };
+    }
+
     private static void addMetadata(ArrayList<TransMemoryUnit> tuList,
             String srclang) throws TMXParseException {
         for (TransMemoryUnit tu : tuList) {
@@ -96,6 +96,25 @@ public class FilterConstraintToQueryTest {
                                 + " AND textFlow=tf and locale=:locale)))");
     }
 
+    @Test
+    public void testBuildSearchConditionRestrictedToTextFlows() {
+        List<Long> textFlowIds = Lists.newArrayList(3L, 5L);
+        FilterConstraintToQuery constraintToQuery = FilterConstraintToQuery
+                .filterInSingleDocument(FilterConstraints.builder()
+                        .filterBy("FiLe").checkInTarget(false)
+                        .checkInSource(true).build(), documentId)
+                .restrictSearchToTextFlows(textFlowIds);
+        constraintToQuery.setContentCriterion(contentCriterion);
+        String result = constraintToQuery.buildSearchCondition();
+        assertThat(result).containsIgnoringCase("tf.id in (:TextFlowIdList)")
+                .contains(SOURCE_CONTENT_CASE_INSENSITIVE);
+
+        constraintToQuery.setQueryParameters(query, hLocale);
+        verify(query).setParameterList(TextFlowIdList.namedParam(),
+                textFlowIds);
+        verify(query).setParameter(SearchString.namedParam(), "%file%");
+    }
+
     @Test
     public void testBuildStateConditionWithAllState() {
         FilterConstraintToQuery constraintToQuery =
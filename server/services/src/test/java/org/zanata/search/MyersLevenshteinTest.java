@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.zanata.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MyersLevenshteinTest {
+
+    /**
+     * Reference implementation: the two-row dynamic programming algorithm
+     * which LevenshteinUtil used before MyersLevenshtein.
+     */
+    static int dynamicProgrammingDistance(String s, String t) {
+        int n = s.length();
+        int m = t.length();
+        int[] p = new int[n + 1];
+        int[] d = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            p[i] = i;
+        }
+        for (int j = 1; j <= m; j++) {
+            char tj = t.charAt(j - 1);
+            d[0] = j;
+            for (int i = 1; i <= n; i++) {
+                int cost = s.charAt(i - 1) == tj ? 0 : 1;
+                d[i] = Math.min(Math.min(d[i - 1] + 1, p[i] + 1),
+                        p[i - 1] + cost);
+            }
+            int[] swap = p;
+            p = d;
+            d = swap;
+        }
+        return p[n];
+    }
+
+    private static String randomString(Random random, String alphabet,
+            int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void simpleDistances() {
+        assertThat(MyersLevenshtein.distance("", "")).isEqualTo(0);
+        assertThat(MyersLevenshtein.distance("", "abc")).isEqualTo(3);
+        assertThat(MyersLevenshtein.distance("abc", "")).isEqualTo(3);
+        assertThat(MyersLevenshtein.distance("kitten", "sitting"))
+                .isEqualTo(3);
+        assertThat(MyersLevenshtein.distance("flaw", "lawn")).isEqualTo(2);
+        assertThat(MyersLevenshtein.distance("中文", "中"))
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void matchesDynamicProgrammingForShortAndMultiBlockStrings() {
+        Random random = new Random(42);
+        String[] alphabets = { "ab", "abcdefghijklmnopqrstuvwxyz ",
+                "abé中文 " };
+        for (int i = 0; i < 5000; i++) {
+            String alphabet = alphabets[i % alphabets.length];
+            // most pairs fit in one 64-bit block, some need several
+            int maxLength = i % 5 == 0 ? 300 : 70;
+            String s = randomString(random, alphabet, maxLength);
+            String t = randomString(random, alphabet, maxLength);
+            assertThat(MyersLevenshtein.distance(s, t))
+                    .as("distance(%s, %s)", s, t)
+                    .isEqualTo(dynamicProgrammingDistance(s, t));
+        }
+    }
+
+    @Test
+    public void boundedDistanceStopsAboveMaximum() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String s = randomString(random, "abcd", 100);
+            String t = randomString(random, "abcd", 100);
+            int maxDistance = random.nextInt(50);
+            int expected = dynamicProgrammingDistance(s, t);
+            assertThat(MyersLevenshtein.distance(s, t, maxDistance))
+                    .isEqualTo(expected <= maxDistance ? expected
+                            : maxDistance + 1);
+        }
+    }
+
+    @Test
+    public void tokenDistance() {
+        String[] s = { "one", "two", "three" };
+        String[] t = { "one", "three", "four" };
+        assertThat(MyersLevenshtein.distance(s, t)).isEqualTo(2);
+        assertThat(MyersLevenshtein.distance(s, t, 1)).isEqualTo(2);
+        assertThat(MyersLevenshtein.distance(s, new String[0])).isEqualTo(3);
+    }
+
+    @Test
+    public void boundedTokenSimilarityIsExactAboveMinimum() {
+        List<String> strings1 = Arrays.asList("one file removed",
+                "%d files removed");
+        List<String> strings2 = Arrays.asList("yet another file removed",
+                "%d files removed");
+        double exact = LevenshteinTokenUtil.getSimilarity(strings1, strings2);
+        assertThat(LevenshteinTokenUtil.getSimilarity(strings1, strings2,
+                exact)).isEqualTo(exact);
+        assertThat(LevenshteinTokenUtil.getSimilarity(strings1, strings2,
+                exact + 0.01)).isLessThan(exact + 0.01);
+    }
+}
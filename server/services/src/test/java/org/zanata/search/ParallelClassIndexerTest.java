@@ -0,0 +1,193 @@
+package org.zanata.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Query;
+import org.hibernate.search.FullTextSession;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.zanata.async.handle.ReindexTaskHandle;
+import org.zanata.model.HProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelClassIndexerTest {
+    private static final long RANGE = ParallelClassIndexer.ID_RANGE_SIZE;
+
+    @Mock
+    private FullTextSession session;
+    @Mock
+    private FullTextSession workerSession;
+    @Mock
+    private Query minIdQuery;
+    @Mock
+    private Query maxIdQuery;
+    @Mock
+    private AbstractIndexingStrategy<HProject> strategy;
+
+    private final ReindexTaskHandle handle = new ReindexTaskHandle();
+    // ranges which the indexing strategy has finished, as [fromId, toId)
+    private final List<List<Long>> indexedRanges =
+            new CopyOnWriteArrayList<>();
+    private final List<Long> savedCheckpoints = new CopyOnWriteArrayList<>();
+    // checkpoints saved while a range below them was still being indexed
+    private final List<Long> prematureCheckpoints =
+            new CopyOnWriteArrayList<>();
+    private final ReindexCheckpoint checkpoint = new ReindexCheckpoint(null) {
+        @Override
+        public synchronized void save(Class<?> clazz, long nextId) {
+            if (!allRangesIndexedBelow(nextId)) {
+                prematureCheckpoints.add(nextId);
+            }
+            savedCheckpoints.add(nextId);
+            super.save(clazz, nextId);
+        }
+    };
+    private long minId;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(session.createQuery(startsWith("select min")))
+                .thenReturn(minIdQuery);
+        when(session.createQuery(startsWith("select max")))
+                .thenReturn(maxIdQuery);
+        when(minIdQuery.setParameter(anyString(), any()))
+                .thenReturn(minIdQuery);
+        when(strategy.invokeRange(any(), any(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    indexedRanges.add(range(invocation.getArgument(2),
+                            invocation.getArgument(3)));
+                    return 0;
+                });
+    }
+
+    private void givenIds(long minId, long maxId) {
+        this.minId = minId;
+        when(minIdQuery.uniqueResult()).thenReturn(minId);
+        when(maxIdQuery.uniqueResult()).thenReturn(maxId);
+    }
+
+    private ParallelClassIndexer<HProject> indexer(int threads) {
+        return new ParallelClassIndexer<>(handle, HProject.class, strategy,
+                threads, checkpoint, () -> workerSession);
+    }
+
+    private static List<Long> range(long fromId, long toId) {
+        return Arrays.asList(fromId, toId);
+    }
+
+    private boolean allRangesIndexedBelow(long nextId) {
+        for (long fromId = minId; fromId < nextId; fromId += RANGE) {
+            if (!indexedRanges.contains(range(fromId, fromId + RANGE))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void completedRangesCountsOnlyLeadingRanges() {
+        ParallelClassIndexer.CompletedRanges completed =
+                new ParallelClassIndexer.CompletedRanges();
+        assertThat(completed.getContiguousCount()).isEqualTo(0);
+        assertThat(completed.markDone(2)).isEqualTo(0);
+        assertThat(completed.markDone(1)).isEqualTo(0);
+        assertThat(completed.markDone(0)).isEqualTo(3);
+        assertThat(completed.markDone(4)).isEqualTo(3);
+        assertThat(completed.markDone(3)).isEqualTo(5);
+    }
+
+    @Test
+    public void partitionsIdsIntoFixedSizeRanges() throws Exception {
+        givenIds(1, 2 * RANGE + 1);
+
+        indexer(2).index(session);
+
+        assertThat(indexedRanges).containsExactlyInAnyOrder(
+                range(1, RANGE + 1),
+                range(RANGE + 1, 2 * RANGE + 1),
+                range(2 * RANGE + 1, 3 * RANGE + 1));
+        // each range is indexed with its own session
+        verify(workerSession, times(3)).close();
+        assertThat(checkpoint.getResumeId(HProject.class))
+                .contains(3 * RANGE + 1);
+    }
+
+    @Test
+    public void checkpointWaitsForEarlierRanges() throws Exception {
+        givenIds(1, 2 * RANGE + 1);
+        CountDownLatch laterRangesIndexed = new CountDownLatch(2);
+        when(strategy.invokeRange(any(), any(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    long fromId = invocation.getArgument(2);
+                    if (fromId == 1) {
+                        // the first range is the last to finish
+                        assertThat(laterRangesIndexed.await(10,
+                                TimeUnit.SECONDS)).isTrue();
+                    }
+                    indexedRanges.add(
+                            range(fromId, invocation.getArgument(3)));
+                    laterRangesIndexed.countDown();
+                    return 0;
+                });
+
+        indexer(3).index(session);
+
+        assertThat(prematureCheckpoints).isEmpty();
+        assertThat(savedCheckpoints).isSorted()
+                .endsWith(3 * RANGE + 1);
+    }
+
+    @Test
+    public void failedRangeLeavesCheckpointBeforeIt() throws Exception {
+        givenIds(1, 2 * RANGE + 1);
+        when(strategy.invokeRange(any(), any(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    long fromId = invocation.getArgument(2);
+                    if (fromId == RANGE + 1) {
+                        throw new IllegalStateException("database went away");
+                    }
+                    indexedRanges.add(
+                            range(fromId, invocation.getArgument(3)));
+                    return 0;
+                });
+
+        assertThatThrownBy(() -> indexer(1).index(session))
+                .isInstanceOf(ExecutionException.class);
+
+        assertThat(checkpoint.getResumeId(HProject.class))
+                .contains(RANGE + 1);
+    }
+
+    @Test
+    public void resumesFromCheckpoint() throws Exception {
+        checkpoint.save(HProject.class, 2 * RANGE + 1);
+        // the smallest id at or after the checkpoint
+        givenIds(2 * RANGE + 1, 4 * RANGE);
+
+        indexer(2).index(session);
+
+        verify(minIdQuery).setParameter("firstId", 2 * RANGE + 1);
+        assertThat(indexedRanges).containsExactlyInAnyOrder(
+                range(2 * RANGE + 1, 3 * RANGE + 1),
+                range(3 * RANGE + 1, 4 * RANGE + 1));
+        assertThat(checkpoint.getResumeId(HProject.class))
+                .contains(4 * RANGE + 1);
+    }
+}
@@ -0,0 +1,56 @@
+package org.zanata.search;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zanata.model.HProject;
+import org.zanata.model.HTextFlowTarget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReindexCheckpointTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void checkpointSurvivesRestart() throws Exception {
+        ReindexCheckpoint checkpoint = new ReindexCheckpoint(folder.getRoot());
+        checkpoint.save(HTextFlowTarget.class, 15000L);
+        checkpoint.save(HProject.class, 5000L);
+
+        ReindexCheckpoint reloaded = new ReindexCheckpoint(folder.getRoot());
+        assertThat(reloaded.getResumeId(HTextFlowTarget.class))
+                .contains(15000L);
+        assertThat(reloaded.getResumeId(HProject.class)).contains(5000L);
+    }
+
+    @Test
+    public void clearForgetsOnlyThatClass() throws Exception {
+        ReindexCheckpoint checkpoint = new ReindexCheckpoint(folder.getRoot());
+        checkpoint.save(HTextFlowTarget.class, 15000L);
+        checkpoint.save(HProject.class, 5000L);
+        checkpoint.clear(HTextFlowTarget.class);
+
+        ReindexCheckpoint reloaded = new ReindexCheckpoint(folder.getRoot());
+        assertThat(reloaded.getResumeId(HTextFlowTarget.class)).isEmpty();
+        assertThat(reloaded.getResumeId(HProject.class)).contains(5000L);
+    }
+
+    @Test
+    public void keepsCheckpointsInMemoryWithoutDirectory() {
+        ReindexCheckpoint checkpoint = new ReindexCheckpoint(null);
+        assertThat(checkpoint.getResumeId(HProject.class)).isEmpty();
+        checkpoint.save(HProject.class, 5000L);
+        assertThat(checkpoint.getResumeId(HProject.class)).contains(5000L);
+    }
+
+    @Test
+    public void contiguousCountIgnoresRangesCompletedOutOfOrder() {
+        ParallelClassIndexer.CompletedRanges ranges =
+                new ParallelClassIndexer.CompletedRanges();
+        assertThat(ranges.markDone(1)).isEqualTo(0);
+        assertThat(ranges.markDone(2)).isEqualTo(0);
+        assertThat(ranges.markDone(0)).isEqualTo(3);
+        assertThat(ranges.markDone(4)).isEqualTo(3);
+    }
+}
@@ -44,7 +44,6 @@ import org.zanata.model.HProject;
 import org.zanata.model.HProjectIteration;
 import org.zanata.model.HTextFlow;
 import org.zanata.service.LocaleService;
-import org.zanata.service.TranslationStateCache;
 
 /**
  * @author Sean Flanigan <a href="mailto:sflaniga@redhat.com">sflaniga@redhat.com</a>
@@ -62,8 +61,6 @@ public class CopyTransServiceUnitTest {
     @Mock
     CopyTransWorkFactory copyTransWorkFactory;
     @Mock
-    TranslationStateCache translationStateCacheImpl;
-    @Mock
     TextFlowDAO textFlowDAO;
 
     @Before
@@ -86,7 +83,7 @@ public class CopyTransServiceUnitTest {
                 new CopyTransServiceImpl(
                         localeServiceImpl, projectDAO, documentDAO,
                         copyTransWorkFactory, textFlowTargetDAO,
-                        translationStateCacheImpl, textFlowDAO);
+                        textFlowDAO, null);
 
         HCopyTransOptions projOptions = new HCopyTransOptions(IGNORE, IGNORE, IGNORE);
 
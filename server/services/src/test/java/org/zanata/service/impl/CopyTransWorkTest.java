@@ -25,10 +25,27 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.junit.Test;
 import org.zanata.common.ContentState;
+import org.mockito.ArgumentCaptor;
+import org.zanata.common.LocaleId;
+import org.zanata.dao.TextFlowTargetDAO;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.webtrans.server.rpc.NavigationIndexCache;
+import org.zanata.webtrans.server.rpc.NavigationIndexCache.NavigationIndex;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.search.FilterConstraints;
 
 import java.util.List;
+import javax.enterprise.event.Event;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.zanata.common.ContentState.Approved;
 import static org.zanata.common.ContentState.NeedReview;
 import static org.zanata.common.ContentState.New;
@@ -190,4 +207,84 @@ public class CopyTransWorkTest {
         assertThat(CopyTransWorkFactory.determineContentStateFromRuleList(
             Lists.newArrayList(), Approved)).isEqualTo(Translated);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void newTargetIsSavedBeforeItsCopyIsSignalled() {
+        TextFlowTargetDAO textFlowTargetDAO = mock(TextFlowTargetDAO.class);
+        Event<TextFlowTargetStateEvent> stateEvent = mock(Event.class);
+        Event<DocStatsEvent> statsEvent = mock(Event.class);
+        CopyTransWorkFactory factory =
+                new CopyTransWorkFactory(textFlowTargetDAO,
+                        new TranslationEventAggregator(null, null,
+                                stateEvent, statsEvent));
+        HTextFlowTarget target =
+                mock(HTextFlowTarget.class, RETURNS_DEEP_STUBS);
+        // getOrCreateTarget does not save the targets it creates
+        when(target.getId()).thenReturn(null);
+        when(textFlowTargetDAO.makePersistent(target))
+                .thenAnswer(invocation -> {
+                    when(target.getId()).thenReturn(106L);
+                    return target;
+                });
+        when(target.getLocaleId()).thenReturn(LocaleId.DE);
+        when(target.getState()).thenReturn(Translated);
+        when(target.getTextFlow().getId()).thenReturn(5L);
+        when(target.getTextFlow().getDocument().getId()).thenReturn(1L);
+        when(target.getTextFlow().getDocument().getProjectIteration().getId())
+                .thenReturn(2L);
+
+        factory.signalCopiedTranslation(target, New, 3L);
+
+        ArgumentCaptor<TextFlowTargetStateEvent> stateCaptor =
+                ArgumentCaptor.forClass(TextFlowTargetStateEvent.class);
+        verify(stateEvent).fire(stateCaptor.capture());
+        assertThat(stateCaptor.getValue().getStates())
+                .extracting("textFlowTargetId").containsExactly(106L);
+        ArgumentCaptor<DocStatsEvent> statsCaptor =
+                ArgumentCaptor.forClass(DocStatsEvent.class);
+        verify(statsEvent).fire(statsCaptor.capture());
+        assertThat(statsCaptor.getValue().getLastModifiedTargetId())
+                .isEqualTo(106L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void copiedTranslationUpdatesEditorNavigationIndex() {
+        NavigationIndexCache navigationIndexCache = new NavigationIndexCache();
+        Event<TextFlowTargetStateEvent> stateEvent = mock(Event.class);
+        doAnswer(invocation -> {
+            navigationIndexCache.onTargetStateChange(invocation.getArgument(0));
+            return null;
+        }).when(stateEvent).fire(any(TextFlowTargetStateEvent.class));
+        // no transaction, so events are fired straight away
+        CopyTransWorkFactory factory =
+                new CopyTransWorkFactory(mock(TextFlowTargetDAO.class),
+                        new TranslationEventAggregator(null, null, stateEvent,
+                                mock(Event.class)));
+        HTextFlowTarget target =
+                mock(HTextFlowTarget.class, RETURNS_DEEP_STUBS);
+        when(target.getId()).thenReturn(105L);
+        when(target.getLocaleId()).thenReturn(LocaleId.DE);
+        when(target.getState()).thenReturn(Translated);
+        when(target.getTextFlow().getId()).thenReturn(5L);
+        when(target.getTextFlow().getDocument().getId()).thenReturn(1L);
+        when(target.getTextFlow().getDocument().getProjectIteration().getId())
+                .thenReturn(2L);
+        FilterConstraints untranslated = FilterConstraints.builder()
+                .keepNone().includeNew().build();
+        assertThat(navigationIndexCache.get(1L, LocaleId.DE, untranslated,
+                constraints -> new NavigationIndex(Lists.newArrayList(5L, 6L),
+                        Lists.newArrayList(New, New))).size())
+                .isEqualTo(2);
+
+        factory.signalCopiedTranslation(target, New, 3L);
+
+        NavigationIndex index = navigationIndexCache.get(1L, LocaleId.DE,
+                untranslated, constraints -> {
+                    throw new AssertionError("index should be cached");
+                });
+        assertThat(index.toResult().getIdIndexList())
+                .containsExactly(new TransUnitId(6L));
+    }
 }
@@ -152,7 +152,7 @@ public class DocumentServiceImplTest {
     @Test
     public void documentMilestoneEventTranslatedTest() {
         WordStatistic stats = new WordStatistic(0, 0, 0, 10, 0);
-        when(translationStateCacheImpl.getDocumentStatistics(docId, localeId))
+        when(documentDAO.getWordStatistics(docId, localeId))
             .thenReturn(stats);
         runDocumentStatisticUpdatedTest(documentService, ContentState.New,
                 ContentState.Translated);
@@ -174,7 +174,7 @@ public class DocumentServiceImplTest {
     @Test
     public void documentMilestoneEventTranslatedNot100Test() {
         WordStatistic stats = new WordStatistic(0, 1, 0, 9, 0);
-        when(translationStateCacheImpl.getDocumentStatistics(docId, localeId))
+        when(documentDAO.getWordStatistics(docId, localeId))
             .thenReturn(stats);
         runDocumentStatisticUpdatedTest(documentService, ContentState.New,
                 ContentState.Translated);
@@ -190,7 +190,7 @@ public class DocumentServiceImplTest {
     @Test
     public void documentMilestoneEventApprovedTest() {
         WordStatistic stats = new WordStatistic(10, 0, 0, 0, 0);
-        when(translationStateCacheImpl.getDocumentStatistics(docId, localeId))
+        when(documentDAO.getWordStatistics(docId, localeId))
             .thenReturn(stats);
         runDocumentStatisticUpdatedTest(documentService, ContentState.Translated,
                 ContentState.Approved);
@@ -211,7 +211,7 @@ public class DocumentServiceImplTest {
     @Test
     public void documentMilestoneEventApprovedNot100Test() {
         WordStatistic stats = new WordStatistic(9, 0, 0, 1, 0);
-        when(translationStateCacheImpl.getDocumentStatistics(docId, localeId))
+        when(documentDAO.getWordStatistics(docId, localeId))
             .thenReturn(stats);
         runDocumentStatisticUpdatedTest(documentService, ContentState.Translated,
                 ContentState.Approved);
@@ -225,7 +225,7 @@ public class DocumentServiceImplTest {
     @Test
     public void documentMilestoneEventSameStateTest1() {
         WordStatistic stats = new WordStatistic(10, 0, 0, 0, 0);
-        when(translationStateCacheImpl.getDocumentStatistics(docId, localeId))
+        when(documentDAO.getWordStatistics(docId, localeId))
             .thenReturn(stats);
 
         runDocumentStatisticUpdatedTest(documentService, ContentState.Approved,
@@ -241,7 +241,7 @@ public class DocumentServiceImplTest {
     public void documentMilestoneEventSameStateTest2() {
         WordStatistic stats = new WordStatistic(0, 0, 0, 10, 0);
 
-        when(translationStateCacheImpl.getDocumentStatistics(docId, localeId))
+        when(documentDAO.getWordStatistics(docId, localeId))
             .thenReturn(stats);
 
         runDocumentStatisticUpdatedTest(documentService, ContentState.Translated,
@@ -101,4 +101,18 @@ public class LockManagerServiceImplTest extends ZanataTest {
         lockManagerService.release(l1Eq);
         lockManagerService.release(l2);
     }
+
+    @Test
+    public void renewedLockIsStillHeld() {
+        Lock l1 = new Lock("prop1", "prop2", "prop3");
+        assertThat(lockManagerService.checkAndAttain(l1)).isTrue();
+
+        lockManagerService.renewLeases();
+
+        assertThat(lockManagerService.attainLockOrReturnOwner(
+                new Lock("prop1", "prop2", "prop3"))).isEqualTo("admin");
+        lockManagerService.release(l1);
+        assertThat(lockManagerService.checkAndAttain(l1)).isTrue();
+        lockManagerService.release(l1);
+    }
 }
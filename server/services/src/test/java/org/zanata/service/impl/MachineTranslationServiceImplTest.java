@@ -11,6 +11,8 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,6 +52,7 @@ import org.zanata.common.ProjectType;
 import org.zanata.config.MTServiceToken;
 import org.zanata.config.MTServiceURL;
 import org.zanata.config.MTServiceUser;
+import org.zanata.config.SystemPropertyConfigStore;
 import org.zanata.dao.TextFlowDAO;
 import org.zanata.dao.TextFlowTargetDAO;
 import org.zanata.model.HDocument;
@@ -64,6 +67,7 @@ import org.zanata.rest.service.MachineTranslationsManager;
 import org.zanata.service.LocaleService;
 import org.zanata.service.TranslationService;
 import org.zanata.service.VersionStateCache;
+import org.zanata.service.mt.MachineTranslationClient;
 import org.zanata.service.mt.TextFlowsToMTDoc;
 import org.zanata.servlet.annotations.ContextPath;
 import org.zanata.servlet.annotations.ServerPath;
@@ -83,6 +87,7 @@ import com.google.common.base.Joiner;
 @RunWith(CdiUnitRunner.class)
 @AdditionalClasses({
         AttributionService.class,
+        MachineTranslationClient.class,
         TextFlowsToMTDoc.class,
         TextFlowDAO.class,
         TextFlowTargetDAO.class,
@@ -119,6 +124,10 @@ public class MachineTranslationServiceImplTest extends ZanataJpaTest {
     @Mock
     WindowContext windowContext;
 
+    @Produces
+    @Mock
+    SystemPropertyConfigStore configStore;
+
     @Produces
     @Mock
     LocaleService localeService;
@@ -157,6 +166,9 @@ public class MachineTranslationServiceImplTest extends ZanataJpaTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        // use the default for every numeric setting
+        when(configStore.get(anyString(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
 
         mockMTServer =
                 new WireMockServer(wireMockConfig().dynamicPort());
@@ -263,6 +275,29 @@ public class MachineTranslationServiceImplTest extends ZanataJpaTest {
         canGetTranslationFromMT(false, ContentState.Translated, true);
     }
 
+    @Test
+    @InRequestScope
+    public void repeatedSuggestionIsOnlyRequestedFromMTOnce() {
+        HProjectIteration version = makeProjectVersion("project", "master");
+        HDocument doc =
+                new HDocument("pot/message", ContentType.PO, sourceLocale);
+        doc.setProjectIteration(version);
+        HTextFlow textFlow = new HTextFlow(doc, "resId");
+        textFlow.setContents(singletonList("Hello World"));
+        stubForMachineTranslationRequest(1);
+
+        List<String> first = service.getSuggestion(textFlow,
+                sourceLocale.getLocaleId(), targetLocale.getLocaleId());
+        List<String> second = service.getSuggestion(textFlow,
+                sourceLocale.getLocaleId(), targetLocale.getLocaleId());
+
+        assertThat(first).containsExactly("Hallo Welt");
+        assertThat(second).isEqualTo(first);
+        VerificationResult mtRequests =
+                mockMTServer.countRequestsMatching(RequestPattern.everything());
+        assertThat(mtRequests.getCount()).isEqualTo(1);
+    }
+
     private void canGetTranslationFromMT(
             boolean plurals, ContentState saveAsState, boolean overwriteFuzzy)
             throws Exception {
@@ -300,7 +335,7 @@ public class MachineTranslationServiceImplTest extends ZanataJpaTest {
 
         when(localeService.getByLocaleId(targetLocale.getLocaleId())).thenReturn(targetLocale);
 
-        stubForMachineTranslationRequest();
+        stubForMachineTranslationRequest(NUM_OF_TEXTFLOWS);
 
 //        ListStubMappingsResult listStubMappingsResult =
 //                WireMock.listAllStubMappings();
@@ -352,6 +387,9 @@ public class MachineTranslationServiceImplTest extends ZanataJpaTest {
                 allRequestsLists.stream().flatMap(Collection::stream)
                         .collect(Collectors.toList());
 
+        assertThat(taskHandle.getStageTimes()).containsKeys(
+                "fetchTextFlows", "machineTranslate", "waitForMT",
+                "saveTranslations");
         assertThat(allRequestsFlat)
                 .as("number of translations added")
                 .hasSize(expectedTranslations)
@@ -360,9 +398,9 @@ public class MachineTranslationServiceImplTest extends ZanataJpaTest {
                 .allMatch(it -> it.equals(expectedState));
     }
 
-    private void stubForMachineTranslationRequest() {
+    private void stubForMachineTranslationRequest(int numOfContents) {
         // we construct an array of translations
-        String[] allTranslations = new String[NUM_OF_TEXTFLOWS];
+        String[] allTranslations = new String[numOfContents];
         Arrays.fill(allTranslations, "{\"value\": \"Hallo Welt\", \"type\": \"text/html\", \"metadata\": null}");
         String joinedContent = Joiner.on(",").join(allTranslations);
         stubFor(post(anyUrl())
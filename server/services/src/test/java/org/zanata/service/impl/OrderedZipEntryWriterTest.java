@@ -0,0 +1,119 @@
+package org.zanata.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class OrderedZipEntryWriterTest {
+    private ByteArrayOutputStream bytes;
+    private ZipOutputStream zipOutput;
+    private AtomicInteger written;
+
+    @Before
+    public void setUp() {
+        bytes = new ByteArrayOutputStream();
+        zipOutput = new ZipOutputStream(bytes);
+        written = new AtomicInteger();
+    }
+
+    @Test
+    public void writesEntriesInOrderAdded() throws Exception {
+        OrderedZipEntryWriter writer =
+                new OrderedZipEntryWriter(zipOutput, 3,
+                        written::incrementAndGet);
+        CompletableFuture<byte[]> first = new CompletableFuture<>();
+        CompletableFuture<byte[]> second = new CompletableFuture<>();
+        writer.add("a.po", first);
+        writer.add("b.po", second);
+        // the second entry is ready first
+        second.complete(content("b"));
+        first.complete(content("a"));
+        writer.add("c.po", CompletableFuture.completedFuture(content("c")));
+        writer.finish();
+        zipOutput.close();
+
+        assertThat(readEntries()).containsExactly("a.po=a", "b.po=b",
+                "c.po=c");
+        assertThat(written.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void writesOldestEntryWhenFull() throws Exception {
+        OrderedZipEntryWriter writer =
+                new OrderedZipEntryWriter(zipOutput, 2,
+                        written::incrementAndGet);
+        for (int i = 0; i < 5; i++) {
+            writer.add(i + ".po",
+                    CompletableFuture.completedFuture(content("" + i)));
+            assertThat(writer.getPendingCount()).isLessThanOrEqualTo(2);
+        }
+        assertThat(written.get()).isEqualTo(3);
+        writer.finish();
+        assertThat(written.get()).isEqualTo(5);
+    }
+
+    @Test
+    public void failedEntryStopsWriting() throws Exception {
+        OrderedZipEntryWriter writer =
+                new OrderedZipEntryWriter(zipOutput, 1,
+                        written::incrementAndGet);
+        CompletableFuture<byte[]> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("broken"));
+        writer.add("a.po", failed);
+        try {
+            writer.add("b.po",
+                    CompletableFuture.completedFuture(content("b")));
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).hasMessage("broken");
+        }
+        assertThat(written.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void cancelDiscardsPendingEntries() throws Exception {
+        OrderedZipEntryWriter writer =
+                new OrderedZipEntryWriter(zipOutput, 3,
+                        written::incrementAndGet);
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        writer.add("a.po", pending);
+        writer.cancel();
+
+        assertThat(pending.isCancelled()).isTrue();
+        assertThat(writer.getPendingCount()).isEqualTo(0);
+        writer.finish();
+        assertThat(written.get()).isEqualTo(0);
+    }
+
+    private static byte[] content(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<String> readEntries() throws Exception {
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zipInput = new ZipInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                entries.add(entry.getName() + "="
+                        + IOUtils.toString(zipInput, StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
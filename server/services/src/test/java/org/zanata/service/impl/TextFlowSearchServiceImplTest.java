@@ -12,6 +12,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.zanata.ApplicationConfiguration;
 import org.zanata.ZanataDbunitJpaTest;
 import org.zanata.common.LocaleId;
 import org.zanata.common.ProjectType;
@@ -46,6 +47,7 @@ public class TextFlowSearchServiceImplTest extends ZanataDbunitJpaTest {
     private HLocale jaHLocale;
 
     @Produces @Mock private LocaleService localeService;
+    @Produces @Mock private ApplicationConfiguration applicationConfiguration;
 
     @Override
     @Produces
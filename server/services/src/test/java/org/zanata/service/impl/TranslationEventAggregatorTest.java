@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.enterprise.event.Event;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.events.TextFlowTargetStateEvent.TextFlowTargetStateChange;
+import com.google.common.collect.ImmutableMap;
+
+public class TranslationEventAggregatorTest {
+    private static final DocumentLocaleKey DOC1_DE =
+            new DocumentLocaleKey(1L, LocaleId.DE);
+    private static final DocumentLocaleKey DOC2_DE =
+            new DocumentLocaleKey(2L, LocaleId.DE);
+
+    @Mock
+    private TransactionSynchronizationRegistry txRegistry;
+    @Mock
+    private TransactionManager transactionManager;
+    @Mock
+    private Transaction transaction;
+    @Mock
+    private Event<TextFlowTargetStateEvent> stateEvent;
+    @Mock
+    private Event<DocStatsEvent> statsEvent;
+    private final Map<Object, Object> txResources = new HashMap<>();
+    private Synchronization synchronization;
+    private TranslationEventAggregator aggregator;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(txRegistry.getResource(any()))
+                .then(inv -> txResources.get(inv.getArguments()[0]));
+        doAnswer(inv -> txResources
+                .put(inv.getArguments()[0], inv.getArguments()[1]))
+                .when(txRegistry).putResource(any(), any());
+        when(transactionManager.getTransaction()).thenReturn(transaction);
+        doAnswer(inv -> synchronization =
+                (Synchronization) inv.getArguments()[0]).when(transaction)
+                .registerSynchronization(any());
+        aggregator = new TranslationEventAggregator(txRegistry,
+                transactionManager, stateEvent, statsEvent);
+    }
+
+    private static DocStatsEvent stats(DocumentLocaleKey key,
+            ContentState state, long words, long targetId) {
+        return new DocStatsEvent(key, 10L,
+                new HashMap<>(ImmutableMap.of(state, words, ContentState.New,
+                        -words)),
+                targetId);
+    }
+
+    private static TextFlowTargetStateEvent state(DocumentLocaleKey key,
+            long textFlowId) {
+        return new TextFlowTargetStateEvent(key, 10L, 100L,
+                new TextFlowTargetStateChange(textFlowId, textFlowId + 1000,
+                        ContentState.Translated, ContentState.New));
+    }
+
+    @Test
+    public void firesImmediatelyWithoutTransaction() throws Exception {
+        when(txRegistry.getTransactionStatus())
+                .thenReturn(Status.STATUS_NO_TRANSACTION);
+        DocStatsEvent event = stats(DOC1_DE, ContentState.Translated, 5, 1);
+
+        aggregator.fireAtCommit(event);
+
+        verify(statsEvent).fire(event);
+        verify(transaction, never()).registerSynchronization(any());
+    }
+
+    @Test
+    public void firesImmediatelyWithoutRegistry() {
+        aggregator = new TranslationEventAggregator(null, null, stateEvent,
+                statsEvent);
+        TextFlowTargetStateEvent event = state(DOC1_DE, 1L);
+
+        aggregator.fireAtCommit(event);
+
+        verify(stateEvent).fire(event);
+    }
+
+    @Test
+    public void mergesEventsPerDocumentUntilCommit() throws Exception {
+        when(txRegistry.getTransactionStatus())
+                .thenReturn(Status.STATUS_ACTIVE);
+
+        aggregator.fireAtCommit(state(DOC1_DE, 1L));
+        aggregator.fireAtCommit(stats(DOC1_DE, ContentState.Translated, 5, 1));
+        aggregator.fireAtCommit(state(DOC1_DE, 2L));
+        aggregator.fireAtCommit(stats(DOC1_DE, ContentState.Translated, 3, 2));
+        aggregator.fireAtCommit(stats(DOC2_DE, ContentState.Approved, 7, 3));
+
+        verify(stateEvent, never()).fire(any());
+        verify(statsEvent, never()).fire(any());
+        verify(transaction, times(1)).registerSynchronization(any());
+        verify(txRegistry, never()).registerInterposedSynchronization(any());
+
+        synchronization.beforeCompletion();
+
+        ArgumentCaptor<TextFlowTargetStateEvent> states =
+                ArgumentCaptor.forClass(TextFlowTargetStateEvent.class);
+        verify(stateEvent).fire(states.capture());
+        assertThat(states.getValue().getKey()).isEqualTo(DOC1_DE);
+        assertThat(states.getValue().getStates()).extracting("textFlowId")
+                .containsExactly(1L, 2L);
+
+        ArgumentCaptor<DocStatsEvent> stats =
+                ArgumentCaptor.forClass(DocStatsEvent.class);
+        verify(statsEvent, times(2)).fire(stats.capture());
+        List<DocStatsEvent> fired = stats.getAllValues();
+        assertThat(fired.get(0).getKey()).isEqualTo(DOC1_DE);
+        assertThat(fired.get(0).getWordDeltasByState())
+                .containsEntry(ContentState.Translated, 8L)
+                .containsEntry(ContentState.New, -8L);
+        assertThat(fired.get(0).getLastModifiedTargetId()).isEqualTo(2L);
+        assertThat(fired.get(1).getKey()).isEqualTo(DOC2_DE);
+        assertThat(fired.get(1).getWordDeltasByState())
+                .containsEntry(ContentState.Approved, 7L);
+    }
+
+    @Test
+    public void eventsAfterFiringAreNotHeldBack() throws Exception {
+        when(txRegistry.getTransactionStatus())
+                .thenReturn(Status.STATUS_ACTIVE);
+        aggregator.fireAtCommit(state(DOC1_DE, 1L));
+        synchronization.beforeCompletion();
+
+        // eg from an entity listener during the flush
+        DocStatsEvent late = stats(DOC2_DE, ContentState.Translated, 1, 4);
+        aggregator.fireAtCommit(late);
+
+        verify(statsEvent).fire(late);
+    }
+
+    @Test
+    public void mergeSumsWordDeltas() {
+        DocStatsEvent merged = TranslationEventAggregator.merge(
+                stats(DOC1_DE, ContentState.Translated, 5, 1),
+                stats(DOC1_DE, ContentState.Approved, 2, 9));
+
+        assertThat(merged.getWordDeltasByState())
+                .containsEntry(ContentState.Translated, 5L)
+                .containsEntry(ContentState.Approved, 2L)
+                .containsEntry(ContentState.New, -7L);
+        assertThat(merged.getLastModifiedTargetId()).isEqualTo(9L);
+        assertThat(merged.getProjectVersionId()).isEqualTo(10L);
+    }
+}
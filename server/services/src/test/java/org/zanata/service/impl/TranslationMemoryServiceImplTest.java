@@ -2,6 +2,7 @@ package org.zanata.service.impl;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
@@ -234,6 +235,63 @@ public class TranslationMemoryServiceImplTest {
             executeFindBestTMMatch(textFlow, 100, true);
         }
 
+        @Test
+        @InRequestScope
+        public void batchSearchBestMatchTMMatchesPerSegmentSearch() {
+            List<HTextFlow> textFlows = batchTextFlows();
+            for (int threshold : new int[] { 70, 90, 100 }) {
+                assertMatchesPerSegmentSearch(textFlows, threshold,
+                        service.searchBestMatchTransMemory(textFlows,
+                                targetLocale.getLocaleId(),
+                                sourceLocale.getLocaleId(), false, false,
+                                false, threshold,
+                                InternalTMSource.SELECT_ALL));
+            }
+        }
+
+        @Test
+        @InRequestScope
+        public void truncatedBatchSearchBestMatchTMMatchesPerSegmentSearch() {
+            List<HTextFlow> textFlows = batchTextFlows();
+            for (int threshold : new int[] { 70, 90, 100 }) {
+                // the combined query always reaches a limit of one hit
+                assertMatchesPerSegmentSearch(textFlows, threshold,
+                        service.searchBestMatchTransMemory(textFlows,
+                                targetLocale.getLocaleId(),
+                                sourceLocale.getLocaleId(), false, false,
+                                false, threshold,
+                                InternalTMSource.SELECT_ALL, 1));
+            }
+        }
+
+        private List<HTextFlow> batchTextFlows() {
+            return Lists.newArrayList(textFlowDAO.findById(101L, false),
+                    textFlowDAO.findById(105L, false));
+        }
+
+        private void assertMatchesPerSegmentSearch(List<HTextFlow> textFlows,
+                int threshold, Map<Long, TransMemoryResultItem> batchMatches) {
+            for (HTextFlow textFlow : textFlows) {
+                Optional<TransMemoryResultItem> match =
+                        service.searchBestMatchTransMemory(textFlow,
+                                targetLocale.getLocaleId(),
+                                sourceLocale.getLocaleId(), false, false,
+                                false, threshold,
+                                InternalTMSource.SELECT_ALL);
+                TransMemoryResultItem batchMatch =
+                        batchMatches.get(textFlow.getId());
+                assertThat(batchMatch != null).isEqualTo(match.isPresent());
+                if (match.isPresent()) {
+                    assertThat(batchMatch.getSourceContents())
+                            .isEqualTo(match.get().getSourceContents());
+                    assertThat(batchMatch.getTargetContents())
+                            .isEqualTo(match.get().getTargetContents());
+                    assertThat(batchMatch.getSimilarityPercent())
+                            .isEqualTo(match.get().getSimilarityPercent());
+                }
+            }
+        }
+
         private void executeFindBestTMMatch(HTextFlow textFlow, int threshold,
                 boolean hasMatch) {
             Optional<TransMemoryResultItem> match =
@@ -55,6 +55,7 @@ import com.google.common.collect.Sets;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -153,4 +154,15 @@ public class TranslationUpdatedManagerTest {
         assertThat((captor.getValue().get(0)).getTypes())
                 .contains(WebhookType.DocumentStatsEvent);
     }
+
+    @Test
+    public void eventWithoutTargetIdIsIgnored() {
+        DocStatsEvent event = new DocStatsEvent(
+                new DocumentLocaleKey(docId, localeId), versionId,
+                new HashMap<>(), null);
+
+        manager.processWebHookEvent(event);
+
+        verifyZeroInteractions(textFlowTargetDAO, webhookService);
+    }
 }
@@ -1,6 +1,7 @@
 package org.zanata.service.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -9,13 +10,17 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.zanata.cache.InfinispanTestCacheContainer;
+import org.zanata.common.ContentState;
 import org.zanata.common.LocaleId;
 import org.zanata.dao.LocaleDAO;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
 import org.zanata.service.VersionLocaleKey;
 import org.zanata.test.CdiUnitRunner;
 import org.zanata.ui.model.statistic.WordStatistic;
 
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableMap;
 import org.zanata.util.IServiceLocator;
 import org.zanata.util.Zanata;
 
@@ -59,4 +64,66 @@ public class VersionStateCacheImplTest {
         verify(versionStatisticLoader).load(key); // only load the value once
         assertThat(result).isEqualTo(wordStatistic);
     }
+
+    @Test
+    public void docStatsUpdatedAppliesDeltasWithoutReload() throws Exception {
+        VersionLocaleKey key = new VersionLocaleKey(1L, LocaleId.DE);
+        when(versionStatisticLoader.load(key))
+                .thenReturn(new WordStatistic(0, 0, 100, 0, 0));
+        cache.getVersionStatistics(1L, LocaleId.DE);
+
+        cache.docStatsUpdated(new DocStatsEvent(
+                new DocumentLocaleKey(2L, LocaleId.DE), 1L,
+                ImmutableMap.of(ContentState.New, -10L,
+                        ContentState.Translated, 10L),
+                3L));
+
+        WordStatistic result = cache.getVersionStatistics(1L, LocaleId.DE);
+        verify(versionStatisticLoader).load(key);
+        assertThat(result).isEqualTo(new WordStatistic(0, 0, 90, 10, 0));
+    }
+
+    @Test
+    public void docStatsUpdatedDuringLoadIsNotLost() throws Exception {
+        VersionLocaleKey key = new VersionLocaleKey(1L, LocaleId.DE);
+        DocStatsEvent event = new DocStatsEvent(
+                new DocumentLocaleKey(2L, LocaleId.DE), 1L,
+                ImmutableMap.of(ContentState.New, -10L,
+                        ContentState.Translated, 10L),
+                3L);
+        boolean[] loaded = new boolean[1];
+        when(versionStatisticLoader.load(key)).thenAnswer(invocation -> {
+            if (loaded[0]) {
+                return new WordStatistic(0, 0, 90, 10, 0);
+            }
+            loaded[0] = true;
+            // committed after the database was read, but before the loaded
+            // value is cached
+            cache.docStatsUpdated(event);
+            return new WordStatistic(0, 0, 100, 0, 0);
+        });
+
+        cache.getVersionStatistics(1L, LocaleId.DE);
+        WordStatistic result = cache.getVersionStatistics(1L, LocaleId.DE);
+
+        // the stale value was not cached
+        verify(versionStatisticLoader, times(2)).load(key);
+        assertThat(result).isEqualTo(new WordStatistic(0, 0, 90, 10, 0));
+    }
+
+    @Test
+    public void reconcileCorrectsDrift() throws Exception {
+        VersionLocaleKey key = new VersionLocaleKey(1L, LocaleId.DE);
+        when(versionStatisticLoader.load(key))
+                .thenReturn(new WordStatistic(0, 0, 100, 0, 0),
+                        new WordStatistic(0, 0, 80, 20, 0),
+                        new WordStatistic(0, 0, 80, 20, 0));
+        cache.getVersionStatistics(1L, LocaleId.DE);
+
+        assertThat(cache.reconcileVersionStatistics(10)).isEqualTo(1);
+        assertThat(cache.getVersionStatistics(1L, LocaleId.DE))
+                .isEqualTo(new WordStatistic(0, 0, 80, 20, 0));
+        assertThat(cache.reconcileVersionStatistics(10)).isEqualTo(0);
+        verify(versionStatisticLoader, times(3)).load(key);
+    }
 }
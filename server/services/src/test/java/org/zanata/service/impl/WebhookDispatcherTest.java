@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.WebhookEvent;
+import org.zanata.events.WebhookEventType;
+import org.zanata.webhook.events.DocumentStatsEvent;
+import org.zanata.webhook.events.TestEvent;
+import com.google.common.collect.ImmutableMap;
+
+public class WebhookDispatcherTest {
+    private static final String URL = "http://example.com/hook";
+    private ExecutorService deliveryExecutor;
+    private ScheduledExecutorService retryScheduler;
+    private final List<String> posted = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        deliveryExecutor = Executors.newFixedThreadPool(4);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        deliveryExecutor.shutdownNow();
+        retryScheduler.shutdownNow();
+    }
+
+    private WebhookDispatcher dispatcher(WebhookDispatcher.Sender sender,
+            int queueCapacity, int maxConcurrent) {
+        return new WebhookDispatcher(sender, deliveryExecutor, retryScheduler,
+                queueCapacity, maxConcurrent, 3, 1);
+    }
+
+    private static DocumentStatsEvent stats(String docId, long translated) {
+        return new DocumentStatsEvent("admin", "project", "master", docId,
+                LocaleId.DE,
+                ImmutableMap.of(ContentState.Translated, translated));
+    }
+
+    private static WebhookEvent event(WebhookEventType type) {
+        return new WebhookEvent(URL, "secret", type);
+    }
+
+    private static void awaitCounter(WebhookDispatcher dispatcher,
+            String counter, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (dispatcher.getCounters().get(counter) != expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(dispatcher.getCounters().get(counter)).isEqualTo(expected);
+    }
+
+    @Test
+    public void deliversEvent() throws Exception {
+        WebhookDispatcher dispatcher = dispatcher((url, data, secret) -> {
+            posted.add(data);
+            return 200;
+        }, 10, 2);
+
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+
+        awaitCounter(dispatcher, "sent", 1);
+        assertThat(posted).hasSize(1);
+        assertThat(dispatcher.getCounters().get("failed")).isEqualTo(0);
+    }
+
+    @Test
+    public void retriesServerErrorsThenSucceeds() throws Exception {
+        int[] statuses = { 503, 500, 200 };
+        WebhookDispatcher dispatcher = dispatcher((url, data, secret) -> {
+            posted.add(data);
+            return statuses[posted.size() - 1];
+        }, 10, 1);
+
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+
+        awaitCounter(dispatcher, "sent", 1);
+        assertThat(posted).hasSize(3);
+        assertThat(dispatcher.getCounters().get("retried")).isEqualTo(2);
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws Exception {
+        WebhookDispatcher dispatcher = dispatcher((url, data, secret) -> {
+            posted.add(data);
+            throw new java.net.ConnectException("refused");
+        }, 10, 1);
+
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+
+        awaitCounter(dispatcher, "failed", 1);
+        assertThat(posted).hasSize(3);
+        assertThat(dispatcher.getCounters().get("sent")).isEqualTo(0);
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() throws Exception {
+        WebhookDispatcher dispatcher = dispatcher((url, data, secret) -> {
+            posted.add(data);
+            return 404;
+        }, 10, 1);
+
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+
+        awaitCounter(dispatcher, "failed", 1);
+        assertThat(posted).hasSize(1);
+        assertThat(dispatcher.getCounters().get("retried")).isEqualTo(0);
+    }
+
+    @Test
+    public void coalescesStatsEventsWhileEndpointIsBusy() throws Exception {
+        CountDownLatch firstPostStarted = new CountDownLatch(1);
+        CountDownLatch endpointReleased = new CountDownLatch(1);
+        WebhookDispatcher dispatcher = dispatcher((url, data, secret) -> {
+            posted.add(data);
+            firstPostStarted.countDown();
+            endpointReleased.await();
+            return 200;
+        }, 10, 1);
+
+        dispatcher.dispatch(event(stats("doc1", 1)));
+        assertThat(firstPostStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        // these wait behind the first post, and collapse into one event
+        dispatcher.dispatch(event(stats("doc1", 2)));
+        dispatcher.dispatch(event(stats("doc1", 3)));
+        dispatcher.dispatch(event(stats("doc2", 4)));
+        endpointReleased.countDown();
+
+        awaitCounter(dispatcher, "sent", 3);
+        assertThat(dispatcher.getCounters().get("coalesced")).isEqualTo(1);
+        assertThat(posted.get(1)).contains("\"doc1\"").contains("5");
+        assertThat(posted.get(2)).contains("\"doc2\"");
+    }
+
+    @Test
+    public void dropsEventsWhenQueueIsFull() throws Exception {
+        CountDownLatch endpointReleased = new CountDownLatch(1);
+        WebhookDispatcher dispatcher = dispatcher((url, data, secret) -> {
+            endpointReleased.await();
+            return 200;
+        }, 1, 1);
+
+        // the first event is taken by the worker, the second waits in the
+        // queue, so one more must be dropped
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+        awaitCounter(dispatcher, "pending", 0);
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+        dispatcher.dispatch(event(new TestEvent("admin", "project")));
+        endpointReleased.countDown();
+
+        awaitCounter(dispatcher, "sent", 2);
+        assertThat(dispatcher.getCounters().get("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    public void coalescesOnlySameDocumentAndLocale() {
+        Map<ContentState, Long> summed = ((DocumentStatsEvent) WebhookDispatcher
+                .coalesce(stats("doc1", 2), stats("doc1", 3)))
+                        .getWordDeltasByState();
+
+        assertThat(summed).containsEntry(ContentState.Translated, 5L);
+        assertThat(WebhookDispatcher.coalesce(stats("doc1", 2),
+                stats("doc2", 3))).isNull();
+        assertThat(WebhookDispatcher.coalesce(
+                new TestEvent("admin", "project"),
+                new TestEvent("admin", "project"))).isNull();
+    }
+}
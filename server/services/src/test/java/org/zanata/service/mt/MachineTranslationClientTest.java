@@ -0,0 +1,171 @@
+package org.zanata.service.mt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.zanata.common.LocaleId;
+import org.zanata.exception.ZanataServiceException;
+import org.zanata.service.mt.dto.MTDocument;
+import org.zanata.service.mt.dto.TypeString;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class MachineTranslationClientTest {
+    private static final String DOC_URL = "http://zanata/rest/doc";
+    private final AtomicInteger requests = new AtomicInteger();
+    private ExecutorService executor;
+
+    // translates by prefixing each string with the target locale
+    private MTDocument echo(MTDocument request, LocaleId toLocale) {
+        requests.incrementAndGet();
+        List<TypeString> contents = request.getContents().stream()
+                .map(s -> new TypeString(toLocale.getId() + ":" + s.getValue()))
+                .collect(Collectors.toList());
+        return new MTDocument(request.getUrl(), contents, toLocale.getId(),
+                request.getBackendId());
+    }
+
+    private static MTDocument doc(String... contents) {
+        return new MTDocument(DOC_URL, asList(contents).stream()
+                .map(TypeString::new).collect(Collectors.toList()),
+                "en-US", "GOOGLE");
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void repeatedSuggestionIsServedFromCache() {
+        MachineTranslationClient client =
+                new MachineTranslationClient(this::echo, 0, 10);
+
+        assertThat(client.getSuggestion(doc("hello"), LocaleId.DE))
+                .containsExactly("de:hello");
+        assertThat(client.getSuggestion(doc("hello"), LocaleId.DE))
+                .containsExactly("de:hello");
+
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(client.getCachedSuggestionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cacheKeyIncludesLocalesAndAllContents() {
+        MachineTranslationClient client =
+                new MachineTranslationClient(this::echo, 0, 10);
+
+        client.getSuggestion(doc("hello"), LocaleId.DE);
+        client.getSuggestion(doc("hello"), LocaleId.FR);
+        client.getSuggestion(doc("hello", "hellos"), LocaleId.DE);
+        client.getSuggestion(doc("hellohellos"), LocaleId.DE);
+
+        assertThat(requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void cacheIsBoundedBySize() {
+        MachineTranslationClient client =
+                new MachineTranslationClient(this::echo, 0, 2);
+
+        for (int i = 0; i < 5; i++) {
+            client.getSuggestion(doc("hello" + i), LocaleId.DE);
+        }
+
+        assertThat(client.getCachedSuggestionCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void failedSuggestionIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        MachineTranslationClient client = new MachineTranslationClient(
+                (request, toLocale) -> {
+                    if (calls.incrementAndGet() == 1) {
+                        throw new ZanataServiceException("MT is down", 502);
+                    }
+                    return echo(request, toLocale);
+                }, 0, 10);
+
+        try {
+            client.getSuggestion(doc("hello"), LocaleId.DE);
+            fail("expected ZanataServiceException");
+        } catch (ZanataServiceException e) {
+            assertThat(e.getMessage()).isEqualTo("MT is down");
+        }
+        assertThat(client.getSuggestion(doc("hello"), LocaleId.DE))
+                .containsExactly("de:hello");
+    }
+
+    @Test
+    public void concurrentSuggestionsForOneDocumentShareARequest()
+            throws Exception {
+        MachineTranslationClient client =
+                new MachineTranslationClient(this::echo, 500, 100);
+        int callers = 8;
+        executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            String source = "string" + i;
+            tasks.add(() -> {
+                start.await();
+                return client.getSuggestion(doc(source), LocaleId.DE);
+            });
+        }
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (Callable<List<String>> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+
+        for (int i = 0; i < callers; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS))
+                    .containsExactly("de:string" + i);
+        }
+        assertThat(requests.get()).isLessThan(callers);
+    }
+
+    @Test
+    public void mismatchedBatchResultIsAnError() {
+        SuggestionBatcher batcher = new SuggestionBatcher(
+                (request, toLocale) -> new MTDocument(DOC_URL,
+                        singletonList(new TypeString("only one")), "de",
+                        "GOOGLE"),
+                1, TimeUnit.HOURS, 2);
+
+        try {
+            batcher.translate(doc("one", "ones"), LocaleId.DE);
+            fail("expected ZanataServiceException");
+        } catch (ZanataServiceException e) {
+            assertThat(e.getMessage())
+                    .contains("1 contents for a batch of 2");
+        }
+        assertThat(batcher.getOpenBatchCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void fullBatchIsSentWithoutWaitingForLinger() {
+        SuggestionBatcher batcher = new SuggestionBatcher(this::echo, 1,
+                TimeUnit.HOURS, 2);
+
+        assertThat(batcher.translate(doc("one", "ones"), LocaleId.DE))
+                .extracting(TypeString::getValue)
+                .containsExactly("de:one", "de:ones");
+        assertThat(batcher.getOpenBatchCount()).isEqualTo(0);
+    }
+}
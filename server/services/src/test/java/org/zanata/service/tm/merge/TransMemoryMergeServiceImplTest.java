@@ -34,7 +34,9 @@ import static org.zanata.test.EntityTestData.makeTransMemoryUnit;
 import static org.zanata.webtrans.shared.model.TransMemoryResultItem.MatchType;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.enterprise.inject.Produces;
@@ -89,6 +91,7 @@ import org.zanata.webtrans.shared.rpc.MergeOptions;
 import org.zanata.webtrans.shared.rpc.MergeRule;
 import org.zanata.webtrans.shared.search.FilterConstraints;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 import net.customware.gwt.dispatch.shared.ActionException;
@@ -208,6 +211,17 @@ public class TransMemoryMergeServiceImplTest {
         return resultItem;
     }
 
+    private void givenBestMatches(List<HTextFlow> textFlows, int threshold,
+            Map<HTextFlow, Optional<TransMemoryResultItem>> matches) {
+        Map<Long, TransMemoryResultItem> matchesById = new HashMap<>();
+        matches.forEach((textFlow, match) -> match
+                .ifPresent(item -> matchesById.put(textFlow.getId(), item)));
+        when(translationMemoryService.searchBestMatchTransMemory(textFlows,
+                targetLocale.getLocaleId(), sourceLocale.getLocaleId(), false,
+                false, false, threshold, fromVersions))
+                .thenReturn(matchesById);
+    }
+
     private static TransMemoryDetails tmDetail() {
         return new TransMemoryDetails("", "", "project a", "master",
                 "pot/msg.pot", "resId", null, null, null, null, null);
@@ -264,12 +278,8 @@ public class TransMemoryMergeServiceImplTest {
 
         Optional<TransMemoryResultItem> matches = Optional.of(mostSimilarTM);
 
-        when(
-                translationMemoryService.searchBestMatchTransMemory(hTextFlow,
-                        targetLocale.getLocaleId(), sourceLocale.getLocaleId(),
-                        false, false, false, action.getThresholdPercent(),
-                        fromVersions))
-                .thenReturn(matches);
+        givenBestMatches(newArrayList(hTextFlow), action.getThresholdPercent(),
+                ImmutableMap.of(hTextFlow, matches));
 
         // When: execute the action
         transMemoryMergeService.executeMerge(action, asyncTaskHandle);
@@ -311,12 +321,8 @@ public class TransMemoryMergeServiceImplTest {
         Optional<TransMemoryResultItem> matches =
                 Optional.empty();
 
-        when(
-                translationMemoryService.searchBestMatchTransMemory(hTextFlow,
-                        targetLocale.getLocaleId(), sourceLocale.getLocaleId(),
-                        false, false, false, action.getThresholdPercent(),
-                        fromVersions))
-                .thenReturn(matches);
+        givenBestMatches(newArrayList(hTextFlow), action.getThresholdPercent(),
+                ImmutableMap.of(hTextFlow, matches));
 
         when(localeService.getByLocaleId(action.localeId))
                 .thenReturn(targetLocale);
@@ -380,30 +386,9 @@ public class TransMemoryMergeServiceImplTest {
                 Optional.of(tmResult(tmResultSource.getId(), 80));
         Optional<TransMemoryResultItem> noMatch = Optional.empty();
 
-        when(
-                translationMemoryService.searchBestMatchTransMemory(
-                        textFlow100TM, targetLocale.getLocaleId(),
-                        sourceLocale.getLocaleId(), false, false, false, 90,
-                        fromVersions))
-                .thenReturn(tm100);
-        when(
-                translationMemoryService.searchBestMatchTransMemory(
-                        textFLow90TM, targetLocale.getLocaleId(),
-                        sourceLocale.getLocaleId(), false, false, false, 90,
-                        fromVersions))
-                .thenReturn(tm90);
-        when(
-                translationMemoryService.searchBestMatchTransMemory(
-                        textFlow80TM, targetLocale.getLocaleId(),
-                        sourceLocale.getLocaleId(), false, false, false, 90,
-                        fromVersions))
-                .thenReturn(tm80);
-        when(
-                translationMemoryService.searchBestMatchTransMemory(
-                        textFlowNoTM, targetLocale.getLocaleId(),
-                        sourceLocale.getLocaleId(), false, false, false, 90,
-                        fromVersions))
-                .thenReturn(noMatch);
+        givenBestMatches(untranslated, 90, ImmutableMap.of(
+                textFlow100TM, tm100, textFLow90TM, tm90, textFlow80TM, tm80,
+                textFlowNoTM, noMatch));
 
         when(textFlowDAO.findById(tmResultSource.getId(), false)).thenReturn(
                 tmResultSource);
@@ -474,12 +459,8 @@ public class TransMemoryMergeServiceImplTest {
                 targetLocale, untranslatedFilter, 0, BATCH_SIZE))
                 .thenReturn(untranslated);
 
-        when(
-                translationMemoryService.searchBestMatchTransMemory(hTextFlow,
-                        targetLocale.getLocaleId(), sourceLocale.getLocaleId(),
-                        false, false, false, action.getThresholdPercent(),
-                        fromVersions))
-                .thenReturn(match);
+        givenBestMatches(newArrayList(hTextFlow), action.getThresholdPercent(),
+                ImmutableMap.of(hTextFlow, match));
         when(transMemoryUnitDAO.findById(tuResultSource.getId())).thenReturn(
                 tuResultSource);
 
@@ -0,0 +1,172 @@
+package org.zanata.tmx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.Test;
+import org.zanata.common.util.ElementBuilder;
+import org.zanata.model.tm.TMXMetadataHelper;
+import org.zanata.tmx.TMXRecordReader.TransUnitRecord;
+import org.zanata.tmx.TMXRecordReader.VariantRecord;
+import nu.xom.Attribute;
+import nu.xom.Element;
+import nu.xom.Elements;
+
+public class TMXRecordReaderTest {
+
+    private static final String TMX = "<tmx version=\"1.4\">"
+            + "<header srclang=\"en\" creationtool=\"test\"/>"
+            + "<body>\n"
+            + "<tu tuid=\"1\" srclang=\"en\" x:ignored=\"a\" "
+            + "xmlns:x=\"urn:x\">\n"
+            + "  <prop type=\"p\">value &amp; more</prop>\n"
+            + "  <note xml:lang=\"en\">a\tnote</note>\n"
+            + "  <x:other>skipped</x:other>\n"
+            + "  <tuv xml:lang=\"en\" creationdate=\"20130509T141016Z\">\n"
+            + "    <note>tuv note</note>\n"
+            + "    <seg>a &lt; b &gt; c &amp; \"d\" <ph x=\"1\"/>"
+            + "<bpt i=\"1\" x:a=\"q&quot;&#10;\">&lt;b&gt;</bpt>e"
+            + "<ept i=\"1\">&lt;/b&gt;</ept>&#13;</seg>\n"
+            + "  </tuv>\n"
+            + "  <tuv xml:lang=\"de\"><seg/><seg>second</seg></tuv>\n"
+            + "</tu>\n"
+            + "<tu><tuv xml:lang=\"en\"><seg>"
+            + "<y:hi xmlns:y=\"urn:y\">x</y:hi><hi xmlns=\"urn:z\"/>"
+            + "</seg></tuv></tu>\n"
+            + "</body></tmx>";
+
+    @Test
+    public void readsHeaderThenTransUnits() throws Exception {
+        try (TMXRecordReader reader = new TMXRecordReader(stream(TMX))) {
+            Element header = reader.readHeader();
+            assertThat(header.getAttributeValue("srclang")).isEqualTo("en");
+            TransUnitRecord tu = reader.nextTransUnit();
+            assertThat(tu.getAttributes()).containsOnlyKeys("tuid",
+                    "srclang");
+            assertThat(tu.getChildrenXml()).containsExactly(
+                    "<prop type=\"p\">value &amp; more</prop>",
+                    "<note xml:lang=\"en\">a\tnote</note>");
+            VariantRecord en = tu.getVariants().get(0);
+            assertThat(en.getAttributes()).containsEntry("xml:lang", "en")
+                    .containsEntry("creationdate", "20130509T141016Z");
+            assertThat(en.getChildrenXml())
+                    .containsExactly("<note>tuv note</note>");
+            VariantRecord de = tu.getVariants().get(1);
+            assertThat(de.getTaggedSegment()).isEqualTo("<seg />");
+            assertThat(reader.nextTransUnit().getVariants()).hasSize(1);
+            assertThat(reader.nextTransUnit()).isNull();
+        }
+    }
+
+    @Test
+    public void matchesXomForInlineMarkup() throws Exception {
+        assertMatchesXom(stream(TMX), stream(TMX));
+    }
+
+    @Test
+    public void matchesXomForTestFiles() throws Exception {
+        for (String file : new String[] { "/tmx/default-valid-tm.tmx",
+                "/tmx/valid-tm-with-tuids.tmx",
+                "/tmx/valid-tmx-with-metadata.tmx",
+                "/tmx/dubious-tm-with-underscores.tmx" }) {
+            assertMatchesXom(getClass().getResourceAsStream(file),
+                    getClass().getResourceAsStream(file));
+        }
+    }
+
+    private static void assertMatchesXom(InputStream records, InputStream xom)
+            throws Exception {
+        List<Element> expected = readWithXom(xom);
+        List<TransUnitRecord> actual = new ArrayList<>();
+        try (TMXRecordReader reader = new TMXRecordReader(records)) {
+            reader.readHeader();
+            TransUnitRecord tu;
+            while ((tu = reader.nextTransUnit()) != null) {
+                actual.add(tu);
+            }
+        }
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            Element tuElem = expected.get(i);
+            TransUnitRecord tu = actual.get(i);
+            assertThat(tu.getAttributes()).isEqualTo(attributes(tuElem));
+            assertThat(tu.getChildrenXml()).isEqualTo(childrenXml(tuElem));
+            Elements tuvElems = tuElem.getChildElements("tuv");
+            assertThat(tu.getVariants()).hasSize(tuvElems.size());
+            for (int j = 0; j < tuvElems.size(); j++) {
+                Element tuvElem = tuvElems.get(j);
+                VariantRecord tuv = tu.getVariants().get(j);
+                assertThat(tuv.getAttributes())
+                        .isEqualTo(attributes(tuvElem));
+                assertThat(tuv.getChildrenXml())
+                        .isEqualTo(childrenXml(tuvElem));
+                assertThat(tuv.getTaggedSegment()).isEqualTo(
+                        tuvElem.getFirstChildElement("seg").toXML());
+            }
+        }
+    }
+
+    /**
+     * Reads the tu elements the way TMXParser does.
+     */
+    private static List<Element> readWithXom(InputStream input)
+            throws Exception {
+        List<Element> tus = new ArrayList<>();
+        XMLStreamReader reader = TMXParser.openTmx(input);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && reader.getName().equals(new QName("tu"))) {
+                    tus.add(ElementBuilder.buildElement(reader));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return tus;
+    }
+
+    private static Map<String, String> attributes(Element elem) {
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < elem.getAttributeCount(); i++) {
+            Attribute attr = elem.getAttribute(i);
+            String name = TMXMetadataHelper.getMetadataAttributeName(
+                    attr.getNamespaceURI(), attr.getLocalName(),
+                    attr.getQualifiedName());
+            if (name != null) {
+                attributes.put(name, attr.getValue());
+            }
+        }
+        return attributes;
+    }
+
+    private static List<String> childrenXml(Element elem) {
+        List<String> childrenXml = new ArrayList<>();
+        Elements children = elem.getChildElements();
+        for (int i = 0; i < children.size(); i++) {
+            Element child = children.get(i);
+            if (TMXMetadataHelper.isSupportedChild(child.getNamespaceURI(),
+                    child.getLocalName())) {
+                Element copy = (Element) child.copy();
+                copy.setNamespacePrefix("");
+                copy.setNamespaceURI("");
+                childrenXml.add(copy.toXML());
+            }
+        }
+        return childrenXml;
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
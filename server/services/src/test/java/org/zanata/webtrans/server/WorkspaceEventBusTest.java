@@ -0,0 +1,129 @@
+package org.zanata.webtrans.server;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.webtrans.shared.auth.EditorClientId;
+import org.zanata.webtrans.shared.model.DocumentId;
+import org.zanata.webtrans.shared.model.TransUnit;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
+import org.zanata.webtrans.shared.model.WorkspaceId;
+import org.zanata.webtrans.shared.rpc.SessionEventData;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdated;
+import org.zanata.webtrans.shared.rpc.TransUnitUpdatedBatch;
+import com.google.common.base.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.zanata.webtrans.test.GWTTestData.makeTransUnit;
+import static org.zanata.webtrans.test.GWTTestData.workspaceId;
+
+public class WorkspaceEventBusTest {
+    private final WorkspaceId workspaceId = workspaceId();
+    private final WorkspaceId otherWorkspaceId = workspaceId(LocaleId.DE);
+    @Mock
+    private TranslationWorkspace workspace;
+    private WorkspaceEventBus eventBus;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        eventBus = new WorkspaceEventBus(id -> id.equals(workspaceId)
+                ? Optional.of(workspace) : Optional.absent(), 1000);
+    }
+
+    private static TransUnitUpdated updated(long id, ContentState previous,
+            ContentState now, int previousVersion) {
+        TransUnit transUnit = makeTransUnit(id, now);
+        TransUnitUpdateInfo info = new TransUnitUpdateInfo(true, true,
+                new DocumentId(1L, "doc"), transUnit, 10, previousVersion,
+                previous);
+        return new TransUnitUpdated(info, new EditorClientId("session", 1),
+                TransUnitUpdated.UpdateType.WebEditorSave);
+    }
+
+    @Test
+    public void updatesAreOnlySentWhenFlushed() {
+        eventBus.publish(workspaceId, updated(1, ContentState.New,
+                ContentState.Translated, 0));
+
+        verifyZeroInteractions(workspace);
+        eventBus.flush();
+        verify(workspace).publish(any(TransUnitUpdated.class));
+    }
+
+    @Test
+    public void updatesForOneWorkspaceAreSentAsOneBatch() {
+        eventBus.publish(workspaceId, updated(1, ContentState.New,
+                ContentState.Translated, 0));
+        eventBus.publish(workspaceId, updated(2, ContentState.New,
+                ContentState.NeedReview, 0));
+        eventBus.flush();
+
+        ArgumentCaptor<SessionEventData> captor =
+                ArgumentCaptor.forClass(SessionEventData.class);
+        verify(workspace).publish(captor.capture());
+        assertThat(captor.getValue()).isInstanceOf(TransUnitUpdatedBatch.class);
+        List<TransUnitUpdated> updates =
+                ((TransUnitUpdatedBatch) captor.getValue()).getUpdates();
+        assertThat(updates).extracting(
+                u -> u.getUpdateInfo().getTransUnit().getId().getId())
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void repeatedUpdatesOfOneTextFlowAreMerged() {
+        eventBus.publish(workspaceId, updated(1, ContentState.New,
+                ContentState.NeedReview, 0));
+        eventBus.publish(workspaceId, updated(1, ContentState.NeedReview,
+                ContentState.Translated, 1));
+        eventBus.flush();
+
+        ArgumentCaptor<TransUnitUpdated> captor =
+                ArgumentCaptor.forClass(TransUnitUpdated.class);
+        verify(workspace).publish(captor.capture());
+        TransUnitUpdateInfo info = captor.getValue().getUpdateInfo();
+        assertThat(info.getTransUnit().getStatus())
+                .isEqualTo(ContentState.Translated);
+        // editors adjust statistics from the state before the first update
+        assertThat(info.getPreviousState()).isEqualTo(ContentState.New);
+        assertThat(info.getPreviousVersionNum()).isEqualTo(0);
+    }
+
+    @Test
+    public void updatesAreNotSentTwice() {
+        eventBus.publish(workspaceId, updated(1, ContentState.New,
+                ContentState.Translated, 0));
+        eventBus.flush();
+        eventBus.flush();
+        eventBus.publish(workspaceId, updated(2, ContentState.New,
+                ContentState.Translated, 0));
+        eventBus.flush();
+
+        verify(workspace, times(2)).publish(any(TransUnitUpdated.class));
+    }
+
+    @Test
+    public void updatesAreSentImmediatelyWithoutBatching() {
+        eventBus = new WorkspaceEventBus(id -> Optional.of(workspace), 0);
+        eventBus.publish(workspaceId, updated(1, ContentState.New,
+                ContentState.Translated, 0));
+
+        verify(workspace).publish(any(TransUnitUpdated.class));
+    }
+
+    @Test
+    public void onlyWorkspacesOnThisNodeHaveEditorsWhenNotDistributed() {
+        assertThat(eventBus.hasEditors(workspaceId)).isTrue();
+        assertThat(eventBus.hasEditors(otherWorkspaceId)).isFalse();
+    }
+}
@@ -45,6 +45,7 @@ import org.zanata.webtrans.shared.ui.UserConfigHolder;
 import org.zanata.webtrans.shared.resources.ValidationMessages;
 import org.zanata.webtrans.server.TranslationWorkspace;
 import org.zanata.webtrans.server.TranslationWorkspaceManager;
+import org.zanata.webtrans.server.WorkspaceEventBus;
 import org.zanata.webtrans.server.locale.Gwti18nReader;
 import org.zanata.webtrans.shared.auth.EditorClientId;
 import org.zanata.webtrans.shared.auth.Identity;
@@ -92,6 +93,8 @@ public class ActivateWorkspaceHandlerTest extends ZanataTest {
     @Produces @Mock
     private TranslationWorkspace translationWorkspace;
     @Produces @Mock
+    private WorkspaceEventBus workspaceEventBus;
+    @Produces @Mock
     private GravatarService gravatarServiceImpl;
     @Produces @Mock
     private AccountDAO accountDAO;
@@ -201,6 +204,7 @@ public class ActivateWorkspaceHandlerTest extends ZanataTest {
                 editorClientIdCaptor.capture(), eq(person.getId()));
         EditorClientId editorClientId = editorClientIdCaptor.getValue();
         assertThat(editorClientId.getHttpSessionId()).isEqualTo(HTTP_SESSION_ID);
+        verify(workspaceEventBus).editorJoined(workspaceId);
 
         verify(translationWorkspace).publish(
                 enterWorkspaceEventCaptor.capture());
@@ -196,6 +196,41 @@ public class GetProjectTransUnitListsHandlerTest extends ZanataTest {
         assertThat(getIntIds(result.getUnits(DOC_ID))).contains(1, 3);
     }
 
+    @Test
+    @InRequestScope
+    public void fullPageEndsWithItsLastDocument() throws Exception {
+        GetProjectTransUnitLists action = GetProjectTransUnitLists
+                .firstPage("file", true, true, true, null, 4);
+        action.setWorkspaceId(workspaceId);
+        when(textFlowSearchServiceImpl.findTextFlows(
+                eq(action.getWorkspaceId()), eq(action.getDocumentPaths()),
+                any(FilterConstraints.class), eq(null), eq(4)))
+                        .thenReturn(textFlows);
+        GetProjectTransUnitListsResult result = handler.execute(action, null);
+        assertThat(getIntIds(result.getUnits(DOC_ID))).contains(1, 2, 3, 4);
+        assertThat(result.hasMore()).isTrue();
+        GetProjectTransUnitLists nextPage = result.nextPage();
+        assertThat(nextPage.getAfterDocumentId()).isEqualTo(DOC_ID);
+        assertThat(nextPage.getSearchString()).isEqualTo("file");
+        assertThat(nextPage.getMaxTextFlows()).isEqualTo(4);
+    }
+
+    @Test
+    @InRequestScope
+    public void shortPageEndsTheSearch() throws Exception {
+        GetProjectTransUnitLists action = GetProjectTransUnitLists
+                .firstPage("file", true, true, true, null, 10)
+                .nextPage(DOC_ID - 1);
+        action.setWorkspaceId(workspaceId);
+        when(textFlowSearchServiceImpl.findTextFlows(
+                eq(action.getWorkspaceId()), eq(action.getDocumentPaths()),
+                any(FilterConstraints.class), eq(DOC_ID - 1), eq(10)))
+                        .thenReturn(textFlows);
+        GetProjectTransUnitListsResult result = handler.execute(action, null);
+        assertThat(result.getDocumentIds()).containsExactly(DOC_ID);
+        assertThat(result.hasMore()).isFalse();
+    }
+
     @Test
     @InRequestScope
     public void testRollback() throws Exception {
@@ -0,0 +1,145 @@
+package org.zanata.webtrans.server.rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.DocumentUploadedEvent;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.events.TextFlowTargetStateEvent.TextFlowTargetStateChange;
+import org.zanata.webtrans.server.rpc.NavigationIndexCache.NavigationIndex;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.rpc.GetTransUnitsNavigationResult;
+import org.zanata.webtrans.shared.search.FilterConstraints;
+import com.google.common.collect.Lists;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.zanata.common.ContentState.Approved;
+import static org.zanata.common.ContentState.New;
+import static org.zanata.common.ContentState.NeedReview;
+import static org.zanata.common.ContentState.Translated;
+
+public class NavigationIndexCacheTest {
+    private static final Long DOC_ID = 1L;
+    private static final LocaleId LOCALE = LocaleId.DE;
+    private NavigationIndexCache cache;
+    private List<FilterConstraints> loaded;
+    private Function<FilterConstraints, NavigationIndex> loader;
+
+    @Before
+    public void setUp() {
+        cache = new NavigationIndexCache();
+        loaded = new ArrayList<>();
+        // text flows 30, 10, 20 in document order
+        loader = constraints -> {
+            loaded.add(constraints);
+            return new NavigationIndex(Lists.newArrayList(30L, 10L, 20L),
+                    Lists.newArrayList(New, Translated, NeedReview));
+        };
+    }
+
+    private GetTransUnitsNavigationResult get(FilterConstraints constraints) {
+        return cache.get(DOC_ID, LOCALE, constraints, loader).toResult();
+    }
+
+    private static List<Long> ids(GetTransUnitsNavigationResult result) {
+        List<Long> ids = new ArrayList<>();
+        for (TransUnitId id : result.getIdIndexList()) {
+            ids.add(id.getId());
+        }
+        return ids;
+    }
+
+    private static TextFlowTargetStateEvent stateEvent(long textFlowId,
+            ContentState previous, ContentState now) {
+        return new TextFlowTargetStateEvent(
+                new DocumentLocaleKey(DOC_ID, LOCALE), 1L, 1L,
+                new TextFlowTargetStateChange(textFlowId, textFlowId + 100,
+                        now, previous));
+    }
+
+    @Test
+    public void stateFiltersAreServedFromOneDocumentIndex() {
+        GetTransUnitsNavigationResult all =
+                get(FilterConstraints.builder().build());
+        GetTransUnitsNavigationResult untranslated = get(FilterConstraints
+                .builder().keepNone().includeNew().includeFuzzy().build());
+
+        assertThat(loaded).hasSize(1);
+        assertThat(ids(all)).containsExactly(30L, 10L, 20L);
+        assertThat(ids(untranslated)).containsExactly(30L, 20L);
+        assertThat(untranslated.getTransIdStateList())
+                .containsEntry(new TransUnitId(20L), NeedReview);
+    }
+
+    @Test
+    public void stateChangesAreAppliedToTheDocumentIndex() {
+        FilterConstraints translated = FilterConstraints.builder()
+                .keepNone().includeTranslated().includeApproved().build();
+        assertThat(ids(get(translated))).containsExactly(10L);
+
+        cache.onTargetStateChange(stateEvent(30L, New, Approved));
+
+        GetTransUnitsNavigationResult result = get(translated);
+        assertThat(loaded).hasSize(1);
+        assertThat(ids(result)).containsExactly(30L, 10L);
+        assertThat(result.getTransIdStateList())
+                .containsEntry(new TransUnitId(30L), Approved);
+    }
+
+    @Test
+    public void searchFiltersAreCachedUntilTheDocumentChanges() {
+        FilterConstraints search =
+                FilterConstraints.builder().filterBy("foo").build();
+        get(search);
+        get(search);
+        assertThat(loaded).containsExactly(search);
+
+        cache.onTargetStateChange(stateEvent(10L, Translated, Translated));
+        get(search);
+        assertThat(loaded).containsExactly(search, search);
+    }
+
+    @Test
+    public void sourceUploadDropsIndexesForAllLocales() {
+        get(FilterConstraints.builder().build());
+        cache.get(DOC_ID, LocaleId.FR, FilterConstraints.builder().build(),
+                loader);
+        assertThat(cache.getCachedTextFlowCount()).isEqualTo(6);
+
+        cache.onDocumentUploaded(
+                new DocumentUploadedEvent(1L, DOC_ID, true, LocaleId.EN_US));
+
+        assertThat(cache.getCachedTextFlowCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void indexLoadedDuringAChangeIsNotCached() {
+        Function<FilterConstraints, NavigationIndex> originalLoader = loader;
+        loader = constraints -> {
+            // a translation is saved while the index is being loaded
+            cache.onTargetStateChange(stateEvent(30L, New, Translated));
+            return originalLoader.apply(constraints);
+        };
+        get(FilterConstraints.builder().build());
+
+        assertThat(cache.getCachedTextFlowCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void onlyStateAndDefaultFiltersUseTheDocumentIndex() {
+        assertThat(NavigationIndexCache.isStateFilter(FilterConstraints
+                .builder().keepNone().includeNew().build())).isTrue();
+        assertThat(NavigationIndexCache.isStateFilter(
+                FilterConstraints.builder().filterBy("foo").build())).isFalse();
+        assertThat(NavigationIndexCache.isStateFilter(
+                FilterConstraints.builder().includeMT(true).build())).isFalse();
+        assertThat(NavigationIndexCache.isStateFilter(FilterConstraints
+                .builder().lastModifiedBy("admin").build())).isFalse();
+    }
+}
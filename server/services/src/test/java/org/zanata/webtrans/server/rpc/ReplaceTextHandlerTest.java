@@ -29,16 +29,22 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.zanata.service.SecurityService;
 import org.zanata.webtrans.shared.model.TransUnit;
+import org.zanata.webtrans.shared.model.TransUnitId;
+import org.zanata.webtrans.shared.model.TransUnitUpdateInfo;
 import org.zanata.webtrans.shared.rpc.ReplaceText;
 import org.zanata.webtrans.shared.rpc.UpdateTransUnit;
+import org.zanata.webtrans.shared.rpc.UpdateTransUnitResult;
 import com.google.common.collect.Lists;
 
 import net.customware.gwt.dispatch.server.ExecutionContext;
 import net.customware.gwt.dispatch.shared.ActionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ReplaceTextHandlerTest {
     public static final boolean CASE_INSENSITIVE = false;
@@ -100,6 +106,78 @@ public class ReplaceTextHandlerTest {
                 .getNewContents()).isEqualTo(expectedList);
     }
 
+    @Test
+    public void largeReplacementsAreSavedInBatches() throws ActionException {
+        int batchSize = ReplaceTextHandler.UPDATES_PER_BATCH;
+        ReplaceText action = new ReplaceText(transUnits(batchSize * 2 + 1),
+                "abc", "123", CASE_SENSITIVE);
+        when(mockUpdateTransUnitHandler.execute(any(UpdateTransUnit.class),
+                eq(context))).thenAnswer(
+                        invocation -> batchResult(invocation.getArgument(0)));
+
+        UpdateTransUnitResult result = handler.execute(action, context);
+
+        ArgumentCaptor<UpdateTransUnit> captor =
+                ArgumentCaptor.forClass(UpdateTransUnit.class);
+        verify(mockUpdateTransUnitHandler, times(3)).execute(captor.capture(),
+                eq(context));
+        assertThat(captor.getAllValues())
+                .extracting(batch -> batch.getUpdateRequests().size())
+                .containsExactly(batchSize, batchSize, 1);
+        assertThat(captor.getAllValues().get(2).getUpdateRequests().get(0)
+                .getNewContents()).containsExactly("123");
+        assertThat(result.getUpdateInfoList()).hasSize(batchSize * 2 + 1);
+        assertThat(result.getFailedTransUnitIds()).isEmpty();
+        assertThat(result.isAllSuccess()).isTrue();
+    }
+
+    @Test
+    public void failedBatchIsReportedWithSavedBatches() throws ActionException {
+        int batchSize = ReplaceTextHandler.UPDATES_PER_BATCH;
+        ReplaceText action = new ReplaceText(transUnits(batchSize * 2 + 1),
+                "abc", "123", CASE_SENSITIVE);
+        when(mockUpdateTransUnitHandler.execute(any(UpdateTransUnit.class),
+                eq(context))).thenAnswer(invocation -> {
+                    UpdateTransUnit batch = invocation.getArgument(0);
+                    if (batch.getUpdateRequests().get(0).getTransUnitId()
+                            .getId() == batchSize) {
+                        throw new IllegalStateException("lock timeout");
+                    }
+                    return batchResult(batch);
+                });
+
+        UpdateTransUnitResult result = handler.execute(action, context);
+
+        // the batch after the failed one is still saved
+        verify(mockUpdateTransUnitHandler, times(3))
+                .execute(any(UpdateTransUnit.class), eq(context));
+        assertThat(result.getUpdateInfoList()).hasSize(batchSize + 1);
+        assertThat(result.getFailedTransUnitIds()).hasSize(batchSize)
+                .extracting(TransUnitId::getId)
+                .startsWith((long) batchSize)
+                .endsWith((long) batchSize * 2 - 1);
+        assertThat(result.isAllSuccess()).isFalse();
+    }
+
+    private static List<TransUnit> transUnits(int count) {
+        List<TransUnit> transUnits = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            transUnits.add(TransUnit.Builder.newTransUnitBuilder().setId(i)
+                    .setResId("").setLocaleId("en-US").addSource("abc")
+                    .addTargets("abc").setVerNum(0).setRowIndex(i).build());
+        }
+        return transUnits;
+    }
+
+    private static UpdateTransUnitResult batchResult(UpdateTransUnit batch) {
+        UpdateTransUnitResult result = new UpdateTransUnitResult();
+        for (int i = 0; i < batch.getUpdateRequests().size(); i++) {
+            result.addUpdateResult(new TransUnitUpdateInfo(true, true, null,
+                    null, 0, 0, null));
+        }
+        return result;
+    }
+
     @Test(expected = ActionException.class)
     public void willThrowExceptionIfSearchTextIsEmpty() throws ActionException {
         TransUnit transUnit = transUnitBuilder.build();
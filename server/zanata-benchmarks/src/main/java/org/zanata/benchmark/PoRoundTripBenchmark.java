@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.zanata.adapter.po.PoReader2;
+import org.zanata.adapter.po.PoWriter2;
+import org.zanata.common.LocaleId;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TranslationsResource;
+
+/**
+ * Writing and parsing PO and POT files with PoWriter2 and PoReader2, as done
+ * for every push and pull of a gettext project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoRoundTripBenchmark {
+    private static final String UTF_8 = "UTF-8";
+
+    @Param({ "100", "1000" })
+    public int textFlows;
+
+    private Resource source;
+    private TranslationsResource translations;
+    private byte[] pot;
+    private byte[] po;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = SampleDocuments.source("benchmark", textFlows);
+        translations = SampleDocuments.translations(source);
+        pot = writePot();
+        po = writePo();
+    }
+
+    @Benchmark
+    public byte[] writePot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PoWriter2.Builder().create().writePot(out, UTF_8, source);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writePo() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PoWriter2.Builder().create().writePo(out, UTF_8, source,
+                translations);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Resource readPot() {
+        return new PoReader2().extractTemplate(inputSource(pot),
+                LocaleId.EN_US, "benchmark");
+    }
+
+    @Benchmark
+    public TranslationsResource readPo() {
+        return new PoReader2().extractTarget(inputSource(po));
+    }
+
+    @Benchmark
+    public TranslationsResource roundTripPo() throws IOException {
+        return new PoReader2().extractTarget(inputSource(writePo()));
+    }
+
+    private static InputSource inputSource(byte[] bytes) {
+        InputSource inputSource =
+                new InputSource(new ByteArrayInputStream(bytes));
+        inputSource.setEncoding(UTF_8);
+        return inputSource;
+    }
+}
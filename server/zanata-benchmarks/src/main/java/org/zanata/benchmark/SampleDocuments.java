@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import org.zanata.common.ContentState;
+import org.zanata.common.ContentType;
+import org.zanata.common.LocaleId;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TextFlow;
+import org.zanata.rest.dto.resource.TextFlowTarget;
+import org.zanata.rest.dto.resource.TranslationsResource;
+
+/**
+ * Builds repeatable source documents and translations for the file format
+ * benchmarks.
+ */
+final class SampleDocuments {
+
+    private SampleDocuments() {
+    }
+
+    static Resource source(String name, int textFlows) {
+        SampleText text = new SampleText(textFlows);
+        Resource doc = new Resource(name);
+        doc.setLang(LocaleId.EN_US);
+        doc.setContentType(ContentType.TextPlain);
+        for (int i = 0; i < textFlows; i++) {
+            doc.getTextFlows().add(new TextFlow(resId(i), LocaleId.EN_US,
+                    text.segment(20 + i % 200)));
+        }
+        return doc;
+    }
+
+    /**
+     * Translates every text flow of the source document, leaving a mix of
+     * approved, translated and fuzzy states.
+     */
+    static TranslationsResource translations(Resource source) {
+        SampleText text = new SampleText(source.getTextFlows().size() + 1);
+        TranslationsResource doc = new TranslationsResource();
+        int i = 0;
+        for (TextFlow tf : source.getTextFlows()) {
+            TextFlowTarget target = new TextFlowTarget(tf.getId());
+            target.setContents(text.edit(tf.getContents().get(0), 0.5));
+            target.setState(i % 3 == 0 ? ContentState.Approved
+                    : i % 3 == 1 ? ContentState.Translated
+                            : ContentState.NeedReview);
+            doc.getTextFlowTargets().add(target);
+            i++;
+        }
+        return doc;
+    }
+
+    private static String resId(int i) {
+        return "res" + i;
+    }
+}
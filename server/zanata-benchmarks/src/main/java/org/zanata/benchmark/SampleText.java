@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates repeatable segments which look like software UI strings and
+ * documentation, so that each benchmark run sees the same input.
+ */
+final class SampleText {
+    private static final String[] WORDS = { "the", "file", "files", "was",
+            "removed", "click", "here", "to", "save", "your", "changes",
+            "project", "version", "document", "translation", "cannot", "be",
+            "opened", "because", "it", "is", "locked", "by", "another",
+            "user", "please", "try", "again", "later", "%d", "{0}", "%s",
+            "<b>", "</b>", "&amp;" };
+
+    private final Random random;
+
+    SampleText(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Returns a segment of approximately the given length in characters.
+     */
+    String segment(int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a copy of the segment with roughly the given proportion of its
+     * words replaced, like a fuzzy match from translation memory.
+     */
+    String edit(String segment, double editRatio) {
+        String[] words = segment.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (random.nextDouble() < editRatio) {
+                words[i] = WORDS[random.nextInt(WORDS.length)];
+            }
+        }
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zanata.search.LevenshteinTokenUtil;
+import org.zanata.search.LevenshteinUtil;
+import org.zanata.search.MyersLevenshtein;
+
+/**
+ * Similarity scores used to rank translation memory matches, for a short UI
+ * string, a sentence and a paragraph. The character distances compare
+ * MyersLevenshtein with the dynamic programming algorithm it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityBenchmark {
+    /** the default TM merge band */
+    private static final double MIN_SIMILARITY = 0.8;
+
+    /** approximate segment length in characters */
+    @Param({ "30", "120", "500" })
+    public int length;
+
+    /** proportion of words changed in the candidate */
+    @Param({ "0.1", "0.5" })
+    public double editRatio;
+
+    private String query;
+    private String candidate;
+    private List<String> queryList;
+    private List<String> candidateList;
+
+    @Setup
+    public void setUp() {
+        SampleText text = new SampleText(length);
+        query = text.segment(length);
+        candidate = text.edit(query, editRatio);
+        queryList = Arrays.asList(query, query);
+        candidateList = Arrays.asList(candidate, candidate);
+    }
+
+    @Benchmark
+    public int charDistanceDynamicProgramming() {
+        return dynamicProgrammingDistance(query, candidate);
+    }
+
+    @Benchmark
+    public int charDistanceMyers() {
+        return MyersLevenshtein.distance(query, candidate);
+    }
+
+    @Benchmark
+    public int charDistanceMyersBounded() {
+        int maxDistance = (int) (Math.max(query.length(), candidate.length())
+                * (1.0 - MIN_SIMILARITY));
+        return MyersLevenshtein.distance(query, candidate, maxDistance);
+    }
+
+    @Benchmark
+    public double charSimilarity() {
+        return LevenshteinUtil.getSimilarity(query, candidate);
+    }
+
+    @Benchmark
+    public double charSimilarityOfLists() {
+        return LevenshteinUtil.getSimilarity(queryList, candidateList);
+    }
+
+    @Benchmark
+    public double tokenSimilarity() {
+        return LevenshteinTokenUtil.getSimilarity(query, candidate);
+    }
+
+    @Benchmark
+    public double tokenSimilarityOfLists() {
+        return LevenshteinTokenUtil.getSimilarity(queryList, candidateList);
+    }
+
+    @Benchmark
+    public double tokenSimilarityOfListsBounded() {
+        return LevenshteinTokenUtil.getSimilarity(queryList, candidateList,
+                MIN_SIMILARITY);
+    }
+
+    /**
+     * The two-row dynamic programming algorithm which LevenshteinUtil used
+     * before MyersLevenshtein, kept as a baseline.
+     */
+    static int dynamicProgrammingDistance(String s, String t) {
+        int n = s.length();
+        int m = t.length();
+        int[] p = new int[n + 1];
+        int[] d = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            p[i] = i;
+        }
+        for (int j = 1; j <= m; j++) {
+            char tj = t.charAt(j - 1);
+            d[0] = j;
+            for (int i = 1; i <= n; i++) {
+                int cost = s.charAt(i - 1) == tj ? 0 : 1;
+                d[i] = Math.min(Math.min(d[i - 1] + 1, p[i] + 1),
+                        p[i - 1] + cost);
+            }
+            int[] swap = p;
+            p = d;
+            d = swap;
+        }
+        return p[n];
+    }
+}
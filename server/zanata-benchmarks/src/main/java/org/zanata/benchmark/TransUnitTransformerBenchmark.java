@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.model.HLocale;
+import org.zanata.model.HTextFlow;
+import org.zanata.model.HTextFlowTarget;
+import org.zanata.model.po.HPoTargetHeader;
+import org.zanata.rest.service.ResourceUtils;
+import org.zanata.test.EntityTestData;
+import org.zanata.webtrans.server.rpc.TransUnitTransformer;
+
+/**
+ * Conversion of text flows to the editor's TransUnit, as done for each page
+ * of the editor. The entities are built in memory, so this measures the
+ * conversion alone, without any lazy loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransUnitTransformerBenchmark {
+
+    /** text flows in one editor page */
+    @Param({ "50", "500" })
+    public int pageSize;
+
+    private TransUnitTransformer transformer;
+    private HLocale locale;
+    private List<HTextFlow> textFlows;
+
+    @Setup
+    public void setUp() {
+        transformer = new TransUnitTransformer(new ResourceUtils());
+        HLocale sourceLocale = new HLocale(LocaleId.EN_US);
+        locale = new HLocale(LocaleId.DE);
+        SampleText text = new SampleText(pageSize);
+        ContentState[] states = ContentState.values();
+        textFlows = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            HTextFlow textFlow = EntityTestData.makeHTextFlow(i, sourceLocale,
+                    locale, states[i % states.length], "doc" + i,
+                    "version", "project");
+            textFlow.setContents(text.segment(20 + i % 200));
+            HTextFlowTarget target = textFlow.getTargets().get(locale.getId());
+            target.setContents(text.edit(textFlow.getContents().get(0), 0.5));
+            // the plural count comes from the PO header, not the database
+            HPoTargetHeader header = new HPoTargetHeader();
+            header.setEntries("Plural-Forms: nplurals=2; plural=(n != 1)\n");
+            textFlow.getDocument().getPoTargetHeaders().put(locale, header);
+            textFlows.add(textFlow);
+        }
+    }
+
+    @Benchmark
+    public void transformPage(Blackhole blackhole) {
+        for (HTextFlow textFlow : textFlows) {
+            blackhole.consume(transformer.transform(textFlow, locale));
+        }
+    }
+}
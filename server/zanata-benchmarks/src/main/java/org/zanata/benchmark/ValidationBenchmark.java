@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zanata.webtrans.shared.model.ValidationAction;
+import org.zanata.webtrans.shared.model.ValidationId;
+import org.zanata.webtrans.shared.resources.ValidationMessages;
+import org.zanata.webtrans.shared.validation.ValidationFactory;
+
+/**
+ * Each validation action from ValidationFactory, run against a translation
+ * which passes and one which fails, since failures also build messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final String SOURCE =
+            "<p>Hello %s, you have %2$d <b>new</b> messages in {0}.</p>\n"
+                    + "\tClick <a href=\"inbox\">here</a> &amp; reply.\n";
+    private static final String GOOD_TARGET =
+            "<p>Bonjour %s, vous avez %2$d <b>nouveaux</b> messages dans {0}.</p>\n"
+                    + "\tCliquez <a href=\"inbox\">ici</a> &amp; répondez.\n";
+    private static final String BAD_TARGET =
+            "<p>Bonjour, vous avez %d <b>nouveaux messages dans {1}.</p>"
+                    + " Cliquez <a href=\"inbox\">ici</a> & répondez.";
+
+    @Param({ "HTML_XML", "NEW_LINE", "TAB", "JAVA_VARIABLES", "XML_ENTITY",
+            "PRINTF_VARIABLES", "PRINTF_XSI_EXTENSION" })
+    public ValidationId validationId;
+
+    private ValidationAction action;
+
+    @Setup
+    public void setUp() {
+        ValidationFactory factory = new ValidationFactory(messages());
+        action = factory.getValidationAction(validationId);
+    }
+
+    @Benchmark
+    public List<String> validateGoodTranslation() {
+        return action.validate(SOURCE, GOOD_TARGET);
+    }
+
+    @Benchmark
+    public List<String> validateBadTranslation() {
+        return action.validate(SOURCE, BAD_TARGET);
+    }
+
+    /**
+     * The real messages are generated by the GWT compiler, so this returns
+     * each message's method name instead.
+     */
+    private static ValidationMessages messages() {
+        return (ValidationMessages) Proxy.newProxyInstance(
+                ValidationBenchmark.class.getClassLoader(),
+                new Class<?>[] { ValidationMessages.class },
+                (proxy, method, args) -> method.getName());
+    }
+}
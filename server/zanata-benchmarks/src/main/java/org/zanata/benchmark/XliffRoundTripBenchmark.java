@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zanata.adapter.xliff.XliffReader;
+import org.zanata.adapter.xliff.XliffWriter;
+import org.zanata.common.LocaleId;
+import org.zanata.rest.dto.resource.Resource;
+import org.zanata.rest.dto.resource.TranslationsResource;
+
+/**
+ * Writing and parsing XLIFF files with XliffWriter and XliffReader. Both only
+ * work with files, so the benchmark uses temporary files which should stay in
+ * the page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XliffRoundTripBenchmark {
+    private static final String LOCALE = "de";
+
+    @Param({ "100", "1000" })
+    public int textFlows;
+
+    private Resource source;
+    private TranslationsResource translations;
+    private File dir;
+    private File readFile;
+    private File writeFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = SampleDocuments.source("benchmark", textFlows);
+        translations = SampleDocuments.translations(source);
+        dir = Files.createTempDirectory("xliff-benchmark").toFile();
+        readFile = new File(dir, "read.xml");
+        writeFile = new File(dir, "write.xml");
+        XliffWriter.writeFile(readFile, source, LOCALE, translations, false,
+                false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        readFile.delete();
+        writeFile.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public File writeXliff() {
+        XliffWriter.writeFile(writeFile, source, LOCALE, translations, false,
+                false);
+        return writeFile;
+    }
+
+    @Benchmark
+    public Resource readXliffTemplate() throws IOException {
+        return new XliffReader().extractTemplate(readFile, LocaleId.EN_US,
+                "benchmark", "CONTENT");
+    }
+
+    @Benchmark
+    public TranslationsResource readXliffTranslations() throws IOException {
+        return new XliffReader().extractTarget(readFile);
+    }
+
+    @Benchmark
+    public TranslationsResource roundTripXliff() throws IOException {
+        return new XliffReader().extractTarget(writeXliff());
+    }
+}
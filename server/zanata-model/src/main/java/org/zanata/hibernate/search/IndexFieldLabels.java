@@ -31,6 +31,12 @@ public interface IndexFieldLabels {
     public static final String CONTENT_FIELDS[] = { CONTENT + 0, CONTENT + 1,
             CONTENT + 2, CONTENT + 3, CONTENT + 4, CONTENT + 5 };
 
+    /**
+     * Case and accent folded trigrams of all contents, see
+     * {@link TrigramBridge}
+     */
+    public static final String CONTENT_TRIGRAMS = "contentTrigrams";
+
     public static final String TRANS_UNIT_VARIANT_FIELD = "tuv.";
 
     public static final String GLOSSARY_QUALIFIED_NAME = "glossaryEntry.glossary.qualifiedName";
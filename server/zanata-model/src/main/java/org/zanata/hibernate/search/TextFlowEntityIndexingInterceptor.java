@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.hibernate.search;
+
+import org.hibernate.search.indexes.interceptor.EntityIndexingInterceptor;
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+import org.zanata.model.HTextFlow;
+
+/**
+ * Only indexes text flows when the content trigram index is wanted, since
+ * the index holds a document for every text flow and adds to every write of
+ * source text.
+ *
+ * @see TrigramBridge#isIndexMaintained()
+ */
+public class TextFlowEntityIndexingInterceptor
+        implements EntityIndexingInterceptor<HTextFlow> {
+
+    @Override
+    public IndexingOverride onAdd(HTextFlow textFlow) {
+        return TrigramBridge.isIndexMaintained()
+                ? IndexingOverride.APPLY_DEFAULT : IndexingOverride.SKIP;
+    }
+
+    @Override
+    public IndexingOverride onUpdate(HTextFlow textFlow) {
+        return TrigramBridge.isIndexMaintained()
+                ? IndexingOverride.UPDATE : IndexingOverride.SKIP;
+    }
+
+    @Override
+    public IndexingOverride onDelete(HTextFlow textFlow) {
+        // removes anything indexed while the property was set
+        return IndexingOverride.APPLY_DEFAULT;
+    }
+
+    @Override
+    public IndexingOverride onCollectionUpdate(HTextFlow textFlow) {
+        return onUpdate(textFlow);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.hibernate.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.hibernate.search.bridge.LuceneOptions;
+
+/**
+ * Indexes the distinct trigrams (sequences of three code points) of a list of
+ * strings as untokenized terms of a single field, so that a substring search
+ * can be answered by requiring every trigram of the search string.
+ *
+ * Text is folded to lower case and stripped of accents before splitting, so
+ * the index finds a superset of what a case-insensitive database collation
+ * would match. Callers must still check the candidates against the real
+ * contents.
+ *
+ * Only the top-level field named {@link IndexFieldLabels#CONTENT_TRIGRAMS} is
+ * written: when the entity is embedded in another entity's document (e.g.
+ * HTextFlow in HTextFlowTarget) the prefixed field is skipped, to avoid
+ * duplicating the trigrams in every embedding document. Nothing is written
+ * unless {@link #isIndexMaintained()}.
+ */
+public class TrigramBridge extends AbstractFieldBridge {
+    public static final int GRAM_SIZE = 3;
+    static final String KEY_SEARCH_TRIGRAM_INDEX = "zanata.search.trigramIndex";
+
+    /**
+     * The system property zanata.search.trigramIndex may be "index", to
+     * maintain the index (eg while it is being built) without searching it,
+     * or "true", to maintain and search it.
+     *
+     * @return whether trigrams should be written to the index
+     */
+    public static boolean isIndexMaintained() {
+        String value = System.getProperty(KEY_SEARCH_TRIGRAM_INDEX, "false");
+        return "index".equalsIgnoreCase(value)
+                || Boolean.parseBoolean(value);
+    }
+
+    @Override
+    public void set(String name, Object value, Document luceneDocument,
+            LuceneOptions luceneOptions) {
+        if (!IndexFieldLabels.CONTENT_TRIGRAMS.equals(name)
+                || !isIndexMaintained()) {
+            return;
+        }
+        if (!(value instanceof List<?>)) {
+            throw new IllegalArgumentException(
+                    "this bridge must be applied to a List");
+        }
+        @SuppressWarnings("unchecked")
+        List<String> strings = (List<String>) value;
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String string : strings) {
+            if (string != null) {
+                trigrams.addAll(trigrams(string));
+            }
+        }
+        FieldType fieldType = translateFieldType(luceneOptions);
+        for (String trigram : trigrams) {
+            luceneDocument.add(new Field(name, trigram, fieldType));
+        }
+    }
+
+    /**
+     * @return the distinct trigrams of the folded text, or an empty set if
+     *         the text is shorter than three code points
+     */
+    public static Set<String> trigrams(String text) {
+        int[] codePoints = fold(text).codePoints().toArray();
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= codePoints.length; i++) {
+            trigrams.add(new String(codePoints, i, GRAM_SIZE));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Lower-cases each code point and removes combining marks. Code points
+     * are folded independently, so that the folded form of a substring is
+     * always a substring of the folded text.
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        decomposed.codePoints()
+                .filter(cp -> Character.getType(
+                        cp) != Character.NON_SPACING_MARK)
+                .map(Character::toLowerCase)
+                .forEach(sb::appendCodePoint);
+        return sb.toString();
+    }
+}
@@ -59,10 +59,14 @@ import org.hibernate.annotations.NaturalId;
 import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.FieldBridge;
+import org.hibernate.search.annotations.Indexed;
 import org.hibernate.validator.constraints.NotEmpty;
 import org.zanata.common.HasContents;
 import org.zanata.common.LocaleId;
 import org.zanata.hibernate.search.ContainingWorkspaceBridge;
+import org.zanata.hibernate.search.IndexFieldLabels;
+import org.zanata.hibernate.search.TextFlowEntityIndexingInterceptor;
+import org.zanata.hibernate.search.TrigramBridge;
 import org.zanata.model.po.HPotEntryData;
 import org.zanata.util.HashUtil;
 import org.zanata.util.OkapiUtil;
@@ -84,6 +88,7 @@ import io.leangen.graphql.annotations.types.GraphQLType;
 @Cacheable
 @NamedQueries({ @NamedQuery(name = HTextFlow.QUERY_GET_BY_DOC_AND_RES_ID_BATCH,
         query = "select distinct tf from HTextFlow tf left join fetch tf.targets tft left join fetch tft.history where tf.document = :document and tf.resId in (:resIds) and tf.obsolete = false") })
+@Indexed(interceptor = TextFlowEntityIndexingInterceptor.class)
 @GraphQLType(name = "TextFlow")
 public class HTextFlow extends HTextContainer implements Serializable,
         ITextFlowHistory, HasSimpleComment, HasContents, ITextFlow {
@@ -232,6 +237,8 @@ public class HTextFlow extends HTextContainer implements Serializable,
     @Override
     @NotEmpty
     @Transient
+    @Field(name = IndexFieldLabels.CONTENT_TRIGRAMS, analyze = Analyze.NO,
+            bridge = @FieldBridge(impl = TrigramBridge.class))
     public List<String> getContents() {
         List<String> contents = new ArrayList<String>();
         boolean populating = false;
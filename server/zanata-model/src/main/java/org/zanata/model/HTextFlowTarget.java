@@ -53,6 +53,7 @@ import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.AnalyzerDiscriminator;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.FieldBridge;
+import org.hibernate.search.annotations.Fields;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
 import org.hibernate.search.annotations.Parameter;
@@ -64,6 +65,7 @@ import org.zanata.hibernate.search.TextFlowTargetEntityIndexingInterceptor;
 import org.zanata.hibernate.search.IndexFieldLabels;
 import org.zanata.hibernate.search.LocaleIdBridge;
 import org.zanata.hibernate.search.StringListBridge;
+import org.zanata.hibernate.search.TrigramBridge;
 import org.zanata.hibernate.search.TextContainerAnalyzerDiscriminator;
 import org.zanata.model.type.EntityType;
 import org.zanata.model.type.EntityTypeType;
@@ -254,10 +256,16 @@ public class HTextFlowTarget extends ModelEntityBase
 
     @Override
     @Transient
-    @Field(name = IndexFieldLabels.CONTENT,
-            bridge = @FieldBridge(impl = StringListBridge.class,
-                    params = { @Parameter(name = "case", value = "fold"),
-                            @Parameter(name = "ngrams", value = "multisize") }))
+    @Fields({
+            @Field(name = IndexFieldLabels.CONTENT,
+                    bridge = @FieldBridge(impl = StringListBridge.class,
+                            params = {
+                                    @Parameter(name = "case", value = "fold"),
+                                    @Parameter(name = "ngrams",
+                                            value = "multisize") })),
+            @Field(name = IndexFieldLabels.CONTENT_TRIGRAMS,
+                    analyze = Analyze.NO,
+                    bridge = @FieldBridge(impl = TrigramBridge.class)) })
     @AnalyzerDiscriminator(impl = TextContainerAnalyzerDiscriminator.class)
     public List<String> getContents() {
         List<String> contents = new ArrayList<String>();
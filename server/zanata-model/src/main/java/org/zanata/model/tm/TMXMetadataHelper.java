@@ -25,6 +25,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.XMLConstants;
 import nu.xom.Attribute;
 import nu.xom.Document;
@@ -217,7 +218,31 @@ public class TMXMetadataHelper {
      */
     public static void setMetadata(TransMemoryUnit toTransUnit,
             @Nonnull Element fromTuElem, String tmSrcLang) {
-        Map<String, Object> metadata = buildMetadata(fromTuElem);
+        setMetadata(toTransUnit, buildMetadata(fromTuElem), tmSrcLang);
+    }
+
+    /**
+     * Sets all the TU's metadata from attributes and children which have
+     * already been read from a {@code <tu>} element.
+     *
+     * @param toTransUnit
+     * @param fromAttributes
+     *            TMX attributes (and xml:lang) of the tu element
+     * @param fromChildrenXml
+     *            XML of the supported child elements, without namespace
+     * @param tmSrcLang
+     *            srclang to use if the TU does not specify srclang
+     * @see #isSupportedChild(String, String)
+     */
+    public static void setMetadata(TransMemoryUnit toTransUnit,
+            @Nonnull Map<String, String> fromAttributes,
+            @Nonnull List<String> fromChildrenXml, String tmSrcLang) {
+        setMetadata(toTransUnit,
+                buildMetadata(fromAttributes, fromChildrenXml), tmSrcLang);
+    }
+
+    private static void setMetadata(TransMemoryUnit toTransUnit,
+            Map<String, Object> metadata, String tmSrcLang) {
         String tuid = (String) metadata.remove(TUID);
         if (tuid != null) {
             toTransUnit.setTransUnitId(tuid);
@@ -243,13 +268,33 @@ public class TMXMetadataHelper {
     public static void setMetadata(TransMemoryUnitVariant toTuv,
             Element fromTuvElem) throws TMXParseException {
         Map<String, Object> metadata = buildMetadata(fromTuvElem);
-        String lang = (String) metadata.remove(XML_LANG);
-        if (lang != null) {
-            toTuv.setLanguage(getValidLang(lang));
-        } else {
+        if (!metadata.containsKey(XML_LANG)) {
             throw new TMXParseException(
                     "missing xml:lang in tuv: " + fromTuvElem.toXML());
         }
+        setMetadata(toTuv, metadata);
+    }
+
+    /**
+     * Sets all the TUV's metadata from attributes and children which have
+     * already been read from a {@code <tuv>} element.
+     *
+     * @throws TMXParseException
+     * @see #setMetadata(TransMemoryUnit, Map, List, String)
+     */
+    public static void setMetadata(TransMemoryUnitVariant toTuv,
+            @Nonnull Map<String, String> fromAttributes,
+            @Nonnull List<String> fromChildrenXml) throws TMXParseException {
+        if (!fromAttributes.containsKey(XML_LANG)) {
+            throw new TMXParseException("missing xml:lang in tuv");
+        }
+        setMetadata(toTuv, buildMetadata(fromAttributes, fromChildrenXml));
+    }
+
+    private static void setMetadata(TransMemoryUnitVariant toTuv,
+            Map<String, Object> metadata) {
+        String lang = (String) metadata.remove(XML_LANG);
+        toTuv.setLanguage(getValidLang(lang));
         setSharedMetadata(toTuv, metadata);
     }
 
@@ -298,24 +343,47 @@ public class TMXMetadataHelper {
     }
 
     private static Map<String, Object> buildMetadata(Element fromElem) {
-        Map<String, Object> metadata = Maps.newHashMap();
+        Map<String, String> attributes = Maps.newHashMap();
         for (int i = 0; i < fromElem.getAttributeCount(); i++) {
             Attribute attr = fromElem.getAttribute(i);
-            String uri = attr.getNamespaceURI();
-            String name = attr.getLocalName();
-            if (inTmxNamespace(uri)) {
-                String value = attr.getValue();
-                metadata.put(name, value);
-            } else if (attr.getQualifiedName().equals(XML_LANG)) {
-                String value = attr.getValue();
-                metadata.put(attr.getQualifiedName(), value);
+            String name = getMetadataAttributeName(attr.getNamespaceURI(),
+                    attr.getLocalName(), attr.getQualifiedName());
+            if (name != null) {
+                attributes.put(name, attr.getValue());
             }
         }
-        List<String> childrenXml = getChildrenAsXml(fromElem);
+        return buildMetadata(attributes, getChildrenAsXml(fromElem));
+    }
+
+    private static Map<String, Object> buildMetadata(
+            Map<String, String> attributes, List<String> childrenXml) {
+        Map<String, Object> metadata = Maps.newHashMap(attributes);
         metadata.put(TMX_ELEMENT_CHILDREN, childrenXml);
         return metadata;
     }
 
+    /**
+     * Returns the metadata key for an attribute of a TMX element, or null if
+     * the attribute is not kept as metadata.
+     *
+     * @param uri
+     *            namespace of the attribute
+     * @param localName
+     *            local name of the attribute
+     * @param qualifiedName
+     *            prefixed name of the attribute
+     */
+    @Nullable
+    public static String getMetadataAttributeName(String uri,
+            String localName, String qualifiedName) {
+        if (inTmxNamespace(uri)) {
+            return localName;
+        } else if (qualifiedName.equals(XML_LANG)) {
+            return qualifiedName;
+        }
+        return null;
+    }
+
     /**
      * Build a list of supported child Elements in XML string form
      *
@@ -333,17 +401,15 @@ public class TMXMetadataHelper {
     }
 
     /**
-     * Supported children are currently {@code <prop>} and {@code <note>}.
+     * Adds the XML of the child element if it is supported.
      *
+     * @see #isSupportedChild(String, String)
      * @param child
      * @param childrenXml
      */
     private static void addChildIfSupported(Element child,
             Builder<String> childrenXml) {
-        String uri = child.getNamespaceURI();
-        String name = child.getLocalName();
-        if (inTmxNamespace(uri)
-                && (name.equals("prop") || name.equals("note"))) {
+        if (isSupportedChild(child.getNamespaceURI(), child.getLocalName())) {
             Element copy = (Element) child.copy();
             copy.setNamespacePrefix("");
             copy.setNamespaceURI("");
@@ -351,6 +417,15 @@ public class TMXMetadataHelper {
         }
     }
 
+    /**
+     * Whether a child element is kept in the metadata. Supported children are
+     * currently {@code <prop>} and {@code <note>}.
+     */
+    public static boolean isSupportedChild(String uri, String localName) {
+        return inTmxNamespace(uri)
+                && (localName.equals("prop") || localName.equals("note"));
+    }
+
     private static boolean inTmxNamespace(String uri) {
         return uri.equals(EMPTY_NAMESPACE)
                 || uri.equals(TMXConstants.TMX14_NAMESPACE);
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018, Red Hat, Inc. and individual contributors as indicated by the
+ * @author tags. See the copyright.txt file in the distribution for a full
+ * listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.zanata.hibernate.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TrigramBridgeTest {
+
+    @After
+    public void clearProperty() {
+        System.clearProperty(TrigramBridge.KEY_SEARCH_TRIGRAM_INDEX);
+    }
+
+    @Test
+    public void indexIsOnlyMaintainedWhenConfigured() {
+        assertThat(TrigramBridge.isIndexMaintained()).isFalse();
+        System.setProperty(TrigramBridge.KEY_SEARCH_TRIGRAM_INDEX, "false");
+        assertThat(TrigramBridge.isIndexMaintained()).isFalse();
+        System.setProperty(TrigramBridge.KEY_SEARCH_TRIGRAM_INDEX, "index");
+        assertThat(TrigramBridge.isIndexMaintained()).isTrue();
+        System.setProperty(TrigramBridge.KEY_SEARCH_TRIGRAM_INDEX, "true");
+        assertThat(TrigramBridge.isIndexMaintained()).isTrue();
+    }
+
+    @Test
+    public void shortTextHasNoTrigrams() {
+        assertThat(TrigramBridge.trigrams("ab")).isEmpty();
+    }
+
+    @Test
+    public void trigramsAreDistinctAndFolded() {
+        assertThat(TrigramBridge.trigrams("AbAbA"))
+                .containsExactly("aba", "bab");
+    }
+
+    @Test
+    public void foldingIgnoresCaseAndAccents() {
+        assertThat(TrigramBridge.fold("Caf\u00E9 \u00C9T\u00C9")).isEqualTo("cafe ete");
+    }
+
+    @Test
+    public void substringTrigramsAreContainedInTextTrigrams() {
+        String text = "\u00DCn\u00EFc\u00F6d\u00E9 \uD835\uDCB3\uD835\uDCB4\uD835\uDCB5 text with \u039F\u0394\u039F\u03A3";
+        String search = "ICODE \uD835\uDCB3\uD835\uDCB4";
+        assertThat(TrigramBridge.trigrams(text))
+                .containsAll(TrigramBridge.trigrams(search));
+        assertThat(TrigramBridge.trigrams("\u0394\u039F\u03A3"))
+                .isSubsetOf(TrigramBridge.trigrams(text));
+    }
+}
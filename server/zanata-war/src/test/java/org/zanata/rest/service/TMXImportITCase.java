@@ -25,15 +25,20 @@ import java.io.ByteArrayInputStream;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.assertj.core.api.Assertions;
 import org.dbunit.operation.DatabaseOperation;
+import org.hibernate.search.jpa.Search;
 import org.junit.Before;
 import org.junit.Test;
 import org.zanata.ArquillianTest;
 import org.zanata.model.tm.TransMemory;
+import org.zanata.model.tm.TransMemoryUnit;
 import org.zanata.provider.DBUnitProvider;
 import org.zanata.security.SimplePrincipal;
 import org.zanata.security.ZanataIdentity;
+import org.zanata.tmx.TMXBulkImporter;
+import org.zanata.util.TMXParseException;
 import com.google.common.base.Charsets;
 
 import static org.zanata.util.RandomStringUtils.randomAlphabetic;
@@ -54,7 +59,16 @@ public class TMXImportITCase extends ArquillianTest {
     @Inject
     private EntityManager entityManager;
 
+    @Inject
+    private TMXBulkImporter tmxBulkImporter;
+
     private static String generateTestTMXContent() {
+        // batch size is 100 ATM in org.zanata.tmx.TMXParser
+        return generateTestTMXContent(totalTranslationUnit, "");
+    }
+
+    private static String generateTestTMXContent(int validUnits,
+            String lastUnit) {
         String bodyStart = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
 //                    "<!DOCTYPE tmx SYSTEM \"http://www.lisa.org/tmx/tmx14.dtd\">\n" +
                 "<tmx version=\"1.4\">\n" +
@@ -64,12 +78,11 @@ public class TMXImportITCase extends ArquillianTest {
                 "    datatype=\"unknown\"/>\n" +
                 "  <body>";
         String bodyEnd = "  </body></tmx>";
-        String transUnits = "";
-        // batch size is 100 ATM in org.zanata.tmx.TMXParser
-        for (int i = 0; i < totalTranslationUnit; i++) {
-            transUnits += makeSingleTU();
+        StringBuilder transUnits = new StringBuilder();
+        for (int i = 0; i < validUnits; i++) {
+            transUnits.append(makeSingleTU());
         }
-        return bodyStart + transUnits + bodyEnd;
+        return bodyStart + transUnits + lastUnit + bodyEnd;
     }
 
     private static String makeSingleTU() {
@@ -117,4 +130,36 @@ public class TMXImportITCase extends ArquillianTest {
         Assertions.assertThat(tm.getTranslationUnits())
                 .hasSize(totalTranslationUnit);
     }
+
+    @Test
+    public void bulkImportIndexesUnitsWrittenBeforeFailure()
+            throws Exception {
+        // the first batch of 500 units is written before the bad unit is
+        // converted
+        String tmxContent = generateTestTMXContent(501,
+                "<tu><tuv xml:lang=\"pl\"></tuv></tu>");
+        TransMemory tm = entityManager
+                .createQuery("from TransMemory where slug = 'tm-test'",
+                        TransMemory.class).getSingleResult();
+        int indexedBefore = countIndexedUnits();
+
+        Assertions.assertThatThrownBy(() -> tmxBulkImporter.importTMX(
+                new ByteArrayInputStream(tmxContent.getBytes(Charsets.UTF_8)),
+                tm)).isInstanceOf(TMXParseException.class);
+
+        long written = entityManager.createQuery(
+                "select count(*) from TransMemoryUnit tu "
+                        + "where tu.translationMemory.slug = 'tm-test'",
+                Long.class).getSingleResult();
+        Assertions.assertThat(written).isEqualTo(500);
+        Assertions.assertThat(countIndexedUnits() - indexedBefore)
+                .isEqualTo(written);
+    }
+
+    private int countIndexedUnits() {
+        return Search.getFullTextEntityManager(entityManager)
+                .createFullTextQuery(new MatchAllDocsQuery(),
+                        TransMemoryUnit.class)
+                .getResultSize();
+    }
 }
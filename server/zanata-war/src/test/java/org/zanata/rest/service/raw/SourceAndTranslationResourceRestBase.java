@@ -431,6 +431,27 @@ public abstract class SourceAndTranslationResourceRestBase extends RestTest {
                 }
             }.runWithResult();
         }
+
+        @Override
+        public Response getSyncManifest(Set<String> extensions,
+                Set<LocaleId> locales) {
+            return new ResourceRequest(
+                    getRestEndpointUrl(
+                            "/projects/p/sample-project/iterations/i/1.0/manifest"),
+                    "GET", getAuthorizedEnvironment()) {
+                @Override
+                protected Invocation.Builder prepareRequest(
+                        ResteasyWebTarget webTarget) {
+                    return addExtensionToRequest(extensions, webTarget)
+                            .queryParam("locale", locales.toArray())
+                            .request();
+                }
+
+                @Override
+                protected void onResponse(Response response) {
+                }
+            }.runWithResult();
+        }
     }
 
     public class TranslatedDocClient implements TranslatedDocResource {
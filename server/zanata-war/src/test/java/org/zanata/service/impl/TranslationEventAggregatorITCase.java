@@ -0,0 +1,142 @@
+package org.zanata.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+import javax.transaction.UserTransaction;
+
+import org.dbunit.operation.DatabaseOperation;
+import org.junit.Before;
+import org.junit.Test;
+import org.zanata.ArquillianTest;
+import org.zanata.common.ContentState;
+import org.zanata.common.LocaleId;
+import org.zanata.events.DocStatsEvent;
+import org.zanata.events.DocumentLocaleKey;
+import org.zanata.events.TextFlowTargetStateEvent;
+import org.zanata.events.TextFlowTargetStateEvent.TextFlowTargetStateChange;
+import org.zanata.provider.DBUnitProvider.DataSetOperation;
+import com.google.common.collect.ImmutableMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that events aggregated until commit reach transactional observers
+ * in a real JTA transaction.
+ */
+public class TranslationEventAggregatorITCase extends ArquillianTest {
+    private static final long VERSION_ID = 1L;
+    private static final DocumentLocaleKey KEY =
+            new DocumentLocaleKey(1L, LocaleId.DE);
+
+    @Inject
+    private TranslationEventAggregator aggregator;
+    @Inject
+    private UserTransaction transaction;
+    @Inject
+    private RecordingObserver observer;
+
+    @Override
+    protected void prepareDBUnitOperations() {
+        addBeforeTestOperation(new DataSetOperation(
+                "org/zanata/test/model/AccountData.dbunit.xml",
+                DatabaseOperation.CLEAN_INSERT));
+        addBeforeTestOperation(new DataSetOperation(
+                "org/zanata/test/model/ProjectsData.dbunit.xml",
+                DatabaseOperation.CLEAN_INSERT));
+    }
+
+    @Before
+    public void setUp() {
+        observer.clear();
+    }
+
+    private static DocStatsEvent stats(long words) {
+        return new DocStatsEvent(KEY, VERSION_ID,
+                ImmutableMap.of(ContentState.Translated, words), 1L);
+    }
+
+    private static TextFlowTargetStateEvent state(long textFlowId) {
+        return new TextFlowTargetStateEvent(KEY, VERSION_ID, null,
+                new TextFlowTargetStateChange(textFlowId, textFlowId + 1000,
+                        ContentState.Translated, ContentState.New));
+    }
+
+    @Test
+    public void afterSuccessObserversReceiveMergedEventsOnCommit()
+            throws Exception {
+        transaction.begin();
+        aggregator.fireAtCommit(state(1L));
+        aggregator.fireAtCommit(stats(3));
+        aggregator.fireAtCommit(state(2L));
+        aggregator.fireAtCommit(stats(4));
+
+        assertThat(observer.statsInTransaction).isEmpty();
+        assertThat(observer.committedStats).isEmpty();
+        transaction.commit();
+
+        // plain observers still run inside the transaction
+        assertThat(observer.statsInTransaction).hasSize(1);
+        assertThat(observer.transactionActiveDuringObserver).isTrue();
+        assertThat(observer.committedStats).hasSize(1);
+        assertThat(observer.committedStats.get(0).getWordDeltasByState())
+                .containsEntry(ContentState.Translated, 7L);
+        assertThat(observer.committedStates).hasSize(1);
+        assertThat(observer.committedStates.get(0).getStates())
+                .extracting("textFlowId").containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void afterSuccessObserversAreSkippedOnRollback() throws Exception {
+        transaction.begin();
+        aggregator.fireAtCommit(state(1L));
+        aggregator.fireAtCommit(stats(3));
+        transaction.rollback();
+
+        assertThat(observer.committedStats).isEmpty();
+        assertThat(observer.committedStates).isEmpty();
+    }
+
+    @ApplicationScoped
+    public static class RecordingObserver {
+        @Inject
+        private TransactionSynchronizationRegistry txRegistry;
+        final List<DocStatsEvent> statsInTransaction =
+                new CopyOnWriteArrayList<>();
+        final List<DocStatsEvent> committedStats =
+                new CopyOnWriteArrayList<>();
+        final List<TextFlowTargetStateEvent> committedStates =
+                new CopyOnWriteArrayList<>();
+        volatile boolean transactionActiveDuringObserver;
+
+        void clear() {
+            statsInTransaction.clear();
+            committedStats.clear();
+            committedStates.clear();
+            transactionActiveDuringObserver = false;
+        }
+
+        void onStats(@Observes DocStatsEvent event) {
+            transactionActiveDuringObserver = txRegistry
+                    .getTransactionStatus() == Status.STATUS_ACTIVE;
+            statsInTransaction.add(event);
+        }
+
+        void onCommittedStats(
+                @Observes(during = TransactionPhase.AFTER_SUCCESS)
+                DocStatsEvent event) {
+            committedStats.add(event);
+        }
+
+        void onCommittedStates(
+                @Observes(during = TransactionPhase.AFTER_SUCCESS)
+                TextFlowTargetStateEvent event) {
+            committedStates.add(event);
+        }
+    }
+}